@@ -1,3 +1,14 @@
+import services.AnalyticsService;
+import services.ArchiveService;
+import services.DemandTracker;
+import services.LifecycleService;
+import services.MaintenanceScheduler;
+import services.MetricsExporter;
+import services.NotificationDispatcher;
+import services.PricingService;
+import services.RideScheduleService;
+import services.SeatHoldManager;
+import services.SeatLedger;
 import utils.DBConnection;
 import views.LoginView;
 
@@ -15,6 +26,7 @@ public class App {
             System.exit(1);
         }
 
+        startBackgroundServices();
         configureUI();
 
         SwingUtilities.invokeLater(() -> {
@@ -34,6 +46,33 @@ public class App {
         }
     }
 
+    private static void startBackgroundServices() {
+        SeatLedger seatLedger = SeatLedger.getInstance();
+        SeatHoldManager seatHolds = SeatHoldManager.getInstance();
+        seatHolds.recover();
+        seatLedger.recover();
+        DemandTracker demand = DemandTracker.getInstance();
+        demand.recover();
+        PricingService.getInstance().refresh();
+
+        MaintenanceScheduler scheduler = MaintenanceScheduler.getInstance();
+        new LifecycleService().scheduleOn(scheduler);
+        new ArchiveService().scheduleOn(scheduler);
+        new RideScheduleService().scheduleOn(scheduler);
+        new AnalyticsService().scheduleOn(scheduler);
+        demand.scheduleOn(scheduler);
+        MetricsExporter metrics = new MetricsExporter();
+        metrics.scheduleOn(scheduler);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            seatHolds.shutdown();
+            seatLedger.shutdown();
+            scheduler.shutdown();
+            NotificationDispatcher.getInstance().shutdown();
+            demand.shutdown();
+            metrics.shutdown();
+        }, "carpool-shutdown"));
+    }
+
     private static void configureUI() {
         try {
             UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName());
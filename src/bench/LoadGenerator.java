@@ -0,0 +1,543 @@
+package bench;
+
+import models.User;
+import services.AuthService;
+import services.BookingService;
+import services.NotificationDispatcher;
+import services.ReportService;
+import services.RideService;
+import services.SeatHoldManager;
+import services.SeatLedger;
+import utils.DBConnection;
+import utils.Histogram;
+import utils.Log;
+import utils.Metrics;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Seeds a throwaway database with a semester's worth of students, drivers,
+ * rides and bookings, then replays a weighted mix of searches, bookings,
+ * cancellations, reports and logins against the service layer from many
+ * threads. Places, rides and users are drawn with Zipf-skewed popularity,
+ * so a handful of routes and rides stay hot and bookings collide the way
+ * they do in the first week of term.
+ *
+ * The seed data and every thread's sequence of operations depend only on
+ * the seed (dates are relative to today); only the interleaving varies
+ * between runs.
+ *
+ * Usage: java -cp "bin:lib/*" bench.LoadGenerator [key=value ...]
+ *   db=loadtest.db users=2000 drivers=300 rides=3000 bookings=4000
+ *   threads=16 seconds=30 seed=42
+ *   mix=search:60,book:20,cancel:8,report:2,login:10
+ */
+public class LoadGenerator {
+
+    // Roughly in order of how often students travel there
+    private static final String[] PLACES = {
+        "BPDC Campus", "Dubai International Academic City", "Al Barsha", "Dubai Silicon Oasis",
+        "Mall of the Emirates", "Dubai Mall", "Dubai Marina", "JLT", "Academic City", "Karama",
+        "Al Nahda", "Mirdif", "Deira City Centre", "JBR", "Bur Dubai", "Business Bay",
+        "Dubai Internet City", "Greens & Tecom", "Ibn Battuta Mall", "City Walk", "Global Village",
+        "Dubai Knowledge Park", "Amity University", "Heriot-Watt University", "Al Rigga",
+        "Al Quoz", "BoxPark", "Muhaisnah", "Al Rashidiya", "Dubai Festival City", "Al Safa Park"
+    };
+
+    private static final String[] VEHICLES = {"Toyota Corolla", "Nissan Sunny", "Honda Civic", "Kia Picanto", "Hyundai Accent"};
+
+    private static final String[] REPORT_REASONS = {"Late pickup", "Rude behaviour", "No show", "Unsafe driving"};
+
+    enum Op { SEARCH, BOOK, CANCEL, REPORT, LOGIN }
+
+    private final Map<String, String> options;
+    private final long seed;
+    private final int users;
+    private final int drivers;
+    private final int rides;
+
+    private final Zipf places;
+    private final Zipf hotRides;
+    private final Zipf activeUsers;
+    private final Zipf activePassengers;
+    private final List<int[]> seededBookings = new ArrayList<>();
+
+    private final Map<Op, Histogram> latency = new EnumMap<>(Op.class);
+    private final Map<Op, LongAdder> succeeded = new EnumMap<>(Op.class);
+    private final Map<Op, LongAdder> failed = new EnumMap<>(Op.class);
+    private final Map<Op, LongAdder> errors = new EnumMap<>(Op.class);
+    private final AtomicReference<Throwable> firstError = new AtomicReference<>();
+
+    public LoadGenerator(Map<String, String> options) {
+        this.options = options;
+        this.seed = Long.parseLong(options.get("seed"));
+        this.users = Integer.parseInt(options.get("users"));
+        this.drivers = Math.min(Integer.parseInt(options.get("drivers")), users);
+        this.rides = Integer.parseInt(options.get("rides"));
+        this.places = new Zipf(PLACES.length, 1.1);
+        this.hotRides = new Zipf(rides, 0.9);
+        this.activeUsers = new Zipf(users, 0.6);
+        this.activePassengers = new Zipf(Math.max(1, users - drivers), 0.6);
+        for (Op op : Op.values()) {
+            latency.put(op, new Histogram());
+            succeeded.put(op, new LongAdder());
+            failed.put(op, new LongAdder());
+            errors.put(op, new LongAdder());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        options.put("db", "loadtest.db");
+        options.put("users", "2000");
+        options.put("drivers", "300");
+        options.put("rides", "3000");
+        options.put("bookings", "4000");
+        options.put("threads", "16");
+        options.put("seconds", "30");
+        options.put("seed", "42");
+        options.put("mix", "search:60,book:20,cancel:8,report:2,login:10");
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq < 0 || !options.containsKey(arg.substring(0, eq))) {
+                System.err.println("Unknown option: " + arg + " (known: " + options.keySet() + ")");
+                System.exit(2);
+            }
+            options.put(arg.substring(0, eq), arg.substring(eq + 1));
+        }
+
+        String db = options.get("db");
+        if (new File(db).getName().equals("campuscarpool.db")) {
+            System.err.println("Refusing to overwrite the application database; pick another db=");
+            System.exit(2);
+        }
+        for (String suffix : new String[]{"", "-wal", "-shm"}) {
+            new File(db + suffix).delete();
+        }
+
+        // Must be set before DBConnection and AWT are first touched
+        System.setProperty("carpool.db", db);
+        System.setProperty("java.awt.headless", "true");
+        if (System.getProperty("carpool.log.console") == null) {
+            System.setProperty("carpool.log.console", "false");
+        }
+
+        new LoadGenerator(options).run();
+    }
+
+    public void run() throws Exception {
+        DBConnection.initializeDatabase();
+
+        long start = System.nanoTime();
+        populate();
+        System.out.printf("Seeded %d users (%d drivers), %d places, %d rides, %d bookings in %.1f s%n",
+                          users, drivers, PLACES.length, rides, seededBookings.size(),
+                          (System.nanoTime() - start) / 1e9);
+
+        SeatLedger seatLedger = SeatLedger.getInstance();
+        SeatHoldManager.getInstance().recover();
+        seatLedger.recover();
+
+        Map<String, Long> countersBefore = Metrics.counterValues();
+        int threads = Integer.parseInt(options.get("threads"));
+        long seconds = Long.parseLong(options.get("seconds"));
+        Op[] mix = parseMix(options.get("mix"));
+
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        Thread[] workers = new Thread[threads];
+        start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            Random random = new Random(seed * 31 + t);
+            workers[t] = new Thread(() -> work(random, mix, deadline), "load-" + t);
+            workers[t].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        double elapsed = (System.nanoTime() - start) / 1e9;
+
+        seatLedger.shutdown();
+        NotificationDispatcher.getInstance().shutdown();
+        report(threads, elapsed, countersBefore, Metrics.counterValues());
+        Log.shutdown();
+    }
+
+    // ---------------------------------------------------------------------
+    // Seeding: straight JDBC batches in a single transaction
+    // ---------------------------------------------------------------------
+
+    private void populate() throws SQLException {
+        Random random = new Random(seed);
+        try (Connection conn = DBConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            seedPlaces(conn);
+            seedUsers(conn, random);
+            int[] seatsLeft = seedRides(conn, random);
+            seedBookings(conn, random, seatsLeft);
+            conn.commit();
+            conn.setAutoCommit(true);
+        }
+    }
+
+    private void seedPlaces(Connection conn) throws SQLException {
+        try (PreparedStatement insert = conn.prepareStatement(
+                "INSERT OR IGNORE INTO destinations (name) VALUES (?)")) {
+            for (String place : PLACES) {
+                insert.setString(1, place);
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+    }
+
+    private void seedUsers(Connection conn, Random random) throws SQLException {
+        try (PreparedStatement user = conn.prepareStatement(
+                 "INSERT INTO users (id, name, roll_number, email, password, role) VALUES (?, ?, ?, ?, ?, ?)");
+             PreparedStatement passenger = conn.prepareStatement(
+                 "INSERT INTO passengers (user_id, preferred_destination) VALUES (?, ?)");
+             PreparedStatement driver = conn.prepareStatement(
+                 "INSERT INTO drivers (user_id, license_number, vehicle_model, vehicle_number, seats_available) " +
+                 "VALUES (?, ?, ?, ?, ?)")) {
+            for (int id = 1; id <= users; id++) {
+                user.setInt(1, id);
+                user.setString(2, name(id));
+                user.setString(3, rollNumber(id));
+                user.setString(4, email(id));
+                user.setString(5, password(id));
+                user.setString(6, id <= drivers ? "BOTH" : "PASSENGER");
+                user.addBatch();
+
+                passenger.setInt(1, id);
+                passenger.setString(2, PLACES[places.next(random)]);
+                passenger.addBatch();
+
+                if (id <= drivers) {
+                    driver.setInt(1, id);
+                    driver.setString(2, "DL" + (100000 + id));
+                    driver.setString(3, VEHICLES[id % VEHICLES.length]);
+                    driver.setString(4, "D " + (10000 + id));
+                    driver.setInt(5, 4);
+                    driver.addBatch();
+                }
+            }
+            user.executeBatch();
+            passenger.executeBatch();
+            driver.executeBatch();
+        }
+    }
+
+    private int[] seedRides(Connection conn, Random random) throws SQLException {
+        int[] seatsLeft = new int[rides + 1];
+        LocalDate today = LocalDate.now();
+        try (PreparedStatement insert = conn.prepareStatement(
+                "INSERT INTO rides (id, driver_id, driver_name, origin, destination, departure_date, " +
+                "departure_time, seats_available, seats_total, price_per_seat, status, vehicle_info, " +
+                "departure_epoch) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 'ACTIVE', ?, ?)")) {
+            for (int id = 1; id <= rides; id++) {
+                int driver = 1 + random.nextInt(drivers);
+                int origin = places.next(random);
+                int destination;
+                do {
+                    destination = places.next(random);
+                } while (destination == origin);
+                LocalDate date = today.plusDays(random.nextInt(14));
+                LocalTime time = departureTime(random);
+                int seats = 2 + random.nextInt(3);
+                seatsLeft[id] = seats;
+
+                insert.setInt(1, id);
+                insert.setInt(2, driver);
+                insert.setString(3, name(driver));
+                insert.setString(4, PLACES[origin]);
+                insert.setString(5, PLACES[destination]);
+                insert.setString(6, date.toString());
+                insert.setString(7, time.toString());
+                insert.setInt(8, seats);
+                insert.setInt(9, seats);
+                insert.setDouble(10, 10 + 5 * random.nextInt(6));
+                insert.setString(11, VEHICLES[driver % VEHICLES.length] + " (D " + (10000 + driver) + ")");
+                insert.setLong(12, LocalDateTime.of(date, time).toEpochSecond(ZoneOffset.UTC));
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+        return seatsLeft;
+    }
+
+    private void seedBookings(Connection conn, Random random, int[] seatsLeft) throws SQLException {
+        int attempts = Integer.parseInt(options.get("bookings"));
+        Set<Long> booked = new HashSet<>();
+        int bookingId = 0;
+        try (PreparedStatement insert = conn.prepareStatement(
+                 "INSERT INTO bookings (id, ride_id, passenger_id, status, seats_booked) VALUES (?, ?, ?, 'CONFIRMED', 1)");
+             PreparedStatement seats = conn.prepareStatement(
+                 "UPDATE rides SET seats_available = ? WHERE id = ?")) {
+            for (int i = 0; i < attempts; i++) {
+                int ride = 1 + hotRides.next(random);
+                // Users 1..drivers drive; everyone after them only rides
+                int passenger = drivers + 1 + activePassengers.next(random);
+                if (passenger > users || seatsLeft[ride] == 0
+                        || !booked.add(((long) ride << 32) | passenger)) {
+                    continue;
+                }
+                seatsLeft[ride]--;
+                bookingId++;
+                insert.setInt(1, bookingId);
+                insert.setInt(2, ride);
+                insert.setInt(3, passenger);
+                insert.addBatch();
+                seededBookings.add(new int[]{bookingId, passenger});
+            }
+            insert.executeBatch();
+
+            for (int ride = 1; ride <= rides; ride++) {
+                seats.setInt(1, seatsLeft[ride]);
+                seats.setInt(2, ride);
+                seats.addBatch();
+            }
+            seats.executeBatch();
+        }
+    }
+
+    // Morning and evening peaks around classes, the rest spread over the day
+    private static LocalTime departureTime(Random random) {
+        double p = random.nextDouble();
+        int hour;
+        if (p < 0.55) {
+            hour = 7 + random.nextInt(2);
+        } else if (p < 0.85) {
+            hour = 16 + random.nextInt(3);
+        } else {
+            hour = 6 + random.nextInt(17);
+        }
+        return LocalTime.of(hour, random.nextInt(12) * 5);
+    }
+
+    private static String name(int id) {
+        return "Student " + id;
+    }
+
+    // Unique per id: year 2018-2025 cycles, the serial counts up within a year
+    private static String rollNumber(int id) {
+        return String.format("%dA7PS%04dU", 2018 + id % 8, id / 8);
+    }
+
+    private static String email(int id) {
+        return String.format("f%d%04d@dubai.bits-pilani.ac.in", 2018 + id % 8, id / 8);
+    }
+
+    private static String password(int id) {
+        return "secret" + id;
+    }
+
+    // ---------------------------------------------------------------------
+    // Replay
+    // ---------------------------------------------------------------------
+
+    private void work(Random random, Op[] mix, long deadline) {
+        RideService rideService = new RideService();
+        BookingService bookingService = new BookingService();
+        ReportService reportService = new ReportService();
+        AuthService authService = new AuthService();
+        List<int[]> myBookings = new ArrayList<>();
+
+        while (System.nanoTime() < deadline) {
+            Op op = mix[random.nextInt(mix.length)];
+            long start = System.nanoTime();
+            boolean ok;
+            try {
+                switch (op) {
+                    case SEARCH:
+                        ok = search(rideService, random);
+                        break;
+                    case BOOK:
+                        ok = book(bookingService, random, myBookings);
+                        break;
+                    case CANCEL:
+                        ok = cancel(bookingService, random, myBookings);
+                        break;
+                    case REPORT:
+                        ok = submitReport(reportService, random);
+                        break;
+                    default:
+                        ok = login(authService, random);
+                        break;
+                }
+            } catch (RuntimeException e) {
+                errors.get(op).increment();
+                firstError.compareAndSet(null, e);
+                ok = false;
+            }
+            latency.get(op).record(System.nanoTime() - start);
+            (ok ? succeeded : failed).get(op).increment();
+        }
+    }
+
+    private boolean search(RideService rideService, Random random) {
+        String destination = PLACES[places.next(random)];
+        double p = random.nextDouble();
+        if (p < 0.5) {
+            return rideService.searchRidesByRoute(PLACES[places.next(random)], destination) != null;
+        } else if (p < 0.8) {
+            return rideService.searchRidesByDestination(destination) != null;
+        }
+        LocalDateTime from = LocalDate.now().plusDays(random.nextInt(14)).atTime(departureTime(random));
+        return rideService.searchRidesDepartingBetween(from, from.plusHours(2)) != null;
+    }
+
+    private boolean book(BookingService bookingService, Random random, List<int[]> myBookings) {
+        int ride = 1 + hotRides.next(random);
+        int passenger = drivers + 1 + activePassengers.next(random);
+        int seats = random.nextInt(10) == 0 ? 2 : 1;
+        if (bookingService.bookRide(passenger, ride, seats)) {
+            myBookings.add(new int[]{passenger, ride});
+            return true;
+        }
+        return false;
+    }
+
+    private boolean cancel(BookingService bookingService, Random random, List<int[]> myBookings) {
+        int bookingId;
+        int passenger;
+        if (!myBookings.isEmpty()) {
+            int[] mine = myBookings.remove(myBookings.size() - 1);
+            passenger = mine[0];
+            bookingId = bookingService.getBookingId(passenger, mine[1]);
+        } else if (!seededBookings.isEmpty()) {
+            // Threads share the seeded bookings, so some of these race each other
+            int[] seeded = seededBookings.get(random.nextInt(seededBookings.size()));
+            bookingId = seeded[0];
+            passenger = seeded[1];
+        } else {
+            return false;
+        }
+        return bookingId > 0 && bookingService.cancelBooking(bookingId, passenger);
+    }
+
+    private boolean submitReport(ReportService reportService, Random random) {
+        int reporter = 1 + activeUsers.next(random);
+        int reported = 1 + random.nextInt(users);
+        return reportService.submitReport(reporter, reported, null,
+                                          REPORT_REASONS[random.nextInt(REPORT_REASONS.length)]);
+    }
+
+    private boolean login(AuthService authService, Random random) {
+        int id = 1 + activeUsers.next(random);
+        String password = random.nextInt(20) == 0 ? "wrong-password" : password(id);
+        User user = authService.login(email(id), password);
+        return user != null;
+    }
+
+    private static Op[] parseMix(String mix) {
+        List<Op> slots = new ArrayList<>();
+        for (String part : mix.split(",")) {
+            String[] kv = part.trim().split(":");
+            Op op = Op.valueOf(kv[0].trim().toUpperCase());
+            int weight = Integer.parseInt(kv[1].trim());
+            for (int i = 0; i < weight; i++) {
+                slots.add(op);
+            }
+        }
+        if (slots.isEmpty()) {
+            throw new IllegalArgumentException("Empty mix: " + mix);
+        }
+        return slots.toArray(new Op[0]);
+    }
+
+    // ---------------------------------------------------------------------
+    // Report
+    // ---------------------------------------------------------------------
+
+    private void report(int threads, double elapsed, Map<String, Long> before, Map<String, Long> after) {
+        long total = 0;
+        for (Op op : Op.values()) {
+            total += latency.get(op).getCount();
+        }
+        System.out.printf("Ran %d threads for %.1f s: %d operations, %.1f ops/s%n",
+                          threads, elapsed, total, total / elapsed);
+        System.out.printf("%-8s %9s %9s %7s %7s %9s %9s %9s %9s%n",
+                          "op", "count", "ops/s", "ok%", "errors", "p50 ms", "p90 ms", "p99 ms", "max ms");
+        for (Op op : Op.values()) {
+            Histogram h = latency.get(op);
+            long count = h.getCount();
+            if (count == 0) {
+                continue;
+            }
+            System.out.printf("%-8s %9d %9.1f %6.1f%% %7d %9.2f %9.2f %9.2f %9.2f%n",
+                              op.name().toLowerCase(), count, count / elapsed,
+                              100.0 * succeeded.get(op).sum() / count, errors.get(op).sum(),
+                              h.percentile(0.5) / 1e6, h.percentile(0.9) / 1e6,
+                              h.percentile(0.99) / 1e6, h.getMax() / 1e6);
+        }
+
+        System.out.println("Conflicts and rejections:");
+        printDelta("  booking: sold out", "carpool_bookings_total{result=\"sold_out\"}", before, after);
+        printDelta("  booking: already booked", "carpool_bookings_total{result=\"duplicate\"}", before, after);
+        printDelta("  booking: write failed", "carpool_bookings_total{result=\"failed\"}", before, after);
+        printDelta("  cancel: not found or not owner", "carpool_booking_cancellations_total{result=\"rejected\"}", before, after);
+        printDelta("  cancel: failed", "carpool_booking_cancellations_total{result=\"failed\"}", before, after);
+        printDelta("  login: bad credentials", "carpool_logins_total{result=\"bad_credentials\"}", before, after);
+        printDelta("  login: blacklisted", "carpool_logins_total{result=\"blacklisted\"}", before, after);
+        printDelta("  report: rejected", "carpool_reports_total{result=\"rejected\"}", before, after);
+
+        Throwable error = firstError.get();
+        if (error != null) {
+            System.out.println("First unexpected exception:");
+            error.printStackTrace(System.out);
+        }
+    }
+
+    private static void printDelta(String label, String counter, Map<String, Long> before, Map<String, Long> after) {
+        long delta = after.getOrDefault(counter, 0L) - before.getOrDefault(counter, 0L);
+        System.out.printf("%-34s %d%n", label, delta);
+    }
+
+    /** Ranks 0..n-1 drawn with probability proportional to 1 / (rank + 1)^s. */
+    private static final class Zipf {
+        private final double[] cumulative;
+
+        Zipf(int n, double s) {
+            cumulative = new double[Math.max(n, 1)];
+            double sum = 0;
+            for (int i = 0; i < cumulative.length; i++) {
+                sum += 1 / Math.pow(i + 1, s);
+                cumulative[i] = sum;
+            }
+            for (int i = 0; i < cumulative.length; i++) {
+                cumulative[i] /= sum;
+            }
+        }
+
+        int next(Random random) {
+            double u = random.nextDouble();
+            int lo = 0;
+            int hi = cumulative.length - 1;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (cumulative[mid] < u) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package bench;
+
+import dao.RideRowMapper;
+import models.Ride;
+
+import java.lang.management.ManagementFactory;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.Random;
+
+/**
+ * Compares the old by-name, parse-every-row mapping of rides with
+ * RideRowMapper over a large scan of an in-memory database. Reports time and
+ * bytes allocated per row on the scanning thread.
+ *
+ * Usage: java bench.RowMappingBenchmark [rows] [rounds]
+ */
+public class RowMappingBenchmark {
+
+    private static final String SCAN_SQL = "SELECT * FROM rides ORDER BY departure_epoch";
+
+    public static void main(String[] args) throws Exception {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        try (Connection conn = DriverManager.getConnection("jdbc:sqlite::memory:")) {
+            populate(conn, rows);
+
+            // Warm both paths up before measuring
+            for (int i = 0; i < 2; i++) {
+                scanByName(conn);
+                scanWithMapper(conn);
+            }
+
+            for (int round = 1; round <= rounds; round++) {
+                long bytes = threads.getCurrentThreadAllocatedBytes();
+                long start = System.nanoTime();
+                long checksum = scanByName(conn);
+                report("by-name", round, rows, System.nanoTime() - start,
+                       threads.getCurrentThreadAllocatedBytes() - bytes, checksum);
+
+                bytes = threads.getCurrentThreadAllocatedBytes();
+                start = System.nanoTime();
+                checksum = scanWithMapper(conn);
+                report("mapper ", round, rows, System.nanoTime() - start,
+                       threads.getCurrentThreadAllocatedBytes() - bytes, checksum);
+            }
+        }
+    }
+
+    private static void populate(Connection conn, int rows) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE rides (" +
+                "id INTEGER PRIMARY KEY, driver_id INTEGER, driver_name TEXT, origin TEXT, destination TEXT, " +
+                "departure_date TEXT, departure_time TEXT, seats_available INTEGER, seats_total INTEGER, " +
+                "price_per_seat REAL, status TEXT, vehicle_info TEXT, departure_epoch INTEGER)");
+        }
+
+        String[] places = {"BPDC Campus", "Al Barsha", "Dubai Marina", "JLT", "Karama", "Mirdif", "Al Nahda", "JBR"};
+        Random random = new Random(42);
+        LocalDate firstDay = LocalDate.of(2026, 1, 1);
+
+        conn.setAutoCommit(false);
+        try (PreparedStatement insert = conn.prepareStatement(
+                "INSERT INTO rides VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+            for (int i = 1; i <= rows; i++) {
+                LocalDate date = firstDay.plusDays(random.nextInt(180));
+                LocalTime time = LocalTime.of(6 + random.nextInt(16), random.nextInt(12) * 5);
+                insert.setInt(1, i);
+                insert.setInt(2, 1 + random.nextInt(500));
+                insert.setString(3, "Driver " + random.nextInt(500));
+                insert.setString(4, places[random.nextInt(places.length)]);
+                insert.setString(5, places[random.nextInt(places.length)]);
+                insert.setString(6, date.toString());
+                insert.setString(7, time.toString());
+                insert.setInt(8, random.nextInt(4));
+                insert.setInt(9, 4);
+                insert.setDouble(10, 10 + random.nextInt(20));
+                insert.setString(11, "ACTIVE");
+                insert.setString(12, "Corolla (D 12345)");
+                insert.setLong(13, LocalDateTime.of(date, time).toEpochSecond(ZoneOffset.UTC));
+                insert.addBatch();
+                if (i % 10_000 == 0) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+        conn.commit();
+        conn.setAutoCommit(true);
+    }
+
+    // The mapping RideDAO used before RideRowMapper
+    private static long scanByName(Connection conn) throws SQLException {
+        long checksum = 0;
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(SCAN_SQL)) {
+            while (rs.next()) {
+                Ride ride = new Ride(
+                    rs.getInt("id"),
+                    rs.getInt("driver_id"),
+                    rs.getString("driver_name"),
+                    rs.getString("origin"),
+                    rs.getString("destination"),
+                    LocalDate.parse(rs.getString("departure_date")),
+                    LocalTime.parse(rs.getString("departure_time")),
+                    rs.getInt("seats_available"),
+                    rs.getInt("seats_total"),
+                    rs.getDouble("price_per_seat"),
+                    rs.getString("status"),
+                    rs.getString("vehicle_info")
+                );
+                checksum += ride.getDepartureDate().toEpochDay() + ride.getDepartureTime().toSecondOfDay();
+            }
+        }
+        return checksum;
+    }
+
+    private static long scanWithMapper(Connection conn) throws SQLException {
+        long checksum = 0;
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(SCAN_SQL)) {
+            RideRowMapper mapper = new RideRowMapper(rs);
+            while (rs.next()) {
+                Ride ride = mapper.map(rs);
+                checksum += ride.getDepartureDate().toEpochDay() + ride.getDepartureTime().toSecondOfDay();
+            }
+        }
+        return checksum;
+    }
+
+    private static void report(String name, int round, int rows, long nanos, long bytes, long checksum) {
+        System.out.printf("round %d %s  %7.1f ns/row  %6.1f bytes/row  (checksum %d)%n",
+                          round, name, (double) nanos / rows, (double) bytes / rows, checksum);
+    }
+}
@@ -0,0 +1,43 @@
+package controllers;
+
+import models.ModerationItem;
+import models.User;
+import services.ModerationService;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+public class ModerationController {
+
+    private ModerationService moderationService;
+    private User currentUser;
+
+    public ModerationController(ModerationService moderationService, User currentUser) {
+        this.moderationService = moderationService;
+        this.currentUser = currentUser;
+    }
+
+    public boolean isAuthorized() {
+        return currentUser != null && currentUser.isAdmin();
+    }
+
+    public List<ModerationItem> loadPage(LocalDateTime asOf, ModerationItem after, int limit) {
+        if (!isAuthorized()) {
+            return Collections.emptyList();
+        }
+        return moderationService.getQueuePage(asOf, after, limit);
+    }
+
+    public int getPendingCount() {
+        return isAuthorized() ? moderationService.getPendingCount() : 0;
+    }
+
+    public int approve(List<Integer> reportIds) {
+        return isAuthorized() ? moderationService.approve(reportIds) : -1;
+    }
+
+    public int reject(List<Integer> reportIds) {
+        return isAuthorized() ? moderationService.reject(reportIds) : -1;
+    }
+}
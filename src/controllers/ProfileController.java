@@ -5,7 +5,8 @@ import views.ProfileView;
 
 import models.User;
 import models.Rating;
-import models.Ride;
+import models.RideHistoryEntry;
+import utils.Constants;
 
 
 public class ProfileController {
@@ -26,9 +27,14 @@ public class ProfileController {
     public void loadProfile() {
         User user = profileService.getUserProfile(currentUser.getId());
         List<Rating> ratings = profileService.getUserRatings(currentUser.getId());
-        List<Ride> rides = profileService.getRideHistory(currentUser);
 
-        profileView.showProfileDetails(user, ratings, rides); 
+        profileView.showProfileDetails(user, ratings);
+        profileView.resetRideHistory();
+    }
+
+    // Next page of ride history after the given entry (null for the first page)
+    public List<RideHistoryEntry> loadRideHistoryPage(RideHistoryEntry after) {
+        return profileService.getRideHistoryPage(currentUser.getId(), after, Constants.HISTORY_PAGE_SIZE);
     }
 
     public void changePassword(String oldPass, String newPass) {
@@ -1,20 +1,33 @@
 package controllers;
 
+import utils.Constants;
+import utils.Log;
+import utils.Logger;
+
 import models.*;
 import services.*;
 import dao.*;
 
+import java.time.DayOfWeek;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
 
 public class RideController {
+
+    private static final Logger LOG = Log.getLogger(RideController.class);
+
     private UserDAO userDAO;
     private RideService rideService;
     private BookingService bookingService;
     private AuthService authService;
     private ProfileService profileService;
     private ReportService reportService;
+    private RatingService ratingService;
+    private TripPlannerService tripPlannerService;
     
     private User currentUser;
 
@@ -25,6 +38,8 @@ public class RideController {
         this.authService = new AuthService();
         this.profileService = new ProfileService();
         this.reportService = new ReportService();
+        this.ratingService = new RatingService();
+        this.tripPlannerService = new TripPlannerService();
     }
 
     public boolean login(String email, String password) {
@@ -74,13 +89,13 @@ public class RideController {
     public boolean postRide(String origin, String destination, LocalDate departureDate, 
                            LocalTime departureTime, int seatsAvailable, double pricePerSeat) {
         if (!isLoggedIn()) {
-            System.err.println("Must be logged in to post a ride");
+            LOG.warn("Must be logged in to post a ride");
             return false;
         }
 
         Driver driver = profileService.getDriverProfile(currentUser.getId());
         if (driver == null) {
-            System.err.println("Only drivers can post rides");
+            LOG.warn("Only drivers can post rides");
             return false;
         }
 
@@ -89,6 +104,43 @@ public class RideController {
         return ride != null;
     }
 
+    /**
+     * Posts a ride that repeats on the given days. Concrete rides are generated
+     * a couple of weeks ahead and kept topped up in the background.
+     */
+    public boolean postRecurringRide(String origin, String destination, Set<DayOfWeek> days,
+                                     LocalTime departureTime, int seatsAvailable, double pricePerSeat,
+                                     LocalDate startDate, LocalDate endDate) {
+        if (!isLoggedIn()) {
+            LOG.warn("Must be logged in to post a ride");
+            return false;
+        }
+
+        Driver driver = profileService.getDriverProfile(currentUser.getId());
+        if (driver == null) {
+            LOG.warn("Only drivers can post rides");
+            return false;
+        }
+
+        RideSchedule schedule = rideService.postRecurringRide(driver, origin, destination, days,
+                departureTime, seatsAvailable, pricePerSeat, startDate, endDate);
+        return schedule != null;
+    }
+
+    public List<RideSchedule> getMyRecurringRides() {
+        if (!isLoggedIn()) {
+            return null;
+        }
+        return rideService.getSchedulesByDriver(currentUser.getId());
+    }
+
+    public boolean stopRecurringRide(int scheduleId) {
+        if (!isLoggedIn()) {
+            return false;
+        }
+        return rideService.stopRecurringRide(scheduleId, currentUser.getId());
+    }
+
     public boolean cancelRide(int rideId) {
         if (!isLoggedIn()) {
             return false;
@@ -114,6 +166,10 @@ public class RideController {
         return rideService.getAllActiveRides();
     }
 
+    public List<Itinerary> planTrip(String origin, String destination, LocalDateTime earliest, int seats) {
+        return tripPlannerService.planTrip(origin, destination, earliest, seats);
+    }
+
     public List<Ride> searchRidesByDestination(String destination) {
         return rideService.searchRidesByDestination(destination);
     }
@@ -122,10 +178,54 @@ public class RideController {
         return rideService.searchRidesByRoute(origin, destination);
     }
 
+    public List<Ride> searchRidesByDriver(String driverName) {
+        return rideService.searchRidesByDriver(driverName);
+    }
+
+    public List<String> suggestPlaces(String prefix) {
+        return rideService.suggestPlaces(prefix);
+    }
+
+    public List<String> suggestDrivers(String prefix) {
+        return rideService.suggestDrivers(prefix);
+    }
+
     public List<Ride> searchRidesByDate(LocalDate date) {
         return rideService.searchRidesByDate(date);
     }
 
+    // Route is optional; pass null origin/destination to search every route
+    public List<Ride> searchRidesDepartingBetween(String origin, String destination,
+                                                  LocalDateTime from, LocalDateTime to) {
+        if (origin != null && destination != null) {
+            return rideService.searchRidesByRouteDepartingBetween(origin, destination, from, to);
+        }
+        return rideService.searchRidesDepartingBetween(from, to);
+    }
+
+    /**
+     * Tells the demand tracker what the user is looking for. Views call it
+     * once the user commits to a search (a Search button), never from the
+     * query methods above, which also serve live and fuzzy searches.
+     */
+    public void recordSearchDemand(String origin, String destination, LocalDateTime when) {
+        if (isLoggedIn()) {
+            rideService.recordSearchDemand(currentUser.getId(), origin, destination, when);
+        }
+    }
+
+    // Busiest (route, hour of week) slots for drivers deciding when to post
+    public List<RouteDemand> getPopularRoutes() {
+        return rideService.getPopularRoutes(Constants.DEMAND_TOP_K);
+    }
+
+    public PriceSuggestion suggestPrice(String origin, String destination, LocalDate date, LocalTime time) {
+        if (origin == null || destination == null || origin.equals(destination)) {
+            return null;
+        }
+        return rideService.suggestPrice(origin, destination, date, time);
+    }
+
     public List<Ride> getMyBookedRides() {
         if (!isLoggedIn()) {
             return null;
@@ -135,12 +235,97 @@ public class RideController {
 
     public boolean bookRide(int rideId, int seatsRequested) {
         if (!isLoggedIn()) {
-            System.err.println("Must be logged in to book a ride");
+            LOG.warn("Must be logged in to book a ride");
             return false;
         }
         return bookingService.bookRide(currentUser.getId(), rideId, seatsRequested);
     }
 
+    public SeatHold holdSeats(int rideId, int seatsRequested) {
+        if (!isLoggedIn()) {
+            LOG.warn("Must be logged in to book a ride");
+            return null;
+        }
+        return bookingService.holdSeats(currentUser.getId(), rideId, seatsRequested);
+    }
+
+    public boolean confirmSeatHold(int holdId) {
+        if (!isLoggedIn()) {
+            return false;
+        }
+        return bookingService.confirmSeatHold(holdId, currentUser.getId());
+    }
+
+    public boolean releaseSeatHold(int holdId) {
+        if (!isLoggedIn()) {
+            return false;
+        }
+        return bookingService.releaseSeatHold(holdId, currentUser.getId());
+    }
+
+    // Books the current user plus friends (by roll number) on one ride, all or nothing
+    public boolean bookGroup(int rideId, List<String> friendRollNumbers) {
+        if (!isLoggedIn()) {
+            LOG.warn("Must be logged in to book a ride");
+            return false;
+        }
+
+        List<Integer> passengerIds = new java.util.ArrayList<>();
+        passengerIds.add(currentUser.getId());
+        for (String rollNumber : friendRollNumbers) {
+            User friend = userDAO.getUserByRollNumber(rollNumber.trim().toUpperCase());
+            if (friend == null) {
+                LOG.warn("No user with roll number", "rollNumber", rollNumber);
+                return false;
+            }
+            passengerIds.add(friend.getId());
+        }
+        return bookingService.bookGroup(currentUser.getId(), rideId, passengerIds);
+    }
+
+    public int joinWaitlist(int rideId, int seatsRequested) {
+        if (!isLoggedIn()) {
+            return -1;
+        }
+        return bookingService.joinWaitlist(currentUser.getId(), rideId, seatsRequested);
+    }
+
+    public boolean leaveWaitlist(int rideId) {
+        if (!isLoggedIn()) {
+            return false;
+        }
+        return bookingService.leaveWaitlist(currentUser.getId(), rideId);
+    }
+
+    public int getWaitingCount(int rideId) {
+        return bookingService.getWaitingCount(rideId);
+    }
+
+    public void subscribeToNotifications(Consumer<Notification> listener) {
+        if (isLoggedIn()) {
+            NotificationDispatcher.getInstance().subscribe(currentUser.getId(), listener);
+        }
+    }
+
+    public void unsubscribeFromNotifications(Consumer<Notification> listener) {
+        if (isLoggedIn()) {
+            NotificationDispatcher.getInstance().unsubscribe(currentUser.getId(), listener);
+        }
+    }
+
+    // Unread notifications, marked read once fetched
+    public List<Notification> takeUnreadNotifications() {
+        if (!isLoggedIn()) {
+            return java.util.Collections.emptyList();
+        }
+        NotificationDispatcher dispatcher = NotificationDispatcher.getInstance();
+        List<Notification> unread = dispatcher.getUnread(currentUser.getId());
+        if (!unread.isEmpty()) {
+            dispatcher.markAllRead(currentUser.getId());
+        }
+        return unread;
+    }
+
     public boolean cancelBooking(int bookingId) {
         if (!isLoggedIn()) {
             return false;
@@ -165,19 +350,22 @@ public class RideController {
     public boolean postRideRequest(String origin, String destination, LocalDate preferredDate, 
                                    LocalTime preferredTime, int seatsRequested, String notes) {
         if (!isLoggedIn()) {
-            System.err.println("Must be logged in to post a ride request");
+            LOG.warn("Must be logged in to post a ride request");
             return false;
         }
 
         Passenger passenger = profileService.getPassengerProfile(currentUser.getId());
         if (passenger == null) {
-            System.err.println("Only passengers can post ride requests");
+            LOG.warn("Only passengers can post ride requests");
             return false;
         }
 
         RideRequest request = rideService.postRideRequest(passenger, origin, destination, 
                                                           preferredDate, preferredTime, 
                                                           seatsRequested, notes);
+        if (request != null) {
+            rideService.recordRequestDemand(origin, destination, preferredDate.atTime(preferredTime));
+        }
         return request != null;
     }
 
@@ -250,7 +438,7 @@ public class RideController {
 
     public boolean reportUser(int reportedUserId, Integer rideId, String reason) {
         if (!isLoggedIn()) {
-            System.err.println("Must be logged in to report");
+            LOG.warn("Must be logged in to report");
             return false;
         }
         return reportService.submitReport(currentUser.getId(), reportedUserId, rideId, reason);
@@ -363,32 +551,19 @@ public class RideController {
             request.getStatus()
         );
     }
-    public boolean rateDriver(int driverId, double rating) {
-    if (!isLoggedIn()) {
-        System.err.println("Must be logged in to rate a driver");
-        return false;
-    }
- 
-    User user = userDAO.getUserById(driverId);
-    if (user == null) {
-        System.err.println("Driver not found");
-        return false;
-    }
-    if (!(user instanceof Driver)) {
-        System.err.println("User is not a driver");
-        return false;
-    }
-    Driver driver = (Driver) user;
+    public boolean rateDriver(int driverId, int rideId, int score, String comment) {
+        if (!isLoggedIn()) {
+            LOG.warn("Must be logged in to rate a driver");
+            return false;
+        }
 
-    driver.addRating(rating);
+        User user = userDAO.getUserById(driverId);
+        if (user == null || !user.isDriver()) {
+            LOG.warn("Driver not found");
+            return false;
+        }
 
-    
-    boolean updated = userDAO.updateUser(driver); 
-    if (!updated) {
-        System.err.println("Failed to save driver rating");
-        return false;
+        return ratingService.rateUser(currentUser.getId(), driverId, rideId, score, comment);
     }
-    return true;
-}
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,279 @@
+package dao;
+
+import models.DriverEarnings;
+import models.HourSummary;
+import models.Ride;
+import models.RouteSummary;
+import utils.DBConnection;
+import utils.Log;
+import utils.Logger;
+
+import java.sql.*;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Reads rides and their bookings for the analytics scan, and reads and
+ * writes the materialized daily summaries (analytics_route_daily,
+ * analytics_driver_daily, analytics_hour_daily). Weekly and monthly
+ * reports are sums of the daily rows.
+ */
+public class AnalyticsDAO {
+
+    private static final Logger LOG = Log.getLogger(AnalyticsDAO.class);
+
+    private static final String RIDE_COLUMNS =
+        "id, driver_id, driver_name, origin, destination, departure_date, departure_time, " +
+        "seats_available, seats_total, price_per_seat, status, vehicle_info, departure_epoch";
+
+    // Live rides are found by departure_date, archived ones by departure_epoch: each tier's own index
+    private static final String SCAN_SQL =
+        "WITH r AS (" +
+        "SELECT " + RIDE_COLUMNS + " FROM rides WHERE departure_date >= ? AND departure_date < ? " +
+        "UNION ALL " +
+        "SELECT " + RIDE_COLUMNS + " FROM rides_history WHERE departure_epoch >= ? AND departure_epoch < ?" +
+        "), b AS (" +
+        "SELECT ride_id, status, seats_booked FROM bookings WHERE ride_id IN (SELECT id FROM r) " +
+        "UNION ALL " +
+        "SELECT ride_id, status, seats_booked FROM bookings_history WHERE ride_id IN (SELECT id FROM r)" +
+        ") " +
+        "SELECT r.*, " +
+        "COALESCE(SUM(CASE WHEN b.status <> 'CANCELLED' THEN b.seats_booked END), 0) AS seats_booked, " +
+        "COUNT(b.ride_id) AS booking_count, " +
+        "COALESCE(SUM(b.status = 'CANCELLED'), 0) AS bookings_cancelled " +
+        "FROM r LEFT JOIN b ON b.ride_id = r.id GROUP BY r.id";
+
+    /** How daily rows are grouped into report periods. */
+    public enum Period {
+        DAILY("day"),
+        WEEKLY("strftime('%Y-W%W', day)"),
+        MONTHLY("substr(day, 1, 7)");
+
+        private final String expression;
+
+        Period(String expression) {
+            this.expression = expression;
+        }
+    }
+
+    @FunctionalInterface
+    public interface RideVisitor {
+        void visit(Ride ride, int seatsBooked, int bookings, int bookingsCancelled);
+    }
+
+    /**
+     * Streams every ride departing in [from, to), from both tiers, with the
+     * seats booked on it and its booking counts.
+     */
+    public boolean scanRides(LocalDate from, LocalDate to, RideVisitor visitor) {
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SCAN_SQL)) {
+
+            pstmt.setString(1, from.toString());
+            pstmt.setString(2, to.toString());
+            pstmt.setLong(3, from.atStartOfDay().toEpochSecond(ZoneOffset.UTC));
+            pstmt.setLong(4, to.atStartOfDay().toEpochSecond(ZoneOffset.UTC));
+            ResultSet rs = pstmt.executeQuery();
+
+            RideRowMapper mapper = new RideRowMapper(rs);
+            while (rs.next()) {
+                visitor.visit(mapper.map(rs), rs.getInt("seats_booked"),
+                              rs.getInt("booking_count"), rs.getInt("bookings_cancelled"));
+            }
+            return true;
+
+        } catch (SQLException e) {
+            LOG.error("Error scanning rides for analytics", e);
+        }
+
+        return false;
+    }
+
+    // Earliest departure day across both tiers, or null if there are no rides
+    public LocalDate getEarliestDepartureDay() {
+        String sql = "SELECT MIN(d) FROM (" +
+                     "SELECT MIN(departure_date) AS d FROM rides " +
+                     "UNION ALL SELECT MIN(departure_date) FROM rides_history)";
+        return queryDay(sql, "Error getting earliest departure day");
+    }
+
+    // Latest day with materialized summaries, or null before the first build
+    public LocalDate getLatestSummarizedDay() {
+        return queryDay("SELECT MAX(day) FROM analytics_route_daily", "Error getting latest summarized day");
+    }
+
+    private LocalDate queryDay(String sql, String error) {
+        try (Connection conn = DBConnection.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+
+            if (rs.next() && rs.getString(1) != null) {
+                return LocalDate.parse(rs.getString(1));
+            }
+
+        } catch (SQLException e) {
+            LOG.error(error, e);
+        }
+
+        return null;
+    }
+
+    /**
+     * Replaces the summaries of every day in [from, to) with the given rows
+     * in one transaction, so reports never see a half-written day.
+     */
+    public boolean replaceDays(LocalDate from, LocalDate to, Collection<RouteSummary> routes,
+                               Collection<DriverEarnings> drivers, Collection<HourSummary> hours) {
+        String routeSql = "INSERT INTO analytics_route_daily (day, origin, destination, rides, rides_cancelled, " +
+                          "seats_offered, seats_filled, bookings, bookings_cancelled, revenue) " +
+                          "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        String driverSql = "INSERT INTO analytics_driver_daily (day, driver_id, driver_name, rides_given, " +
+                           "rides_cancelled, seats_filled, revenue) VALUES (?, ?, ?, ?, ?, ?, ?)";
+        String hourSql = "INSERT INTO analytics_hour_daily (day, hour, departures, seats_filled) VALUES (?, ?, ?, ?)";
+
+        try (Connection conn = DBConnection.getConnection()) {
+            conn.setAutoCommit(false);
+
+            try (PreparedStatement route = conn.prepareStatement(routeSql);
+                 PreparedStatement driver = conn.prepareStatement(driverSql);
+                 PreparedStatement hour = conn.prepareStatement(hourSql)) {
+
+                for (String table : new String[] {"analytics_route_daily", "analytics_driver_daily", "analytics_hour_daily"}) {
+                    try (PreparedStatement delete = conn.prepareStatement(
+                            "DELETE FROM " + table + " WHERE day >= ? AND day < ?")) {
+                        delete.setString(1, from.toString());
+                        delete.setString(2, to.toString());
+                        delete.executeUpdate();
+                    }
+                }
+
+                for (RouteSummary r : routes) {
+                    route.setString(1, r.getPeriod());
+                    route.setString(2, r.getOrigin());
+                    route.setString(3, r.getDestination());
+                    route.setInt(4, r.getRides());
+                    route.setInt(5, r.getRidesCancelled());
+                    route.setInt(6, r.getSeatsOffered());
+                    route.setInt(7, r.getSeatsFilled());
+                    route.setInt(8, r.getBookings());
+                    route.setInt(9, r.getBookingsCancelled());
+                    route.setDouble(10, r.getRevenue());
+                    route.addBatch();
+                }
+                for (DriverEarnings d : drivers) {
+                    driver.setString(1, d.getPeriod());
+                    driver.setInt(2, d.getDriverId());
+                    driver.setString(3, d.getDriverName());
+                    driver.setInt(4, d.getRidesGiven());
+                    driver.setInt(5, d.getRidesCancelled());
+                    driver.setInt(6, d.getSeatsFilled());
+                    driver.setDouble(7, d.getRevenue());
+                    driver.addBatch();
+                }
+                for (HourSummary h : hours) {
+                    hour.setString(1, h.getPeriod());
+                    hour.setInt(2, h.getHour());
+                    hour.setInt(3, h.getDepartures());
+                    hour.setInt(4, h.getSeatsFilled());
+                    hour.addBatch();
+                }
+                route.executeBatch();
+                driver.executeBatch();
+                hour.executeBatch();
+
+                conn.commit();
+                return true;
+
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+
+        } catch (SQLException e) {
+            LOG.error("Error writing analytics summaries", e);
+        }
+
+        return false;
+    }
+
+    public List<RouteSummary> getRouteSummaries(Period period, LocalDate from, LocalDate to) {
+        String sql = "SELECT " + period.expression + " AS period, origin, destination, " +
+                     "SUM(rides), SUM(rides_cancelled), SUM(seats_offered), SUM(seats_filled), " +
+                     "SUM(bookings), SUM(bookings_cancelled), SUM(revenue) " +
+                     "FROM analytics_route_daily WHERE day >= ? AND day < ? " +
+                     "GROUP BY 1, origin, destination ORDER BY 1, SUM(rides) DESC";
+        List<RouteSummary> summaries = new ArrayList<>();
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setString(1, from.toString());
+            pstmt.setString(2, to.toString());
+            ResultSet rs = pstmt.executeQuery();
+
+            while (rs.next()) {
+                summaries.add(new RouteSummary(rs.getString(1), rs.getString(2), rs.getString(3),
+                    rs.getInt(4), rs.getInt(5), rs.getInt(6), rs.getInt(7), rs.getInt(8), rs.getInt(9),
+                    rs.getDouble(10)));
+            }
+
+        } catch (SQLException e) {
+            LOG.error("Error getting route summaries", e);
+        }
+
+        return summaries;
+    }
+
+    public List<DriverEarnings> getDriverEarnings(Period period, LocalDate from, LocalDate to) {
+        String sql = "SELECT " + period.expression + " AS period, driver_id, MAX(driver_name), " +
+                     "SUM(rides_given), SUM(rides_cancelled), SUM(seats_filled), SUM(revenue) " +
+                     "FROM analytics_driver_daily WHERE day >= ? AND day < ? " +
+                     "GROUP BY 1, driver_id ORDER BY 1, SUM(revenue) DESC";
+        List<DriverEarnings> earnings = new ArrayList<>();
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setString(1, from.toString());
+            pstmt.setString(2, to.toString());
+            ResultSet rs = pstmt.executeQuery();
+
+            while (rs.next()) {
+                earnings.add(new DriverEarnings(rs.getString(1), rs.getInt(2), rs.getString(3),
+                    rs.getInt(4), rs.getInt(5), rs.getInt(6), rs.getDouble(7)));
+            }
+
+        } catch (SQLException e) {
+            LOG.error("Error getting driver earnings", e);
+        }
+
+        return earnings;
+    }
+
+    public List<HourSummary> getHourSummaries(Period period, LocalDate from, LocalDate to) {
+        String sql = "SELECT " + period.expression + " AS period, hour, SUM(departures), SUM(seats_filled) " +
+                     "FROM analytics_hour_daily WHERE day >= ? AND day < ? " +
+                     "GROUP BY 1, hour ORDER BY 1, SUM(departures) DESC, hour";
+        List<HourSummary> hours = new ArrayList<>();
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setString(1, from.toString());
+            pstmt.setString(2, to.toString());
+            ResultSet rs = pstmt.executeQuery();
+
+            while (rs.next()) {
+                hours.add(new HourSummary(rs.getString(1), rs.getInt(2), rs.getInt(3), rs.getInt(4)));
+            }
+
+        } catch (SQLException e) {
+            LOG.error("Error getting hour summaries", e);
+        }
+
+        return hours;
+    }
+}
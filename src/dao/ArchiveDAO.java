@@ -0,0 +1,198 @@
+package dao;
+
+import utils.DBConnection;
+import utils.Log;
+import utils.Logger;
+
+import java.sql.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class ArchiveDAO {
+
+    private static final Logger LOG = Log.getLogger(ArchiveDAO.class);
+
+    private static final String RIDE_COLUMNS =
+        "id, driver_id, driver_name, origin, destination, departure_date, departure_time, " +
+        "seats_available, seats_total, price_per_seat, is_women_only, status, vehicle_info, created_at, departure_epoch";
+    private static final String BOOKING_COLUMNS =
+        "id, ride_id, passenger_id, status, seats_booked, timestamp";
+
+    /**
+     * Moves one chunk of finished rides that departed before the cutoff, and
+     * all of their bookings, into the history tables in a single transaction.
+     * Returns the number of rides moved.
+     */
+    public int archiveRides(LocalDate cutoff, int chunkSize) {
+        String selectSql = "SELECT id FROM rides WHERE status IN ('COMPLETED', 'CANCELLED') " +
+                           "AND departure_date < ? ORDER BY id LIMIT ?";
+
+        try (Connection conn = DBConnection.getConnection()) {
+            // Ratings cascade on ride deletion; the archived ride keeps its id in
+            // rides_history, so references stay resolvable. Must be set outside a transaction.
+            disableForeignKeys(conn);
+            conn.setAutoCommit(false);
+
+            try (PreparedStatement select = conn.prepareStatement(selectSql)) {
+                select.setString(1, cutoff.toString());
+                select.setInt(2, chunkSize);
+
+                List<Integer> rideIds = new ArrayList<>();
+                try (ResultSet rs = select.executeQuery()) {
+                    while (rs.next()) {
+                        rideIds.add(rs.getInt(1));
+                    }
+                }
+                if (rideIds.isEmpty()) {
+                    conn.rollback();
+                    return 0;
+                }
+
+                String in = placeholders(rideIds.size());
+                String archivedAt = LocalDateTime.now().withNano(0).toString();
+
+                moveRows(conn,
+                    "INSERT INTO bookings_history (" + BOOKING_COLUMNS + ", archived_at) " +
+                    "SELECT " + BOOKING_COLUMNS + ", ? FROM bookings WHERE ride_id IN " + in,
+                    "DELETE FROM bookings WHERE ride_id IN " + in,
+                    archivedAt, rideIds);
+                moveRows(conn,
+                    "INSERT INTO rides_history (" + RIDE_COLUMNS + ", archived_at) " +
+                    "SELECT " + RIDE_COLUMNS + ", ? FROM rides WHERE id IN " + in,
+                    "DELETE FROM rides WHERE id IN " + in,
+                    archivedAt, rideIds);
+
+                conn.commit();
+                return rideIds.size();
+
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+
+        } catch (SQLException e) {
+            LOG.error("Error archiving rides", e);
+        }
+
+        return 0;
+    }
+
+    /**
+     * Moves one chunk of cancelled bookings older than the cutoff whose ride is
+     * still in the hot table. Returns the number of bookings moved.
+     */
+    public int archiveCancelledBookings(LocalDate cutoff, int chunkSize) {
+        String selectSql = "SELECT id FROM bookings WHERE status = 'CANCELLED' " +
+                           "AND timestamp < ? ORDER BY id LIMIT ?";
+
+        try (Connection conn = DBConnection.getConnection()) {
+            conn.setAutoCommit(false);
+
+            try (PreparedStatement select = conn.prepareStatement(selectSql)) {
+                // Same text form as CURRENT_TIMESTAMP, so the column is compared as stored
+                select.setString(1, cutoff + " 00:00:00");
+                select.setInt(2, chunkSize);
+
+                List<Integer> bookingIds = new ArrayList<>();
+                try (ResultSet rs = select.executeQuery()) {
+                    while (rs.next()) {
+                        bookingIds.add(rs.getInt(1));
+                    }
+                }
+                if (bookingIds.isEmpty()) {
+                    conn.rollback();
+                    return 0;
+                }
+
+                String in = placeholders(bookingIds.size());
+                moveRows(conn,
+                    "INSERT INTO bookings_history (" + BOOKING_COLUMNS + ", archived_at) " +
+                    "SELECT " + BOOKING_COLUMNS + ", ? FROM bookings WHERE id IN " + in,
+                    "DELETE FROM bookings WHERE id IN " + in,
+                    LocalDateTime.now().withNano(0).toString(), bookingIds);
+
+                conn.commit();
+                return bookingIds.size();
+
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+
+        } catch (SQLException e) {
+            LOG.error("Error archiving bookings", e);
+        }
+
+        return 0;
+    }
+
+    public boolean isIncrementalVacuumEnabled() {
+        try (Connection conn = DBConnection.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA auto_vacuum")) {
+
+            return rs.next() && rs.getInt(1) == 2;
+
+        } catch (SQLException e) {
+            LOG.error("Error reading auto_vacuum mode", e);
+        }
+
+        return false;
+    }
+
+    // Switching an existing database needs a full VACUUM, which rewrites and locks the whole file
+    public boolean enableIncrementalVacuum() {
+        try (Connection conn = DBConnection.getConnection();
+             Statement stmt = conn.createStatement()) {
+
+            stmt.execute("PRAGMA auto_vacuum = INCREMENTAL");
+            stmt.execute("VACUUM");
+            return true;
+
+        } catch (SQLException e) {
+            LOG.error("Error enabling incremental vacuum", e);
+        }
+
+        return false;
+    }
+
+    // Returns up to maxPages free pages to the filesystem
+    public void incrementalVacuum(int maxPages) {
+        try (Connection conn = DBConnection.getConnection();
+             Statement stmt = conn.createStatement()) {
+
+            stmt.execute("PRAGMA incremental_vacuum(" + maxPages + ")");
+
+        } catch (SQLException e) {
+            LOG.error("Error running incremental vacuum", e);
+        }
+    }
+
+    private void moveRows(Connection conn, String copySql, String deleteSql,
+                          String archivedAt, List<Integer> ids) throws SQLException {
+        try (PreparedStatement copy = conn.prepareStatement(copySql);
+             PreparedStatement delete = conn.prepareStatement(deleteSql)) {
+
+            copy.setString(1, archivedAt);
+            for (int i = 0; i < ids.size(); i++) {
+                copy.setInt(i + 2, ids.get(i));
+                delete.setInt(i + 1, ids.get(i));
+            }
+            copy.executeUpdate();
+            delete.executeUpdate();
+        }
+    }
+
+    private void disableForeignKeys(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("PRAGMA foreign_keys = OFF");
+        }
+    }
+
+    private String placeholders(int count) {
+        return "(" + String.join(", ", Collections.nCopies(count, "?")) + ")";
+    }
+}
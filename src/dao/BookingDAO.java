@@ -1,13 +1,19 @@
 package dao;
 
+import models.WaitlistEntry;
 import utils.DBConnection;
+import utils.Log;
+import utils.Logger;
 
 import java.sql.*;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
 public class BookingDAO {
 
+    private static final Logger LOG = Log.getLogger(BookingDAO.class);
+
     public boolean createBooking(int passengerId, int rideId, int seatsBooked) {
         String sql = "INSERT INTO bookings (ride_id, passenger_id, seats_booked, status) VALUES (?, ?, ?, 'CONFIRMED')";
         try (Connection conn = DBConnection.getConnection();
@@ -17,12 +23,135 @@ public class BookingDAO {
             pstmt.setInt(3, seatsBooked);
             return pstmt.executeUpdate() > 0;
         } catch (SQLException e) {
-            System.err.println("Error creating booking: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Error creating booking", e);
         }
         return false;
     }
 
+    /**
+     * Applies a batch of bookings in one transaction, each under its own
+     * savepoint so a booking that no longer fits only undoes itself. The seat
+     * decrement is guarded, so the ride can never go below zero. Returns
+     * per-booking success, or null if the transaction as a whole failed.
+     */
+    public boolean[] createBookingsBatch(int[] rideIds, int[] passengerIds, int[] seats) {
+        String takeSql = "UPDATE rides SET seats_available = seats_available - ? " +
+                         "WHERE id = ? AND status = 'ACTIVE' AND seats_available >= ?";
+        String bookSql = "INSERT INTO bookings (ride_id, passenger_id, seats_booked, status) " +
+                         "VALUES (?, ?, ?, 'CONFIRMED') " +
+                         "ON CONFLICT(ride_id, passenger_id) DO UPDATE SET " +
+                         "seats_booked = excluded.seats_booked, status = 'CONFIRMED', timestamp = CURRENT_TIMESTAMP " +
+                         "WHERE bookings.status = 'CANCELLED'";
+        boolean[] results = new boolean[rideIds.length];
+
+        try (Connection conn = DBConnection.getConnection()) {
+            conn.setAutoCommit(false);
+
+            try (PreparedStatement take = conn.prepareStatement(takeSql);
+                 PreparedStatement book = conn.prepareStatement(bookSql)) {
+
+                for (int i = 0; i < rideIds.length; i++) {
+                    Savepoint savepoint = conn.setSavepoint();
+                    try {
+                        take.setInt(1, seats[i]);
+                        take.setInt(2, rideIds[i]);
+                        take.setInt(3, seats[i]);
+                        boolean ok = take.executeUpdate() > 0;
+
+                        if (ok) {
+                            book.setInt(1, rideIds[i]);
+                            book.setInt(2, passengerIds[i]);
+                            book.setInt(3, seats[i]);
+                            // 0 rows means the passenger already holds an active booking
+                            ok = book.executeUpdate() > 0;
+                        }
+
+                        if (ok) {
+                            conn.releaseSavepoint(savepoint);
+                        } else {
+                            conn.rollback(savepoint);
+                        }
+                        results[i] = ok;
+
+                    } catch (SQLException e) {
+                        conn.rollback(savepoint);
+                        LOG.error("Error creating booking", e);
+                    }
+                }
+
+                conn.commit();
+                return results;
+
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+
+        } catch (SQLException e) {
+            LOG.error("Error creating bookings", e);
+        }
+
+        return null;
+    }
+
+    /**
+     * Books one seat per passenger on the ride, all or nothing: the seats are
+     * taken in a single guarded UPDATE and every booking is inserted in one
+     * batch. If the ride is short of seats or any passenger already has an
+     * active booking, nothing is written.
+     */
+    public boolean createGroupBooking(int rideId, List<Integer> passengerIds) {
+        String takeSql = "UPDATE rides SET seats_available = seats_available - ? " +
+                         "WHERE id = ? AND status = 'ACTIVE' AND seats_available >= ?";
+        String bookSql = "INSERT INTO bookings (ride_id, passenger_id, seats_booked, status) " +
+                         "VALUES (?, ?, 1, 'CONFIRMED') " +
+                         "ON CONFLICT(ride_id, passenger_id) DO UPDATE SET " +
+                         "seats_booked = 1, status = 'CONFIRMED', timestamp = CURRENT_TIMESTAMP " +
+                         "WHERE bookings.status = 'CANCELLED'";
+
+        try (Connection conn = DBConnection.getConnection()) {
+            conn.setAutoCommit(false);
+
+            try (PreparedStatement take = conn.prepareStatement(takeSql);
+                 PreparedStatement book = conn.prepareStatement(bookSql)) {
+
+                int seats = passengerIds.size();
+                take.setInt(1, seats);
+                take.setInt(2, rideId);
+                take.setInt(3, seats);
+                if (take.executeUpdate() == 0) {
+                    conn.rollback();
+                    return false;
+                }
+
+                for (int passengerId : passengerIds) {
+                    book.setInt(1, rideId);
+                    book.setInt(2, passengerId);
+                    book.addBatch();
+                }
+                for (int count : book.executeBatch()) {
+                    // 0 means that passenger already has an active booking
+                    if (count == 0) {
+                        conn.rollback();
+                        return false;
+                    }
+                }
+
+                conn.commit();
+                return true;
+
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+
+        } catch (SQLException e) {
+            LOG.error("Error creating group booking", e);
+        }
+
+        return false;
+    }
+
     public boolean hasPassengerBooked(int passengerId, int rideId) {
         String sql = "SELECT COUNT(*) FROM bookings WHERE passenger_id = ? AND ride_id = ? " +
                      "AND status IN ('REQUESTED', 'CONFIRMED')";
@@ -35,8 +164,7 @@ public class BookingDAO {
                 return rs.getInt(1) > 0;
             }
         } catch (SQLException e) {
-            System.err.println("Error checking booking: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Error checking booking", e);
         }
         return false;
     }
@@ -45,6 +173,122 @@ public class BookingDAO {
         return updateBookingStatus(bookingId, "CANCELLED");
     }
 
+    /**
+     * Cancels the booking, returns its seats to the ride and promotes waitlisted
+     * passengers in queue order while the head's request fits, all in one
+     * transaction. Returns every entry taken off the queue: PROMOTED ones and
+     * CANCELLED ones whose passenger had booked the ride directly. Returns
+     * null if the booking was not active or the transaction failed.
+     */
+    public List<WaitlistEntry> cancelBookingAndPromote(int bookingId) {
+        String cancelSql = "UPDATE bookings SET status = 'CANCELLED' WHERE id = ? AND status <> 'CANCELLED' " +
+                           "RETURNING ride_id, passenger_id, seats_booked";
+        String returnSql = "UPDATE rides SET seats_available = seats_available + ? WHERE id = ? " +
+                           "RETURNING seats_available, status";
+        String headSql = "SELECT id, passenger_id, seats_requested FROM ride_waitlist " +
+                         "WHERE ride_id = ? AND status = 'WAITING' ORDER BY id LIMIT 1";
+        String bookSql = "INSERT INTO bookings (ride_id, passenger_id, seats_booked, status) " +
+                         "VALUES (?, ?, ?, 'CONFIRMED') " +
+                         "ON CONFLICT(ride_id, passenger_id) DO UPDATE SET " +
+                         "seats_booked = excluded.seats_booked, status = 'CONFIRMED', timestamp = CURRENT_TIMESTAMP " +
+                         "WHERE bookings.status = 'CANCELLED'";
+        String takeSql = "UPDATE rides SET seats_available = seats_available - ? " +
+                         "WHERE id = ? AND seats_available >= ?";
+        String promoteSql = "UPDATE ride_waitlist SET status = 'PROMOTED', promoted_at = ? WHERE id = ?";
+        String dropSql = "UPDATE ride_waitlist SET status = 'CANCELLED' WHERE id = ?";
+
+        try (Connection conn = DBConnection.getConnection()) {
+            conn.setAutoCommit(false);
+
+            try (PreparedStatement cancel = conn.prepareStatement(cancelSql);
+                 PreparedStatement giveBack = conn.prepareStatement(returnSql);
+                 PreparedStatement head = conn.prepareStatement(headSql);
+                 PreparedStatement book = conn.prepareStatement(bookSql);
+                 PreparedStatement take = conn.prepareStatement(takeSql);
+                 PreparedStatement promote = conn.prepareStatement(promoteSql);
+                 PreparedStatement drop = conn.prepareStatement(dropSql)) {
+
+                int rideId;
+                int seats;
+                cancel.setInt(1, bookingId);
+                try (ResultSet rs = cancel.executeQuery()) {
+                    if (!rs.next()) {
+                        conn.rollback();
+                        return null;
+                    }
+                    rideId = rs.getInt("ride_id");
+                    seats = rs.getInt("seats_booked");
+                    UserStatisticsDAO.recordCancelledBooking(conn, rs.getInt("passenger_id"));
+                }
+
+                int available;
+                boolean active;
+                giveBack.setInt(1, seats);
+                giveBack.setInt(2, rideId);
+                try (ResultSet rs = giveBack.executeQuery()) {
+                    rs.next();
+                    available = rs.getInt("seats_available");
+                    active = "ACTIVE".equals(rs.getString("status"));
+                }
+
+                List<WaitlistEntry> dequeued = new ArrayList<>();
+                String now = LocalDateTime.now().withNano(0).toString();
+                head.setInt(1, rideId);
+
+                // Strict FIFO: stop at the first entry that doesn't fit
+                while (active && available > 0) {
+                    WaitlistEntry entry;
+                    try (ResultSet rs = head.executeQuery()) {
+                        if (!rs.next() || rs.getInt("seats_requested") > available) {
+                            break;
+                        }
+                        entry = new WaitlistEntry(rs.getInt("id"), rideId, rs.getInt("passenger_id"),
+                                                  rs.getInt("seats_requested"), "PROMOTED");
+                    }
+
+                    book.setInt(1, rideId);
+                    book.setInt(2, entry.getPassengerId());
+                    book.setInt(3, entry.getSeatsRequested());
+                    if (book.executeUpdate() == 0) {
+                        // Booked the ride directly since joining the waitlist; the entry is moot
+                        drop.setInt(1, entry.getId());
+                        drop.executeUpdate();
+                        dequeued.add(new WaitlistEntry(entry.getId(), rideId, entry.getPassengerId(),
+                                                       entry.getSeatsRequested(), "CANCELLED"));
+                        continue;
+                    }
+
+                    take.setInt(1, entry.getSeatsRequested());
+                    take.setInt(2, rideId);
+                    take.setInt(3, entry.getSeatsRequested());
+                    if (take.executeUpdate() == 0) {
+                        conn.rollback();
+                        return null;
+                    }
+
+                    promote.setString(1, now);
+                    promote.setInt(2, entry.getId());
+                    promote.executeUpdate();
+
+                    available -= entry.getSeatsRequested();
+                    dequeued.add(entry);
+                }
+
+                conn.commit();
+                return dequeued;
+
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+
+        } catch (SQLException e) {
+            LOG.error("Error cancelling booking", e);
+        }
+
+        return null;
+    }
+
     public boolean updateBookingStatus(int bookingId, String status) {
         String sql = "UPDATE bookings SET status = ? WHERE id = ?";
         try (Connection conn = DBConnection.getConnection();
@@ -53,8 +297,7 @@ public class BookingDAO {
             pstmt.setInt(2, bookingId);
             return pstmt.executeUpdate() > 0;
         } catch (SQLException e) {
-            System.err.println("Error updating booking status: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Error updating booking status", e);
         }
         return false;
     }
@@ -69,8 +312,7 @@ public class BookingDAO {
                 return rs.getInt("ride_id");
             }
         } catch (SQLException e) {
-            System.err.println("Error getting ride ID: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Error getting ride ID", e);
         }
         return null;
     }
@@ -85,7 +327,7 @@ public class BookingDAO {
             rideIds.add(rs.getInt("ride_id"));
         }
     } catch (SQLException e) {
-        e.printStackTrace();
+        LOG.error("Error fetching booked ride ids", e);
     }
     return rideIds;
 }
@@ -100,8 +342,7 @@ public class BookingDAO {
                 return rs.getInt("passenger_id");
             }
         } catch (SQLException e) {
-            System.err.println("Error getting passenger ID: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Error getting passenger ID", e);
         }
         return null;
     }
@@ -116,8 +357,7 @@ public class BookingDAO {
                 return rs.getInt("seats_booked");
             }
         } catch (SQLException e) {
-            System.err.println("Error getting seats: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Error getting seats", e);
         }
         return null;
     }
@@ -132,8 +372,7 @@ public class BookingDAO {
                 return rs.getString("status");
             }
         } catch (SQLException e) {
-            System.err.println("Error getting status: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Error getting status", e);
         }
         return null;
     }
@@ -148,8 +387,7 @@ public class BookingDAO {
                 return rs.getInt(1);
             }
         } catch (SQLException e) {
-            System.err.println("Error getting booking count: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Error getting booking count", e);
         }
         return 0;
     }
@@ -164,8 +402,7 @@ public class BookingDAO {
                 return rs.getInt(1);
             }
         } catch (SQLException e) {
-            System.err.println("Error getting booking count: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Error getting booking count", e);
         }
         return 0;
     }
@@ -182,8 +419,7 @@ public class BookingDAO {
                 return rs.getInt(1);
             }
         } catch (SQLException e) {
-            System.err.println("Error getting pending booking count: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Error getting pending booking count", e);
         }
         return 0;
     }
@@ -200,8 +436,7 @@ public class BookingDAO {
                 return rs.getInt("id");
             }
         } catch (SQLException e) {
-            System.err.println("Error getting booking ID: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Error getting booking ID", e);
         }
         return null;
     }
@@ -213,8 +448,7 @@ public class BookingDAO {
             pstmt.setInt(1, bookingId);
             return pstmt.executeUpdate() > 0;
         } catch (SQLException e) {
-            System.err.println("Error deleting booking: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Error deleting booking", e);
         }
         return false;
     }
@@ -0,0 +1,21 @@
+package dao;
+
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+
+// Column lookup shared by the row mappers, done once per ResultSet
+final class Columns {
+
+    private Columns() {
+    }
+
+    // 1-based position of the column, or 0 if the query didn't select it
+    static int find(ResultSetMetaData meta, String name) throws SQLException {
+        for (int i = 1; i <= meta.getColumnCount(); i++) {
+            if (name.equalsIgnoreCase(meta.getColumnLabel(i))) {
+                return i;
+            }
+        }
+        return 0;
+    }
+}
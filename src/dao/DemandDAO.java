@@ -0,0 +1,82 @@
+package dao;
+
+import models.RouteDemand;
+import utils.DBConnection;
+import utils.TemporalCache;
+import utils.Log;
+import utils.Logger;
+
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Snapshots of the in-memory route demand counters (route_demand). A
+ * snapshot replaces the previous one whole; the scores in it are as of
+ * snapshot_at and keep decaying from there when loaded.
+ */
+public class DemandDAO {
+
+    private static final Logger LOG = Log.getLogger(DemandDAO.class);
+
+    public boolean saveSnapshot(List<RouteDemand> demand, LocalDateTime takenAt) {
+        String sql = "INSERT INTO route_demand (origin, destination, hour_of_week, score, error, snapshot_at) " +
+                     "VALUES (?, ?, ?, ?, ?, ?)";
+
+        try (Connection conn = DBConnection.getConnection()) {
+            conn.setAutoCommit(false);
+
+            try (Statement clear = conn.createStatement();
+                 PreparedStatement insert = conn.prepareStatement(sql)) {
+
+                clear.executeUpdate("DELETE FROM route_demand");
+                String at = takenAt.withNano(0).toString();
+                for (RouteDemand d : demand) {
+                    insert.setString(1, d.getOrigin());
+                    insert.setString(2, d.getDestination());
+                    insert.setInt(3, d.getHourOfWeek());
+                    insert.setDouble(4, d.getScore());
+                    insert.setDouble(5, d.getError());
+                    insert.setString(6, at);
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+
+                conn.commit();
+                return true;
+
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+
+        } catch (SQLException e) {
+            LOG.error("Error saving route demand snapshot", e);
+        }
+
+        return false;
+    }
+
+    // Returns the last snapshot's time, or null if there is none; rows go into demand
+    public LocalDateTime loadSnapshot(List<RouteDemand> demand) {
+        String sql = "SELECT origin, destination, hour_of_week, score, error, snapshot_at FROM route_demand";
+        LocalDateTime takenAt = null;
+
+        try (Connection conn = DBConnection.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+
+            while (rs.next()) {
+                demand.add(new RouteDemand(rs.getString(1), rs.getString(2), rs.getInt(3),
+                                           rs.getDouble(4), rs.getDouble(5)));
+                takenAt = TemporalCache.timestamp(rs.getString(6));
+            }
+
+        } catch (SQLException e) {
+            LOG.error("Error loading route demand snapshot", e);
+        }
+
+        return takenAt;
+    }
+}
@@ -0,0 +1,40 @@
+package dao;
+
+import models.Destination;
+import utils.DBConnection;
+import utils.Log;
+import utils.Logger;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+
+public class DestinationDAO {
+
+    private static final Logger LOG = Log.getLogger(DestinationDAO.class);
+
+    public List<Destination> getAllDestinations() {
+        String sql = "SELECT id, name, description, latitude, longitude FROM destinations ORDER BY name";
+        List<Destination> destinations = new ArrayList<>();
+
+        try (Connection conn = DBConnection.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+
+            while (rs.next()) {
+                destinations.add(new Destination(
+                    rs.getInt("id"),
+                    rs.getString("name"),
+                    rs.getString("description"),
+                    rs.getDouble("latitude"),
+                    rs.getDouble("longitude")
+                ));
+            }
+
+        } catch (SQLException e) {
+            LOG.error("Error getting destinations", e);
+        }
+
+        return destinations;
+    }
+}
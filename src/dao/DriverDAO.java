@@ -2,13 +2,19 @@ package dao;
 
 import models.Driver;
 import utils.DBConnection;
+import utils.TemporalCache;
+import utils.Log;
+import utils.Logger;
 
 import java.sql.*;
-import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 
 public class DriverDAO {
 
+    private static final Logger LOG = Log.getLogger(DriverDAO.class);
+
     public boolean createDriver(Driver driver) {
         String sql = "INSERT INTO drivers (user_id, license_number, vehicle_model, " +
                      "vehicle_number, seats_available) VALUES (?, ?, ?, ?, ?)";
@@ -26,8 +32,7 @@ public class DriverDAO {
             return rowsAffected > 0;
             
         } catch (SQLException e) {
-            System.err.println("Error creating driver: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Error creating driver", e);
         }
         
         return false;
@@ -49,8 +54,7 @@ public class DriverDAO {
             return pstmt.executeUpdate() > 0;
             
         } catch (SQLException e) {
-            System.err.println("Error updating driver: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Error updating driver", e);
         }
         
         return false;
@@ -71,28 +75,21 @@ public class DriverDAO {
             }
             
         } catch (SQLException e) {
-            System.err.println("Error getting driver by user ID: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Error getting driver by user ID", e);
         }
         
         return null;
     }
 
     private Driver extractDriverFromResultSet(ResultSet rs) throws SQLException {
-        LocalDateTime blacklistUntil = null;
-        String blacklistStr = rs.getString("blacklist_until");
-        if (blacklistStr != null && !blacklistStr.isEmpty()) {
-            blacklistUntil = LocalDateTime.parse(blacklistStr);
-        }
-
-        return new Driver(
+        Driver driver = new Driver(
             rs.getInt("id"),
             rs.getString("name"),
             rs.getString("roll_number"),
             rs.getString("email"),
             rs.getString("password"),
             rs.getInt("warnings"),
-            blacklistUntil,
+            TemporalCache.timestamp(rs.getString("blacklist_until")),
             rs.getDouble("rating"),
             rs.getInt("total_ratings"),
             rs.getString("license_number"),
@@ -100,6 +97,28 @@ public class DriverDAO {
             rs.getString("vehicle_number"),
             rs.getInt("seats_available")
         );
+        driver.setAdmin(rs.getInt("is_admin") == 1);
+        return driver;
+    }
+
+    // Names of every registered driver, for the search index
+    public List<String> getAllDriverNames() {
+        String sql = "SELECT DISTINCT u.name FROM users u JOIN drivers d ON u.id = d.user_id ORDER BY u.name";
+        List<String> names = new ArrayList<>();
+
+        try (Connection conn = DBConnection.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+
+            while (rs.next()) {
+                names.add(rs.getString(1));
+            }
+
+        } catch (SQLException e) {
+            LOG.error("Error getting driver names", e);
+        }
+
+        return names;
     }
 
     public boolean deleteDriver(int userId) {
@@ -112,8 +131,7 @@ public class DriverDAO {
             return pstmt.executeUpdate() > 0;
             
         } catch (SQLException e) {
-            System.err.println("Error deleting driver: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Error deleting driver", e);
         }
         
         return false;
@@ -0,0 +1,92 @@
+package dao;
+
+import models.Notification;
+import utils.DBConnection;
+import utils.TemporalCache;
+import utils.Log;
+import utils.Logger;
+
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public class NotificationDAO {
+
+    private static final Logger LOG = Log.getLogger(NotificationDAO.class);
+
+    // Writes the whole batch in one transaction
+    public boolean insertNotifications(List<Notification> notifications) {
+        String sql = "INSERT INTO notifications (user_id, message, created_at) VALUES (?, ?, ?)";
+
+        try (Connection conn = DBConnection.getConnection()) {
+            conn.setAutoCommit(false);
+
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                for (Notification n : notifications) {
+                    pstmt.setInt(1, n.getUserId());
+                    pstmt.setString(2, n.getMessage());
+                    pstmt.setString(3, n.getCreatedAt().toString());
+                    pstmt.addBatch();
+                }
+                pstmt.executeBatch();
+                conn.commit();
+                return true;
+
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+
+        } catch (SQLException e) {
+            LOG.error("Error saving notifications", e);
+        }
+
+        return false;
+    }
+
+    public List<Notification> getUnreadNotifications(int userId) {
+        String sql = "SELECT id, user_id, message, created_at FROM notifications " +
+                     "WHERE user_id = ? AND read_at IS NULL ORDER BY id";
+        List<Notification> notifications = new ArrayList<>();
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setInt(1, userId);
+            ResultSet rs = pstmt.executeQuery();
+
+            while (rs.next()) {
+                notifications.add(new Notification(
+                    rs.getInt(1),
+                    rs.getInt(2),
+                    rs.getString(3),
+                    TemporalCache.timestamp(rs.getString(4))
+                ));
+            }
+
+        } catch (SQLException e) {
+            LOG.error("Error getting notifications", e);
+        }
+
+        return notifications;
+    }
+
+    public boolean markAllRead(int userId) {
+        String sql = "UPDATE notifications SET read_at = ? WHERE user_id = ? AND read_at IS NULL";
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setString(1, LocalDateTime.now().withNano(0).toString());
+            pstmt.setInt(2, userId);
+            pstmt.executeUpdate();
+            return true;
+
+        } catch (SQLException e) {
+            LOG.error("Error marking notifications read", e);
+        }
+
+        return false;
+    }
+}
@@ -2,13 +2,17 @@ package dao;
 
 import models.Passenger;
 import utils.DBConnection;
+import utils.TemporalCache;
+import utils.Log;
+import utils.Logger;
 
 import java.sql.*;
-import java.time.LocalDateTime;
 
 
 public class PassengerDAO {
 
+    private static final Logger LOG = Log.getLogger(PassengerDAO.class);
+
     public boolean createPassenger(Passenger passenger) {
         String sql = "INSERT INTO passengers (user_id, preferred_destination) VALUES (?, ?)";
         
@@ -22,8 +26,7 @@ public class PassengerDAO {
             return rowsAffected > 0;
             
         } catch (SQLException e) {
-            System.err.println("Error creating passenger: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Error creating passenger", e);
         }
         
         return false;
@@ -41,8 +44,7 @@ public class PassengerDAO {
             return pstmt.executeUpdate() > 0;
             
         } catch (SQLException e) {
-            System.err.println("Error updating passenger: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Error updating passenger", e);
         }
         
         return false;
@@ -63,32 +65,27 @@ public class PassengerDAO {
             }
             
         } catch (SQLException e) {
-            System.err.println("Error getting passenger by user ID: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Error getting passenger by user ID", e);
         }
         
         return null;
     }
 
     private Passenger extractPassengerFromResultSet(ResultSet rs) throws SQLException {
-        LocalDateTime blacklistUntil = null;
-        String blacklistStr = rs.getString("blacklist_until");
-        if (blacklistStr != null && !blacklistStr.isEmpty()) {
-            blacklistUntil = LocalDateTime.parse(blacklistStr);
-        }
-
-        return new Passenger(
+        Passenger passenger = new Passenger(
             rs.getInt("id"),
             rs.getString("name"),
             rs.getString("roll_number"),
             rs.getString("email"),
             rs.getString("password"),
             rs.getInt("warnings"),
-            blacklistUntil,
+            TemporalCache.timestamp(rs.getString("blacklist_until")),
             rs.getDouble("rating"),
             rs.getInt("total_ratings"),
             rs.getString("preferred_destination")
         );
+        passenger.setAdmin(rs.getInt("is_admin") == 1);
+        return passenger;
     }
 
     public boolean deletePassenger(int userId) {
@@ -101,8 +98,7 @@ public class PassengerDAO {
             return pstmt.executeUpdate() > 0;
             
         } catch (SQLException e) {
-            System.err.println("Error deleting passenger: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Error deleting passenger", e);
         }
         
         return false;
@@ -0,0 +1,76 @@
+package dao;
+
+import models.RouteBaseline;
+import utils.DBConnection;
+import utils.Log;
+import utils.Logger;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Per-route price baselines in route_price_baselines. Like the user
+ * statistics, a route's totals are bumped by recordCompletedRide on the
+ * caller's connection, inside the transaction that completes the ride.
+ * Each bump takes the next version number; writers are serialized, so
+ * versions become visible in order and getBaselinesSince never skips one.
+ */
+public class PricingDAO {
+
+    private static final Logger LOG = Log.getLogger(PricingDAO.class);
+
+    // The WHERE clause keeps SQLite from reading ON CONFLICT as a join constraint
+    private static final String RIDE_COMPLETED_SQL =
+        "INSERT INTO route_price_baselines (origin, destination, rides, price_sum, seats_filled, revenue, version) " +
+        "SELECT r.origin, r.destination, 1, r.price_per_seat, COALESCE(SUM(b.seats_booked), 0), " +
+        "COALESCE(SUM(b.seats_booked), 0) * r.price_per_seat, " +
+        "(SELECT COALESCE(MAX(version), 0) + 1 FROM route_price_baselines) " +
+        "FROM rides r LEFT JOIN bookings b ON b.ride_id = r.id AND b.status <> 'CANCELLED' " +
+        "WHERE r.id = ? GROUP BY r.id " +
+        "ON CONFLICT(origin, destination) DO UPDATE SET " +
+        "rides = rides + excluded.rides, " +
+        "price_sum = price_sum + excluded.price_sum, " +
+        "seats_filled = seats_filled + excluded.seats_filled, " +
+        "revenue = revenue + excluded.revenue, " +
+        "version = excluded.version";
+
+    // Routes changed after the given version, in version order
+    public List<RouteBaseline> getBaselinesSince(long version) {
+        String sql = "SELECT * FROM route_price_baselines WHERE version > ? ORDER BY version";
+        List<RouteBaseline> baselines = new ArrayList<>();
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setLong(1, version);
+            ResultSet rs = pstmt.executeQuery();
+
+            while (rs.next()) {
+                baselines.add(new RouteBaseline(
+                    rs.getString("origin"),
+                    rs.getString("destination"),
+                    rs.getInt("rides"),
+                    rs.getDouble("price_sum"),
+                    rs.getInt("seats_filled"),
+                    rs.getDouble("revenue"),
+                    rs.getLong("version")
+                ));
+            }
+
+        } catch (SQLException e) {
+            LOG.error("Error getting route price baselines", e);
+            return null;
+        }
+
+        return baselines;
+    }
+
+    // Call just after the ride's status flipped from ACTIVE to COMPLETED
+    static void recordCompletedRide(Connection conn, int rideId) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(RIDE_COMPLETED_SQL)) {
+            pstmt.setInt(1, rideId);
+            pstmt.executeUpdate();
+        }
+    }
+}
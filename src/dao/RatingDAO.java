@@ -0,0 +1,216 @@
+package dao;
+
+import models.Rating;
+import models.RatingSummary;
+import utils.DBConnection;
+import utils.TemporalCache;
+import utils.Log;
+import utils.Logger;
+
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public class RatingDAO {
+
+    private static final Logger LOG = Log.getLogger(RatingDAO.class);
+
+    private static final String UPSERT_STATS_SQL =
+        "INSERT INTO user_rating_stats (user_id, score_sum, rating_count, " +
+        "count_1, count_2, count_3, count_4, count_5, last_rated_at) " +
+        "VALUES (?, ?, 1, ?, ?, ?, ?, ?, ?) " +
+        "ON CONFLICT(user_id) DO UPDATE SET " +
+        "score_sum = score_sum + excluded.score_sum, " +
+        "rating_count = rating_count + 1, " +
+        "count_1 = count_1 + excluded.count_1, " +
+        "count_2 = count_2 + excluded.count_2, " +
+        "count_3 = count_3 + excluded.count_3, " +
+        "count_4 = count_4 + excluded.count_4, " +
+        "count_5 = count_5 + excluded.count_5, " +
+        "last_rated_at = excluded.last_rated_at";
+
+    // Keeps users.rating / users.total_ratings in step with the aggregate row
+    private static final String SYNC_USER_SQL =
+        "UPDATE users SET (rating, total_ratings) = " +
+        "(SELECT CAST(score_sum AS REAL) / rating_count, rating_count " +
+        "FROM user_rating_stats WHERE user_id = users.id) " +
+        "WHERE id = ?";
+
+    public boolean createRating(int fromUserId, int toUserId, int rideId, int score, String comment) {
+        String insertSql = "INSERT INTO ratings (from_user_id, to_user_id, ride_id, score, comment, timestamp) " +
+                           "VALUES (?, ?, ?, ?, ?, ?)";
+        String now = LocalDateTime.now().withNano(0).toString();
+
+        try (Connection conn = DBConnection.getConnection()) {
+            conn.setAutoCommit(false);
+
+            try (PreparedStatement insert = conn.prepareStatement(insertSql);
+                 PreparedStatement upsert = conn.prepareStatement(UPSERT_STATS_SQL);
+                 PreparedStatement sync = conn.prepareStatement(SYNC_USER_SQL)) {
+
+                insert.setInt(1, fromUserId);
+                insert.setInt(2, toUserId);
+                insert.setInt(3, rideId);
+                insert.setInt(4, score);
+                insert.setString(5, comment);
+                insert.setString(6, now);
+                insert.executeUpdate();
+
+                upsert.setInt(1, toUserId);
+                upsert.setInt(2, score);
+                for (int stars = 1; stars <= 5; stars++) {
+                    upsert.setInt(2 + stars, score == stars ? 1 : 0);
+                }
+                upsert.setString(8, now);
+                upsert.executeUpdate();
+
+                sync.setInt(1, toUserId);
+                sync.executeUpdate();
+
+                conn.commit();
+                return true;
+
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+
+        } catch (SQLException e) {
+            LOG.error("Error creating rating", e);
+        }
+
+        return false;
+    }
+
+    public boolean hasRated(int fromUserId, int toUserId, int rideId) {
+        String sql = "SELECT 1 FROM ratings WHERE from_user_id = ? AND to_user_id = ? AND ride_id = ?";
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setInt(1, fromUserId);
+            pstmt.setInt(2, toUserId);
+            pstmt.setInt(3, rideId);
+            ResultSet rs = pstmt.executeQuery();
+            return rs.next();
+
+        } catch (SQLException e) {
+            LOG.error("Error checking rating", e);
+        }
+
+        return false;
+    }
+
+    public RatingSummary getRatingSummary(int userId) {
+        String sql = "SELECT * FROM user_rating_stats WHERE user_id = ?";
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setInt(1, userId);
+            ResultSet rs = pstmt.executeQuery();
+
+            if (rs.next()) {
+                int[] starCounts = new int[5];
+                for (int stars = 1; stars <= 5; stars++) {
+                    starCounts[stars - 1] = rs.getInt("count_" + stars);
+                }
+                return new RatingSummary(
+                    userId,
+                    rs.getLong("score_sum"),
+                    rs.getInt("rating_count"),
+                    starCounts,
+                    TemporalCache.timestamp(rs.getString("last_rated_at"))
+                );
+            }
+
+        } catch (SQLException e) {
+            LOG.error("Error getting rating summary", e);
+        }
+
+        return new RatingSummary(userId);
+    }
+
+    public List<Rating> getRecentRatings(int userId, int limit) {
+        String sql = "SELECT r.*, u.name AS from_user_name FROM ratings r " +
+                     "JOIN users u ON u.id = r.from_user_id " +
+                     "WHERE r.to_user_id = ? ORDER BY r.timestamp DESC LIMIT ?";
+        List<Rating> ratings = new ArrayList<>();
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setInt(1, userId);
+            pstmt.setInt(2, limit);
+            ResultSet rs = pstmt.executeQuery();
+
+            RatingRowMapper mapper = new RatingRowMapper(rs);
+            while (rs.next()) {
+                ratings.add(mapper.map(rs));
+            }
+
+        } catch (SQLException e) {
+            LOG.error("Error getting recent ratings", e);
+        }
+
+        return ratings;
+    }
+
+    /**
+     * Recomputes every aggregate row from the ratings table and re-syncs the
+     * denormalized columns on users. Returns how many users had drifted from
+     * the recomputed values, or -1 if the rebuild failed.
+     */
+    public int rebuildRatingStats() {
+        String driftSql =
+            "SELECT " +
+            "(SELECT COUNT(*) FROM (SELECT to_user_id, SUM(score) AS s, COUNT(*) AS c " +
+            "  FROM ratings GROUP BY to_user_id) t " +
+            "  LEFT JOIN user_rating_stats a ON a.user_id = t.to_user_id " +
+            "  WHERE a.user_id IS NULL OR a.score_sum != t.s OR a.rating_count != t.c) + " +
+            "(SELECT COUNT(*) FROM user_rating_stats " +
+            "  WHERE user_id NOT IN (SELECT to_user_id FROM ratings))";
+        String rebuildSql =
+            "INSERT INTO user_rating_stats (user_id, score_sum, rating_count, " +
+            "count_1, count_2, count_3, count_4, count_5, last_rated_at) " +
+            "SELECT to_user_id, SUM(score), COUNT(*), " +
+            "SUM(score = 1), SUM(score = 2), SUM(score = 3), SUM(score = 4), SUM(score = 5), " +
+            "MAX(timestamp) FROM ratings GROUP BY to_user_id";
+        String syncAllSql =
+            "UPDATE users SET " +
+            "rating = COALESCE((SELECT CAST(score_sum AS REAL) / rating_count " +
+            "FROM user_rating_stats WHERE user_id = users.id), 0.0), " +
+            "total_ratings = COALESCE((SELECT rating_count " +
+            "FROM user_rating_stats WHERE user_id = users.id), 0)";
+
+        try (Connection conn = DBConnection.getConnection()) {
+            conn.setAutoCommit(false);
+
+            try (Statement stmt = conn.createStatement()) {
+                int drift = 0;
+                try (ResultSet rs = stmt.executeQuery(driftSql)) {
+                    if (rs.next()) {
+                        drift = rs.getInt(1);
+                    }
+                }
+
+                stmt.executeUpdate("DELETE FROM user_rating_stats");
+                stmt.executeUpdate(rebuildSql);
+                stmt.executeUpdate(syncAllSql);
+
+                conn.commit();
+                return drift;
+
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+
+        } catch (SQLException e) {
+            LOG.error("Error rebuilding rating stats", e);
+        }
+
+        return -1;
+    }
+}
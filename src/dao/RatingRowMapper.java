@@ -0,0 +1,62 @@
+package dao;
+
+import models.Rating;
+import models.Ride;
+import models.User;
+import utils.TemporalCache;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+
+/**
+ * Maps rows of a ratings query (joined with the rater's name) to Rating
+ * objects, with column positions resolved once per ResultSet like
+ * RideRowMapper.
+ */
+public class RatingRowMapper {
+
+    private final int id;
+    private final int fromUserId;
+    private final int fromUserName;
+    private final int toUserId;
+    private final int rideId;
+    private final int score;
+    private final int comment;
+    private final int timestamp;
+
+    public RatingRowMapper(ResultSet rs) throws SQLException {
+        ResultSetMetaData meta = rs.getMetaData();
+        this.id = Columns.find(meta, "id");
+        this.fromUserId = Columns.find(meta, "from_user_id");
+        this.fromUserName = Columns.find(meta, "from_user_name");
+        this.toUserId = Columns.find(meta, "to_user_id");
+        this.rideId = Columns.find(meta, "ride_id");
+        this.score = Columns.find(meta, "score");
+        this.comment = Columns.find(meta, "comment");
+        this.timestamp = Columns.find(meta, "timestamp");
+    }
+
+    public Rating map(ResultSet rs) throws SQLException {
+        User fromUser = new User();
+        fromUser.setId(rs.getInt(fromUserId));
+        fromUser.setName(fromUserName > 0 ? rs.getString(fromUserName) : null);
+
+        User toUser = new User();
+        toUser.setId(rs.getInt(toUserId));
+
+        Ride ride = new Ride();
+        ride.setId(rs.getInt(rideId));
+
+        Rating rating = new Rating(
+            rs.getInt(id),
+            fromUser,
+            toUser,
+            ride,
+            rs.getInt(score),
+            rs.getString(comment)
+        );
+        rating.setTimestamp(TemporalCache.timestamp(rs.getString(timestamp)));
+        return rating;
+    }
+}
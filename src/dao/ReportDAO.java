@@ -1,40 +1,84 @@
 package dao;
 
+import models.ModerationItem;
 import models.Report;
+import models.ReportCounters;
+import utils.Constants;
 import utils.DBConnection;
+import utils.Log;
+import utils.Logger;
 
 import java.sql.*;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class ReportDAO {
 
+    private static final Logger LOG = Log.getLogger(ReportDAO.class);
+
     public boolean createReport(int reportedBy, int reportedUser, Integer rideId, String reason) {
-        String sql = "INSERT INTO reports (reported_by, reported_user, ride_id, reason, status) " +
-                     "VALUES (?, ?, ?, ?, 'PENDING')";
-        
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-            
-            pstmt.setInt(1, reportedBy);
-            pstmt.setInt(2, reportedUser);
-            if (rideId != null) {
-                pstmt.setInt(3, rideId);
-            } else {
-                pstmt.setNull(3, Types.INTEGER);
+        return recordReport(reportedBy, reportedUser, rideId, reason) != null;
+    }
+
+    /**
+     * Inserts a PENDING report and bumps the reported user's counters in one
+     * transaction. Returns the counters as of the insert, or null on failure.
+     */
+    public ReportCounters recordReport(int reportedBy, int reportedUser, Integer rideId, String reason) {
+        String insertSql = "INSERT INTO reports (reported_by, reported_user, ride_id, reason, status, timestamp) " +
+                           "VALUES (?, ?, ?, ?, 'PENDING', ?)";
+        String countersSql = "INSERT INTO user_report_counters (user_id, pending_count, last_report_at) " +
+                             "VALUES (?, 1, ?) ON CONFLICT(user_id) DO UPDATE SET " +
+                             "pending_count = pending_count + 1, last_report_at = excluded.last_report_at";
+        String dailySql = "INSERT INTO user_report_daily (user_id, day, report_count) VALUES (?, ?, 1) " +
+                          "ON CONFLICT(user_id, day) DO UPDATE SET report_count = report_count + 1";
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+
+        try (Connection conn = DBConnection.getConnection()) {
+            conn.setAutoCommit(false);
+
+            try (PreparedStatement insert = conn.prepareStatement(insertSql);
+                 PreparedStatement counters = conn.prepareStatement(countersSql);
+                 PreparedStatement daily = conn.prepareStatement(dailySql)) {
+
+                insert.setInt(1, reportedBy);
+                insert.setInt(2, reportedUser);
+                if (rideId != null) {
+                    insert.setInt(3, rideId);
+                } else {
+                    insert.setNull(3, Types.INTEGER);
+                }
+                insert.setString(4, reason);
+                insert.setString(5, now.toString());
+                insert.executeUpdate();
+
+                counters.setInt(1, reportedUser);
+                counters.setString(2, now.toString());
+                counters.executeUpdate();
+
+                daily.setInt(1, reportedUser);
+                daily.setString(2, now.toLocalDate().toString());
+                daily.executeUpdate();
+
+                ReportCounters result = readCounters(conn, reportedUser);
+                conn.commit();
+                return result;
+
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
             }
-            pstmt.setString(4, reason);
-            
-            int rowsAffected = pstmt.executeUpdate();
-            return rowsAffected > 0;
-            
+
         } catch (SQLException e) {
-            System.err.println("Error creating report: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Error creating report", e);
         }
-        
-        return false;
+
+        return null;
     }
 
     public Report getReportById(int reportId) {
@@ -47,12 +91,11 @@ public class ReportDAO {
             ResultSet rs = pstmt.executeQuery();
             
             if (rs.next()) {
-                return extractReportFromResultSet(rs);
+                return new ReportRowMapper(rs).map(rs);
             }
             
         } catch (SQLException e) {
-            System.err.println("Error getting report: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Error getting report", e);
         }
         
         return null;
@@ -66,18 +109,104 @@ public class ReportDAO {
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
             
+            ReportRowMapper mapper = new ReportRowMapper(rs);
             while (rs.next()) {
-                reports.add(extractReportFromResultSet(rs));
+                reports.add(mapper.map(rs));
             }
             
         } catch (SQLException e) {
-            System.err.println("Error getting pending reports: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Error getting pending reports", e);
         }
         
         return reports;
     }
 
+    public int getPendingReportCount() {
+        String sql = "SELECT COUNT(*) FROM reports WHERE status = 'PENDING'";
+
+        try (Connection conn = DBConnection.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+
+            if (rs.next()) {
+                return rs.getInt(1);
+            }
+
+        } catch (SQLException e) {
+            LOG.error("Error counting pending reports", e);
+        }
+
+        return 0;
+    }
+
+    /**
+     * One page of pending reports ordered by moderation priority, highest
+     * first. Reporter trust, the target's active report count and report age
+     * (capped) are weighted and summed; ties fall back to report id.
+     *
+     * Ages are measured at asOf rather than now, so priorities hold still
+     * while an admin pages through the queue. Pages continue after the
+     * (priority, id) of the last item shown (null for the first page)
+     * instead of an offset, so reviewing shown reports doesn't shift the
+     * pages that follow.
+     */
+    public List<ModerationItem> getModerationQueuePage(LocalDateTime asOf, ModerationItem after, int limit) {
+        String sql = "SELECT * FROM (SELECT q.*, " +
+                     "(q.reporter_trust * ? + q.target_count * ? + q.age_hours * ?) AS priority " +
+                     "FROM (SELECT r.*, ru.name AS reporter_name, tu.name AS reported_name, " +
+                     "  (COALESCE(NULLIF(ru.rating, 0), 3.0) - ru.warnings) AS reporter_trust, " +
+                     "  COALESCE(c.pending_count + c.resolved_count, 0) AS target_count, " +
+                     "  MAX(MIN((julianday(?) - julianday(r.timestamp)) * 24, ?), 0) AS age_hours " +
+                     "  FROM reports r " +
+                     "  JOIN users ru ON ru.id = r.reported_by " +
+                     "  JOIN users tu ON tu.id = r.reported_user " +
+                     "  LEFT JOIN user_report_counters c ON c.user_id = r.reported_user " +
+                     "  WHERE r.status = 'PENDING') q) " +
+                     (after != null ? "WHERE priority < ? OR (priority = ? AND id > ?) " : "") +
+                     "ORDER BY priority DESC, id LIMIT ?";
+        List<ModerationItem> items = new ArrayList<>();
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            int i = 1;
+            pstmt.setDouble(i++, Constants.MODERATION_TRUST_WEIGHT);
+            pstmt.setDouble(i++, Constants.MODERATION_TARGET_WEIGHT);
+            pstmt.setDouble(i++, Constants.MODERATION_AGE_WEIGHT);
+            pstmt.setString(i++, asOf.withNano(0).toString());
+            pstmt.setInt(i++, Constants.MODERATION_MAX_AGE_HOURS);
+            if (after != null) {
+                pstmt.setDouble(i++, after.getPriority());
+                pstmt.setDouble(i++, after.getPriority());
+                pstmt.setInt(i++, after.getReportId());
+            }
+            pstmt.setInt(i, limit);
+            ResultSet rs = pstmt.executeQuery();
+
+            ReportRowMapper mapper = new ReportRowMapper(rs);
+            int reporterName = rs.findColumn("reporter_name");
+            int reportedName = rs.findColumn("reported_name");
+            int reporterTrust = rs.findColumn("reporter_trust");
+            int targetCount = rs.findColumn("target_count");
+            int priority = rs.findColumn("priority");
+            while (rs.next()) {
+                items.add(new ModerationItem(
+                    mapper.map(rs),
+                    rs.getString(reporterName),
+                    rs.getString(reportedName),
+                    rs.getDouble(reporterTrust),
+                    rs.getInt(targetCount),
+                    rs.getDouble(priority)
+                ));
+            }
+
+        } catch (SQLException e) {
+            LOG.error("Error getting moderation queue", e);
+        }
+
+        return items;
+    }
+
     public List<Report> getReportsByReportedUser(int userId) {
         String sql = "SELECT * FROM reports WHERE reported_user = ? ORDER BY timestamp DESC";
         List<Report> reports = new ArrayList<>();
@@ -88,13 +217,13 @@ public class ReportDAO {
             pstmt.setInt(1, userId);
             ResultSet rs = pstmt.executeQuery();
             
+            ReportRowMapper mapper = new ReportRowMapper(rs);
             while (rs.next()) {
-                reports.add(extractReportFromResultSet(rs));
+                reports.add(mapper.map(rs));
             }
             
         } catch (SQLException e) {
-            System.err.println("Error getting reports by reported user: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Error getting reports by reported user", e);
         }
         
         return reports;
@@ -111,78 +240,289 @@ public class ReportDAO {
             pstmt.setInt(1, userId);
             ResultSet rs = pstmt.executeQuery();
             
+            ReportRowMapper mapper = new ReportRowMapper(rs);
             while (rs.next()) {
-                reports.add(extractReportFromResultSet(rs));
+                reports.add(mapper.map(rs));
             }
             
         } catch (SQLException e) {
-            System.err.println("Error getting reports by reporter: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Error getting reports by reporter", e);
         }
         
         return reports;
     }
 
     public int getReportCountForUser(int userId) {
-        String sql = "SELECT COUNT(*) FROM reports WHERE reported_user = ? AND status IN ('PENDING', 'RESOLVED')";
-        
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            pstmt.setInt(1, userId);
+        return getReportCounters(userId).getActiveCount();
+    }
+
+    public ReportCounters getReportCounters(int userId) {
+        try (Connection conn = DBConnection.getConnection()) {
+            return readCounters(conn, userId);
+        } catch (SQLException e) {
+            LOG.error("Error getting report counters", e);
+        }
+
+        return new ReportCounters(userId, 0, 0, 0, 0);
+    }
+
+    private ReportCounters readCounters(Connection conn, int userId) throws SQLException {
+        String sql = "SELECT c.pending_count, c.reviewed_count, c.resolved_count, " +
+                     "(SELECT COALESCE(SUM(report_count), 0) FROM user_report_daily " +
+                     " WHERE user_id = k.user_id AND day >= ?) AS recent_count " +
+                     "FROM (SELECT ? AS user_id) k " +
+                     "LEFT JOIN user_report_counters c ON c.user_id = k.user_id";
+
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, windowStart().toString());
+            pstmt.setInt(2, userId);
             ResultSet rs = pstmt.executeQuery();
-            
+
             if (rs.next()) {
-                return rs.getInt(1);
+                return new ReportCounters(
+                    userId,
+                    rs.getInt("pending_count"),
+                    rs.getInt("reviewed_count"),
+                    rs.getInt("resolved_count"),
+                    rs.getInt("recent_count")
+                );
             }
-            
-        } catch (SQLException e) {
-            System.err.println("Error getting report count: " + e.getMessage());
-            e.printStackTrace();
         }
-        
-        return 0;
+
+        return new ReportCounters(userId, 0, 0, 0, 0);
     }
 
     public boolean updateReportStatus(int reportId, String status) {
-        String sql = "UPDATE reports SET status = ? WHERE id = ?";
-        
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            pstmt.setString(1, status);
-            pstmt.setInt(2, reportId);
-            
-            return pstmt.executeUpdate() > 0;
-            
+        String selectSql = "SELECT reported_user, status FROM reports WHERE id = ?";
+        String updateSql = "UPDATE reports SET status = ? WHERE id = ?";
+        String newColumn = counterColumn(status);
+
+        try (Connection conn = DBConnection.getConnection()) {
+            conn.setAutoCommit(false);
+
+            try (PreparedStatement select = conn.prepareStatement(selectSql);
+                 PreparedStatement update = conn.prepareStatement(updateSql)) {
+
+                select.setInt(1, reportId);
+                ResultSet rs = select.executeQuery();
+                if (!rs.next()) {
+                    conn.rollback();
+                    return false;
+                }
+                int reportedUser = rs.getInt("reported_user");
+                String oldColumn = counterColumn(rs.getString("status"));
+                rs.close();
+
+                update.setString(1, status);
+                update.setInt(2, reportId);
+                update.executeUpdate();
+
+                if (!oldColumn.equals(newColumn)) {
+                    String adjustSql = "INSERT INTO user_report_counters (user_id, " + newColumn + ") " +
+                                       "VALUES (?, 1) ON CONFLICT(user_id) DO UPDATE SET " +
+                                       oldColumn + " = MAX(" + oldColumn + " - 1, 0), " +
+                                       newColumn + " = " + newColumn + " + 1";
+                    try (PreparedStatement adjust = conn.prepareStatement(adjustSql)) {
+                        adjust.setInt(1, reportedUser);
+                        adjust.executeUpdate();
+                    }
+                }
+
+                conn.commit();
+                return true;
+
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+
         } catch (SQLException e) {
-            System.err.println("Error updating report status: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Error updating report status", e);
         }
-        
+
         return false;
     }
 
-    private Report extractReportFromResultSet(ResultSet rs) throws SQLException {
-        Report report = new Report();
-        report.setId(rs.getInt("id"));
-        report.setReportedBy(rs.getInt("reported_by"));
-        report.setReportedUserId(rs.getInt("reported_user"));
-        
-        int rideId = rs.getInt("ride_id");
-        if (!rs.wasNull()) {
-            report.setRideId(rideId);
+    /**
+     * Reviews many reports in one transaction: statuses, counters and the
+     * warnings/blacklists for approved reports are all written together.
+     * Reports that are no longer PENDING are skipped. Returns the number of
+     * reports reviewed, or -1 if the transaction failed.
+     */
+    public int reviewReports(Collection<Integer> approvedIds, Collection<Integer> rejectedIds,
+                             int warningsBeforeBlacklist, LocalDateTime blacklistUntil) {
+        String statusSql = "UPDATE reports SET status = ? WHERE id = ? AND status = 'PENDING' " +
+                           "RETURNING reported_user";
+        String countersSql = "INSERT INTO user_report_counters (user_id, resolved_count, reviewed_count) " +
+                             "VALUES (?, ?, ?) ON CONFLICT(user_id) DO UPDATE SET " +
+                             "pending_count = MAX(pending_count - ?, 0), " +
+                             "resolved_count = resolved_count + excluded.resolved_count, " +
+                             "reviewed_count = reviewed_count + excluded.reviewed_count";
+        String warningsSql = "UPDATE users SET warnings = warnings + ?, " +
+                             "blacklist_until = CASE WHEN warnings + ? >= ? THEN ? ELSE blacklist_until END " +
+                             "WHERE id = ?";
+
+        // reported user -> {approved, rejected}
+        Map<Integer, int[]> perUser = new HashMap<>();
+        int reviewed = 0;
+
+        try (Connection conn = DBConnection.getConnection()) {
+            conn.setAutoCommit(false);
+
+            try (PreparedStatement status = conn.prepareStatement(statusSql);
+                 PreparedStatement counters = conn.prepareStatement(countersSql);
+                 PreparedStatement warnings = conn.prepareStatement(warningsSql)) {
+
+                for (int pass = 0; pass < 2; pass++) {
+                    boolean approve = pass == 0;
+                    Collection<Integer> ids = approve ? approvedIds : rejectedIds;
+                    status.setString(1, approve ? Constants.REPORT_RESOLVED : Constants.REPORT_REVIEWED);
+
+                    for (int reportId : ids) {
+                        status.setInt(2, reportId);
+                        try (ResultSet rs = status.executeQuery()) {
+                            if (rs.next()) {
+                                perUser.computeIfAbsent(rs.getInt(1), k -> new int[2])[approve ? 0 : 1]++;
+                                reviewed++;
+                            }
+                        }
+                    }
+                }
+
+                for (Map.Entry<Integer, int[]> entry : perUser.entrySet()) {
+                    int userId = entry.getKey();
+                    int approved = entry.getValue()[0];
+                    int rejected = entry.getValue()[1];
+
+                    counters.setInt(1, userId);
+                    counters.setInt(2, approved);
+                    counters.setInt(3, rejected);
+                    counters.setInt(4, approved + rejected);
+                    counters.addBatch();
+
+                    if (approved > 0) {
+                        warnings.setInt(1, approved);
+                        warnings.setInt(2, approved);
+                        warnings.setInt(3, warningsBeforeBlacklist);
+                        warnings.setString(4, blacklistUntil.toString());
+                        warnings.setInt(5, userId);
+                        warnings.addBatch();
+                    }
+                }
+                counters.executeBatch();
+                warnings.executeBatch();
+
+                conn.commit();
+                return reviewed;
+
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+
+        } catch (SQLException e) {
+            LOG.error("Error reviewing reports", e);
         }
-        
-        report.setReason(rs.getString("reason"));
-        report.setStatus(rs.getString("status"));
-        
-        String timestampStr = rs.getString("timestamp");
-        if (timestampStr != null) {
-            report.setTimestamp(LocalDateTime.parse(timestampStr));
+
+        return -1;
+    }
+
+    /**
+     * Recomputes the counters and the daily buckets of the recent window from
+     * the reports table in one transaction. Returns how many users had
+     * drifted from the recomputed values, or -1 if the rebuild failed.
+     */
+    public int rebuildReportCounters() {
+        String driftSql =
+            "WITH t AS (SELECT reported_user AS user_id, SUM(status = 'PENDING') AS p, " +
+            "  SUM(status = 'REVIEWED') AS v, SUM(status = 'RESOLVED') AS r, SUM(timestamp >= ?) AS w " +
+            "  FROM reports GROUP BY reported_user), " +
+            "s AS (SELECT user_id, pending_count AS p, reviewed_count AS v, resolved_count AS r, " +
+            "  (SELECT COALESCE(SUM(report_count), 0) FROM user_report_daily d " +
+            "   WHERE d.user_id = c.user_id AND d.day >= ?) AS w FROM user_report_counters c) " +
+            "SELECT " +
+            "(SELECT COUNT(*) FROM t LEFT JOIN s ON s.user_id = t.user_id " +
+            "  WHERE s.user_id IS NULL OR s.p != t.p OR s.v != t.v OR s.r != t.r OR s.w != t.w) + " +
+            "(SELECT COUNT(*) FROM s WHERE user_id NOT IN (SELECT user_id FROM t))";
+        String countersSql =
+            "INSERT INTO user_report_counters (user_id, pending_count, reviewed_count, " +
+            "resolved_count, last_report_at) " +
+            "SELECT reported_user, SUM(status = 'PENDING'), SUM(status = 'REVIEWED'), " +
+            "SUM(status = 'RESOLVED'), MAX(timestamp) FROM reports GROUP BY reported_user";
+        String dailySql =
+            "INSERT INTO user_report_daily (user_id, day, report_count) " +
+            "SELECT reported_user, substr(timestamp, 1, 10), COUNT(*) FROM reports " +
+            "WHERE timestamp >= ? GROUP BY reported_user, substr(timestamp, 1, 10)";
+        String from = windowStart().toString();
+
+        try (Connection conn = DBConnection.getConnection()) {
+            conn.setAutoCommit(false);
+
+            try (PreparedStatement check = conn.prepareStatement(driftSql);
+                 Statement stmt = conn.createStatement();
+                 PreparedStatement daily = conn.prepareStatement(dailySql)) {
+
+                int drift = 0;
+                check.setString(1, from);
+                check.setString(2, from);
+                try (ResultSet rs = check.executeQuery()) {
+                    if (rs.next()) {
+                        drift = rs.getInt(1);
+                    }
+                }
+
+                stmt.executeUpdate("DELETE FROM user_report_counters");
+                stmt.executeUpdate("DELETE FROM user_report_daily");
+                stmt.executeUpdate(countersSql);
+                daily.setString(1, from);
+                daily.executeUpdate();
+
+                conn.commit();
+                return drift;
+
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+
+        } catch (SQLException e) {
+            LOG.error("Error rebuilding report counters", e);
+        }
+
+        return -1;
+    }
+
+    public int pruneDailyReportCounts() {
+        String sql = "DELETE FROM user_report_daily WHERE day < ?";
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setString(1, windowStart().toString());
+            return pstmt.executeUpdate();
+
+        } catch (SQLException e) {
+            LOG.error("Error pruning report counts", e);
+        }
+
+        return 0;
+    }
+
+    private LocalDate windowStart() {
+        return LocalDate.now().minusDays(Constants.REPORT_WINDOW_DAYS - 1);
+    }
+
+    private String counterColumn(String status) {
+        switch (status) {
+            case Constants.REPORT_PENDING:
+                return "pending_count";
+            case Constants.REPORT_REVIEWED:
+                return "reviewed_count";
+            case Constants.REPORT_RESOLVED:
+                return "resolved_count";
+            default:
+                throw new IllegalArgumentException("Unknown report status: " + status);
         }
-        
-        return report;
     }
 
     public boolean deleteReport(int reportId) {
@@ -195,8 +535,7 @@ public class ReportDAO {
             return pstmt.executeUpdate() > 0;
             
         } catch (SQLException e) {
-            System.err.println("Error deleting report: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Error deleting report", e);
         }
         
         return false;
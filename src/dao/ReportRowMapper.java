@@ -0,0 +1,51 @@
+package dao;
+
+import models.Report;
+import utils.TemporalCache;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+
+/**
+ * Maps rows of a reports query to Report objects, with column positions
+ * resolved once per ResultSet like RideRowMapper.
+ */
+public class ReportRowMapper {
+
+    private final int id;
+    private final int reportedBy;
+    private final int reportedUser;
+    private final int rideId;
+    private final int reason;
+    private final int status;
+    private final int timestamp;
+
+    public ReportRowMapper(ResultSet rs) throws SQLException {
+        ResultSetMetaData meta = rs.getMetaData();
+        this.id = Columns.find(meta, "id");
+        this.reportedBy = Columns.find(meta, "reported_by");
+        this.reportedUser = Columns.find(meta, "reported_user");
+        this.rideId = Columns.find(meta, "ride_id");
+        this.reason = Columns.find(meta, "reason");
+        this.status = Columns.find(meta, "status");
+        this.timestamp = Columns.find(meta, "timestamp");
+    }
+
+    public Report map(ResultSet rs) throws SQLException {
+        Report report = new Report();
+        report.setId(rs.getInt(id));
+        report.setReportedBy(rs.getInt(reportedBy));
+        report.setReportedUserId(rs.getInt(reportedUser));
+
+        int ride = rs.getInt(rideId);
+        if (!rs.wasNull()) {
+            report.setRideId(ride);
+        }
+
+        report.setReason(rs.getString(reason));
+        report.setStatus(rs.getString(status));
+        report.setTimestamp(TemporalCache.timestamp(rs.getString(timestamp)));
+        return report;
+    }
+}
@@ -1,20 +1,40 @@
 package dao;
 
 import models.Ride;
+import models.RideHistoryEntry;
 import utils.DBConnection;
+import utils.Log;
+import utils.Logger;
 
 import java.sql.*;
 import java.time.LocalDate;
-import java.time.LocalTime;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 public class RideDAO {
 
+    private static final Logger LOG = Log.getLogger(RideDAO.class);
+
+    // Shared by rides and rides_history so the two tiers can be UNIONed
+    private static final String RIDE_COLUMNS =
+        "id, driver_id, driver_name, origin, destination, departure_date, departure_time, " +
+        "seats_available, seats_total, price_per_seat, status, vehicle_info, departure_epoch";
+
+    private static final String HISTORY_RIDE_COLUMNS =
+        "r.id, r.driver_id, r.driver_name, r.origin, r.destination, r.departure_date, r.departure_time, " +
+        "r.seats_available, r.seats_total, r.price_per_seat, r.status, r.vehicle_info, r.departure_epoch";
+
+    private static final String COMPLETE_SQL = "UPDATE rides SET status = 'COMPLETED' WHERE id = ? AND status = 'ACTIVE'";
+
     public boolean createRide(Ride ride) {
         String sql = "INSERT INTO rides (driver_id, driver_name, origin, destination, " +
                      "departure_date, departure_time, seats_available, seats_total, " +
-                     "price_per_seat, status, vehicle_info) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+                     "price_per_seat, status, vehicle_info, departure_epoch) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
         
         try (Connection conn = DBConnection.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
@@ -30,6 +50,7 @@ public class RideDAO {
             pstmt.setDouble(9, ride.getPricePerSeat());
             pstmt.setString(10, ride.getStatus());
             pstmt.setString(11, ride.getVehicleInfo());
+            pstmt.setLong(12, ride.getDepartureEpochSecond());
             
             int rowsAffected = pstmt.executeUpdate();
             
@@ -44,8 +65,7 @@ public class RideDAO {
             }
             
         } catch (SQLException e) {
-            System.err.println("Error creating ride: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Error creating ride", e);
         }
         
         return false;
@@ -64,57 +84,140 @@ public class RideDAO {
             return pstmt.executeUpdate() > 0;
             
         } catch (SQLException e) {
-            System.err.println("Error updating ride: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Error updating ride", e);
         }
         
         return false;
     }
 
     public Ride getRideById(int id) {
-        String sql = "SELECT * FROM rides WHERE id = ?";
+        String sql = "SELECT " + RIDE_COLUMNS + " FROM rides WHERE id = ? " +
+                     "UNION ALL " +
+                     "SELECT " + RIDE_COLUMNS + " FROM rides_history WHERE id = ? LIMIT 1";
         
         try (Connection conn = DBConnection.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, id);
+            pstmt.setInt(2, id);
             ResultSet rs = pstmt.executeQuery();
             
             if (rs.next()) {
-                return extractRideFromResultSet(rs);
+                return new RideRowMapper(rs).map(rs);
             }
             
         } catch (SQLException e) {
-            System.err.println("Error getting ride by ID: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Error getting ride by ID", e);
         }
         
         return null;
     }
 
+    // Seats left on an ACTIVE ride, or -1 if the ride is missing or no longer active
+    public int getActiveSeatsAvailable(int rideId) {
+        String sql = "SELECT seats_available FROM rides WHERE id = ? AND status = 'ACTIVE'";
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setInt(1, rideId);
+            ResultSet rs = pstmt.executeQuery();
+            if (rs.next()) {
+                return rs.getInt(1);
+            }
+
+        } catch (SQLException e) {
+            LOG.error("Error getting seats available", e);
+        }
+
+        return -1;
+    }
+
+    // Ride id -> seats_available for every ACTIVE ride
+    public Map<Integer, Integer> getActiveSeatCounts() {
+        String sql = "SELECT id, seats_available FROM rides WHERE status = 'ACTIVE'";
+        Map<Integer, Integer> seats = new HashMap<>();
+
+        try (Connection conn = DBConnection.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+
+            while (rs.next()) {
+                seats.put(rs.getInt(1), rs.getInt(2));
+            }
+
+        } catch (SQLException e) {
+            LOG.error("Error getting active seat counts", e);
+        }
+
+        return seats;
+    }
+
     public List<Ride> getAllActiveRides() {
-        String sql = "SELECT * FROM rides WHERE status = 'ACTIVE' ORDER BY departure_date, departure_time";
+        String sql = "SELECT * FROM rides WHERE status = 'ACTIVE' ORDER BY departure_epoch";
         List<Ride> rides = new ArrayList<>();
         
         try (Connection conn = DBConnection.getConnection();
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
             
+            RideRowMapper mapper = new RideRowMapper(rs);
             while (rs.next()) {
-                rides.add(extractRideFromResultSet(rs));
+                rides.add(mapper.map(rs));
             }
             
         } catch (SQLException e) {
-            System.err.println("Error getting active rides: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Error getting active rides", e);
         }
         
         return rides;
     }
 
+    /**
+     * Streams every active ride to the consumer in departure order without
+     * collecting them into a list, for callers that keep their own compact copy.
+     */
+    public void forEachActiveRide(Consumer<Ride> consumer) {
+        String sql = "SELECT * FROM rides WHERE status = 'ACTIVE' ORDER BY departure_epoch";
+
+        try (Connection conn = DBConnection.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+
+            RideRowMapper mapper = new RideRowMapper(rs);
+            while (rs.next()) {
+                consumer.accept(mapper.map(rs));
+            }
+
+        } catch (SQLException e) {
+            LOG.error("Error scanning active rides", e);
+        }
+    }
+
+    // Every place an active ride starts or ends at
+    public List<String> getActivePlaces() {
+        String sql = "SELECT origin FROM rides WHERE status = 'ACTIVE' " +
+                     "UNION SELECT destination FROM rides WHERE status = 'ACTIVE'";
+        List<String> places = new ArrayList<>();
+
+        try (Connection conn = DBConnection.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+
+            while (rs.next()) {
+                places.add(rs.getString(1));
+            }
+
+        } catch (SQLException e) {
+            LOG.error("Error getting active places", e);
+        }
+
+        return places;
+    }
+
     public List<Ride> getRidesByDestination(String destination) {
         String sql = "SELECT * FROM rides WHERE destination = ? AND status = 'ACTIVE' " +
-                     "ORDER BY departure_date, departure_time";
+                     "ORDER BY departure_epoch";
         List<Ride> rides = new ArrayList<>();
         
         try (Connection conn = DBConnection.getConnection();
@@ -123,13 +226,13 @@ public class RideDAO {
             pstmt.setString(1, destination);
             ResultSet rs = pstmt.executeQuery();
             
+            RideRowMapper mapper = new RideRowMapper(rs);
             while (rs.next()) {
-                rides.add(extractRideFromResultSet(rs));
+                rides.add(mapper.map(rs));
             }
             
         } catch (SQLException e) {
-            System.err.println("Error getting rides by destination: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Error getting rides by destination", e);
         }
         
         return rides;
@@ -137,7 +240,7 @@ public class RideDAO {
 
     public List<Ride> getRidesByRoute(String origin, String destination) {
         String sql = "SELECT * FROM rides WHERE origin = ? AND destination = ? AND status = 'ACTIVE' " +
-                     "ORDER BY departure_date, departure_time";
+                     "ORDER BY departure_epoch";
         List<Ride> rides = new ArrayList<>();
         
         try (Connection conn = DBConnection.getConnection();
@@ -147,111 +250,317 @@ public class RideDAO {
             pstmt.setString(2, destination);
             ResultSet rs = pstmt.executeQuery();
             
+            RideRowMapper mapper = new RideRowMapper(rs);
             while (rs.next()) {
-                rides.add(extractRideFromResultSet(rs));
+                rides.add(mapper.map(rs));
             }
             
         } catch (SQLException e) {
-            System.err.println("Error getting rides by route: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Error getting rides by route", e);
         }
         
         return rides;
     }
 
     public List<Ride> getRidesByDate(LocalDate date) {
-        String sql = "SELECT * FROM rides WHERE departure_date = ? AND status = 'ACTIVE' " +
-                     "ORDER BY departure_time";
+        return getRidesDepartingBetween(date.atStartOfDay(), date.plusDays(1).atStartOfDay());
+    }
+
+    /**
+     * Active rides departing in [from, to), earliest first. Answered from the
+     * (status, departure_epoch) index as a single range scan.
+     */
+    public List<Ride> getRidesDepartingBetween(LocalDateTime from, LocalDateTime to) {
+        String sql = "SELECT * FROM rides WHERE status = 'ACTIVE' " +
+                     "AND departure_epoch >= ? AND departure_epoch < ? ORDER BY departure_epoch";
         List<Ride> rides = new ArrayList<>();
-        
+
         try (Connection conn = DBConnection.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            pstmt.setString(1, date.toString());
+
+            pstmt.setLong(1, toEpochSecond(from));
+            pstmt.setLong(2, toEpochSecond(to));
             ResultSet rs = pstmt.executeQuery();
-            
+
+            RideRowMapper mapper = new RideRowMapper(rs);
             while (rs.next()) {
-                rides.add(extractRideFromResultSet(rs));
+                rides.add(mapper.map(rs));
             }
-            
+
         } catch (SQLException e) {
-            System.err.println("Error getting rides by date: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Error getting rides by departure window", e);
         }
-        
+
+        return rides;
+    }
+
+    // Same as getRidesDepartingBetween, narrowed to one route
+    public List<Ride> getRidesByRouteDepartingBetween(String origin, String destination,
+                                                      LocalDateTime from, LocalDateTime to) {
+        String sql = "SELECT * FROM rides WHERE origin = ? AND destination = ? AND status = 'ACTIVE' " +
+                     "AND departure_epoch >= ? AND departure_epoch < ? ORDER BY departure_epoch";
+        List<Ride> rides = new ArrayList<>();
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setString(1, origin);
+            pstmt.setString(2, destination);
+            pstmt.setLong(3, toEpochSecond(from));
+            pstmt.setLong(4, toEpochSecond(to));
+            ResultSet rs = pstmt.executeQuery();
+
+            RideRowMapper mapper = new RideRowMapper(rs);
+            while (rs.next()) {
+                rides.add(mapper.map(rs));
+            }
+
+        } catch (SQLException e) {
+            LOG.error("Error getting rides by route and departure window", e);
+        }
+
         return rides;
     }
 
     public List<Ride> getRidesByDriver(int driverId) {
-        String sql = "SELECT * FROM rides WHERE driver_id = ? ORDER BY departure_date DESC, departure_time DESC";
+        String sql = "SELECT " + RIDE_COLUMNS + " FROM rides WHERE driver_id = ? " +
+                     "UNION ALL " +
+                     "SELECT " + RIDE_COLUMNS + " FROM rides_history WHERE driver_id = ? " +
+                     "ORDER BY departure_epoch DESC";
         List<Ride> rides = new ArrayList<>();
         
         try (Connection conn = DBConnection.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, driverId);
+            pstmt.setInt(2, driverId);
             ResultSet rs = pstmt.executeQuery();
             
+            RideRowMapper mapper = new RideRowMapper(rs);
             while (rs.next()) {
-                rides.add(extractRideFromResultSet(rs));
+                rides.add(mapper.map(rs));
             }
             
         } catch (SQLException e) {
-            System.err.println("Error getting rides by driver: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Error getting rides by driver", e);
         }
         
         return rides;
     }
 
-public List<Ride> getRidesBookedByPassenger(int passengerId) {
-    List<Ride> rides = new ArrayList<>();
-    String sql = "SELECT r.* FROM rides r " +
-             "JOIN bookings b ON r.id = b.ride_id " +
-             "WHERE b.passenger_id = ? AND b.status = 'CONFIRMED'";
-
-    try (Connection conn = DBConnection.getConnection();
-         PreparedStatement stmt = conn.prepareStatement(sql)) {
-        stmt.setInt(1, passengerId);
-        ResultSet rs = stmt.executeQuery();
-        while (rs.next()) {
-            Ride ride = new Ride();
-            ride.setId(rs.getInt("id"));
-            ride.setDriverId(rs.getInt("driver_id"));
-            ride.setOrigin(rs.getString("origin"));
-            ride.setDestination(rs.getString("destination"));
-            ride.setDepartureDate(rs.getDate("departure_date").toLocalDate());
-            ride.setDepartureTime(rs.getTime("departure_time").toLocalTime());
-            ride.setSeatsAvailable(rs.getInt("seats_available"));
-            ride.setSeatsTotal(rs.getInt("seats_total"));
-            ride.setPricePerSeat(rs.getDouble("price_per_seat"));
-            ride.setStatus(rs.getString("status"));
-            rides.add(ride);
+    public List<Ride> getRidesBookedByPassenger(int passengerId) {
+        String sql = "SELECT r.* FROM rides r " +
+                     "JOIN bookings b ON r.id = b.ride_id " +
+                     "WHERE b.passenger_id = ? AND b.status = 'CONFIRMED'";
+        List<Ride> rides = new ArrayList<>();
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setInt(1, passengerId);
+            ResultSet rs = pstmt.executeQuery();
+
+            RideRowMapper mapper = new RideRowMapper(rs);
+            while (rs.next()) {
+                rides.add(mapper.map(rs));
+            }
+
+        } catch (SQLException e) {
+            LOG.error("Error getting rides booked by passenger", e);
         }
-    } catch (SQLException e) {
-        e.printStackTrace();
+
+        return rides;
     }
 
-    return rides;
-}
+    /**
+     * One page of a user's ride history, newest departure first: the rides
+     * they drove and the bookings they made, across the live and history
+     * tiers. Pass the last entry of the previous page as the cursor (null
+     * for the first page). Every branch of the UNION walks its own index in
+     * cursor order and stops after a page, so a page costs the same however
+     * long the history is.
+     */
+    public List<RideHistoryEntry> getRideHistoryPage(int userId, RideHistoryEntry after, int limit) {
+        String driven = "SELECT ? AS role, 0 AS seats_booked, NULL AS booking_status, " + RIDE_COLUMNS +
+                        " FROM %s WHERE driver_id = ? AND (departure_epoch, id) <= (?, ?) " +
+                        "ORDER BY departure_epoch DESC, id DESC LIMIT ?";
+        String booked = "SELECT ? AS role, b.seats_booked, b.status AS booking_status, " + HISTORY_RIDE_COLUMNS +
+                        " FROM %s b JOIN %s r ON r.id = b.ride_id " +
+                        "WHERE b.passenger_id = ? AND (r.departure_epoch, r.id) <= (?, ?) " +
+                        "ORDER BY r.departure_epoch DESC, r.id DESC LIMIT ?";
+        String[] branches = {
+            String.format(driven, "rides"),
+            String.format(driven, "rides_history"),
+            String.format(booked, "bookings", "rides"),
+            String.format(booked, "bookings", "rides_history"),
+            String.format(booked, "bookings_history", "rides"),
+            String.format(booked, "bookings_history", "rides_history")
+        };
+
+        StringBuilder sql = new StringBuilder("SELECT * FROM (");
+        for (int i = 0; i < branches.length; i++) {
+            sql.append(i == 0 ? "" : " UNION ALL ").append("SELECT * FROM (").append(branches[i]).append(")");
+        }
+        // The branches also return the cursor row itself; the exact cut is made here
+        sql.append(") WHERE (departure_epoch, id, role) < (?, ?, ?) " +
+                   "ORDER BY departure_epoch DESC, id DESC, role DESC LIMIT ?");
 
-    private Ride extractRideFromResultSet(ResultSet rs) throws SQLException {
-        return new Ride(
-            rs.getInt("id"),
-            rs.getInt("driver_id"),
-            rs.getString("driver_name"),
-            rs.getString("origin"),
-            rs.getString("destination"),
-            LocalDate.parse(rs.getString("departure_date")),
-            LocalTime.parse(rs.getString("departure_time")),
-            rs.getInt("seats_available"),
-            rs.getInt("seats_total"),
-            rs.getDouble("price_per_seat"),
-            rs.getString("status"),
-            rs.getString("vehicle_info")
-        );
+        long afterEpoch = after != null ? after.getDepartureEpoch() : Long.MAX_VALUE;
+        int afterId = after != null ? after.getRide().getId() : Integer.MAX_VALUE;
+        String afterRole = after != null ? after.getRole() : RideHistoryEntry.ROLE_PASSENGER;
+        List<RideHistoryEntry> page = new ArrayList<>();
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
+
+            int p = 1;
+            for (int i = 0; i < branches.length; i++) {
+                pstmt.setString(p++, i < 2 ? RideHistoryEntry.ROLE_DRIVER : RideHistoryEntry.ROLE_PASSENGER);
+                pstmt.setInt(p++, userId);
+                pstmt.setLong(p++, afterEpoch);
+                pstmt.setInt(p++, afterId);
+                pstmt.setInt(p++, limit + 1);
+            }
+            pstmt.setLong(p++, afterEpoch);
+            pstmt.setInt(p++, afterId);
+            pstmt.setString(p++, afterRole);
+            pstmt.setInt(p, limit);
+            ResultSet rs = pstmt.executeQuery();
+
+            RideRowMapper mapper = new RideRowMapper(rs);
+            while (rs.next()) {
+                page.add(new RideHistoryEntry(
+                    mapper.map(rs),
+                    rs.getString("role"),
+                    rs.getLong("departure_epoch"),
+                    rs.getInt("seats_booked"),
+                    rs.getString("booking_status")
+                ));
+            }
+
+        } catch (SQLException e) {
+            LOG.error("Error getting ride history", e);
+        }
+
+        return page;
     }
-    
+
+    /**
+     * Completes one batch of rides that departed before the cutoff and adds
+     * them to their drivers' and passengers' statistics and their routes'
+     * price baselines in the same transaction. Returns the ids of the rides
+     * completed (empty on failure).
+     */
+    public List<Integer> completeDepartedRides(LocalDateTime cutoff, int batchSize) {
+        String selectSql = "SELECT id FROM rides WHERE status = 'ACTIVE' AND departure_epoch <= ? LIMIT ?";
+
+        try (Connection conn = DBConnection.getConnection()) {
+            conn.setAutoCommit(false);
+
+            try (PreparedStatement select = conn.prepareStatement(selectSql);
+                 PreparedStatement complete = conn.prepareStatement(COMPLETE_SQL)) {
+
+                List<Integer> ids = new ArrayList<>();
+                select.setLong(1, toEpochSecond(cutoff));
+                select.setInt(2, batchSize);
+                try (ResultSet rs = select.executeQuery()) {
+                    while (rs.next()) {
+                        ids.add(rs.getInt(1));
+                    }
+                }
+
+                List<Integer> completed = new ArrayList<>();
+                for (int id : ids) {
+                    complete.setInt(1, id);
+                    if (complete.executeUpdate() == 1) {
+                        UserStatisticsDAO.recordCompletedRide(conn, id);
+                        PricingDAO.recordCompletedRide(conn, id);
+                        completed.add(id);
+                    }
+                }
+
+                conn.commit();
+                return completed;
+
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+
+        } catch (SQLException e) {
+            LOG.error("Error completing departed rides", e);
+        }
+
+        return new ArrayList<>();
+    }
+
+    // Returns false if the ride was not active
+    public boolean completeRide(int rideId) {
+        try (Connection conn = DBConnection.getConnection()) {
+            conn.setAutoCommit(false);
+
+            try (PreparedStatement complete = conn.prepareStatement(COMPLETE_SQL)) {
+                complete.setInt(1, rideId);
+                if (complete.executeUpdate() == 0) {
+                    conn.rollback();
+                    return false;
+                }
+                UserStatisticsDAO.recordCompletedRide(conn, rideId);
+                PricingDAO.recordCompletedRide(conn, rideId);
+
+                conn.commit();
+                return true;
+
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+
+        } catch (SQLException e) {
+            LOG.error("Error completing ride", e);
+        }
+
+        return false;
+    }
+
+    // Returns false if the ride was not active
+    public boolean cancelRide(int rideId) {
+        String sql = "UPDATE rides SET status = 'CANCELLED' WHERE id = ? AND status = 'ACTIVE' RETURNING driver_id";
+
+        try (Connection conn = DBConnection.getConnection()) {
+            conn.setAutoCommit(false);
+
+            try (PreparedStatement cancel = conn.prepareStatement(sql)) {
+                cancel.setInt(1, rideId);
+                int driverId;
+                try (ResultSet rs = cancel.executeQuery()) {
+                    if (!rs.next()) {
+                        conn.rollback();
+                        return false;
+                    }
+                    driverId = rs.getInt("driver_id");
+                }
+                UserStatisticsDAO.recordCancelledRides(conn, driverId, 1);
+
+                conn.commit();
+                return true;
+
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+
+        } catch (SQLException e) {
+            LOG.error("Error cancelling ride", e);
+        }
+
+        return false;
+    }
+
+    private static long toEpochSecond(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+
     public boolean deleteRide(int rideId) {
         String sql = "DELETE FROM rides WHERE id = ?";
         
@@ -262,8 +571,7 @@ public List<Ride> getRidesBookedByPassenger(int passengerId) {
             return pstmt.executeUpdate() > 0;
             
         } catch (SQLException e) {
-            System.err.println("Error deleting ride: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Error deleting ride", e);
         }
         
         return false;
@@ -1,16 +1,21 @@
 package dao;
 
+import models.Ride;
 import models.RideRequest;
 import utils.DBConnection;
+import utils.TemporalCache;
+import utils.Log;
+import utils.Logger;
 import java.sql.*;
 import java.time.LocalDate;
 import java.time.LocalTime;
-import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
 public class RideRequestDAO {
 
+    private static final Logger LOG = Log.getLogger(RideRequestDAO.class);
+
     public boolean createRideRequest(RideRequest request) {
         String sql = "INSERT INTO ride_requests (passenger_id, passenger_name, origin, destination, " +
                      "preferred_date, preferred_time, seats_requested, status, notes) " +
@@ -41,8 +46,7 @@ public class RideRequestDAO {
             }
             
         } catch (SQLException e) {
-            System.err.println("Error creating ride request: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Error creating ride request", e);
         }
         
         return false;
@@ -60,8 +64,7 @@ public class RideRequestDAO {
             return pstmt.executeUpdate() > 0;
             
         } catch (SQLException e) {
-            System.err.println("Error updating ride request: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Error updating ride request", e);
         }
         
         return false;
@@ -81,8 +84,7 @@ public class RideRequestDAO {
             }
             
         } catch (SQLException e) {
-            System.err.println("Error getting ride request by ID: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Error getting ride request by ID", e);
         }
         
         return null;
@@ -102,8 +104,7 @@ public class RideRequestDAO {
             }
             
         } catch (SQLException e) {
-            System.err.println("Error getting pending requests: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Error getting pending requests", e);
         }
         
         return requests;
@@ -125,13 +126,67 @@ public class RideRequestDAO {
             }
             
         } catch (SQLException e) {
-            System.err.println("Error getting requests by passenger: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Error getting requests by passenger", e);
         }
         
         return requests;
     }
 
+    // Only the passenger who posted it can cancel, and only while it is still pending
+    public boolean cancelPendingRequest(int requestId, int passengerId) {
+        String sql = "UPDATE ride_requests SET status = 'CANCELLED' " +
+                     "WHERE id = ? AND passenger_id = ? AND status = 'PENDING'";
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setInt(1, requestId);
+            pstmt.setInt(2, passengerId);
+            return pstmt.executeUpdate() > 0;
+
+        } catch (SQLException e) {
+            LOG.error("Error cancelling ride request", e);
+        }
+
+        return false;
+    }
+
+    /**
+     * Pending requests on the ride's route and day whose preferred time is in
+     * [from, to] and that the ride has enough seats for, oldest first. Served
+     * by the partial index idx_ride_requests_match.
+     */
+    public List<RideRequest> findPendingMatches(Ride ride, LocalTime from, LocalTime to) {
+        String sql = "SELECT * FROM ride_requests WHERE status = 'PENDING' " +
+                     "AND origin = ? COLLATE NOCASE AND destination = ? COLLATE NOCASE " +
+                     "AND preferred_date = ? AND preferred_time BETWEEN ? AND ? " +
+                     "AND seats_requested <= ? AND passenger_id <> ? " +
+                     "ORDER BY created_at, id";
+        List<RideRequest> requests = new ArrayList<>();
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setString(1, ride.getOrigin());
+            pstmt.setString(2, ride.getDestination());
+            pstmt.setString(3, ride.getDepartureDate().toString());
+            pstmt.setString(4, from.toString());
+            pstmt.setString(5, to.toString());
+            pstmt.setInt(6, ride.getSeatsAvailable());
+            pstmt.setInt(7, ride.getDriverId());
+            ResultSet rs = pstmt.executeQuery();
+
+            while (rs.next()) {
+                requests.add(extractRideRequestFromResultSet(rs));
+            }
+
+        } catch (SQLException e) {
+            LOG.error("Error finding matching ride requests", e);
+        }
+
+        return requests;
+    }
+
     private RideRequest extractRideRequestFromResultSet(ResultSet rs) throws SQLException {
         return new RideRequest(
             rs.getInt("id"),
@@ -139,15 +194,33 @@ public class RideRequestDAO {
             rs.getString("passenger_name"),
             rs.getString("origin"),
             rs.getString("destination"),
-            LocalDate.parse(rs.getString("preferred_date")),
-            LocalTime.parse(rs.getString("preferred_time")),
+            TemporalCache.date(rs.getString("preferred_date")),
+            TemporalCache.time(rs.getString("preferred_time")),
             rs.getInt("seats_requested"),
             rs.getString("status"),
             rs.getString("notes"),
-            LocalDateTime.parse(rs.getString("created_at"))
+            TemporalCache.timestamp(rs.getString("created_at"))
         );
     }
 
+    public int expireStaleRequests(LocalDate today, int batchSize) {
+        String sql = "UPDATE ride_requests SET status = 'CANCELLED' WHERE id IN (" +
+                     "SELECT id FROM ride_requests WHERE status = 'PENDING' AND preferred_date < ? LIMIT ?)";
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setString(1, today.toString());
+            pstmt.setInt(2, batchSize);
+            return pstmt.executeUpdate();
+
+        } catch (SQLException e) {
+            LOG.error("Error expiring ride requests", e);
+        }
+
+        return 0;
+    }
+
     public boolean deleteRideRequest(int requestId) {
         String sql = "DELETE FROM ride_requests WHERE id = ?";
         
@@ -158,8 +231,7 @@ public class RideRequestDAO {
             return pstmt.executeUpdate() > 0;
             
         } catch (SQLException e) {
-            System.err.println("Error deleting ride request: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Error deleting ride request", e);
         }
         
         return false;
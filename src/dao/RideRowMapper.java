@@ -0,0 +1,79 @@
+package dao;
+
+import models.Ride;
+import utils.TemporalCache;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Maps rows of a rides query to Ride objects. Column positions are looked
+ * up once when the mapper is created for a ResultSet rather than by name on
+ * every row, and departure dates and times come from TemporalCache so
+ * rows on the same day share one LocalDate.
+ */
+public class RideRowMapper {
+
+    private final int id;
+    private final int driverId;
+    private final int driverName;
+    private final int origin;
+    private final int destination;
+    private final int departureDate;
+    private final int departureTime;
+    private final int departureEpoch;
+    private final int seatsAvailable;
+    private final int seatsTotal;
+    private final int pricePerSeat;
+    private final int status;
+    private final int vehicleInfo;
+
+    public RideRowMapper(ResultSet rs) throws SQLException {
+        ResultSetMetaData meta = rs.getMetaData();
+        this.id = Columns.find(meta, "id");
+        this.driverId = Columns.find(meta, "driver_id");
+        this.driverName = Columns.find(meta, "driver_name");
+        this.origin = Columns.find(meta, "origin");
+        this.destination = Columns.find(meta, "destination");
+        this.departureDate = Columns.find(meta, "departure_date");
+        this.departureTime = Columns.find(meta, "departure_time");
+        this.departureEpoch = Columns.find(meta, "departure_epoch");
+        this.seatsAvailable = Columns.find(meta, "seats_available");
+        this.seatsTotal = Columns.find(meta, "seats_total");
+        this.pricePerSeat = Columns.find(meta, "price_per_seat");
+        this.status = Columns.find(meta, "status");
+        this.vehicleInfo = Columns.find(meta, "vehicle_info");
+    }
+
+    public Ride map(ResultSet rs) throws SQLException {
+        LocalDate date;
+        LocalTime time;
+        long epoch = departureEpoch > 0 ? rs.getLong(departureEpoch) : 0;
+        if (departureEpoch > 0 && !rs.wasNull()) {
+            date = TemporalCache.dateOfEpochSecond(epoch);
+            time = TemporalCache.timeOfEpochSecond(epoch);
+        } else {
+            // Rows written outside the DAO before departure_epoch existed
+            date = TemporalCache.date(rs.getString(departureDate));
+            time = TemporalCache.time(rs.getString(departureTime));
+        }
+
+        return new Ride(
+            rs.getInt(id),
+            rs.getInt(driverId),
+            driverName > 0 ? rs.getString(driverName) : null,
+            rs.getString(origin),
+            rs.getString(destination),
+            date,
+            time,
+            rs.getInt(seatsAvailable),
+            rs.getInt(seatsTotal),
+            rs.getDouble(pricePerSeat),
+            rs.getString(status),
+            vehicleInfo > 0 ? rs.getString(vehicleInfo) : null
+        );
+    }
+}
@@ -0,0 +1,252 @@
+package dao;
+
+import models.RideSchedule;
+import utils.DBConnection;
+import utils.TemporalCache;
+import utils.Log;
+import utils.Logger;
+
+import java.sql.*;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+public class RideScheduleDAO {
+
+    private static final Logger LOG = Log.getLogger(RideScheduleDAO.class);
+
+    public boolean createSchedule(RideSchedule schedule) {
+        String sql = "INSERT INTO ride_schedules (driver_id, driver_name, origin, destination, days_mask, " +
+                     "departure_time, seats_total, price_per_seat, vehicle_info, start_date, end_date) " +
+                     "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+
+            pstmt.setInt(1, schedule.getDriverId());
+            pstmt.setString(2, schedule.getDriverName());
+            pstmt.setString(3, schedule.getOrigin());
+            pstmt.setString(4, schedule.getDestination());
+            pstmt.setInt(5, schedule.getDaysMask());
+            pstmt.setString(6, schedule.getDepartureTime().toString());
+            pstmt.setInt(7, schedule.getSeatsTotal());
+            pstmt.setDouble(8, schedule.getPricePerSeat());
+            pstmt.setString(9, schedule.getVehicleInfo());
+            pstmt.setString(10, schedule.getStartDate().toString());
+            pstmt.setString(11, schedule.getEndDate() != null ? schedule.getEndDate().toString() : null);
+
+            if (pstmt.executeUpdate() > 0) {
+                try (ResultSet rs = pstmt.getGeneratedKeys()) {
+                    if (rs.next()) {
+                        schedule.setId(rs.getInt(1));
+                    }
+                }
+                return true;
+            }
+
+        } catch (SQLException e) {
+            LOG.error("Error creating ride schedule", e);
+        }
+
+        return false;
+    }
+
+    public List<RideSchedule> getSchedulesByDriver(int driverId) {
+        String sql = "SELECT * FROM ride_schedules WHERE driver_id = ? AND active = 1 ORDER BY id";
+        List<RideSchedule> schedules = new ArrayList<>();
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setInt(1, driverId);
+            ResultSet rs = pstmt.executeQuery();
+            while (rs.next()) {
+                schedules.add(extractSchedule(rs));
+            }
+
+        } catch (SQLException e) {
+            LOG.error("Error getting ride schedules", e);
+        }
+
+        return schedules;
+    }
+
+    // Active schedules running on at least one day between from and through
+    public List<RideSchedule> getSchedulesOverlapping(LocalDate from, LocalDate through) {
+        String sql = "SELECT * FROM ride_schedules WHERE active = 1 AND start_date <= ? " +
+                     "AND (end_date IS NULL OR end_date >= ?) ORDER BY id";
+        List<RideSchedule> schedules = new ArrayList<>();
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setString(1, through.toString());
+            pstmt.setString(2, from.toString());
+            ResultSet rs = pstmt.executeQuery();
+            while (rs.next()) {
+                schedules.add(extractSchedule(rs));
+            }
+
+        } catch (SQLException e) {
+            LOG.error("Error getting ride schedules", e);
+        }
+
+        return schedules;
+    }
+
+    /**
+     * Active schedules that still have dates to generate up to the given day:
+     * not materialized that far yet, and not already past their end date.
+     */
+    public List<RideSchedule> getDueSchedules(LocalDate through, int limit) {
+        String sql = "SELECT * FROM ride_schedules WHERE active = 1 " +
+                     "AND (materialized_through IS NULL OR materialized_through < ?) " +
+                     "AND (end_date IS NULL OR end_date > COALESCE(materialized_through, '')) " +
+                     "ORDER BY id LIMIT ?";
+        List<RideSchedule> schedules = new ArrayList<>();
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setString(1, through.toString());
+            pstmt.setInt(2, limit);
+            ResultSet rs = pstmt.executeQuery();
+            while (rs.next()) {
+                schedules.add(extractSchedule(rs));
+            }
+
+        } catch (SQLException e) {
+            LOG.error("Error getting due ride schedules", e);
+        }
+
+        return schedules;
+    }
+
+    /**
+     * Inserts a ride for each date (skipping dates that already have one) and
+     * advances materialized_through, in one transaction. Returns rides created, or -1.
+     */
+    public int materialize(RideSchedule schedule, List<LocalDate> dates, LocalDate through) {
+        String insertSql = "INSERT OR IGNORE INTO rides (driver_id, driver_name, origin, destination, " +
+                           "departure_date, departure_time, seats_available, seats_total, price_per_seat, " +
+                           "status, vehicle_info, schedule_id, departure_epoch) " +
+                           "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, 'ACTIVE', ?, ?, ?)";
+        String advanceSql = "UPDATE ride_schedules SET materialized_through = ? WHERE id = ?";
+
+        try (Connection conn = DBConnection.getConnection()) {
+            conn.setAutoCommit(false);
+
+            try (PreparedStatement insert = conn.prepareStatement(insertSql);
+                 PreparedStatement advance = conn.prepareStatement(advanceSql)) {
+
+                int created = 0;
+                if (!dates.isEmpty()) {
+                    for (LocalDate date : dates) {
+                        insert.setInt(1, schedule.getDriverId());
+                        insert.setString(2, schedule.getDriverName());
+                        insert.setString(3, schedule.getOrigin());
+                        insert.setString(4, schedule.getDestination());
+                        insert.setString(5, date.toString());
+                        insert.setString(6, schedule.getDepartureTime().toString());
+                        insert.setInt(7, schedule.getSeatsTotal());
+                        insert.setInt(8, schedule.getSeatsTotal());
+                        insert.setDouble(9, schedule.getPricePerSeat());
+                        insert.setString(10, schedule.getVehicleInfo());
+                        insert.setInt(11, schedule.getId());
+                        insert.setLong(12, date.atTime(schedule.getDepartureTime()).toEpochSecond(ZoneOffset.UTC));
+                        insert.addBatch();
+                    }
+                    for (int count : insert.executeBatch()) {
+                        created += Math.max(count, 0);
+                    }
+                }
+
+                advance.setString(1, through.toString());
+                advance.setInt(2, schedule.getId());
+                advance.executeUpdate();
+
+                conn.commit();
+                return created;
+
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+
+        } catch (SQLException e) {
+            LOG.error("Error materializing ride schedule", e);
+        }
+
+        return -1;
+    }
+
+    /**
+     * Stops the schedule and cancels its upcoming rides that nobody has booked.
+     * Rides with passengers are left for the driver to handle. Returns the ids
+     * of the rides cancelled, or null if the schedule wasn't stopped.
+     */
+    public List<Integer> deactivateSchedule(int scheduleId, int driverId, LocalDate from) {
+        String stopSql = "UPDATE ride_schedules SET active = 0 WHERE id = ? AND driver_id = ?";
+        String cancelSql = "UPDATE rides SET status = 'CANCELLED' WHERE schedule_id = ? AND status = 'ACTIVE' " +
+                           "AND departure_date >= ? AND NOT EXISTS (" +
+                           "SELECT 1 FROM bookings b WHERE b.ride_id = rides.id AND b.status <> 'CANCELLED') " +
+                           "RETURNING id";
+
+        try (Connection conn = DBConnection.getConnection()) {
+            conn.setAutoCommit(false);
+
+            try (PreparedStatement stop = conn.prepareStatement(stopSql);
+                 PreparedStatement cancel = conn.prepareStatement(cancelSql)) {
+
+                stop.setInt(1, scheduleId);
+                stop.setInt(2, driverId);
+                if (stop.executeUpdate() == 0) {
+                    conn.rollback();
+                    return null;
+                }
+
+                List<Integer> cancelled = new ArrayList<>();
+                cancel.setInt(1, scheduleId);
+                cancel.setString(2, from.toString());
+                try (ResultSet rs = cancel.executeQuery()) {
+                    while (rs.next()) {
+                        cancelled.add(rs.getInt(1));
+                    }
+                }
+                UserStatisticsDAO.recordCancelledRides(conn, driverId, cancelled.size());
+
+                conn.commit();
+                return cancelled;
+
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+
+        } catch (SQLException e) {
+            LOG.error("Error deactivating ride schedule", e);
+        }
+
+        return null;
+    }
+
+    private RideSchedule extractSchedule(ResultSet rs) throws SQLException {
+        return new RideSchedule(
+            rs.getInt("id"),
+            rs.getInt("driver_id"),
+            rs.getString("driver_name"),
+            rs.getString("origin"),
+            rs.getString("destination"),
+            rs.getInt("days_mask"),
+            TemporalCache.time(rs.getString("departure_time")),
+            rs.getInt("seats_total"),
+            rs.getDouble("price_per_seat"),
+            rs.getString("vehicle_info"),
+            TemporalCache.date(rs.getString("start_date")),
+            TemporalCache.date(rs.getString("end_date")),
+            rs.getInt("active") == 1,
+            TemporalCache.date(rs.getString("materialized_through"))
+        );
+    }
+}
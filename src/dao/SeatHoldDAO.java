@@ -0,0 +1,235 @@
+package dao;
+
+import models.SeatHold;
+import utils.DBConnection;
+import utils.TemporalCache;
+import utils.Log;
+import utils.Logger;
+
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public class SeatHoldDAO {
+
+    private static final Logger LOG = Log.getLogger(SeatHoldDAO.class);
+
+    /**
+     * Takes the seats out of the ride and records the hold in one transaction.
+     * Returns null when the ride is no longer active or has too few seats left.
+     */
+    public SeatHold createHold(int rideId, int passengerId, int seats, LocalDateTime expiresAt) {
+        String reserveSql = "UPDATE rides SET seats_available = seats_available - ? " +
+                            "WHERE id = ? AND status = 'ACTIVE' AND seats_available >= ?";
+        String insertSql = "INSERT INTO seat_holds (ride_id, passenger_id, seats, expires_at) " +
+                           "VALUES (?, ?, ?, ?) RETURNING id";
+
+        try (Connection conn = DBConnection.getConnection()) {
+            conn.setAutoCommit(false);
+
+            try (PreparedStatement reserve = conn.prepareStatement(reserveSql);
+                 PreparedStatement insert = conn.prepareStatement(insertSql)) {
+
+                reserve.setInt(1, seats);
+                reserve.setInt(2, rideId);
+                reserve.setInt(3, seats);
+                if (reserve.executeUpdate() == 0) {
+                    conn.rollback();
+                    return null;
+                }
+
+                insert.setInt(1, rideId);
+                insert.setInt(2, passengerId);
+                insert.setInt(3, seats);
+                insert.setString(4, expiresAt.toString());
+
+                int holdId;
+                try (ResultSet rs = insert.executeQuery()) {
+                    rs.next();
+                    holdId = rs.getInt(1);
+                }
+
+                conn.commit();
+                return new SeatHold(holdId, rideId, passengerId, seats, expiresAt);
+
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+
+        } catch (SQLException e) {
+            LOG.error("Error creating seat hold", e);
+        }
+
+        return null;
+    }
+
+    /**
+     * Turns a hold into a confirmed booking for seatsToBook seats and gives
+     * any remaining held seats back to the ride. Returns false if the hold
+     * no longer exists (already released or expired), or if the passenger
+     * booked the ride some other way meanwhile; the hold is then left as is.
+     */
+    public boolean convertHold(int holdId, int passengerId, int seatsToBook) {
+        String deleteSql = "DELETE FROM seat_holds WHERE id = ? AND passenger_id = ? AND seats >= ? " +
+                           "RETURNING ride_id, seats";
+        String bookSql = "INSERT INTO bookings (ride_id, passenger_id, seats_booked, status) " +
+                         "VALUES (?, ?, ?, 'CONFIRMED') " +
+                         "ON CONFLICT(ride_id, passenger_id) DO UPDATE SET " +
+                         "seats_booked = excluded.seats_booked, status = 'CONFIRMED', timestamp = CURRENT_TIMESTAMP " +
+                         "WHERE bookings.status = 'CANCELLED'";
+        String returnSql = "UPDATE rides SET seats_available = seats_available + ? WHERE id = ?";
+
+        try (Connection conn = DBConnection.getConnection()) {
+            conn.setAutoCommit(false);
+
+            try (PreparedStatement delete = conn.prepareStatement(deleteSql);
+                 PreparedStatement book = conn.prepareStatement(bookSql);
+                 PreparedStatement giveBack = conn.prepareStatement(returnSql)) {
+
+                delete.setInt(1, holdId);
+                delete.setInt(2, passengerId);
+                delete.setInt(3, seatsToBook);
+
+                int rideId;
+                int heldSeats;
+                try (ResultSet rs = delete.executeQuery()) {
+                    if (!rs.next()) {
+                        conn.rollback();
+                        return false;
+                    }
+                    rideId = rs.getInt("ride_id");
+                    heldSeats = rs.getInt("seats");
+                }
+
+                book.setInt(1, rideId);
+                book.setInt(2, passengerId);
+                book.setInt(3, seatsToBook);
+                // A live booking already holds its own seats; overwriting it would leak them
+                if (book.executeUpdate() == 0) {
+                    conn.rollback();
+                    return false;
+                }
+
+                if (heldSeats > seatsToBook) {
+                    giveBack.setInt(1, heldSeats - seatsToBook);
+                    giveBack.setInt(2, rideId);
+                    giveBack.executeUpdate();
+                }
+
+                conn.commit();
+                return true;
+
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+
+        } catch (SQLException e) {
+            LOG.error("Error converting seat hold", e);
+        }
+
+        return false;
+    }
+
+    // Deletes the hold and returns its seats to the ride; false if it was already gone
+    public boolean releaseHold(int holdId) {
+        String deleteSql = "DELETE FROM seat_holds WHERE id = ? RETURNING ride_id, seats";
+        String returnSql = "UPDATE rides SET seats_available = seats_available + ? WHERE id = ?";
+
+        try (Connection conn = DBConnection.getConnection()) {
+            conn.setAutoCommit(false);
+
+            try (PreparedStatement delete = conn.prepareStatement(deleteSql);
+                 PreparedStatement giveBack = conn.prepareStatement(returnSql)) {
+
+                delete.setInt(1, holdId);
+                try (ResultSet rs = delete.executeQuery()) {
+                    if (!rs.next()) {
+                        conn.rollback();
+                        return false;
+                    }
+                    giveBack.setInt(1, rs.getInt("seats"));
+                    giveBack.setInt(2, rs.getInt("ride_id"));
+                }
+                giveBack.executeUpdate();
+
+                conn.commit();
+                return true;
+
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+
+        } catch (SQLException e) {
+            LOG.error("Error releasing seat hold", e);
+        }
+
+        return false;
+    }
+
+    /**
+     * Returns the seats of every hold that expired before the cutoff in one
+     * transaction. Used on startup for holds whose timers died with the process.
+     */
+    public int releaseExpiredHolds(LocalDateTime cutoff) {
+        String returnSql = "UPDATE rides SET seats_available = seats_available + " +
+                           "(SELECT SUM(h.seats) FROM seat_holds h WHERE h.ride_id = rides.id AND h.expires_at <= ?) " +
+                           "WHERE id IN (SELECT ride_id FROM seat_holds WHERE expires_at <= ?)";
+        String deleteSql = "DELETE FROM seat_holds WHERE expires_at <= ?";
+
+        try (Connection conn = DBConnection.getConnection()) {
+            conn.setAutoCommit(false);
+
+            try (PreparedStatement giveBack = conn.prepareStatement(returnSql);
+                 PreparedStatement delete = conn.prepareStatement(deleteSql)) {
+
+                giveBack.setString(1, cutoff.toString());
+                giveBack.setString(2, cutoff.toString());
+                giveBack.executeUpdate();
+
+                delete.setString(1, cutoff.toString());
+                int released = delete.executeUpdate();
+
+                conn.commit();
+                return released;
+
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+
+        } catch (SQLException e) {
+            LOG.error("Error releasing expired seat holds", e);
+        }
+
+        return 0;
+    }
+
+    public List<SeatHold> getAllHolds() {
+        String sql = "SELECT id, ride_id, passenger_id, seats, expires_at FROM seat_holds";
+        List<SeatHold> holds = new ArrayList<>();
+
+        try (Connection conn = DBConnection.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+
+            while (rs.next()) {
+                holds.add(new SeatHold(
+                    rs.getInt(1),
+                    rs.getInt(2),
+                    rs.getInt(3),
+                    rs.getInt(4),
+                    TemporalCache.timestamp(rs.getString(5))
+                ));
+            }
+
+        } catch (SQLException e) {
+            LOG.error("Error loading seat holds", e);
+        }
+
+        return holds;
+    }
+}
@@ -2,11 +2,16 @@ package dao;
 
 import models.User;
 import utils.DBConnection;
+import utils.TemporalCache;
+import utils.Log;
+import utils.Logger;
 import java.sql.*;
 import java.time.LocalDateTime;
 
 public class UserDAO {
 
+    private static final Logger LOG = Log.getLogger(UserDAO.class);
+
     public boolean createUser(User user) {
         String sql = "INSERT INTO users (name, roll_number, email, password, role, warnings, " +
                      "blacklist_until, rating, total_ratings) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
@@ -36,8 +41,7 @@ public class UserDAO {
             }
             
         } catch (SQLException e) {
-            System.err.println("Error creating user: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Error creating user", e);
         }
         
         return false;
@@ -61,13 +65,55 @@ public class UserDAO {
             return pstmt.executeUpdate() > 0;
             
         } catch (SQLException e) {
-            System.err.println("Error updating user: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Error updating user", e);
         }
         
         return false;
     }
 
+    /**
+     * Adds one warning and starts a blacklist once the user reaches
+     * warningsBeforeBlacklist, as a single UPDATE with no prior read.
+     */
+    public boolean addWarning(int userId, int warningsBeforeBlacklist, LocalDateTime blacklistUntil) {
+        String sql = "UPDATE users SET warnings = warnings + 1, " +
+                     "blacklist_until = CASE WHEN warnings + 1 >= ? THEN ? ELSE blacklist_until END " +
+                     "WHERE id = ?";
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setInt(1, warningsBeforeBlacklist);
+            pstmt.setString(2, blacklistUntil.toString());
+            pstmt.setInt(3, userId);
+
+            return pstmt.executeUpdate() > 0;
+
+        } catch (SQLException e) {
+            LOG.error("Error adding warning", e);
+        }
+
+        return false;
+    }
+
+    public int clearExpiredBlacklists(LocalDateTime now, int batchSize) {
+        String sql = "UPDATE users SET blacklist_until = NULL WHERE id IN (" +
+                     "SELECT id FROM users WHERE blacklist_until IS NOT NULL AND blacklist_until <= ? LIMIT ?)";
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setString(1, now.toString());
+            pstmt.setInt(2, batchSize);
+            return pstmt.executeUpdate();
+
+        } catch (SQLException e) {
+            LOG.error("Error clearing expired blacklists", e);
+        }
+
+        return 0;
+    }
+
     public User getUserById(int id) {
         String sql = "SELECT * FROM users WHERE id = ?";
         
@@ -82,8 +128,7 @@ public class UserDAO {
             }
             
         } catch (SQLException e) {
-            System.err.println("Error getting user by ID: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Error getting user by ID", e);
         }
         
         return null;
@@ -103,8 +148,7 @@ public class UserDAO {
             }
             
         } catch (SQLException e) {
-            System.err.println("Error getting user by email: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Error getting user by email", e);
         }
         
         return null;
@@ -124,8 +168,7 @@ public class UserDAO {
             }
             
         } catch (SQLException e) {
-            System.err.println("Error getting user by roll number: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Error getting user by roll number", e);
         }
         
         return null;
@@ -146,8 +189,7 @@ public class UserDAO {
             }
             
         } catch (SQLException e) {
-            System.err.println("Error authenticating user: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Error authenticating user", e);
         }
         
         return null;
@@ -163,21 +205,14 @@ public class UserDAO {
             return pstmt.executeUpdate() > 0;
             
         } catch (SQLException e) {
-            System.err.println("Error deleting user: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Error deleting user", e);
         }
         
         return false;
     }
 
     private User extractUserFromResultSet(ResultSet rs) throws SQLException {
-        LocalDateTime blacklistUntil = null;
-        String blacklistStr = rs.getString("blacklist_until");
-        if (blacklistStr != null && !blacklistStr.isEmpty()) {
-            blacklistUntil = LocalDateTime.parse(blacklistStr);
-        }
-
-        return new User(
+        User user = new User(
             rs.getInt("id"),
             rs.getString("name"),
             rs.getString("roll_number"),
@@ -185,10 +220,30 @@ public class UserDAO {
             rs.getString("password"),
             rs.getString("role"),
             rs.getInt("warnings"),
-            blacklistUntil,
+            TemporalCache.timestamp(rs.getString("blacklist_until")),
             rs.getDouble("rating"),
             rs.getInt("total_ratings")
         );
+        user.setAdmin(rs.getInt("is_admin") == 1);
+        return user;
+    }
+
+    // Returns false if no user has that roll number
+    public boolean setAdmin(String rollNumber, boolean admin) {
+        String sql = "UPDATE users SET is_admin = ? WHERE roll_number = ?";
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setInt(1, admin ? 1 : 0);
+            pstmt.setString(2, rollNumber);
+            return pstmt.executeUpdate() > 0;
+
+        } catch (SQLException e) {
+            LOG.error("Error updating admin flag", e);
+        }
+
+        return false;
     }
 }
 
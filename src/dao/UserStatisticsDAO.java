@@ -0,0 +1,104 @@
+package dao;
+
+import models.UserStatistics;
+import utils.DBConnection;
+import utils.Log;
+import utils.Logger;
+
+import java.sql.*;
+
+/**
+ * Reads the per-user totals in user_statistics. The totals are written by
+ * the static record* helpers, which run on the caller's connection inside
+ * the transaction that completes or cancels the ride or booking, so a
+ * counter can never be bumped for a change that was rolled back.
+ */
+public class UserStatisticsDAO {
+
+    private static final Logger LOG = Log.getLogger(UserStatisticsDAO.class);
+
+    // The WHERE clauses keep SQLite from reading ON CONFLICT as a join constraint
+    private static final String DRIVER_COMPLETED_SQL =
+        "INSERT INTO user_statistics (user_id, rides_given, seats_filled, passengers_carried, revenue) " +
+        "SELECT r.driver_id, 1, COALESCE(SUM(b.seats_booked), 0), COUNT(b.id), " +
+        "COALESCE(SUM(b.seats_booked), 0) * r.price_per_seat " +
+        "FROM rides r LEFT JOIN bookings b ON b.ride_id = r.id AND b.status <> 'CANCELLED' " +
+        "WHERE r.id = ? GROUP BY r.id " +
+        "ON CONFLICT(user_id) DO UPDATE SET " +
+        "rides_given = rides_given + excluded.rides_given, " +
+        "seats_filled = seats_filled + excluded.seats_filled, " +
+        "passengers_carried = passengers_carried + excluded.passengers_carried, " +
+        "revenue = revenue + excluded.revenue";
+
+    private static final String PASSENGERS_COMPLETED_SQL =
+        "INSERT INTO user_statistics (user_id, rides_taken) " +
+        "SELECT passenger_id, 1 FROM bookings WHERE ride_id = ? AND status <> 'CANCELLED' " +
+        "ON CONFLICT(user_id) DO UPDATE SET rides_taken = rides_taken + 1";
+
+    private static final String RIDES_CANCELLED_SQL =
+        "INSERT INTO user_statistics (user_id, rides_cancelled) VALUES (?, ?) " +
+        "ON CONFLICT(user_id) DO UPDATE SET rides_cancelled = rides_cancelled + excluded.rides_cancelled";
+
+    private static final String BOOKING_CANCELLED_SQL =
+        "INSERT INTO user_statistics (user_id, bookings_cancelled) VALUES (?, 1) " +
+        "ON CONFLICT(user_id) DO UPDATE SET bookings_cancelled = bookings_cancelled + 1";
+
+    public UserStatistics getStatistics(int userId) {
+        String sql = "SELECT * FROM user_statistics WHERE user_id = ?";
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setInt(1, userId);
+            ResultSet rs = pstmt.executeQuery();
+
+            if (rs.next()) {
+                return new UserStatistics(
+                    userId,
+                    rs.getInt("rides_given"),
+                    rs.getInt("rides_cancelled"),
+                    rs.getInt("seats_filled"),
+                    rs.getInt("passengers_carried"),
+                    rs.getDouble("revenue"),
+                    rs.getInt("rides_taken"),
+                    rs.getInt("bookings_cancelled")
+                );
+            }
+            return new UserStatistics(userId);
+
+        } catch (SQLException e) {
+            LOG.error("Error getting user statistics", e);
+        }
+
+        return null;
+    }
+
+    // Call just after the ride's status flipped from ACTIVE to COMPLETED
+    static void recordCompletedRide(Connection conn, int rideId) throws SQLException {
+        try (PreparedStatement driver = conn.prepareStatement(DRIVER_COMPLETED_SQL);
+             PreparedStatement passengers = conn.prepareStatement(PASSENGERS_COMPLETED_SQL)) {
+            driver.setInt(1, rideId);
+            driver.executeUpdate();
+            passengers.setInt(1, rideId);
+            passengers.executeUpdate();
+        }
+    }
+
+    static void recordCancelledRides(Connection conn, int driverId, int rides) throws SQLException {
+        if (rides <= 0) {
+            return;
+        }
+        try (PreparedStatement pstmt = conn.prepareStatement(RIDES_CANCELLED_SQL)) {
+            pstmt.setInt(1, driverId);
+            pstmt.setInt(2, rides);
+            pstmt.executeUpdate();
+        }
+    }
+
+    static void recordCancelledBooking(Connection conn, int passengerId) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(BOOKING_CANCELLED_SQL)) {
+            pstmt.setInt(1, passengerId);
+            pstmt.executeUpdate();
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package dao;
+
+import utils.DBConnection;
+import utils.Log;
+import utils.Logger;
+
+import java.sql.*;
+import java.util.HashMap;
+import java.util.Map;
+
+public class WaitlistDAO {
+
+    private static final Logger LOG = Log.getLogger(WaitlistDAO.class);
+
+    /**
+     * Adds the passenger to the back of the ride's queue (re-joining after
+     * leaving also goes to the back). Returns the 1-based queue position, or -1.
+     */
+    public int joinWaitlist(int rideId, int passengerId, int seatsRequested) {
+        String deleteSql = "DELETE FROM ride_waitlist WHERE ride_id = ? AND passenger_id = ? AND status <> 'WAITING'";
+        String insertSql = "INSERT INTO ride_waitlist (ride_id, passenger_id, seats_requested) VALUES (?, ?, ?) " +
+                           "ON CONFLICT(ride_id, passenger_id) DO UPDATE SET seats_requested = excluded.seats_requested";
+
+        try (Connection conn = DBConnection.getConnection()) {
+            conn.setAutoCommit(false);
+
+            try (PreparedStatement delete = conn.prepareStatement(deleteSql);
+                 PreparedStatement insert = conn.prepareStatement(insertSql)) {
+
+                // A fresh row gets a new id, which is what puts it at the back
+                delete.setInt(1, rideId);
+                delete.setInt(2, passengerId);
+                delete.executeUpdate();
+
+                insert.setInt(1, rideId);
+                insert.setInt(2, passengerId);
+                insert.setInt(3, seatsRequested);
+                insert.executeUpdate();
+
+                int position = getPosition(conn, rideId, passengerId);
+                conn.commit();
+                return position;
+
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+
+        } catch (SQLException e) {
+            LOG.error("Error joining waitlist", e);
+        }
+
+        return -1;
+    }
+
+    public boolean leaveWaitlist(int rideId, int passengerId) {
+        String sql = "UPDATE ride_waitlist SET status = 'CANCELLED' " +
+                     "WHERE ride_id = ? AND passenger_id = ? AND status = 'WAITING'";
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setInt(1, rideId);
+            pstmt.setInt(2, passengerId);
+            return pstmt.executeUpdate() > 0;
+
+        } catch (SQLException e) {
+            LOG.error("Error leaving waitlist", e);
+        }
+
+        return false;
+    }
+
+    // 1-based position in the ride's queue, or 0 if the passenger isn't waiting
+    public int getPosition(int rideId, int passengerId) {
+        try (Connection conn = DBConnection.getConnection()) {
+            return getPosition(conn, rideId, passengerId);
+        } catch (SQLException e) {
+            LOG.error("Error getting waitlist position", e);
+        }
+        return 0;
+    }
+
+    private int getPosition(Connection conn, int rideId, int passengerId) throws SQLException {
+        String sql = "SELECT COUNT(*) FROM ride_waitlist w " +
+                     "WHERE w.ride_id = ? AND w.status = 'WAITING' AND w.id <= " +
+                     "(SELECT id FROM ride_waitlist WHERE ride_id = ? AND passenger_id = ? AND status = 'WAITING')";
+
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, rideId);
+            pstmt.setInt(2, rideId);
+            pstmt.setInt(3, passengerId);
+            ResultSet rs = pstmt.executeQuery();
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    // Ride id -> number of passengers waiting; used to seed the in-memory counts
+    public Map<Integer, Integer> getWaitingCounts() {
+        String sql = "SELECT ride_id, COUNT(*) FROM ride_waitlist WHERE status = 'WAITING' GROUP BY ride_id";
+        Map<Integer, Integer> counts = new HashMap<>();
+
+        try (Connection conn = DBConnection.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+
+            while (rs.next()) {
+                counts.put(rs.getInt(1), rs.getInt(2));
+            }
+
+        } catch (SQLException e) {
+            LOG.error("Error getting waitlist counts", e);
+        }
+
+        return counts;
+    }
+}
@@ -2,6 +2,9 @@
 -- SQLite Database
 -- Group 2 Deliverable
 
+-- Must run before any table is created
+PRAGMA auto_vacuum = INCREMENTAL;
+
 -- ========================================
 -- 1. USERS TABLE
 -- ========================================
@@ -17,7 +20,8 @@ CREATE TABLE IF NOT EXISTS users (
     blacklist_until TEXT, -- ISO 8601 format: YYYY-MM-DDTHH:MM:SS
     rating REAL DEFAULT 0.0,
     total_ratings INTEGER DEFAULT 0,
-    created_at TEXT DEFAULT CURRENT_TIMESTAMP
+    created_at TEXT DEFAULT CURRENT_TIMESTAMP,
+    is_admin INTEGER NOT NULL DEFAULT 0 -- may open the moderation queue
 );
 
 -- ========================================
@@ -77,7 +81,10 @@ CREATE TABLE IF NOT EXISTS rides (
     status TEXT DEFAULT 'ACTIVE' CHECK(status IN ('ACTIVE', 'COMPLETED', 'CANCELLED')),
     vehicle_info TEXT,
     created_at TEXT DEFAULT CURRENT_TIMESTAMP,
-    FOREIGN KEY (driver_id) REFERENCES drivers(user_id) ON DELETE CASCADE
+    schedule_id INTEGER, -- set when generated from ride_schedules (see 8g)
+    departure_epoch INTEGER, -- departure date + time as epoch seconds, wall clock read as UTC
+    FOREIGN KEY (driver_id) REFERENCES drivers(user_id) ON DELETE CASCADE,
+    FOREIGN KEY (schedule_id) REFERENCES ride_schedules(id) ON DELETE SET NULL
 );
 
 -- ========================================
@@ -132,6 +139,244 @@ CREATE TABLE IF NOT EXISTS reports (
     FOREIGN KEY (ride_id) REFERENCES rides(id) ON DELETE SET NULL
 );
 
+-- ========================================
+-- 8a. USER RATING STATS TABLE
+-- ========================================
+-- Per-user rating aggregates, maintained in the same transaction as each
+-- insert into ratings so averages and histograms are single-row reads
+CREATE TABLE IF NOT EXISTS user_rating_stats (
+    user_id INTEGER PRIMARY KEY,
+    score_sum INTEGER NOT NULL DEFAULT 0,
+    rating_count INTEGER NOT NULL DEFAULT 0,
+    count_1 INTEGER NOT NULL DEFAULT 0,
+    count_2 INTEGER NOT NULL DEFAULT 0,
+    count_3 INTEGER NOT NULL DEFAULT 0,
+    count_4 INTEGER NOT NULL DEFAULT 0,
+    count_5 INTEGER NOT NULL DEFAULT 0,
+    last_rated_at TEXT,
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+-- ========================================
+-- 8b. REPORT COUNTER TABLES
+-- ========================================
+-- Per-user report counts by status, maintained with every report insert
+-- and status change so moderation thresholds are constant-time checks
+CREATE TABLE IF NOT EXISTS user_report_counters (
+    user_id INTEGER PRIMARY KEY,
+    pending_count INTEGER NOT NULL DEFAULT 0,
+    reviewed_count INTEGER NOT NULL DEFAULT 0,
+    resolved_count INTEGER NOT NULL DEFAULT 0,
+    last_report_at TEXT,
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+-- One row per user per day; the rolling window sums at most 30 rows
+CREATE TABLE IF NOT EXISTS user_report_daily (
+    user_id INTEGER NOT NULL,
+    day TEXT NOT NULL, -- YYYY-MM-DD
+    report_count INTEGER NOT NULL DEFAULT 0,
+    PRIMARY KEY (user_id, day),
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+) WITHOUT ROWID;
+
+-- ========================================
+-- 8c. HISTORY TABLES
+-- ========================================
+-- Completed/cancelled rides and their bookings are moved here once they
+-- fall outside the retention window, keeping the hot tables' indexes small.
+-- No foreign keys: the parent rows no longer exist in the hot tables.
+CREATE TABLE IF NOT EXISTS rides_history (
+    id INTEGER PRIMARY KEY,
+    driver_id INTEGER NOT NULL,
+    driver_name TEXT NOT NULL,
+    origin TEXT NOT NULL,
+    destination TEXT NOT NULL,
+    departure_date TEXT NOT NULL,
+    departure_time TEXT NOT NULL,
+    seats_available INTEGER NOT NULL,
+    seats_total INTEGER NOT NULL,
+    price_per_seat REAL DEFAULT 0.0,
+    is_women_only INTEGER DEFAULT 0,
+    status TEXT NOT NULL,
+    vehicle_info TEXT,
+    created_at TEXT,
+    departure_epoch INTEGER,
+    archived_at TEXT NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS bookings_history (
+    id INTEGER PRIMARY KEY,
+    ride_id INTEGER NOT NULL,
+    passenger_id INTEGER NOT NULL,
+    status TEXT NOT NULL,
+    seats_booked INTEGER NOT NULL,
+    timestamp TEXT,
+    archived_at TEXT NOT NULL
+);
+
+-- ========================================
+-- 8d. SEAT HOLDS
+-- ========================================
+-- Seats reserved while a passenger is in the booking dialog. The seats are
+-- already taken out of rides.seats_available; rows are kept so holds can be
+-- restored (or returned to the ride) after a crash.
+CREATE TABLE IF NOT EXISTS seat_holds (
+    id INTEGER PRIMARY KEY AUTOINCREMENT,
+    ride_id INTEGER NOT NULL,
+    passenger_id INTEGER NOT NULL,
+    seats INTEGER NOT NULL CHECK(seats > 0),
+    expires_at TEXT NOT NULL,
+    created_at TEXT DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (ride_id) REFERENCES rides(id) ON DELETE CASCADE,
+    UNIQUE(ride_id, passenger_id)
+);
+
+-- ========================================
+-- 8e. RIDE WAITLIST
+-- ========================================
+-- FIFO queue per ride; id order is queue order. When a booking is
+-- cancelled the head is promoted in the same transaction.
+CREATE TABLE IF NOT EXISTS ride_waitlist (
+    id INTEGER PRIMARY KEY AUTOINCREMENT,
+    ride_id INTEGER NOT NULL,
+    passenger_id INTEGER NOT NULL,
+    seats_requested INTEGER NOT NULL CHECK(seats_requested > 0),
+    status TEXT NOT NULL DEFAULT 'WAITING' CHECK(status IN ('WAITING', 'PROMOTED', 'CANCELLED')),
+    created_at TEXT DEFAULT CURRENT_TIMESTAMP,
+    promoted_at TEXT,
+    FOREIGN KEY (ride_id) REFERENCES rides(id) ON DELETE CASCADE,
+    FOREIGN KEY (passenger_id) REFERENCES users(id) ON DELETE CASCADE,
+    UNIQUE(ride_id, passenger_id)
+);
+
+-- ========================================
+-- 8f. NOTIFICATIONS
+-- ========================================
+-- Per-user inbox, written in batches by the notification dispatcher
+CREATE TABLE IF NOT EXISTS notifications (
+    id INTEGER PRIMARY KEY AUTOINCREMENT,
+    user_id INTEGER NOT NULL,
+    message TEXT NOT NULL,
+    created_at TEXT NOT NULL,
+    read_at TEXT,
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+-- ========================================
+-- 8g. RECURRING RIDE SCHEDULES
+-- ========================================
+-- A driver's repeating commute. days_mask has bit 0 = Monday ... bit 6 = Sunday.
+-- Concrete rides rows are generated for a rolling window only;
+-- materialized_through is the last date already generated.
+CREATE TABLE IF NOT EXISTS ride_schedules (
+    id INTEGER PRIMARY KEY AUTOINCREMENT,
+    driver_id INTEGER NOT NULL,
+    driver_name TEXT NOT NULL,
+    origin TEXT NOT NULL,
+    destination TEXT NOT NULL,
+    days_mask INTEGER NOT NULL CHECK(days_mask > 0 AND days_mask < 128),
+    departure_time TEXT NOT NULL,
+    seats_total INTEGER NOT NULL CHECK(seats_total > 0),
+    price_per_seat REAL DEFAULT 0.0,
+    vehicle_info TEXT,
+    start_date TEXT NOT NULL,
+    end_date TEXT,
+    active INTEGER NOT NULL DEFAULT 1,
+    materialized_through TEXT,
+    created_at TEXT DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (driver_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+-- ========================================
+-- 8h. USER STATISTICS
+-- ========================================
+-- Per-user ride totals for the profile page, bumped in the same transaction
+-- that completes or cancels a ride or cancels a booking; archived rides keep
+-- counting because nothing here is recomputed from the live tables.
+CREATE TABLE IF NOT EXISTS user_statistics (
+    user_id INTEGER PRIMARY KEY,
+    rides_given INTEGER NOT NULL DEFAULT 0,
+    rides_cancelled INTEGER NOT NULL DEFAULT 0,
+    seats_filled INTEGER NOT NULL DEFAULT 0,
+    passengers_carried INTEGER NOT NULL DEFAULT 0,
+    revenue REAL NOT NULL DEFAULT 0.0,
+    rides_taken INTEGER NOT NULL DEFAULT 0,
+    bookings_cancelled INTEGER NOT NULL DEFAULT 0,
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+-- ========================================
+-- 8i. ANALYTICS SUMMARIES
+-- ========================================
+-- Per-day totals materialized by AnalyticsService from rides and bookings
+-- in both tiers. A day is always rewritten whole; weekly and monthly
+-- reports add up the days. No foreign keys: drivers' rows outlive archiving.
+CREATE TABLE IF NOT EXISTS analytics_route_daily (
+    day TEXT NOT NULL, -- departure day, YYYY-MM-DD
+    origin TEXT NOT NULL,
+    destination TEXT NOT NULL,
+    rides INTEGER NOT NULL DEFAULT 0,
+    rides_cancelled INTEGER NOT NULL DEFAULT 0,
+    seats_offered INTEGER NOT NULL DEFAULT 0,
+    seats_filled INTEGER NOT NULL DEFAULT 0,
+    bookings INTEGER NOT NULL DEFAULT 0,
+    bookings_cancelled INTEGER NOT NULL DEFAULT 0,
+    revenue REAL NOT NULL DEFAULT 0.0,
+    PRIMARY KEY (day, origin, destination)
+) WITHOUT ROWID;
+
+CREATE TABLE IF NOT EXISTS analytics_driver_daily (
+    day TEXT NOT NULL,
+    driver_id INTEGER NOT NULL,
+    driver_name TEXT,
+    rides_given INTEGER NOT NULL DEFAULT 0,
+    rides_cancelled INTEGER NOT NULL DEFAULT 0,
+    seats_filled INTEGER NOT NULL DEFAULT 0,
+    revenue REAL NOT NULL DEFAULT 0.0,
+    PRIMARY KEY (day, driver_id)
+) WITHOUT ROWID;
+
+CREATE TABLE IF NOT EXISTS analytics_hour_daily (
+    day TEXT NOT NULL,
+    hour INTEGER NOT NULL CHECK(hour BETWEEN 0 AND 23),
+    departures INTEGER NOT NULL DEFAULT 0,
+    seats_filled INTEGER NOT NULL DEFAULT 0,
+    PRIMARY KEY (day, hour)
+) WITHOUT ROWID;
+
+-- ========================================
+-- 8j. ROUTE DEMAND
+-- ========================================
+-- Latest snapshot of DemandTracker's decayed counters, one row per
+-- (route, hour of week); origin '*' means searches by destination only.
+CREATE TABLE IF NOT EXISTS route_demand (
+    origin TEXT NOT NULL,
+    destination TEXT NOT NULL,
+    hour_of_week INTEGER NOT NULL CHECK(hour_of_week BETWEEN 0 AND 167),
+    score REAL NOT NULL,
+    error REAL NOT NULL DEFAULT 0.0,
+    snapshot_at TEXT NOT NULL,
+    PRIMARY KEY (origin, destination, hour_of_week)
+) WITHOUT ROWID;
+
+-- ========================================
+-- 8k. ROUTE PRICE BASELINES
+-- ========================================
+-- Running totals of completed rides per route, for suggested prices.
+-- Updated in the transaction that completes each ride; version is the
+-- latest change number, so caches can reload only what changed.
+CREATE TABLE IF NOT EXISTS route_price_baselines (
+    origin TEXT NOT NULL,
+    destination TEXT NOT NULL,
+    rides INTEGER NOT NULL DEFAULT 0,
+    price_sum REAL NOT NULL DEFAULT 0.0,
+    seats_filled INTEGER NOT NULL DEFAULT 0,
+    revenue REAL NOT NULL DEFAULT 0.0,
+    version INTEGER NOT NULL DEFAULT 0,
+    PRIMARY KEY (origin, destination)
+) WITHOUT ROWID;
+
 -- ========================================
 -- 9. INDEXES FOR FASTER QUERIES
 -- ========================================
@@ -144,7 +389,25 @@ CREATE INDEX IF NOT EXISTS idx_rides_date ON rides(departure_date);
 CREATE INDEX IF NOT EXISTS idx_bookings_ride ON bookings(ride_id);
 CREATE INDEX IF NOT EXISTS idx_bookings_passenger ON bookings(passenger_id);
 CREATE INDEX IF NOT EXISTS idx_ratings_to_user ON ratings(to_user_id);
+CREATE INDEX IF NOT EXISTS idx_ratings_to_user_time ON ratings(to_user_id, timestamp);
 CREATE INDEX IF NOT EXISTS idx_reports_reported_user ON reports(reported_user);
+CREATE INDEX IF NOT EXISTS idx_reports_status_time ON reports(status, timestamp);
+CREATE INDEX IF NOT EXISTS idx_rides_status_date ON rides(status, departure_date);
+CREATE INDEX IF NOT EXISTS idx_rides_history_driver ON rides_history(driver_id, departure_date);
+CREATE INDEX IF NOT EXISTS idx_bookings_history_ride ON bookings_history(ride_id);
+CREATE INDEX IF NOT EXISTS idx_bookings_history_passenger ON bookings_history(passenger_id);
+CREATE INDEX IF NOT EXISTS idx_users_blacklist_until ON users(blacklist_until) WHERE blacklist_until IS NOT NULL;
+CREATE INDEX IF NOT EXISTS idx_seat_holds_expires ON seat_holds(expires_at);
+CREATE INDEX IF NOT EXISTS idx_waitlist_ride_status ON ride_waitlist(ride_id, status, id);
+CREATE INDEX IF NOT EXISTS idx_notifications_unread ON notifications(user_id) WHERE read_at IS NULL;
+CREATE INDEX IF NOT EXISTS idx_ride_schedules_due ON ride_schedules(active, materialized_through);
+CREATE UNIQUE INDEX IF NOT EXISTS idx_rides_schedule_date ON rides(schedule_id, departure_date) WHERE schedule_id IS NOT NULL;
+CREATE INDEX IF NOT EXISTS idx_rides_status_departure ON rides(status, departure_epoch);
+CREATE INDEX IF NOT EXISTS idx_rides_route_departure ON rides(origin, destination, departure_epoch) WHERE status = 'ACTIVE';
+CREATE INDEX IF NOT EXISTS idx_rides_history_departure ON rides_history(departure_epoch);
+CREATE INDEX IF NOT EXISTS idx_rides_driver_departure ON rides(driver_id, departure_epoch);
+CREATE INDEX IF NOT EXISTS idx_rides_history_driver_departure ON rides_history(driver_id, departure_epoch);
+CREATE INDEX IF NOT EXISTS idx_route_price_baselines_version ON route_price_baselines(version);
 
 -- ========================================
 -- 10. SAMPLE DATA (Optional for Testing)
@@ -185,8 +448,8 @@ INSERT OR IGNORE INTO destinations (name, description) VALUES
 
 
 -- Sample admin user for testing (password: admin123)
-INSERT OR IGNORE INTO users (name, roll_number, email, password, role) VALUES
-    ('Admin User', 'ADMIN001', 'admin@bpdc.edu', 'admin123', 'BOTH');
+INSERT OR IGNORE INTO users (name, roll_number, email, password, role, is_admin) VALUES
+    ('Admin User', 'ADMIN001', 'admin@bpdc.edu', 'admin123', 'BOTH', 1);
 
 -- ========================================
 -- END OF SCHEMA
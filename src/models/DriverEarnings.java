@@ -0,0 +1,89 @@
+package models;
+
+/**
+ * What one driver earned over a period. Only completed rides earn; seats
+ * are counted for every ride that wasn't cancelled.
+ */
+public class DriverEarnings {
+
+    private String period;
+    private int driverId;
+    private String driverName;
+    private int ridesGiven;
+    private int ridesCancelled;
+    private int seatsFilled;
+    private double revenue;
+
+    public DriverEarnings(String period, int driverId, String driverName) {
+        this.period = period;
+        this.driverId = driverId;
+        this.driverName = driverName;
+    }
+
+    public DriverEarnings(String period, int driverId, String driverName, int ridesGiven,
+                          int ridesCancelled, int seatsFilled, double revenue) {
+        this(period, driverId, driverName);
+        this.ridesGiven = ridesGiven;
+        this.ridesCancelled = ridesCancelled;
+        this.seatsFilled = seatsFilled;
+        this.revenue = revenue;
+    }
+
+    public void addRide(Ride ride, int seatsBooked) {
+        if ("CANCELLED".equals(ride.getStatus())) {
+            ridesCancelled++;
+            return;
+        }
+        seatsFilled += seatsBooked;
+        if ("COMPLETED".equals(ride.getStatus())) {
+            ridesGiven++;
+            revenue += seatsBooked * ride.getPricePerSeat();
+        }
+    }
+
+    public void merge(DriverEarnings other) {
+        ridesGiven += other.ridesGiven;
+        ridesCancelled += other.ridesCancelled;
+        seatsFilled += other.seatsFilled;
+        revenue += other.revenue;
+    }
+
+    public String getPeriod() {
+        return period;
+    }
+
+    public int getDriverId() {
+        return driverId;
+    }
+
+    public String getDriverName() {
+        return driverName;
+    }
+
+    public int getRidesGiven() {
+        return ridesGiven;
+    }
+
+    public int getRidesCancelled() {
+        return ridesCancelled;
+    }
+
+    public int getSeatsFilled() {
+        return seatsFilled;
+    }
+
+    public double getRevenue() {
+        return revenue;
+    }
+
+    @Override
+    public String toString() {
+        return "DriverEarnings{" +
+                "period='" + period + '\'' +
+                ", driver=" + driverId + " '" + driverName + '\'' +
+                ", rides=" + ridesGiven +
+                ", seats=" + seatsFilled +
+                ", revenue=" + revenue +
+                '}';
+    }
+}
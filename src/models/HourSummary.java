@@ -0,0 +1,60 @@
+package models;
+
+/** Departures in one hour of the day (0-23) over a period, for finding peak hours. */
+public class HourSummary {
+
+    private String period;
+    private int hour;
+    private int departures;
+    private int seatsFilled;
+
+    public HourSummary(String period, int hour) {
+        this.period = period;
+        this.hour = hour;
+    }
+
+    public HourSummary(String period, int hour, int departures, int seatsFilled) {
+        this(period, hour);
+        this.departures = departures;
+        this.seatsFilled = seatsFilled;
+    }
+
+    // Cancelled rides never departed
+    public void addRide(Ride ride, int seatsBooked) {
+        if (!"CANCELLED".equals(ride.getStatus())) {
+            departures++;
+            seatsFilled += seatsBooked;
+        }
+    }
+
+    public void merge(HourSummary other) {
+        departures += other.departures;
+        seatsFilled += other.seatsFilled;
+    }
+
+    public String getPeriod() {
+        return period;
+    }
+
+    public int getHour() {
+        return hour;
+    }
+
+    public int getDepartures() {
+        return departures;
+    }
+
+    public int getSeatsFilled() {
+        return seatsFilled;
+    }
+
+    @Override
+    public String toString() {
+        return "HourSummary{" +
+                "period='" + period + '\'' +
+                ", hour=" + hour +
+                ", departures=" + departures +
+                ", seats=" + seatsFilled +
+                '}';
+    }
+}
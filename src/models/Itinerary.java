@@ -0,0 +1,71 @@
+package models;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Collections;
+import java.util.List;
+
+public class Itinerary {
+
+    private List<Ride> legs;
+    private List<LocalDateTime> legArrivals;
+
+    public Itinerary(List<Ride> legs, List<LocalDateTime> legArrivals) {
+        this.legs = legs;
+        this.legArrivals = legArrivals;
+    }
+
+    public List<Ride> getLegs() {
+        return Collections.unmodifiableList(legs);
+    }
+
+    // Estimated arrival at the end of leg i
+    public LocalDateTime getLegArrival(int i) {
+        return legArrivals.get(i);
+    }
+
+    public LocalDateTime getDeparture() {
+        Ride first = legs.get(0);
+        return LocalDateTime.of(first.getDepartureDate(), first.getDepartureTime());
+    }
+
+    public LocalDateTime getArrival() {
+        return legArrivals.get(legArrivals.size() - 1);
+    }
+
+    public int getTransfers() {
+        return legs.size() - 1;
+    }
+
+    public double getTotalPrice() {
+        double total = 0;
+        for (Ride leg : legs) {
+            total += leg.getPricePerSeat();
+        }
+        return total;
+    }
+
+    public String getSummary() {
+        DateTimeFormatter time = DateTimeFormatter.ofPattern("MMM dd HH:mm");
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < legs.size(); i++) {
+            Ride leg = legs.get(i);
+            sb.append(i + 1).append(". Ride #").append(leg.getId()).append(" ")
+              .append(leg.getRouteDescription())
+              .append(", departs ").append(LocalDateTime.of(leg.getDepartureDate(), leg.getDepartureTime()).format(time))
+              .append(", arrives ~").append(legArrivals.get(i).format(time))
+              .append(" (").append(leg.getDriverName()).append(")\n");
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public String toString() {
+        return "Itinerary{" +
+                "legs=" + legs.size() +
+                ", departure=" + getDeparture() +
+                ", arrival=" + getArrival() +
+                ", transfers=" + getTransfers() +
+                '}';
+    }
+}
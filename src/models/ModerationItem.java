@@ -0,0 +1,71 @@
+package models;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+public class ModerationItem {
+
+    private Report report;
+    private String reporterName;
+    private String reportedUserName;
+    private double reporterTrust;
+    private int targetReportCount;
+    private double priority;
+
+    public ModerationItem(Report report, String reporterName, String reportedUserName,
+                          double reporterTrust, int targetReportCount, double priority) {
+        this.report = report;
+        this.reporterName = reporterName;
+        this.reportedUserName = reportedUserName;
+        this.reporterTrust = reporterTrust;
+        this.targetReportCount = targetReportCount;
+        this.priority = priority;
+    }
+
+    public Report getReport() {
+        return report;
+    }
+
+    public int getReportId() {
+        return report.getId();
+    }
+
+    public String getReporterName() {
+        return reporterName;
+    }
+
+    public String getReportedUserName() {
+        return reportedUserName;
+    }
+
+    public double getReporterTrust() {
+        return reporterTrust;
+    }
+
+    public int getTargetReportCount() {
+        return targetReportCount;
+    }
+
+    public double getPriority() {
+        return priority;
+    }
+
+    public long getAgeHours() {
+        if (report.getTimestamp() == null) {
+            return 0;
+        }
+        return Duration.between(report.getTimestamp(), LocalDateTime.now()).toHours();
+    }
+
+    @Override
+    public String toString() {
+        return "ModerationItem{" +
+                "reportId=" + report.getId() +
+                ", reporter='" + reporterName + '\'' +
+                ", reported='" + reportedUserName + '\'' +
+                ", trust=" + String.format("%.1f", reporterTrust) +
+                ", targetReports=" + targetReportCount +
+                ", priority=" + String.format("%.1f", priority) +
+                '}';
+    }
+}
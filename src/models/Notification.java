@@ -0,0 +1,48 @@
+package models;
+
+import java.time.LocalDateTime;
+
+public class Notification {
+
+    private int id;
+    private int userId;
+    private String message;
+    private LocalDateTime createdAt;
+
+    public Notification(int userId, String message) {
+        this(0, userId, message, LocalDateTime.now().withNano(0));
+    }
+
+    public Notification(int id, int userId, String message, LocalDateTime createdAt) {
+        this.id = id;
+        this.userId = userId;
+        this.message = message;
+        this.createdAt = createdAt;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public int getUserId() {
+        return userId;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    @Override
+    public String toString() {
+        return "Notification{" +
+                "id=" + id +
+                ", userId=" + userId +
+                ", message='" + message + '\'' +
+                ", createdAt=" + createdAt +
+                '}';
+    }
+}
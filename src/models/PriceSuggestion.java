@@ -0,0 +1,69 @@
+package models;
+
+/**
+ * A suggested price per seat and what it was worked out from: the route's
+ * past rides, the distance between the places, and the current demand.
+ */
+public class PriceSuggestion {
+
+    private double price;
+    private double baselinePrice;
+    private int routeRides;
+    private double distanceKm;
+    private double demandMultiplier;
+
+    public PriceSuggestion(double price, double baselinePrice, int routeRides,
+                           double distanceKm, double demandMultiplier) {
+        this.price = price;
+        this.baselinePrice = baselinePrice;
+        this.routeRides = routeRides;
+        this.distanceKm = distanceKm;
+        this.demandMultiplier = demandMultiplier;
+    }
+
+    public double getPrice() {
+        return price;
+    }
+
+    // Meaningless when getRouteRides() is 0
+    public double getBaselinePrice() {
+        return baselinePrice;
+    }
+
+    public int getRouteRides() {
+        return routeRides;
+    }
+
+    // Negative when either place has no coordinates
+    public double getDistanceKm() {
+        return distanceKm;
+    }
+
+    public double getDemandMultiplier() {
+        return demandMultiplier;
+    }
+
+    public boolean hasDistance() {
+        return distanceKm >= 0;
+    }
+
+    // Short reason shown next to the price, e.g. "12 past rides, ~18 km, high demand"
+    public String getExplanation() {
+        StringBuilder why = new StringBuilder();
+        if (routeRides > 0) {
+            why.append(routeRides).append(routeRides == 1 ? " past ride" : " past rides");
+        }
+        if (hasDistance()) {
+            why.append(why.length() > 0 ? ", " : "").append(String.format("~%.0f km", distanceKm));
+        }
+        if (demandMultiplier >= 1.1) {
+            why.append(why.length() > 0 ? ", " : "").append("high demand");
+        }
+        return why.length() > 0 ? why.toString() : "default fare";
+    }
+
+    @Override
+    public String toString() {
+        return String.format("AED %.2f (%s)", price, getExplanation());
+    }
+}
@@ -81,6 +81,10 @@ public class Rating {
         return timestamp;
     }
 
+    public void setTimestamp(LocalDateTime timestamp) {
+        this.timestamp = timestamp;
+    }
+
     public void updateScore(int newScore) {
         setScore(newScore);
     }
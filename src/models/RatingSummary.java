@@ -0,0 +1,70 @@
+package models;
+
+import java.time.LocalDateTime;
+
+public class RatingSummary {
+
+    private int userId;
+    private long scoreSum;
+    private int ratingCount;
+    private int[] starCounts;
+    private LocalDateTime lastRatedAt;
+
+    public RatingSummary(int userId) {
+        this.userId = userId;
+        this.starCounts = new int[5];
+    }
+
+    public RatingSummary(int userId, long scoreSum, int ratingCount, int[] starCounts,
+                         LocalDateTime lastRatedAt) {
+        this.userId = userId;
+        this.scoreSum = scoreSum;
+        this.ratingCount = ratingCount;
+        this.starCounts = starCounts;
+        this.lastRatedAt = lastRatedAt;
+    }
+
+    public int getUserId() {
+        return userId;
+    }
+
+    public long getScoreSum() {
+        return scoreSum;
+    }
+
+    public int getRatingCount() {
+        return ratingCount;
+    }
+
+    public LocalDateTime getLastRatedAt() {
+        return lastRatedAt;
+    }
+
+    public double getAverage() {
+        return ratingCount == 0 ? 0.0 : (double) scoreSum / ratingCount;
+    }
+
+    public int getCountForStars(int stars) {
+        if (stars < 1 || stars > 5)
+            throw new IllegalArgumentException("Rating must be between 1 and 5");
+        return starCounts[stars - 1];
+    }
+
+    public boolean hasRatings() {
+        return ratingCount > 0;
+    }
+
+    @Override
+    public String toString() {
+        return "RatingSummary{" +
+                "userId=" + userId +
+                ", average=" + String.format("%.2f", getAverage()) +
+                ", ratingCount=" + ratingCount +
+                ", 5*=" + starCounts[4] +
+                ", 4*=" + starCounts[3] +
+                ", 3*=" + starCounts[2] +
+                ", 2*=" + starCounts[1] +
+                ", 1*=" + starCounts[0] +
+                '}';
+    }
+}
@@ -0,0 +1,60 @@
+package models;
+
+public class ReportCounters {
+
+    private int userId;
+    private int pendingCount;
+    private int reviewedCount;
+    private int resolvedCount;
+    private int recentCount;
+
+    public ReportCounters(int userId, int pendingCount, int reviewedCount,
+                          int resolvedCount, int recentCount) {
+        this.userId = userId;
+        this.pendingCount = pendingCount;
+        this.reviewedCount = reviewedCount;
+        this.resolvedCount = resolvedCount;
+        this.recentCount = recentCount;
+    }
+
+    public int getUserId() {
+        return userId;
+    }
+
+    public int getPendingCount() {
+        return pendingCount;
+    }
+
+    public int getReviewedCount() {
+        return reviewedCount;
+    }
+
+    public int getResolvedCount() {
+        return resolvedCount;
+    }
+
+    // Reports filed in the rolling window (Constants.REPORT_WINDOW_DAYS)
+    public int getRecentCount() {
+        return recentCount;
+    }
+
+    // Pending and upheld reports; rejected (REVIEWED) reports don't count against a user
+    public int getActiveCount() {
+        return pendingCount + resolvedCount;
+    }
+
+    public int getTotalCount() {
+        return pendingCount + reviewedCount + resolvedCount;
+    }
+
+    @Override
+    public String toString() {
+        return "ReportCounters{" +
+                "userId=" + userId +
+                ", pending=" + pendingCount +
+                ", reviewed=" + reviewedCount +
+                ", resolved=" + resolvedCount +
+                ", recent=" + recentCount +
+                '}';
+    }
+}
@@ -1,7 +1,9 @@
 package models;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
@@ -125,6 +127,11 @@ import java.util.List;
   return departureDate.format(dateFormatter) + " at " + departureTime.format(timeFormatter);
   }
 
+  // Wall-clock departure read as UTC; matches rides.departure_epoch
+  public long getDepartureEpochSecond() {
+  return LocalDateTime.of(departureDate, departureTime).toEpochSecond(ZoneOffset.UTC);
+  }
+
   public String getRouteDescription() { return origin + " → " + destination; }
   public double getTotalRevenue() { return getBookedSeatsCount() * pricePerSeat; }
 
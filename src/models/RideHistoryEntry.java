@@ -0,0 +1,68 @@
+package models;
+
+/**
+ * One line of a user's ride history: a ride they drove, or a booking they
+ * made on someone else's ride. Entries are ordered newest departure first
+ * by (departureEpoch, ride id, role), which is also the page cursor.
+ */
+public class RideHistoryEntry {
+
+    public static final String ROLE_DRIVER = "DRIVER";
+    public static final String ROLE_PASSENGER = "PASSENGER";
+
+    private Ride ride;
+    private String role;
+    private long departureEpoch;
+    private int seatsBooked;
+    private String bookingStatus;
+
+    public RideHistoryEntry(Ride ride, String role, long departureEpoch, int seatsBooked, String bookingStatus) {
+        this.ride = ride;
+        this.role = role;
+        this.departureEpoch = departureEpoch;
+        this.seatsBooked = seatsBooked;
+        this.bookingStatus = bookingStatus;
+    }
+
+    public Ride getRide() {
+        return ride;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    public boolean isDriver() {
+        return ROLE_DRIVER.equals(role);
+    }
+
+    public long getDepartureEpoch() {
+        return departureEpoch;
+    }
+
+    public int getSeatsBooked() {
+        return seatsBooked;
+    }
+
+    public String getBookingStatus() {
+        return bookingStatus;
+    }
+
+    // A cancelled booking ends the trip for the passenger whatever happened to the ride
+    public String getOutcome() {
+        if (!isDriver() && "CANCELLED".equals(bookingStatus)) {
+            return "BOOKING CANCELLED";
+        }
+        return ride.getStatus();
+    }
+
+    @Override
+    public String toString() {
+        String seats = isDriver()
+                ? ride.getBookedSeatsCount() + "/" + ride.getSeatsTotal() + " seats filled"
+                : seatsBooked + " seat(s)";
+        return ride.getDepartureDate() + " " + ride.getDepartureTime() + "  " +
+               (isDriver() ? "Drove " : "Rode ") + ride.getOrigin() + " -> " + ride.getDestination() +
+               "  (" + seats + ", " + getOutcome() + ")";
+    }
+}
@@ -1,5 +1,7 @@
 package models;
 
+import utils.Constants;
+
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.LocalDateTime;
@@ -93,7 +95,7 @@ public class RideRequest {
     public boolean isTimeCompatible(Ride ride) {
         LocalTime rideTime = ride.getDepartureTime();
         long minutesDiff = Math.abs(java.time.Duration.between(this.preferredTime, rideTime).toMinutes());
-        return minutesDiff <= 120;
+        return minutesDiff <= Constants.REQUEST_MATCH_WINDOW_MINUTES;
     }
 
     public boolean canBeFulfilledBy(Ride ride) {
@@ -0,0 +1,133 @@
+package models;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.TextStyle;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+
+public class RideSchedule {
+
+    private int id;
+    private int driverId;
+    private String driverName;
+    private String origin;
+    private String destination;
+    private int daysMask;
+    private LocalTime departureTime;
+    private int seatsTotal;
+    private double pricePerSeat;
+    private String vehicleInfo;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private boolean active;
+    private LocalDate materializedThrough;
+
+    public RideSchedule(int id, int driverId, String driverName, String origin, String destination,
+                        int daysMask, LocalTime departureTime, int seatsTotal, double pricePerSeat,
+                        String vehicleInfo, LocalDate startDate, LocalDate endDate,
+                        boolean active, LocalDate materializedThrough) {
+        this.id = id;
+        this.driverId = driverId;
+        this.driverName = driverName;
+        this.origin = origin;
+        this.destination = destination;
+        this.daysMask = daysMask;
+        this.departureTime = departureTime;
+        this.seatsTotal = seatsTotal;
+        this.pricePerSeat = pricePerSeat;
+        this.vehicleInfo = vehicleInfo;
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.active = active;
+        this.materializedThrough = materializedThrough;
+    }
+
+    // Bit 0 = Monday ... bit 6 = Sunday
+    public static int toMask(Set<DayOfWeek> days) {
+        int mask = 0;
+        for (DayOfWeek day : days) {
+            mask |= 1 << (day.getValue() - 1);
+        }
+        return mask;
+    }
+
+    public boolean runsOn(LocalDate date) {
+        if (date.isBefore(startDate) || (endDate != null && date.isAfter(endDate))) {
+            return false;
+        }
+        return (daysMask & (1 << (date.getDayOfWeek().getValue() - 1))) != 0;
+    }
+
+    public Set<DayOfWeek> getDays() {
+        Set<DayOfWeek> days = EnumSet.noneOf(DayOfWeek.class);
+        for (DayOfWeek day : DayOfWeek.values()) {
+            if ((daysMask & (1 << (day.getValue() - 1))) != 0) {
+                days.add(day);
+            }
+        }
+        return days;
+    }
+
+    // e.g. "Mon–Thu 08:00 Al Barsha → BPDC Campus"
+    public String getDescription() {
+        StringBuilder days = new StringBuilder();
+        DayOfWeek runStart = null;
+        DayOfWeek previous = null;
+        for (DayOfWeek day : getDays()) {
+            if (previous != null && day.getValue() == previous.getValue() + 1) {
+                previous = day;
+                continue;
+            }
+            appendRun(days, runStart, previous);
+            runStart = day;
+            previous = day;
+        }
+        appendRun(days, runStart, previous);
+        return days + " " + departureTime + " " + origin + " → " + destination;
+    }
+
+    private static void appendRun(StringBuilder sb, DayOfWeek from, DayOfWeek to) {
+        if (from == null) {
+            return;
+        }
+        if (sb.length() > 0) {
+            sb.append(", ");
+        }
+        sb.append(from.getDisplayName(TextStyle.SHORT, Locale.ENGLISH));
+        if (to != from) {
+            sb.append("–").append(to.getDisplayName(TextStyle.SHORT, Locale.ENGLISH));
+        }
+    }
+
+    public int getId() { return id; }
+    public void setId(int id) { this.id = id; }
+    public int getDriverId() { return driverId; }
+    public String getDriverName() { return driverName; }
+    public String getOrigin() { return origin; }
+    public String getDestination() { return destination; }
+    public int getDaysMask() { return daysMask; }
+    public LocalTime getDepartureTime() { return departureTime; }
+    public int getSeatsTotal() { return seatsTotal; }
+    public double getPricePerSeat() { return pricePerSeat; }
+    public String getVehicleInfo() { return vehicleInfo; }
+    public LocalDate getStartDate() { return startDate; }
+    public LocalDate getEndDate() { return endDate; }
+    public boolean isActive() { return active; }
+    public LocalDate getMaterializedThrough() { return materializedThrough; }
+    public void setMaterializedThrough(LocalDate materializedThrough) { this.materializedThrough = materializedThrough; }
+
+    @Override
+    public String toString() {
+        return "RideSchedule{" +
+                "id=" + id +
+                ", driver='" + driverName + '\'' +
+                ", schedule='" + getDescription() + '\'' +
+                ", seats=" + seatsTotal +
+                ", materializedThrough=" + materializedThrough +
+                ", active=" + active +
+                '}';
+    }
+}
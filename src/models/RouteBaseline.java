@@ -0,0 +1,68 @@
+package models;
+
+/**
+ * Running totals of the completed rides on one route, kept in
+ * route_price_baselines. The version is bumped on every change so readers
+ * can fetch just the routes updated since they last looked.
+ */
+public class RouteBaseline {
+
+    private String origin;
+    private String destination;
+    private int rides;
+    private double priceSum;
+    private int seatsFilled;
+    private double revenue;
+    private long version;
+
+    public RouteBaseline(String origin, String destination, int rides, double priceSum,
+                         int seatsFilled, double revenue, long version) {
+        this.origin = origin;
+        this.destination = destination;
+        this.rides = rides;
+        this.priceSum = priceSum;
+        this.seatsFilled = seatsFilled;
+        this.revenue = revenue;
+        this.version = version;
+    }
+
+    public String getOrigin() {
+        return origin;
+    }
+
+    public String getDestination() {
+        return destination;
+    }
+
+    public int getRides() {
+        return rides;
+    }
+
+    public int getSeatsFilled() {
+        return seatsFilled;
+    }
+
+    public double getRevenue() {
+        return revenue;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * What passengers paid per seat on average, or the mean asking price if
+     * no seat on the route has been filled yet.
+     */
+    public double getBaselinePrice() {
+        if (seatsFilled > 0) {
+            return revenue / seatsFilled;
+        }
+        return rides > 0 ? priceSum / rides : 0.0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s -> %s: AED %.2f over %d ride(s)", origin, destination, getBaselinePrice(), rides);
+    }
+}
@@ -0,0 +1,69 @@
+package models;
+
+import java.time.DayOfWeek;
+import java.time.format.TextStyle;
+import java.util.Locale;
+
+/**
+ * How much a route is wanted at one hour of the week, as a time-decayed
+ * score: one recent search counts 1, a ride request more, and both fade
+ * with a half-life of Constants.DEMAND_HALF_LIFE_HOURS. The score may
+ * overstate the truth by at most the error, which is nonzero only for
+ * routes that entered the tracker by evicting another.
+ */
+public class RouteDemand {
+
+    // Stands in for the origin of searches by destination only
+    public static final String ANY_ORIGIN = "*";
+
+    private String origin;
+    private String destination;
+    private int hourOfWeek;
+    private double score;
+    private double error;
+
+    public RouteDemand(String origin, String destination, int hourOfWeek, double score, double error) {
+        this.origin = origin;
+        this.destination = destination;
+        this.hourOfWeek = hourOfWeek;
+        this.score = score;
+        this.error = error;
+    }
+
+    public String getOrigin() {
+        return origin;
+    }
+
+    public String getDestination() {
+        return destination;
+    }
+
+    // 0 is Monday 00:00-01:00, 167 is Sunday 23:00-24:00
+    public int getHourOfWeek() {
+        return hourOfWeek;
+    }
+
+    public DayOfWeek getDayOfWeek() {
+        return DayOfWeek.of(hourOfWeek / 24 + 1);
+    }
+
+    public int getHour() {
+        return hourOfWeek % 24;
+    }
+
+    public double getScore() {
+        return score;
+    }
+
+    public double getError() {
+        return error;
+    }
+
+    @Override
+    public String toString() {
+        String from = ANY_ORIGIN.equals(origin) ? "Anywhere" : origin;
+        return String.format("%s %02d:00  %s -> %s  (%.1f)",
+                getDayOfWeek().getDisplayName(TextStyle.SHORT, Locale.ENGLISH), getHour(),
+                from, destination, score);
+    }
+}
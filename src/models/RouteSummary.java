@@ -0,0 +1,129 @@
+package models;
+
+/**
+ * Ride activity on one route over a period (a day, ISO week or month).
+ * Daily summaries are built up ride by ride and merged; longer periods are
+ * the sums of their days.
+ */
+public class RouteSummary {
+
+    private String period;
+    private String origin;
+    private String destination;
+    private int rides;
+    private int ridesCancelled;
+    private int seatsOffered;
+    private int seatsFilled;
+    private int bookings;
+    private int bookingsCancelled;
+    private double revenue;
+
+    public RouteSummary(String period, String origin, String destination) {
+        this.period = period;
+        this.origin = origin;
+        this.destination = destination;
+    }
+
+    public RouteSummary(String period, String origin, String destination, int rides, int ridesCancelled,
+                        int seatsOffered, int seatsFilled, int bookings, int bookingsCancelled, double revenue) {
+        this(period, origin, destination);
+        this.rides = rides;
+        this.ridesCancelled = ridesCancelled;
+        this.seatsOffered = seatsOffered;
+        this.seatsFilled = seatsFilled;
+        this.bookings = bookings;
+        this.bookingsCancelled = bookingsCancelled;
+        this.revenue = revenue;
+    }
+
+    // Seats and revenue only count for rides that weren't cancelled; revenue only once completed
+    public void addRide(Ride ride, int seatsBooked, int bookingCount, int cancelledBookings) {
+        rides++;
+        bookings += bookingCount;
+        bookingsCancelled += cancelledBookings;
+        if ("CANCELLED".equals(ride.getStatus())) {
+            ridesCancelled++;
+            return;
+        }
+        seatsOffered += ride.getSeatsTotal();
+        seatsFilled += seatsBooked;
+        if ("COMPLETED".equals(ride.getStatus())) {
+            revenue += seatsBooked * ride.getPricePerSeat();
+        }
+    }
+
+    public void merge(RouteSummary other) {
+        rides += other.rides;
+        ridesCancelled += other.ridesCancelled;
+        seatsOffered += other.seatsOffered;
+        seatsFilled += other.seatsFilled;
+        bookings += other.bookings;
+        bookingsCancelled += other.bookingsCancelled;
+        revenue += other.revenue;
+    }
+
+    public String getPeriod() {
+        return period;
+    }
+
+    public String getOrigin() {
+        return origin;
+    }
+
+    public String getDestination() {
+        return destination;
+    }
+
+    public int getRides() {
+        return rides;
+    }
+
+    public int getRidesCancelled() {
+        return ridesCancelled;
+    }
+
+    public int getSeatsOffered() {
+        return seatsOffered;
+    }
+
+    public int getSeatsFilled() {
+        return seatsFilled;
+    }
+
+    public int getBookings() {
+        return bookings;
+    }
+
+    public int getBookingsCancelled() {
+        return bookingsCancelled;
+    }
+
+    public double getRevenue() {
+        return revenue;
+    }
+
+    // Share of offered seats that were booked, 0..1
+    public double getSeatUtilization() {
+        return seatsOffered == 0 ? 0.0 : (double) seatsFilled / seatsOffered;
+    }
+
+    public double getRideCancellationRate() {
+        return rides == 0 ? 0.0 : (double) ridesCancelled / rides;
+    }
+
+    public double getBookingCancellationRate() {
+        return bookings == 0 ? 0.0 : (double) bookingsCancelled / bookings;
+    }
+
+    @Override
+    public String toString() {
+        return "RouteSummary{" +
+                "period='" + period + '\'' +
+                ", route='" + origin + " -> " + destination + '\'' +
+                ", rides=" + rides +
+                ", cancelled=" + ridesCancelled +
+                ", seats=" + seatsFilled + "/" + seatsOffered +
+                ", revenue=" + revenue +
+                '}';
+    }
+}
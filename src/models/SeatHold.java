@@ -0,0 +1,60 @@
+package models;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+public class SeatHold {
+
+    private int id;
+    private int rideId;
+    private int passengerId;
+    private int seats;
+    private LocalDateTime expiresAt;
+
+    public SeatHold(int id, int rideId, int passengerId, int seats, LocalDateTime expiresAt) {
+        this.id = id;
+        this.rideId = rideId;
+        this.passengerId = passengerId;
+        this.seats = seats;
+        this.expiresAt = expiresAt;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public int getRideId() {
+        return rideId;
+    }
+
+    public int getPassengerId() {
+        return passengerId;
+    }
+
+    public int getSeats() {
+        return seats;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public boolean isExpired() {
+        return !LocalDateTime.now().isBefore(expiresAt);
+    }
+
+    public long getRemainingSeconds() {
+        return Math.max(Duration.between(LocalDateTime.now(), expiresAt).getSeconds(), 0);
+    }
+
+    @Override
+    public String toString() {
+        return "SeatHold{" +
+                "id=" + id +
+                ", rideId=" + rideId +
+                ", passengerId=" + passengerId +
+                ", seats=" + seats +
+                ", expiresAt=" + expiresAt +
+                '}';
+    }
+}
@@ -2,6 +2,8 @@ package models;
 
 import java.time.LocalDateTime;
 
+import utils.Constants;
+
 
 public class User {
 
@@ -16,6 +18,7 @@ public class User {
     private double rating; 
     private int ratingCount; 
     private int totalRatings; 
+    private boolean admin;
 
     public User() {
         this.warnings = 0;
@@ -145,15 +148,13 @@ public class User {
     public void addWarning() {
         this.warnings++;
         
-        final int WARNING_THRESHOLD = 3;
-        if (this.warnings >= WARNING_THRESHOLD) {
+        if (this.warnings >= Constants.WARNINGS_BEFORE_BLACKLIST) {
             triggerBlacklist();
         }
     }
 
     private void triggerBlacklist() {
-        final int BLACKLIST_DAYS = 7;
-        this.blacklistUntil = LocalDateTime.now().plusDays(BLACKLIST_DAYS);
+        this.blacklistUntil = LocalDateTime.now().plusDays(Constants.BLACKLIST_DAYS);
     }
 
     public void updateRating(double newRating) {
@@ -231,4 +232,12 @@ public boolean isPassenger() {
     return "PASSENGER".equals(role) || "BOTH".equals(role);
 }
 
+public boolean isAdmin() {
+    return admin;
+}
+
+public void setAdmin(boolean admin) {
+    this.admin = admin;
+}
+
 }
@@ -0,0 +1,78 @@
+package models;
+
+public class UserStatistics {
+
+    private int userId;
+    private int ridesGiven;
+    private int ridesCancelled;
+    private int seatsFilled;
+    private int passengersCarried;
+    private double revenue;
+    private int ridesTaken;
+    private int bookingsCancelled;
+
+    public UserStatistics(int userId) {
+        this.userId = userId;
+    }
+
+    public UserStatistics(int userId, int ridesGiven, int ridesCancelled, int seatsFilled,
+                          int passengersCarried, double revenue, int ridesTaken, int bookingsCancelled) {
+        this.userId = userId;
+        this.ridesGiven = ridesGiven;
+        this.ridesCancelled = ridesCancelled;
+        this.seatsFilled = seatsFilled;
+        this.passengersCarried = passengersCarried;
+        this.revenue = revenue;
+        this.ridesTaken = ridesTaken;
+        this.bookingsCancelled = bookingsCancelled;
+    }
+
+    public int getUserId() {
+        return userId;
+    }
+
+    // Completed rides driven
+    public int getRidesGiven() {
+        return ridesGiven;
+    }
+
+    public int getRidesCancelled() {
+        return ridesCancelled;
+    }
+
+    // Seats booked on completed rides driven
+    public int getSeatsFilled() {
+        return seatsFilled;
+    }
+
+    public int getPassengersCarried() {
+        return passengersCarried;
+    }
+
+    public double getRevenue() {
+        return revenue;
+    }
+
+    // Completed rides taken as a passenger
+    public int getRidesTaken() {
+        return ridesTaken;
+    }
+
+    public int getBookingsCancelled() {
+        return bookingsCancelled;
+    }
+
+    @Override
+    public String toString() {
+        return "UserStatistics{" +
+                "userId=" + userId +
+                ", ridesGiven=" + ridesGiven +
+                ", ridesCancelled=" + ridesCancelled +
+                ", seatsFilled=" + seatsFilled +
+                ", passengersCarried=" + passengersCarried +
+                ", revenue=" + revenue +
+                ", ridesTaken=" + ridesTaken +
+                ", bookingsCancelled=" + bookingsCancelled +
+                '}';
+    }
+}
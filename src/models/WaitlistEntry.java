@@ -0,0 +1,49 @@
+package models;
+
+public class WaitlistEntry {
+
+    private int id;
+    private int rideId;
+    private int passengerId;
+    private int seatsRequested;
+    private String status;
+
+    public WaitlistEntry(int id, int rideId, int passengerId, int seatsRequested, String status) {
+        this.id = id;
+        this.rideId = rideId;
+        this.passengerId = passengerId;
+        this.seatsRequested = seatsRequested;
+        this.status = status;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public int getRideId() {
+        return rideId;
+    }
+
+    public int getPassengerId() {
+        return passengerId;
+    }
+
+    public int getSeatsRequested() {
+        return seatsRequested;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    @Override
+    public String toString() {
+        return "WaitlistEntry{" +
+                "id=" + id +
+                ", rideId=" + rideId +
+                ", passengerId=" + passengerId +
+                ", seats=" + seatsRequested +
+                ", status='" + status + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,233 @@
+package services;
+
+import dao.AnalyticsDAO;
+import dao.AnalyticsDAO.Period;
+import models.DriverEarnings;
+import models.HourSummary;
+import models.Ride;
+import models.RouteSummary;
+import utils.Constants;
+import utils.Log;
+import utils.Logger;
+import utils.Metrics;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Campus analytics: rides per route, seat utilization, driver earnings,
+ * peak departure hours and cancellation rates, by day, week or month.
+ *
+ * Reports are read from per-day summary tables. A refresh splits its day
+ * range in halves on a fork/join pool down to chunks of
+ * Constants.ANALYTICS_CHUNK_DAYS; each chunk is scanned from SQLite on its
+ * worker's own connection and aggregated there, and the partial results
+ * are merged on the way back up. The rebuilt days then replace their old
+ * rows in one transaction. Past days rarely change, so the periodic
+ * refresh only redoes the days since the last one (usually just today).
+ */
+public class AnalyticsService {
+
+    private static final Logger LOG = Log.getLogger(AnalyticsService.class);
+
+    private static final Metrics.Timer REFRESH_TIME = Metrics.timer("carpool_analytics_refresh_duration_seconds");
+    private static final Metrics.Counter DAYS_REFRESHED = Metrics.counter("carpool_analytics_days_refreshed_total");
+
+    // Its own small pool: every worker holds a database connection while it scans
+    private static final ForkJoinPool POOL = new ForkJoinPool(Constants.ANALYTICS_PARALLELISM);
+
+    private AnalyticsDAO analyticsDAO;
+
+    public AnalyticsService() {
+        this.analyticsDAO = new AnalyticsDAO();
+    }
+
+    /** Rebuilds every day from the first ride up to today. */
+    public int rebuild() {
+        LocalDate first = analyticsDAO.getEarliestDepartureDay();
+        LocalDate today = LocalDate.now();
+        if (first == null || first.isAfter(today)) {
+            return 0;
+        }
+        return refresh(first, today.plusDays(1));
+    }
+
+    /**
+     * Redoes the latest summarized day through today. Rides of earlier days
+     * have departed and been swept, so their summaries stand.
+     */
+    public int refreshLatest() {
+        LocalDate latest = analyticsDAO.getLatestSummarizedDay();
+        if (latest == null) {
+            return rebuild();
+        }
+        LocalDate today = LocalDate.now();
+        LocalDate from = latest.isAfter(today) ? today : latest;
+        return refresh(from, today.plusDays(1));
+    }
+
+    /** Recomputes the days in [from, to). Returns the number of days written, or -1 on failure. */
+    public int refresh(LocalDate from, LocalDate to) {
+        if (!from.isBefore(to)) {
+            return 0;
+        }
+        long start = REFRESH_TIME.start();
+        try {
+            Partition result = POOL.invoke(new ScanTask(analyticsDAO, from, to));
+            if (result == null || !analyticsDAO.replaceDays(from, to, result.routes.values(),
+                                                            result.drivers.values(), result.hours.values())) {
+                LOG.warn("Analytics refresh failed", "from", from, "to", to);
+                return -1;
+            }
+            int days = (int) ChronoUnit.DAYS.between(from, to);
+            DAYS_REFRESHED.add(days);
+            LOG.info("Analytics refreshed", "from", from, "days", days, "routes", result.routes.size());
+            return days;
+        } finally {
+            REFRESH_TIME.stop(start);
+        }
+    }
+
+    public List<RouteSummary> getRouteSummaries(Period period, LocalDate from, LocalDate to) {
+        return analyticsDAO.getRouteSummaries(period, from, to);
+    }
+
+    public List<DriverEarnings> getDriverEarnings(Period period, LocalDate from, LocalDate to) {
+        return analyticsDAO.getDriverEarnings(period, from, to);
+    }
+
+    public List<HourSummary> getPeakHours(Period period, LocalDate from, LocalDate to) {
+        return analyticsDAO.getHourSummaries(period, from, to);
+    }
+
+    /** Plain-text report for the days in [from, to), one section per measure. */
+    public String formatReport(Period period, LocalDate from, LocalDate to) {
+        StringBuilder report = new StringBuilder();
+        report.append("=== Campus Carpool Analytics (").append(period.name().toLowerCase())
+              .append(", ").append(from).append(" to ").append(to.minusDays(1)).append(") ===\n");
+
+        report.append("\n--- Routes ---\n");
+        report.append(String.format("%-10s %-40s %6s %6s %8s %9s %10s%n",
+                "Period", "Route", "Rides", "Canc%", "Seats", "Util%", "Revenue"));
+        for (RouteSummary r : getRouteSummaries(period, from, to)) {
+            report.append(String.format("%-10s %-40s %6d %5.1f%% %8s %8.1f%% %10.2f%n",
+                    r.getPeriod(), truncate(r.getOrigin() + " -> " + r.getDestination(), 40), r.getRides(),
+                    100 * r.getRideCancellationRate(), r.getSeatsFilled() + "/" + r.getSeatsOffered(),
+                    100 * r.getSeatUtilization(), r.getRevenue()));
+        }
+
+        report.append("\n--- Driver Earnings ---\n");
+        report.append(String.format("%-10s %-25s %6s %6s %6s %10s%n",
+                "Period", "Driver", "Rides", "Canc", "Seats", "AED"));
+        for (DriverEarnings d : getDriverEarnings(period, from, to)) {
+            report.append(String.format("%-10s %-25s %6d %6d %6d %10.2f%n",
+                    d.getPeriod(), truncate(d.getDriverName() + " (#" + d.getDriverId() + ")", 25),
+                    d.getRidesGiven(), d.getRidesCancelled(), d.getSeatsFilled(), d.getRevenue()));
+        }
+
+        report.append("\n--- Peak Departure Hours ---\n");
+        String period0 = null;
+        int shown = 0;
+        for (HourSummary h : getPeakHours(period, from, to)) {
+            if (!h.getPeriod().equals(period0)) {
+                period0 = h.getPeriod();
+                shown = 0;
+            }
+            // Busiest three hours of each period
+            if (shown++ < 3) {
+                report.append(String.format("%-10s %02d:00  %5d departure(s), %5d seat(s)%n",
+                        h.getPeriod(), h.getHour(), h.getDepartures(), h.getSeatsFilled()));
+            }
+        }
+        return report.toString();
+    }
+
+    private static String truncate(String text, int width) {
+        return text.length() <= width ? text : text.substring(0, width - 1) + "~";
+    }
+
+    public static long getRefreshIntervalSeconds() {
+        return Long.getLong("carpool.analytics.interval.seconds", Constants.ANALYTICS_REFRESH_INTERVAL_SECONDS);
+    }
+
+    public void scheduleOn(MaintenanceScheduler scheduler) {
+        scheduler.schedule("analytics-refresh", this::refreshLatest, 120, getRefreshIntervalSeconds());
+    }
+
+    /**
+     * Partial aggregates for a range of days. Keys include the day, so
+     * partitions over disjoint ranges merge by plain insertion; merge still
+     * adds up on a collision so it stays correct for overlapping inputs.
+     */
+    private static final class Partition {
+        final Map<String, RouteSummary> routes = new LinkedHashMap<>();
+        final Map<String, DriverEarnings> drivers = new LinkedHashMap<>();
+        final Map<String, HourSummary> hours = new LinkedHashMap<>();
+
+        void add(Ride ride, int seatsBooked, int bookings, int bookingsCancelled) {
+            String day = ride.getDepartureDate().toString();
+            routes.computeIfAbsent(day + '\u0000' + ride.getOrigin() + '\u0000' + ride.getDestination(),
+                    k -> new RouteSummary(day, ride.getOrigin(), ride.getDestination()))
+                  .addRide(ride, seatsBooked, bookings, bookingsCancelled);
+            drivers.computeIfAbsent(day + '\u0000' + ride.getDriverId(),
+                    k -> new DriverEarnings(day, ride.getDriverId(), ride.getDriverName()))
+                   .addRide(ride, seatsBooked);
+            int hour = ride.getDepartureTime().getHour();
+            hours.computeIfAbsent(day + '\u0000' + hour, k -> new HourSummary(day, hour))
+                 .addRide(ride, seatsBooked);
+        }
+
+        Partition merge(Partition other) {
+            other.routes.forEach((k, v) -> routes.merge(k, v, (a, b) -> { a.merge(b); return a; }));
+            other.drivers.forEach((k, v) -> drivers.merge(k, v, (a, b) -> { a.merge(b); return a; }));
+            other.hours.forEach((k, v) -> hours.merge(k, v, (a, b) -> { a.merge(b); return a; }));
+            return this;
+        }
+    }
+
+    // Returns null if any chunk failed to scan, so a partial day is never written
+    private static final class ScanTask extends RecursiveTask<Partition> {
+        private final AnalyticsDAO dao;
+        private final LocalDate from;
+        private final LocalDate to;
+
+        ScanTask(AnalyticsDAO dao, LocalDate from, LocalDate to) {
+            this.dao = dao;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Partition compute() {
+            long days = ChronoUnit.DAYS.between(from, to);
+            if (days <= Constants.ANALYTICS_CHUNK_DAYS) {
+                Partition partition = new Partition();
+                return dao.scanRides(from, to, partition::add) ? partition : null;
+            }
+
+            LocalDate middle = from.plusDays(days / 2);
+            ScanTask left = new ScanTask(dao, from, middle);
+            left.fork();
+            Partition right = new ScanTask(dao, middle, to).compute();
+            Partition done = left.join();
+            return done == null || right == null ? null : done.merge(right);
+        }
+    }
+
+    public static void main(String[] args) {
+        utils.DBConnection.initializeDatabase();
+        Period period = args.length > 0 ? Period.valueOf(args[0].toUpperCase()) : Period.WEEKLY;
+        int days = args.length > 1 ? Integer.parseInt(args[1]) : 28;
+
+        AnalyticsService analytics = new AnalyticsService();
+        analytics.refreshLatest();
+        LocalDate to = LocalDate.now().plusDays(1);
+        System.out.print(analytics.formatReport(period, to.minusDays(days), to));
+        utils.DBConnection.closeConnection();
+    }
+}
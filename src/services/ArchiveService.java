@@ -0,0 +1,87 @@
+package services;
+
+import dao.ArchiveDAO;
+import utils.Constants;
+import utils.Log;
+import utils.Logger;
+
+import java.time.LocalDate;
+import java.util.function.IntSupplier;
+
+/**
+ * Moves finished rides and their bookings out of the hot tables once they
+ * are older than the retention window. Each chunk is its own short
+ * transaction; freed pages are handed back with an incremental vacuum
+ * instead of a full VACUUM that would lock the whole file. On databases
+ * older than that setting the incremental vacuum does nothing until they
+ * are converted offline with main().
+ */
+public class ArchiveService {
+
+    private static final Logger LOG = Log.getLogger(ArchiveService.class);
+
+    private ArchiveDAO archiveDAO;
+
+    public ArchiveService() {
+        this.archiveDAO = new ArchiveDAO();
+    }
+
+    public void archive() {
+        LocalDate cutoff = LocalDate.now().minusDays(Constants.ARCHIVE_RETENTION_DAYS);
+
+        int rides = runInChunks(() -> archiveDAO.archiveRides(cutoff, Constants.ARCHIVE_CHUNK_SIZE));
+        int bookings = runInChunks(() -> archiveDAO.archiveCancelledBookings(cutoff, Constants.ARCHIVE_CHUNK_SIZE));
+
+        if (rides + bookings > 0) {
+            archiveDAO.incrementalVacuum(Constants.VACUUM_PAGES_PER_RUN);
+            LOG.info("Archived to history", "rides", rides, "cancelledBookings", bookings);
+        }
+    }
+
+    private int runInChunks(IntSupplier chunk) {
+        int total = 0;
+        int moved;
+        do {
+            moved = chunk.getAsInt();
+            total += moved;
+            if (moved == Constants.ARCHIVE_CHUNK_SIZE) {
+                pauseBetweenChunks();
+            }
+        } while (moved == Constants.ARCHIVE_CHUNK_SIZE);
+        return total;
+    }
+
+    private void pauseBetweenChunks() {
+        try {
+            Thread.sleep(Constants.SWEEP_BATCH_PAUSE_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public static long getArchiveIntervalSeconds() {
+        return Long.getLong("carpool.archive.interval.seconds", Constants.ARCHIVE_INTERVAL_SECONDS);
+    }
+
+    public void scheduleOn(MaintenanceScheduler scheduler) {
+        scheduler.schedule("archive", this::archive, 60, getArchiveIntervalSeconds());
+    }
+
+    // Databases created before auto_vacuum was configured are converted offline,
+    // with the app stopped: java services.ArchiveService --enable-incremental-vacuum
+    public static void main(String[] args) {
+        if (args.length != 1 || !args[0].equals("--enable-incremental-vacuum")) {
+            System.out.println("usage: java services.ArchiveService --enable-incremental-vacuum");
+            return;
+        }
+        utils.DBConnection.initializeDatabase();
+        ArchiveDAO archiveDAO = new ArchiveDAO();
+        if (archiveDAO.isIncrementalVacuumEnabled()) {
+            System.out.println("Incremental vacuum is already enabled");
+        } else {
+            System.out.println(archiveDAO.enableIncrementalVacuum()
+                    ? "Incremental vacuum enabled" : "Conversion failed; see the log");
+        }
+        utils.DBConnection.closeConnection();
+    }
+}
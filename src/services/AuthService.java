@@ -6,9 +6,26 @@ import models.Passenger;
 import dao.UserDAO;
 import dao.DriverDAO;
 import dao.PassengerDAO;
+import utils.Metrics;
+import utils.Log;
+import utils.Logger;
 
 public class AuthService {
-    
+
+    private static final Logger LOG = Log.getLogger(AuthService.class);
+
+    private static final Metrics.Counter LOGINS = Metrics.counter("carpool_logins_total", "result", "success");
+    private static final Metrics.Counter LOGIN_INVALID = Metrics.counter("carpool_logins_total", "result", "invalid");
+    private static final Metrics.Counter LOGIN_BAD_CREDENTIALS = Metrics.counter("carpool_logins_total", "result", "bad_credentials");
+    private static final Metrics.Counter LOGIN_BLACKLISTED = Metrics.counter("carpool_logins_total", "result", "blacklisted");
+    private static final Metrics.Timer LOGIN_TIME = Metrics.timer("carpool_login_duration_seconds");
+
+    private static final Metrics.Counter REGISTERED = Metrics.counter("carpool_registrations_total", "result", "success");
+    private static final Metrics.Counter REGISTER_INVALID = Metrics.counter("carpool_registrations_total", "result", "invalid");
+    private static final Metrics.Counter REGISTER_DUPLICATE_EMAIL = Metrics.counter("carpool_registrations_total", "result", "duplicate_email");
+    private static final Metrics.Counter REGISTER_DUPLICATE_ROLL = Metrics.counter("carpool_registrations_total", "result", "duplicate_roll_number");
+    private static final Metrics.Counter REGISTER_FAILED = Metrics.counter("carpool_registrations_total", "result", "failed");
+
     private UserDAO userDAO;
     private DriverDAO driverDAO;
     private PassengerDAO passengerDAO;
@@ -20,46 +37,65 @@ public class AuthService {
     }
 
     public User login(String email, String password) {
+        long start = LOGIN_TIME.start();
+        try {
+            return loginTimed(email, password);
+        } finally {
+            LOGIN_TIME.stop(start);
+        }
+    }
+
+    private User loginTimed(String email, String password) {
         if (email == null || email.trim().isEmpty()) {
-            System.err.println("Email cannot be empty");
+            LOGIN_INVALID.increment();
+            LOG.warn("Email cannot be empty");
             return null;
         }
         if (password == null || password.trim().isEmpty()) {
-            System.err.println("Password cannot be empty");
+            LOGIN_INVALID.increment();
+            LOG.warn("Password cannot be empty");
             return null;
         }
 
         User user = userDAO.authenticate(email, password);
         if (user == null) {
-            System.err.println("Invalid email or password");
+            LOGIN_BAD_CREDENTIALS.increment();
+            LOG.warn("Invalid email or password");
             return null;
         }
 
         if (user.isBlacklisted()) {
-            System.err.println("Account is temporarily suspended until: " + user.getBlacklistUntil());
+            LOGIN_BLACKLISTED.increment();
+            LOG.warn("Account is temporarily suspended", "userId", user.getId(), "until", user.getBlacklistUntil());
             return null;
         }
 
-        System.out.println("Login successful! Welcome, " + user.getName());
+        LOGINS.increment();
+        LOG.info("Login successful", "userId", user.getId());
         return user;
     }
 
     public void logout(User user) {
         if (user != null) {
-            System.out.println("User " + user.getName() + " logged out successfully");
+            LOG.info("User logged out", "userId", user.getId());
         }
     }
 
     public Passenger registerPassenger(String name, String rollNumber, String email, 
                                        String password, String preferredDestination) {
-        if (!validateRegistrationInputs(name, rollNumber, email, password)) return null;
+        if (!validateRegistrationInputs(name, rollNumber, email, password)) {
+            REGISTER_INVALID.increment();
+            return null;
+        }
 
         if (userDAO.getUserByEmail(email) != null) {
-            System.err.println("Email already registered");
+            REGISTER_DUPLICATE_EMAIL.increment();
+            LOG.warn("Email already registered");
             return null;
         }
         if (userDAO.getUserByRollNumber(rollNumber) != null) {
-            System.err.println("Roll number already registered");
+            REGISTER_DUPLICATE_ROLL.increment();
+            LOG.warn("Roll number already registered");
             return null;
         }
 
@@ -67,31 +103,39 @@ public class AuthService {
         boolean success = userDAO.createUser(passenger);
         if (success) {
             passengerDAO.createPassenger(passenger);
-            System.out.println("Passenger registered successfully!");
+            REGISTERED.increment();
+            LOG.info("Passenger registered successfully!");
             return passenger;
         }
+        REGISTER_FAILED.increment();
         return null;
     }
 
     public Driver registerDriver(String name, String rollNumber, String email, String password,
                                  String licenseNumber, String vehicleModel, 
                                  String vehicleNumber, int seatsAvailable, String role) {
-        if (!validateRegistrationInputs(name, rollNumber, email, password)) return null;
+        if (!validateRegistrationInputs(name, rollNumber, email, password)) {
+            REGISTER_INVALID.increment();
+            return null;
+        }
 
         if (licenseNumber == null || licenseNumber.trim().isEmpty() ||
             vehicleModel == null || vehicleModel.trim().isEmpty() ||
             vehicleNumber == null || vehicleNumber.trim().isEmpty() ||
             seatsAvailable <= 0 || seatsAvailable > 8) {
-            System.err.println("Driver fields invalid");
+            REGISTER_INVALID.increment();
+            LOG.warn("Driver fields invalid");
             return null;
         }
 
         if (userDAO.getUserByEmail(email) != null) {
-            System.err.println("Email already registered");
+            REGISTER_DUPLICATE_EMAIL.increment();
+            LOG.warn("Email already registered");
             return null;
         }
         if (userDAO.getUserByRollNumber(rollNumber) != null) {
-            System.err.println("Roll number already registered");
+            REGISTER_DUPLICATE_ROLL.increment();
+            LOG.warn("Roll number already registered");
             return null;
         }
 
@@ -100,32 +144,35 @@ public class AuthService {
         boolean success = userDAO.createUser(driver);
         if (success) {
             driverDAO.createDriver(driver);
-            System.out.println(role + "registered successfully!");
+            FuzzySearchService.invalidate();
+            REGISTERED.increment();
+            LOG.info("Driver registered", "role", role);
             return driver;
         }
+        REGISTER_FAILED.increment();
         return null;
     }
 
     private boolean validateRegistrationInputs(String name, String rollNumber, String email, String password) {
         if (name == null || name.trim().isEmpty()) {
-            System.err.println("Name cannot be empty");
+            LOG.warn("Name cannot be empty");
             return false;
         }
 
         if (rollNumber == null || !rollNumber.matches("20(1[8-9]|2[0-5])A7[PT]S[0-9]{4}U")) {
-            System.err.println("Invalid roll number format. Example: 2024A7PS0336U (year 2018-2025 allowed)");
-            System.err.println("Your input was: [" + rollNumber + "]");
+            LOG.warn("Invalid roll number format. Example: 2024A7PS0336U (year 2018-2025 allowed)");
+            LOG.debug("Rejected roll number", "input", rollNumber);
             return false;
         }
 
         if (email == null || !email.matches("f20(1[8-9]|2[0-5])[0-9]{4}@dubai\\.bits-pilani\\.ac\\.in")) {
-            System.err.println("Invalid BITS Dubai email format. Example: f20240328@dubai.bits-pilani.ac.in (year 2018-2025 allowed)");
-            System.err.println("Your input was: [" + email + "]");
+            LOG.warn("Invalid BITS Dubai email format. Example: f20240328@dubai.bits-pilani.ac.in (year 2018-2025 allowed)");
+            LOG.debug("Rejected email", "input", email);
             return false;
         }
 
         if (password == null || password.length() < 6) {
-            System.err.println("Password must be at least 6 characters");
+            LOG.warn("Password must be at least 6 characters");
             return false;
         }
 
@@ -135,15 +182,15 @@ public class AuthService {
     public boolean changePassword(int userId, String oldPassword, String newPassword) {
         User user = userDAO.getUserById(userId);
         if (user == null) {
-            System.err.println("User not found");
+            LOG.warn("User not found");
             return false;
         }
         if (!user.getPassword().equals(oldPassword)) {
-            System.err.println("Incorrect current password");
+            LOG.warn("Incorrect current password");
             return false;
         }
         if (newPassword == null || newPassword.length() < 6) {
-            System.err.println("New password must be at least 6 characters");
+            LOG.warn("New password must be at least 6 characters");
             return false;
         }
         user.setPassword(newPassword);
@@ -153,11 +200,11 @@ public class AuthService {
     public boolean resetPassword(String email, String newPassword) {
         User user = userDAO.getUserByEmail(email);
         if (user == null) {
-            System.err.println("User not found");
+            LOG.warn("User not found");
             return false;
         }
         if (newPassword == null || newPassword.length() < 6) {
-            System.err.println("Password must be at least 6 characters");
+            LOG.warn("Password must be at least 6 characters");
             return false;
         }
         user.setPassword(newPassword);
@@ -1,20 +1,60 @@
 package services;
 
+import models.Passenger;
 import models.Ride;
+import models.SeatHold;
+import models.WaitlistEntry;
 import dao.RideDAO;
 import dao.BookingDAO;
+import dao.PassengerDAO;
+import utils.Metrics;
 import utils.NotificationCenter;
+import utils.Log;
+import utils.Logger;
 
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 public class BookingService {
-    
+
+    private static final Logger LOG = Log.getLogger(BookingService.class);
+
+    private static final Metrics.Counter BOOKED = Metrics.counter("carpool_bookings_total", "result", "success");
+    private static final Metrics.Counter SOLD_OUT = Metrics.counter("carpool_bookings_total", "result", "sold_out");
+    private static final Metrics.Counter DUPLICATE = Metrics.counter("carpool_bookings_total", "result", "duplicate");
+    private static final Metrics.Counter INVALID = Metrics.counter("carpool_bookings_total", "result", "invalid");
+    private static final Metrics.Counter FAILED = Metrics.counter("carpool_bookings_total", "result", "failed");
+    private static final Metrics.Timer BOOKING_TIME = Metrics.timer("carpool_booking_duration_seconds");
+
+    private static final Metrics.Counter GROUP_BOOKED = Metrics.counter("carpool_group_bookings_total", "result", "success");
+    private static final Metrics.Counter GROUP_SOLD_OUT = Metrics.counter("carpool_group_bookings_total", "result", "sold_out");
+    private static final Metrics.Counter GROUP_DUPLICATE = Metrics.counter("carpool_group_bookings_total", "result", "duplicate");
+    private static final Metrics.Counter GROUP_BLACKLISTED = Metrics.counter("carpool_group_bookings_total", "result", "blacklisted");
+    private static final Metrics.Counter GROUP_INVALID = Metrics.counter("carpool_group_bookings_total", "result", "invalid");
+    private static final Metrics.Counter GROUP_FAILED = Metrics.counter("carpool_group_bookings_total", "result", "failed");
+    private static final Metrics.Timer GROUP_BOOKING_TIME = Metrics.timer("carpool_group_booking_duration_seconds");
+
+    private static final Metrics.Counter CANCELLED = Metrics.counter("carpool_booking_cancellations_total", "result", "success");
+    private static final Metrics.Counter CANCEL_REJECTED = Metrics.counter("carpool_booking_cancellations_total", "result", "rejected");
+    private static final Metrics.Counter CANCEL_FAILED = Metrics.counter("carpool_booking_cancellations_total", "result", "failed");
+    private static final Metrics.Timer CANCEL_TIME = Metrics.timer("carpool_booking_cancel_duration_seconds");
+
     private RideDAO rideDAO;
     private BookingDAO bookingDAO;
+    private SeatHoldManager seatHoldManager;
+    private WaitlistService waitlistService;
+    private SeatLedger seatLedger;
+    private PassengerDAO passengerDAO;
     
     public BookingService() {
         this.rideDAO = new RideDAO();
         this.bookingDAO = new BookingDAO();
+        this.seatHoldManager = SeatHoldManager.getInstance();
+        this.waitlistService = WaitlistService.getInstance();
+        this.seatLedger = SeatLedger.getInstance();
+        this.passengerDAO = new PassengerDAO();
     }
 
     public List<Ride> getAvailableRides() {
@@ -22,87 +62,261 @@ public class BookingService {
     }
 
     public boolean bookRide(int passengerId, int rideId, int seatsRequested) {
-        Ride ride = rideDAO.getRideById(rideId);
-        if (ride == null) {
-            NotificationCenter.showError("Ride not found.");
-            return false;
+        long start = BOOKING_TIME.start();
+        try {
+            return bookRideTimed(passengerId, rideId, seatsRequested);
+        } finally {
+            BOOKING_TIME.stop(start);
         }
+    }
 
+    private boolean bookRideTimed(int passengerId, int rideId, int seatsRequested) {
         if (seatsRequested <= 0) {
+            INVALID.increment();
             NotificationCenter.showError("Must request at least 1 seat.");
             return false;
         }
 
-        if (seatsRequested > ride.getSeatsAvailable()) {
-            NotificationCenter.showError("Not enough seats available. Only " + 
-                             ride.getSeatsAvailable() + " seat(s) left.");
-            return false;
+        // A current ledger count means the ride is active; otherwise check it still is
+        if (seatLedger.peekAvailable(rideId) < 0) {
+            Ride ride = rideDAO.getRideById(rideId);
+            if (ride == null) {
+                INVALID.increment();
+                NotificationCenter.showError("Ride not found.");
+                return false;
+            }
+            if (!ride.isActive()) {
+                INVALID.increment();
+                NotificationCenter.showError("Ride is not active.");
+                return false;
+            }
         }
 
-        if (!ride.isActive()) {
-            NotificationCenter.showError("Ride is not active.");
+        // Answered from memory; a full ride is turned away without touching the database
+        int available = seatLedger.getAvailable(rideId);
+        if (seatsRequested > available) {
+            SOLD_OUT.increment();
+            NotificationCenter.showError("Not enough seats available. Only " + 
+                             available + " seat(s) left. You can join the waitlist instead.");
             return false;
         }
 
         if (bookingDAO.hasPassengerBooked(passengerId, rideId)) {
+            DUPLICATE.increment();
             NotificationCenter.showWarning("You have already booked this ride.");
             return false;
         }
 
-        boolean bookingCreated = bookingDAO.createBooking(passengerId, rideId, seatsRequested);
-        
-        if (bookingCreated) {
-            ride.setSeatsAvailable(ride.getSeatsAvailable() - seatsRequested);
-            rideDAO.updateRide(ride);
-            
+        if (seatLedger.book(passengerId, rideId, seatsRequested)) {
+            BOOKED.increment();
             NotificationCenter.showInfo("Booking successful! " + seatsRequested + " seat(s) booked.");
             return true;
         }
 
+        FAILED.increment();
         NotificationCenter.showError("Booking failed. Try again later.");
         return false;
     }
 
+    /**
+     * Reserves seats while the passenger confirms. Returns null if the ride
+     * can't be booked or the seats were taken in the meantime.
+     */
+    public SeatHold holdSeats(int passengerId, int rideId, int seatsRequested) {
+        if (seatsRequested <= 0) {
+            LOG.warn("Must request at least 1 seat");
+            return null;
+        }
+
+        Ride ride = rideDAO.getRideById(rideId);
+        if (ride == null || !ride.isActive()) {
+            LOG.warn("Ride not found or not active");
+            return null;
+        }
+
+        if (ride.getDriverId() == passengerId) {
+            LOG.warn("You cannot book your own ride");
+            return null;
+        }
+
+        if (bookingDAO.hasPassengerBooked(passengerId, rideId)) {
+            LOG.warn("You have already booked this ride");
+            return null;
+        }
+
+        return seatHoldManager.placeHold(passengerId, rideId, seatsRequested);
+    }
+
+    public boolean confirmSeatHold(int holdId, int passengerId) {
+        return seatHoldManager.confirmHold(holdId, passengerId);
+    }
+
+    public boolean releaseSeatHold(int holdId, int passengerId) {
+        SeatHold hold = seatHoldManager.getHold(holdId);
+        if (hold == null || hold.getPassengerId() != passengerId) {
+            return false;
+        }
+        return seatHoldManager.releaseHold(holdId);
+    }
+
+    /**
+     * Books one seat for each passenger in the group on the same ride. The
+     * organizer must be part of the group. Either every passenger is booked
+     * or nobody is.
+     */
+    public boolean bookGroup(int organizerId, int rideId, List<Integer> passengerIds) {
+        long start = GROUP_BOOKING_TIME.start();
+        try {
+            return bookGroupTimed(organizerId, rideId, passengerIds);
+        } finally {
+            GROUP_BOOKING_TIME.stop(start);
+        }
+    }
+
+    private boolean bookGroupTimed(int organizerId, int rideId, List<Integer> passengerIds) {
+        Set<Integer> group = new LinkedHashSet<>(passengerIds);
+        if (group.size() != passengerIds.size()) {
+            GROUP_INVALID.increment();
+            NotificationCenter.showError("Each passenger can only appear once in a group.");
+            return false;
+        }
+
+        if (!group.contains(organizerId)) {
+            GROUP_INVALID.increment();
+            NotificationCenter.showError("You must be part of the group you are booking for.");
+            return false;
+        }
+
+        Ride ride = rideDAO.getRideById(rideId);
+        if (ride == null || !ride.isActive()) {
+            GROUP_INVALID.increment();
+            NotificationCenter.showError("Ride is not available.");
+            return false;
+        }
+
+        for (int passengerId : group) {
+            if (passengerId == ride.getDriverId()) {
+                GROUP_INVALID.increment();
+                NotificationCenter.showError("The driver cannot be booked as a passenger.");
+                return false;
+            }
+            Passenger passenger = passengerDAO.getPassengerByUserId(passengerId);
+            if (passenger == null) {
+                GROUP_INVALID.increment();
+                NotificationCenter.showError("User #" + passengerId + " is not registered as a passenger.");
+                return false;
+            }
+            if (passenger.isBlacklisted()) {
+                GROUP_BLACKLISTED.increment();
+                NotificationCenter.showError(passenger.getName() + " is currently blacklisted.");
+                return false;
+            }
+            if (bookingDAO.hasPassengerBooked(passengerId, rideId)) {
+                GROUP_DUPLICATE.increment();
+                NotificationCenter.showWarning(passenger.getName() + " has already booked this ride.");
+                return false;
+            }
+        }
+
+        int seats = group.size();
+        if (!seatLedger.tryReserve(rideId, seats)) {
+            GROUP_SOLD_OUT.increment();
+            NotificationCenter.showError("Not enough seats available for a group of " + seats + ".");
+            return false;
+        }
+
+        if (bookingDAO.createGroupBooking(rideId, new ArrayList<>(group))) {
+            seatLedger.persisted(rideId, seats);
+            GROUP_BOOKED.increment();
+            NotificationCenter.showInfo("Group booking successful! " + seats + " seat(s) booked.");
+            return true;
+        }
+
+        seatLedger.failed(rideId, seats);
+        GROUP_FAILED.increment();
+        NotificationCenter.showError("Group booking failed. Nobody was booked.");
+        return false;
+    }
+
     public boolean bookRide(int passengerId, int rideId) {
         return bookRide(passengerId, rideId, 1);
     }
 
     public boolean cancelBooking(int bookingId, int passengerId) {
+        long start = CANCEL_TIME.start();
+        try {
+            return cancelBookingTimed(bookingId, passengerId);
+        } finally {
+            CANCEL_TIME.stop(start);
+        }
+    }
+
+    private boolean cancelBookingTimed(int bookingId, int passengerId) {
         Integer rideId = bookingDAO.getRideIdByBookingId(bookingId);
         Integer bookedPassengerId = bookingDAO.getPassengerIdByBookingId(bookingId);
         Integer seatsBooked = bookingDAO.getSeatsByBookingId(bookingId);
         
         if (rideId == null || bookedPassengerId == null || seatsBooked == null) {
-            System.err.println("Booking not found");
+            CANCEL_REJECTED.increment();
+            LOG.warn("Booking not found");
             return false;
         }
 
         if (bookedPassengerId != passengerId) {
-            System.err.println("You can only cancel your own bookings");
+            CANCEL_REJECTED.increment();
+            LOG.warn("You can only cancel your own bookings");
+            return false;
+        }
+
+        // Seats go back and waitlisted passengers are booked in the same transaction
+        List<WaitlistEntry> dequeued = bookingDAO.cancelBookingAndPromote(bookingId);
+        if (dequeued == null) {
+            CANCEL_FAILED.increment();
+            NotificationCenter.showError("Failed to cancel booking.");
             return false;
         }
+        seatLedger.invalidate(rideId);
 
+        if (!dequeued.isEmpty()) {
+            waitlistService.onDequeued(dequeued, rideDAO.getRideById(rideId));
+        }
+        CANCELLED.increment();
+        NotificationCenter.showInfo("Booking cancelled successfully. Seats returned to ride.");
+        return true;
+    }
+
+    /**
+     * Queues the passenger for a full ride. Returns the queue position, or -1
+     * if the ride can't be waitlisted.
+     */
+    public int joinWaitlist(int passengerId, int rideId, int seatsRequested) {
         Ride ride = rideDAO.getRideById(rideId);
-        if (ride != null) {
-            ride.setSeatsAvailable(ride.getSeatsAvailable() + seatsBooked);
-            rideDAO.updateRide(ride);
+        if (ride == null || !ride.isActive()) {
+            LOG.warn("Ride not found or not active");
+            return -1;
         }
 
-        boolean success = bookingDAO.cancelBooking(bookingId);
-        if (success) {
-            NotificationCenter.showInfo("Booking cancelled successfully. Seats returned to ride.");
-        } else {
-            NotificationCenter.showError("Failed to cancel booking.");
+        if (ride.getDriverId() == passengerId || bookingDAO.hasPassengerBooked(passengerId, rideId)) {
+            LOG.warn("Already on this ride");
+            return -1;
         }
 
-        return success;
+        return waitlistService.joinWaitlist(passengerId, ride, seatsRequested);
+    }
+
+    public boolean leaveWaitlist(int passengerId, int rideId) {
+        return waitlistService.leaveWaitlist(passengerId, rideId);
+    }
+
+    public int getWaitingCount(int rideId) {
+        return waitlistService.getWaitingCount(rideId);
     }
 
     public boolean confirmBooking(int bookingId, int driverId) {
         Integer rideId = bookingDAO.getRideIdByBookingId(bookingId);
         
         if (rideId == null) {
-            System.err.println("Booking not found");
+            LOG.warn("Booking not found");
             return false;
         }
 
@@ -0,0 +1,250 @@
+package services;
+
+import dao.DemandDAO;
+import models.RouteDemand;
+import utils.Constants;
+import utils.Log;
+import utils.Logger;
+import utils.Metrics;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tracks which (origin, destination, hour of week) slots passengers want,
+ * from their searches and ride requests, so drivers can see when to post.
+ *
+ * Counts decay exponentially with a half-life of
+ * Constants.DEMAND_HALF_LIFE_HOURS. They are kept in forward-decay form:
+ * each hit adds weight * e^(rate * (now - landmark)), so a hit never has to
+ * touch the other counters, and reading divides the landmark's growth back
+ * out. The landmark moves up before the factors get large.
+ *
+ * Memory is bounded by Space-Saving: at most Constants.DEMAND_CAPACITY
+ * slots. A new slot arriving when the tracker is full takes over the
+ * smallest one and inherits its count as a possible overestimate (the
+ * error), so every slot busier than that minimum is always kept.
+ *
+ * The counters are snapshotted to route_demand periodically and on
+ * shutdown, and restored (decayed by the time since) on startup.
+ */
+public class DemandTracker {
+
+    private static final Logger LOG = Log.getLogger(DemandTracker.class);
+
+    private static final double DECAY_PER_MILLI = Math.log(2) / (Constants.DEMAND_HALF_LIFE_HOURS * 3600_000);
+    // Rescale once the newest hits weigh e^30 times the landmark's
+    private static final double MAX_EXPONENT = 30;
+
+    private static DemandTracker instance;
+
+    private final DemandDAO demandDAO;
+    private final Map<String, Slot> slots = new HashMap<>();
+    // Last slot each user searched for, so refining the same search isn't counted again
+    private final Map<Integer, Hit> lastSearchByUser = new LinkedHashMap<Integer, Hit>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, Hit> eldest) {
+            return size() > Constants.DEMAND_CAPACITY;
+        }
+    };
+    private long landmarkMillis = System.currentTimeMillis();
+
+    private DemandTracker() {
+        this.demandDAO = new DemandDAO();
+        Metrics.gauge("carpool_demand_slots_tracked", this::size);
+    }
+
+    public static synchronized DemandTracker getInstance() {
+        if (instance == null) {
+            instance = new DemandTracker();
+        }
+        return instance;
+    }
+
+    /**
+     * Counts a search for a route around a time. Places must already be
+     * canonical; origin may be RouteDemand.ANY_ORIGIN. The same user
+     * searching the same slot again within Constants.DEMAND_REPEAT_SECONDS
+     * counts once.
+     */
+    public void recordSearch(int userId, String origin, String destination, LocalDateTime when) {
+        long now = System.currentTimeMillis();
+        String key = key(origin, destination, hourOfWeek(when));
+        synchronized (this) {
+            Hit last = lastSearchByUser.get(userId);
+            if (last != null && last.key.equals(key) && now - last.atMillis < Constants.DEMAND_REPEAT_SECONDS * 1000) {
+                return;
+            }
+            lastSearchByUser.put(userId, new Hit(key, now));
+            add(key, origin, destination, hourOfWeek(when), 1.0, now);
+        }
+    }
+
+    // A posted request is a firmer signal than a search and is never deduplicated
+    public synchronized void recordRequest(String origin, String destination, LocalDateTime when) {
+        int hour = hourOfWeek(when);
+        add(key(origin, destination, hour), origin, destination, hour, Constants.DEMAND_REQUEST_WEIGHT,
+            System.currentTimeMillis());
+    }
+
+    private void add(String key, String origin, String destination, int hourOfWeek, double weight, long now) {
+        if (DECAY_PER_MILLI * (now - landmarkMillis) > MAX_EXPONENT) {
+            rescale(now);
+        }
+        double growth = Math.exp(DECAY_PER_MILLI * (now - landmarkMillis));
+
+        Slot slot = slots.get(key);
+        if (slot == null) {
+            slot = new Slot(origin, destination, hourOfWeek);
+            if (slots.size() >= Constants.DEMAND_CAPACITY) {
+                Slot smallest = evictSmallest();
+                slot.count = smallest.count;
+                slot.error = smallest.count;
+            }
+            slots.put(key, slot);
+        }
+        slot.count += weight * growth;
+    }
+
+    // Linear, but only when a new slot arrives at a full tracker
+    private Slot evictSmallest() {
+        Map.Entry<String, Slot> smallest = null;
+        for (Map.Entry<String, Slot> e : slots.entrySet()) {
+            if (smallest == null || e.getValue().count < smallest.getValue().count) {
+                smallest = e;
+            }
+        }
+        slots.remove(smallest.getKey());
+        return smallest.getValue();
+    }
+
+    private void rescale(long now) {
+        double shrink = Math.exp(-DECAY_PER_MILLI * (now - landmarkMillis));
+        for (Slot slot : slots.values()) {
+            slot.count *= shrink;
+            slot.error *= shrink;
+        }
+        landmarkMillis = now;
+    }
+
+    /** The k busiest slots right now, busiest first. */
+    public synchronized List<RouteDemand> topRoutes(int k) {
+        double decay = Math.exp(-DECAY_PER_MILLI * (System.currentTimeMillis() - landmarkMillis));
+        List<Slot> sorted = new ArrayList<>(slots.values());
+        sorted.sort((a, b) -> Double.compare(b.count, a.count));
+
+        List<RouteDemand> top = new ArrayList<>(Math.min(k, sorted.size()));
+        for (Slot slot : sorted.subList(0, Math.min(k, sorted.size()))) {
+            top.add(new RouteDemand(slot.origin, slot.destination, slot.hourOfWeek,
+                                    slot.count * decay, slot.error * decay));
+        }
+        return top;
+    }
+
+    /**
+     * Current score of the slot a ride on this route at this time would
+     * serve: searches and requests for the exact route plus searches for
+     * the destination from anywhere. 0 when the slot isn't tracked.
+     */
+    public synchronized double demandFor(String origin, String destination, LocalDateTime when) {
+        int hour = hourOfWeek(when);
+        double count = 0;
+        Slot exact = slots.get(key(origin, destination, hour));
+        if (exact != null) {
+            count += exact.count;
+        }
+        Slot anyOrigin = slots.get(key(RouteDemand.ANY_ORIGIN, destination, hour));
+        if (anyOrigin != null) {
+            count += anyOrigin.count;
+        }
+        return count * Math.exp(-DECAY_PER_MILLI * (System.currentTimeMillis() - landmarkMillis));
+    }
+
+    public synchronized int size() {
+        return slots.size();
+    }
+
+    public void snapshot() {
+        List<RouteDemand> demand = topRoutes(Constants.DEMAND_CAPACITY);
+        if (demandDAO.saveSnapshot(demand, LocalDateTime.now())) {
+            LOG.debug("Route demand snapshot saved", "slots", demand.size());
+        }
+    }
+
+    /** Reloads the last snapshot, decayed by how long ago it was taken. */
+    public void recover() {
+        List<RouteDemand> demand = new ArrayList<>();
+        LocalDateTime takenAt = demandDAO.loadSnapshot(demand);
+        if (takenAt == null) {
+            return;
+        }
+        long ageMillis = Math.max(0, Duration.between(takenAt, LocalDateTime.now()).toMillis());
+        double decay = Math.exp(-DECAY_PER_MILLI * ageMillis);
+
+        synchronized (this) {
+            slots.clear();
+            landmarkMillis = System.currentTimeMillis();
+            for (RouteDemand d : demand) {
+                if (slots.size() >= Constants.DEMAND_CAPACITY) {
+                    break;
+                }
+                Slot slot = new Slot(d.getOrigin(), d.getDestination(), d.getHourOfWeek());
+                slot.count = d.getScore() * decay;
+                slot.error = d.getError() * decay;
+                slots.put(key(slot.origin, slot.destination, slot.hourOfWeek), slot);
+            }
+        }
+        LOG.info("Route demand restored", "slots", demand.size(), "snapshotAt", takenAt);
+    }
+
+    public void shutdown() {
+        snapshot();
+    }
+
+    public static long getSnapshotIntervalSeconds() {
+        return Long.getLong("carpool.demand.snapshot.interval.seconds", Constants.DEMAND_SNAPSHOT_INTERVAL_SECONDS);
+    }
+
+    public void scheduleOn(MaintenanceScheduler scheduler) {
+        long interval = getSnapshotIntervalSeconds();
+        scheduler.schedule("demand-snapshot", this::snapshot, interval, interval);
+    }
+
+    // 0 for Monday 00:xx through 167 for Sunday 23:xx
+    private static int hourOfWeek(LocalDateTime when) {
+        return (when.getDayOfWeek().getValue() - 1) * 24 + when.getHour();
+    }
+
+    private static String key(String origin, String destination, int hourOfWeek) {
+        return origin + '\u0000' + destination + '\u0000' + hourOfWeek;
+    }
+
+    private static final class Slot {
+        final String origin;
+        final String destination;
+        final int hourOfWeek;
+        double count;
+        double error;
+
+        Slot(String origin, String destination, int hourOfWeek) {
+            this.origin = origin;
+            this.destination = destination;
+            this.hourOfWeek = hourOfWeek;
+        }
+    }
+
+    private static final class Hit {
+        final String key;
+        final long atMillis;
+
+        Hit(String key, long atMillis) {
+            this.key = key;
+            this.atMillis = atMillis;
+        }
+    }
+}
@@ -0,0 +1,282 @@
+package services;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable in-memory text index for short labels such as place and driver
+ * names. Every indexed text is split into words and padded trigrams, so
+ * "dubai mal" or "marnia" still reach "Dubai Mall" and "Dubai Marina":
+ *
+ * - search() ranks by trigram overlap (Dice coefficient) with bonuses for
+ *   substring, word-prefix and exact matches, scaled by the field weight;
+ * - complete() answers keystroke-by-keystroke prefixes from a sorted word
+ *   list with a binary search, falling back to search() for typos.
+ *
+ * A value may be indexed under several texts (a name and a description);
+ * results are de-duplicated per value, keeping its best score.
+ */
+public class FuzzyIndex<T> {
+
+    private static final double MIN_SIMILARITY = 0.3;
+
+    // One row per indexed text
+    private final String[] texts;
+    private final double[] weights;
+    private final int[] valueIds;
+    private final int[] gramCounts;
+    private final List<T> values;
+
+    private final Map<String, int[]> postings;
+    // Every word of every text, sorted, with the row it came from
+    private final String[] words;
+    private final int[] wordRows;
+
+    private FuzzyIndex(Builder<T> b) {
+        int n = b.texts.size();
+        this.texts = b.texts.toArray(new String[0]);
+        this.weights = new double[n];
+        this.valueIds = new int[n];
+        this.gramCounts = new int[n];
+        this.values = new ArrayList<>(b.values);
+
+        Map<String, List<Integer>> grams = new HashMap<>();
+        List<String[]> wordPairs = new ArrayList<>();
+        for (int row = 0; row < n; row++) {
+            weights[row] = b.weights.get(row);
+            valueIds[row] = b.valueIds.get(row);
+            Set<String> rowGrams = trigrams(texts[row]);
+            gramCounts[row] = rowGrams.size();
+            for (String gram : rowGrams) {
+                grams.computeIfAbsent(gram, k -> new ArrayList<>()).add(row);
+            }
+            for (String word : texts[row].split(" ")) {
+                wordPairs.add(new String[] {word, Integer.toString(row)});
+            }
+        }
+
+        this.postings = new HashMap<>(grams.size() * 2);
+        for (Map.Entry<String, List<Integer>> e : grams.entrySet()) {
+            int[] rows = new int[e.getValue().size()];
+            for (int i = 0; i < rows.length; i++) {
+                rows[i] = e.getValue().get(i);
+            }
+            postings.put(e.getKey(), rows);
+        }
+
+        wordPairs.sort((x, y) -> x[0].compareTo(y[0]));
+        this.words = new String[wordPairs.size()];
+        this.wordRows = new int[wordPairs.size()];
+        for (int i = 0; i < words.length; i++) {
+            words[i] = wordPairs.get(i)[0];
+            wordRows[i] = Integer.parseInt(wordPairs.get(i)[1]);
+        }
+    }
+
+    public int size() {
+        return values.size();
+    }
+
+    /**
+     * Best matches for free text, most relevant first. Tolerates typos and
+     * partial words; returns nothing for text that shares too little with
+     * any indexed label.
+     */
+    public List<T> search(String query, int limit) {
+        String q = normalize(query);
+        if (q.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Set<String> queryGrams = trigrams(q);
+        int[] common = new int[texts.length];
+        for (String gram : queryGrams) {
+            int[] rows = postings.get(gram);
+            if (rows != null) {
+                for (int row : rows) {
+                    common[row]++;
+                }
+            }
+        }
+
+        double[] best = new double[values.size()];
+        for (int row = 0; row < texts.length; row++) {
+            double score = 0;
+            if (common[row] > 0) {
+                double dice = 2.0 * common[row] / (queryGrams.size() + gramCounts[row]);
+                if (dice >= MIN_SIMILARITY) {
+                    score = dice;
+                }
+            }
+            String text = texts[row];
+            if (text.equals(q)) {
+                score += 1.0;
+            } else if (text.startsWith(q) || text.contains(" " + q)) {
+                score += 0.6;
+            } else if (text.contains(q)) {
+                score += 0.3;
+            }
+            score *= weights[row];
+            if (score > best[valueIds[row]]) {
+                best[valueIds[row]] = score;
+            }
+        }
+
+        return topValues(best, limit);
+    }
+
+    /**
+     * Completions for a partially typed label: every typed word must start a
+     * word of the label, in any order. Falls back to search() when the prefix
+     * matches nothing, so a typo mid-word still gets suggestions.
+     */
+    public List<T> complete(String prefix, int limit) {
+        String p = normalize(prefix);
+        if (p.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        String[] typed = p.split(" ");
+        String last = typed[typed.length - 1];
+        double[] best = new double[values.size()];
+        boolean any = false;
+
+        for (int i = lowerBound(last); i < words.length && words[i].startsWith(last); i++) {
+            int row = wordRows[i];
+            if (!startsWords(texts[row], typed)) {
+                continue;
+            }
+            // Shorter labels and matches at the start of the label rank first
+            double score = weights[row] * (texts[row].startsWith(p) ? 2.0 : 1.0)
+                           / (1.0 + texts[row].length() / 32.0);
+            if (score > best[valueIds[row]]) {
+                best[valueIds[row]] = score;
+                any = true;
+            }
+        }
+
+        return any ? topValues(best, limit) : search(prefix, limit);
+    }
+
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder(text.length());
+        boolean space = true;
+        for (int i = 0; i < text.length(); i++) {
+            char c = Character.toLowerCase(text.charAt(i));
+            if (Character.isLetterOrDigit(c)) {
+                sb.append(c);
+                space = false;
+            } else if (!space) {
+                sb.append(' ');
+                space = true;
+            }
+        }
+        int end = sb.length();
+        if (end > 0 && sb.charAt(end - 1) == ' ') {
+            sb.setLength(end - 1);
+        }
+        return sb.toString();
+    }
+
+    // Word trigrams padded at the front so short words and word starts count
+    private static Set<String> trigrams(String normalized) {
+        Set<String> grams = new LinkedHashSet<>();
+        for (String word : normalized.split(" ")) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            String padded = "  " + word + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                grams.add(padded.substring(i, i + 3));
+            }
+        }
+        return grams;
+    }
+
+    private static boolean startsWords(String text, String[] typed) {
+        String[] textWords = text.split(" ");
+        for (String t : typed) {
+            boolean found = false;
+            for (String w : textWords) {
+                if (w.startsWith(t)) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int lowerBound(String key) {
+        int lo = 0;
+        int hi = words.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (words[mid].compareTo(key) < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private List<T> topValues(double[] scores, int limit) {
+        Integer[] order = new Integer[scores.length];
+        int count = 0;
+        for (int i = 0; i < scores.length; i++) {
+            if (scores[i] > 0) {
+                order[count++] = i;
+            }
+        }
+        Integer[] hits = Arrays.copyOf(order, count);
+        Arrays.sort(hits, (x, y) -> Double.compare(scores[y], scores[x]));
+
+        List<T> result = new ArrayList<>(Math.min(limit, count));
+        for (int i = 0; i < count && result.size() < limit; i++) {
+            result.add(values.get(hits[i]));
+        }
+        return result;
+    }
+
+    public static class Builder<T> {
+        private final List<String> texts = new ArrayList<>();
+        private final List<Double> weights = new ArrayList<>();
+        private final List<Integer> valueIds = new ArrayList<>();
+        private final List<T> values = new ArrayList<>();
+        private final Map<T, Integer> valueIndex = new HashMap<>();
+
+        // Indexes the text under the value; higher weights rank above lower ones
+        public Builder<T> add(String text, T value, double weight) {
+            String normalized = normalize(text);
+            if (normalized.isEmpty()) {
+                return this;
+            }
+            Integer id = valueIndex.get(value);
+            if (id == null) {
+                id = values.size();
+                values.add(value);
+                valueIndex.put(value, id);
+            }
+            texts.add(normalized);
+            weights.add(weight);
+            valueIds.add(id);
+            return this;
+        }
+
+        public FuzzyIndex<T> build() {
+            return new FuzzyIndex<>(this);
+        }
+    }
+}
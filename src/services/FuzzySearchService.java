@@ -0,0 +1,111 @@
+package services;
+
+import dao.DestinationDAO;
+import dao.DriverDAO;
+import dao.RideDAO;
+import models.Destination;
+import utils.Constants;
+
+import java.util.List;
+
+/**
+ * Typo-tolerant lookup of place and driver names for the search forms.
+ * Places are indexed by name and, at a lower weight, by description, so
+ * "mall" also finds places described as malls; places used by active rides
+ * are indexed too. The indexes are rebuilt
+ * from the database at most every FUZZY_INDEX_REFRESH_SECONDS and shared
+ * by all callers; lookups never touch the database.
+ */
+public class FuzzySearchService {
+
+    private static final double NAME_WEIGHT = 1.0;
+    private static final double DESCRIPTION_WEIGHT = 0.5;
+
+    private static volatile FuzzyIndex<String> places;
+    private static volatile FuzzyIndex<String> drivers;
+    private static volatile long builtAtMillis;
+    private static volatile long invalidatedAtMillis;
+
+    private DestinationDAO destinationDAO;
+    private DriverDAO driverDAO;
+    private RideDAO rideDAO;
+
+    public FuzzySearchService() {
+        this.destinationDAO = new DestinationDAO();
+        this.driverDAO = new DriverDAO();
+        this.rideDAO = new RideDAO();
+    }
+
+    public List<String> suggestPlaces(String prefix, int limit) {
+        ensureBuilt();
+        return places.complete(prefix, limit);
+    }
+
+    public List<String> searchPlaces(String text, int limit) {
+        ensureBuilt();
+        return places.search(text, limit);
+    }
+
+    public List<String> suggestDrivers(String prefix, int limit) {
+        ensureBuilt();
+        return drivers.complete(prefix, limit);
+    }
+
+    // Canonical place name the text most likely means, or null if nothing is close
+    public String resolvePlace(String text) {
+        List<String> best = searchPlaces(text, 1);
+        return best.isEmpty() ? null : best.get(0);
+    }
+
+    public String resolveDriver(String text) {
+        ensureBuilt();
+        List<String> best = drivers.search(text, 1);
+        return best.isEmpty() ? null : best.get(0);
+    }
+
+    // Picks up newly registered drivers and newly used places on the next lookup
+    public static void invalidate() {
+        invalidatedAtMillis = System.currentTimeMillis();
+    }
+
+    private void ensureBuilt() {
+        if (places != null && isFresh()) {
+            return;
+        }
+
+        synchronized (FuzzySearchService.class) {
+            if (places != null && isFresh()) {
+                return;
+            }
+            // Stamped with the start of the reads so an invalidate() during the
+            // rebuild still forces the next one
+            long startedAt = System.currentTimeMillis();
+
+            FuzzyIndex.Builder<String> placeIndex = new FuzzyIndex.Builder<>();
+            for (Destination d : destinationDAO.getAllDestinations()) {
+                placeIndex.add(d.getName(), d.getName(), NAME_WEIGHT);
+                placeIndex.add(d.getDescription(), d.getName(), DESCRIPTION_WEIGHT);
+            }
+            // Rides may name places that aren't in the destinations table
+            for (String place : rideDAO.getActivePlaces()) {
+                placeIndex.add(place, place, NAME_WEIGHT);
+            }
+
+            FuzzyIndex.Builder<String> driverIndex = new FuzzyIndex.Builder<>();
+            for (String name : driverDAO.getAllDriverNames()) {
+                driverIndex.add(name, name, NAME_WEIGHT);
+            }
+
+            // Assigned before the timestamp so a fresh timestamp always has indexes behind it
+            places = placeIndex.build();
+            drivers = driverIndex.build();
+            builtAtMillis = startedAt;
+        }
+    }
+
+    private static boolean isFresh() {
+        long builtAt = builtAtMillis;
+        return builtAt > invalidatedAtMillis
+            && System.currentTimeMillis() - builtAt < Constants.FUZZY_INDEX_REFRESH_SECONDS * 1000;
+    }
+}
@@ -0,0 +1,108 @@
+package services;
+
+import dao.ReportDAO;
+import dao.RideDAO;
+import dao.RideRequestDAO;
+import dao.UserDAO;
+import utils.Constants;
+import utils.Log;
+import utils.Logger;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.IntSupplier;
+
+/**
+ * Background sweep that retires rows whose state is implied by the clock:
+ * departed rides, past-dated ride requests and expired blacklists. Every
+ * step is a set-based UPDATE limited to a small batch, each in its own
+ * short transaction, so an interactive booking never waits long for the lock.
+ */
+public class LifecycleService {
+
+    private static final Logger LOG = Log.getLogger(LifecycleService.class);
+
+    private RideDAO rideDAO;
+    private RideRequestDAO rideRequestDAO;
+    private UserDAO userDAO;
+    private ReportDAO reportDAO;
+
+    public LifecycleService() {
+        this.rideDAO = new RideDAO();
+        this.rideRequestDAO = new RideRequestDAO();
+        this.userDAO = new UserDAO();
+        this.reportDAO = new ReportDAO();
+    }
+
+    public void sweep() {
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+
+        int rides = completeDepartedRides(now);
+        int requests = expireStaleRequests(now.toLocalDate());
+        int blacklists = clearExpiredBlacklists(now);
+        int buckets = reportDAO.pruneDailyReportCounts();
+
+        if (rides + requests + blacklists + buckets > 0) {
+            LOG.info("Lifecycle sweep", "ridesCompleted", rides, "requestsExpired", requests,
+                     "blacklistsCleared", blacklists);
+            LOG.debug("Lifecycle sweep", "reportBucketsPruned", buckets);
+        }
+    }
+
+    public int completeDepartedRides(LocalDateTime now) {
+        LocalDateTime cutoff = now.minusHours(Constants.RIDE_COMPLETE_GRACE_HOURS);
+        int completed = runInBatches(() -> {
+            List<Integer> ids = rideDAO.completeDepartedRides(cutoff, Constants.SWEEP_BATCH_SIZE);
+            // The ledger would otherwise keep offering seats on rides that are no longer active
+            for (int id : ids) {
+                SeatLedger.getInstance().invalidate(id);
+            }
+            return ids.size();
+        });
+        if (completed > 0) {
+            TripPlannerService.invalidate();
+            RideSearchService.invalidate();
+            PricingService.getInstance().refresh();
+        }
+        return completed;
+    }
+
+    public int expireStaleRequests(LocalDate today) {
+        return runInBatches(() -> rideRequestDAO.expireStaleRequests(today, Constants.SWEEP_BATCH_SIZE));
+    }
+
+    public int clearExpiredBlacklists(LocalDateTime now) {
+        return runInBatches(() -> userDAO.clearExpiredBlacklists(now, Constants.SWEEP_BATCH_SIZE));
+    }
+
+    private int runInBatches(IntSupplier batch) {
+        int total = 0;
+        int updated;
+        do {
+            updated = batch.getAsInt();
+            total += updated;
+            if (updated == Constants.SWEEP_BATCH_SIZE) {
+                pauseBetweenBatches();
+            }
+        } while (updated == Constants.SWEEP_BATCH_SIZE);
+        return total;
+    }
+
+    // Gives writers queued on busy_timeout a chance to take the lock between batches
+    private void pauseBetweenBatches() {
+        try {
+            Thread.sleep(Constants.SWEEP_BATCH_PAUSE_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public static long getSweepIntervalSeconds() {
+        return Long.getLong("carpool.sweep.interval.seconds", Constants.SWEEP_INTERVAL_SECONDS);
+    }
+
+    public void scheduleOn(MaintenanceScheduler scheduler) {
+        scheduler.schedule("lifecycle-sweep", this::sweep, 0, getSweepIntervalSeconds());
+    }
+}
@@ -0,0 +1,60 @@
+package services;
+
+import utils.Log;
+import utils.Logger;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs periodic maintenance jobs on a single daemon thread, so jobs never
+ * overlap each other and never compete with one another for the write lock.
+ */
+public class MaintenanceScheduler {
+
+    private static final Logger LOG = Log.getLogger(MaintenanceScheduler.class);
+
+    private static MaintenanceScheduler instance;
+
+    private final ScheduledExecutorService executor;
+
+    private MaintenanceScheduler() {
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "carpool-maintenance");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public static synchronized MaintenanceScheduler getInstance() {
+        if (instance == null) {
+            instance = new MaintenanceScheduler();
+        }
+        return instance;
+    }
+
+    public void schedule(String name, Runnable job, long initialDelaySeconds, long periodSeconds) {
+        executor.scheduleWithFixedDelay(() -> {
+            try {
+                job.run();
+            } catch (RuntimeException e) {
+                // An escaping exception would silently cancel every later run
+                LOG.error("Maintenance job failed", e, "job", name);
+            }
+        }, initialDelaySeconds, periodSeconds, TimeUnit.SECONDS);
+        LOG.info("Scheduled maintenance job", "job", name, "periodSeconds", periodSeconds);
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
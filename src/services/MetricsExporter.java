@@ -0,0 +1,130 @@
+package services;
+
+import com.sun.net.httpserver.HttpServer;
+import utils.Constants;
+import utils.Metrics;
+import utils.Log;
+import utils.Logger;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+
+/**
+ * Publishes the metrics registry in the Prometheus text format: periodically
+ * to a local file, with per-second rates for every counter since the last
+ * export, and on demand from GET /metrics on a loopback-only port.
+ */
+public class MetricsExporter {
+
+    private static final Logger LOG = Log.getLogger(MetricsExporter.class);
+
+    private final Path file;
+    private final Map<String, Long> previousCounts = new HashMap<>();
+    private long previousExportNanos;
+    private HttpServer server;
+
+    public MetricsExporter() {
+        this.file = Paths.get(System.getProperty("carpool.metrics.file", Constants.METRICS_FILE));
+    }
+
+    public synchronized void export() {
+        StringBuilder out = new StringBuilder(Metrics.render());
+        appendRates(out);
+
+        // Written beside the target and moved over it, so readers never see half a file
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            Files.write(tmp, out.toString().getBytes(StandardCharsets.UTF_8));
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOG.error("Error exporting metrics", e);
+        }
+    }
+
+    private void appendRates(StringBuilder out) {
+        long now = System.nanoTime();
+        Map<String, Long> counts = Metrics.counterValues();
+        if (previousExportNanos != 0) {
+            double elapsedSeconds = (now - previousExportNanos) / 1e9;
+            String family = null;
+            for (Map.Entry<String, Long> e : counts.entrySet()) {
+                Long before = previousCounts.get(e.getKey());
+                double rate = (e.getValue() - (before != null ? before : 0)) / elapsedSeconds;
+
+                int brace = e.getKey().indexOf('{');
+                String counter = brace < 0 ? e.getKey() : e.getKey().substring(0, brace);
+                String name = counter.replaceFirst("_total$", "") + "_per_second";
+                String labels = brace < 0 ? "" : e.getKey().substring(brace);
+                if (!name.equals(family)) {
+                    family = name;
+                    out.append("# TYPE ").append(name).append(" gauge\n");
+                }
+                out.append(name).append(labels).append(' ').append(rate).append('\n');
+            }
+        }
+        previousCounts.clear();
+        previousCounts.putAll(counts);
+        previousExportNanos = now;
+    }
+
+    /** Serves GET /metrics on 127.0.0.1; a port of 0 leaves the endpoint off. */
+    public boolean startEndpoint(int port) {
+        if (port <= 0) {
+            return false;
+        }
+        try {
+            server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        } catch (IOException e) {
+            LOG.warn("Metrics endpoint not started", "port", port, "error", e.getMessage());
+            return false;
+        }
+
+        server.createContext("/metrics", exchange -> {
+            byte[] body = Metrics.render().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(body);
+            }
+        });
+        server.setExecutor(Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "carpool-metrics-http");
+            t.setDaemon(true);
+            return t;
+        }));
+        server.start();
+        LOG.info("Metrics endpoint started", "url", "http://localhost:" + port + "/metrics");
+        return true;
+    }
+
+    public void shutdown() {
+        if (server != null) {
+            server.stop(0);
+        }
+        export();
+    }
+
+    public static long getExportIntervalSeconds() {
+        return Long.getLong("carpool.metrics.interval.seconds", Constants.METRICS_EXPORT_INTERVAL_SECONDS);
+    }
+
+    public static int getEndpointPort() {
+        return Integer.getInteger("carpool.metrics.port", Constants.METRICS_PORT);
+    }
+
+    public void scheduleOn(MaintenanceScheduler scheduler) {
+        startEndpoint(getEndpointPort());
+        long interval = getExportIntervalSeconds();
+        scheduler.schedule("metrics-export", this::export, interval, interval);
+    }
+}
@@ -0,0 +1,69 @@
+package services;
+
+import models.ModerationItem;
+import dao.ReportDAO;
+import utils.Constants;
+import utils.Log;
+import utils.Logger;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+public class ModerationService {
+
+    private static final Logger LOG = Log.getLogger(ModerationService.class);
+
+    public static final int DEFAULT_PAGE_SIZE = 200;
+
+    private ReportDAO reportDAO;
+
+    public ModerationService() {
+        this.reportDAO = new ReportDAO();
+    }
+
+    // Pass the last item of the previous page as after, or null for the first page
+    public List<ModerationItem> getQueuePage(LocalDateTime asOf, ModerationItem after, int limit) {
+        if (limit <= 0) {
+            return Collections.emptyList();
+        }
+        return reportDAO.getModerationQueuePage(asOf, after, limit);
+    }
+
+    public int getPendingCount() {
+        return reportDAO.getPendingReportCount();
+    }
+
+    public int review(Collection<Integer> approvedIds, Collection<Integer> rejectedIds) {
+        if (approvedIds.isEmpty() && rejectedIds.isEmpty()) {
+            return 0;
+        }
+
+        LocalDateTime blacklistUntil = LocalDateTime.now().plusDays(Constants.BLACKLIST_DAYS).withNano(0);
+        int reviewed = reportDAO.reviewReports(approvedIds, rejectedIds,
+                                               Constants.WARNINGS_BEFORE_BLACKLIST, blacklistUntil);
+        if (reviewed > 0) {
+            LOG.info("Moderation batch applied", "reviewed", reviewed);
+        }
+        return reviewed;
+    }
+
+    public int approve(Collection<Integer> reportIds) {
+        return review(reportIds, Collections.emptyList());
+    }
+
+    public int reject(Collection<Integer> reportIds) {
+        return review(Collections.emptyList(), reportIds);
+    }
+
+    // Grants moderation rights: java services.ModerationService <roll number>...
+    public static void main(String[] args) {
+        utils.DBConnection.initializeDatabase();
+        dao.UserDAO userDAO = new dao.UserDAO();
+        for (String rollNumber : args) {
+            System.out.println(rollNumber + (userDAO.setAdmin(rollNumber, true) ? ": admin" : ": no such user"));
+        }
+        utils.DBConnection.closeConnection();
+    }
+}
@@ -0,0 +1,128 @@
+package services;
+
+import dao.NotificationDAO;
+import models.Notification;
+import utils.Constants;
+import utils.Metrics;
+import utils.Log;
+import utils.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Delivers user notifications off the caller's thread. Messages are queued,
+ * written to the notifications table in batches, then handed to any listener
+ * registered for the recipient (the dashboard of a logged-in user). Users
+ * who aren't logged in read them from the table next time they open the app.
+ */
+public class NotificationDispatcher {
+
+    private static final Logger LOG = Log.getLogger(NotificationDispatcher.class);
+
+    private static NotificationDispatcher instance;
+
+    private final NotificationDAO notificationDAO;
+    private final BlockingQueue<Notification> queue = new LinkedBlockingQueue<>();
+    private final Map<Integer, List<Consumer<Notification>>> listeners = new ConcurrentHashMap<>();
+    private final Thread worker;
+    private volatile boolean running = true;
+
+    private NotificationDispatcher() {
+        this.notificationDAO = new NotificationDAO();
+        this.worker = new Thread(this::run, "carpool-notifications");
+        this.worker.setDaemon(true);
+        this.worker.start();
+        Metrics.gauge("carpool_notification_queue_depth", queue::size);
+    }
+
+    public static synchronized NotificationDispatcher getInstance() {
+        if (instance == null) {
+            instance = new NotificationDispatcher();
+        }
+        return instance;
+    }
+
+    public void dispatch(int userId, String message) {
+        queue.add(new Notification(userId, message));
+    }
+
+    // Queued together, so the worker usually saves them in a single batch
+    public void dispatchAll(List<Notification> notifications) {
+        queue.addAll(notifications);
+    }
+
+    public void subscribe(int userId, Consumer<Notification> listener) {
+        listeners.computeIfAbsent(userId, id -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+
+    public void unsubscribe(int userId, Consumer<Notification> listener) {
+        List<Consumer<Notification>> userListeners = listeners.get(userId);
+        if (userListeners != null) {
+            userListeners.remove(listener);
+        }
+    }
+
+    public List<Notification> getUnread(int userId) {
+        return notificationDAO.getUnreadNotifications(userId);
+    }
+
+    public void markAllRead(int userId) {
+        notificationDAO.markAllRead(userId);
+    }
+
+    // Stops taking new work and flushes whatever is already queued
+    public void shutdown() {
+        running = false;
+        worker.interrupt();
+        try {
+            worker.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        List<Notification> batch = new ArrayList<>(Constants.NOTIFICATION_BATCH_SIZE);
+        while (running || !queue.isEmpty()) {
+            try {
+                Notification first = running ? queue.take() : queue.poll();
+                if (first == null) {
+                    break;
+                }
+                batch.add(first);
+            } catch (InterruptedException e) {
+                continue;
+            }
+            queue.drainTo(batch, Constants.NOTIFICATION_BATCH_SIZE - 1);
+            deliver(batch);
+            batch.clear();
+        }
+    }
+
+    private void deliver(List<Notification> batch) {
+        if (!notificationDAO.insertNotifications(batch)) {
+            LOG.warn("Dropped notifications that could not be saved", "count", batch.size());
+        }
+        for (Notification n : batch) {
+            List<Consumer<Notification>> userListeners = listeners.get(n.getUserId());
+            if (userListeners == null) {
+                continue;
+            }
+            for (Consumer<Notification> listener : userListeners) {
+                try {
+                    listener.accept(n);
+                } catch (RuntimeException e) {
+                    LOG.error("Notification listener failed", e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package services;
+
+import dao.DestinationDAO;
+import dao.PricingDAO;
+import models.Destination;
+import models.PriceSuggestion;
+import models.RouteBaseline;
+import utils.Constants;
+import utils.Log;
+import utils.Logger;
+import utils.Metrics;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Suggests a price per seat for a ride about to be posted, from three
+ * things: what passengers paid on the same route before, a distance fare
+ * from the places' coordinates, and how wanted the route is at that hour.
+ *
+ * The distance fare counts as Constants.PRICE_DISTANCE_WEIGHT_RIDES past
+ * rides, so it carries a new route and fades out as history builds up.
+ * Demand raises the price by at most Constants.PRICE_MAX_DEMAND_SURGE,
+ * reaching half of that at a score of Constants.PRICE_DEMAND_HALF_SURGE.
+ *
+ * The route baselines are cached in memory so a suggestion needs no
+ * database work. Completing rides bumps their routes' rows and versions;
+ * refresh then reads back only the rows past the last version it saw.
+ */
+public class PricingService {
+
+    private static final Logger LOG = Log.getLogger(PricingService.class);
+
+    private static final Metrics.Counter FROM_ROUTE = Metrics.counter("carpool_price_suggestions_total", "basis", "route");
+    private static final Metrics.Counter FROM_DISTANCE = Metrics.counter("carpool_price_suggestions_total", "basis", "distance");
+    private static final Metrics.Counter FROM_DEFAULT = Metrics.counter("carpool_price_suggestions_total", "basis", "default");
+
+    private static PricingService instance;
+
+    private final PricingDAO pricingDAO;
+    private final DestinationDAO destinationDAO;
+    private final DemandTracker demandTracker;
+    private final Map<String, RouteBaseline> baselines = new ConcurrentHashMap<>();
+    private volatile Map<String, Destination> places;
+    private long version = -1;
+
+    private PricingService() {
+        this.pricingDAO = new PricingDAO();
+        this.destinationDAO = new DestinationDAO();
+        this.demandTracker = DemandTracker.getInstance();
+        Metrics.gauge("carpool_price_baselines_cached", baselines::size);
+    }
+
+    public static synchronized PricingService getInstance() {
+        if (instance == null) {
+            instance = new PricingService();
+        }
+        return instance;
+    }
+
+    /**
+     * Loads the routes whose baselines changed since the last refresh (all
+     * of them the first time). Returns how many changed, or -1 on failure.
+     */
+    public synchronized int refresh() {
+        if (places == null) {
+            Map<String, Destination> loaded = new HashMap<>();
+            for (Destination d : destinationDAO.getAllDestinations()) {
+                loaded.put(d.getName(), d);
+            }
+            places = loaded;
+        }
+
+        List<RouteBaseline> changed = pricingDAO.getBaselinesSince(version);
+        if (changed == null) {
+            return -1;
+        }
+        for (RouteBaseline baseline : changed) {
+            baselines.put(key(baseline.getOrigin(), baseline.getDestination()), baseline);
+            version = Math.max(version, baseline.getVersion());
+        }
+        if (!changed.isEmpty()) {
+            LOG.debug("Route price baselines refreshed", "routes", changed.size(), "version", version);
+        }
+        return changed.size();
+    }
+
+    public PriceSuggestion suggest(String origin, String destination, LocalDateTime departure) {
+        if (places == null) {
+            refresh();
+        }
+
+        RouteBaseline baseline = baselines.get(key(origin, destination));
+        int rides = baseline != null ? baseline.getRides() : 0;
+        double baselinePrice = rides > 0 ? baseline.getBaselinePrice() : 0.0;
+        double distanceKm = distanceKm(origin, destination);
+
+        double price;
+        if (rides > 0 && distanceKm >= 0) {
+            int weight = Constants.PRICE_DISTANCE_WEIGHT_RIDES;
+            price = (rides * baselinePrice + weight * distanceFare(distanceKm)) / (rides + weight);
+            FROM_ROUTE.increment();
+        } else if (rides > 0) {
+            price = baselinePrice;
+            FROM_ROUTE.increment();
+        } else if (distanceKm >= 0) {
+            price = distanceFare(distanceKm);
+            FROM_DISTANCE.increment();
+        } else {
+            price = Constants.DEFAULT_PRICE_PER_SEAT;
+            FROM_DEFAULT.increment();
+        }
+
+        double demand = demandTracker.demandFor(origin, destination, departure);
+        double multiplier = 1 + Constants.PRICE_MAX_DEMAND_SURGE * demand / (demand + Constants.PRICE_DEMAND_HALF_SURGE);
+
+        return new PriceSuggestion(round(price * multiplier), baselinePrice, rides, distanceKm, multiplier);
+    }
+
+    // Road distance between two known places, or -1 if either has no coordinates
+    private double distanceKm(String origin, String destination) {
+        Map<String, Destination> known = places;
+        Destination a = known != null ? known.get(origin) : null;
+        Destination b = known != null ? known.get(destination) : null;
+        if (a == null || b == null || !RideNetwork.hasCoordinates(a) || !RideNetwork.hasCoordinates(b)) {
+            return -1;
+        }
+        return RideNetwork.haversineKm(a.getLatitude(), a.getLongitude(), b.getLatitude(), b.getLongitude())
+               * Constants.ROAD_DISTANCE_FACTOR;
+    }
+
+    private static double distanceFare(double km) {
+        return Constants.PRICE_BASE_FARE + Constants.PRICE_PER_KM * km;
+    }
+
+    private static double round(double price) {
+        double step = Constants.PRICE_ROUNDING;
+        return Math.max(step, Math.round(price / step) * step);
+    }
+
+    private static String key(String origin, String destination) {
+        return origin + '\u0000' + destination;
+    }
+}
@@ -4,10 +4,14 @@ import models.User;
 import models.Driver;
 import models.Passenger;
 import models.Rating;
-import models.Ride;
+import models.RatingSummary;
+import models.RideHistoryEntry;
+import models.UserStatistics;
 import dao.UserDAO;
 import dao.DriverDAO;
 import dao.PassengerDAO;
+import dao.RideDAO;
+import dao.UserStatisticsDAO;
 
 import java.util.List;
 
@@ -16,11 +20,17 @@ public class ProfileService {
     private UserDAO userDAO;
     private DriverDAO driverDAO;
     private PassengerDAO passengerDAO;
+    private RideDAO rideDAO;
+    private RatingService ratingService;
+    private UserStatisticsDAO statisticsDAO;
 
     public ProfileService() {
         this.userDAO = new UserDAO();
         this.driverDAO = new DriverDAO();
         this.passengerDAO = new PassengerDAO();
+        this.rideDAO = new RideDAO();
+        this.ratingService = new RatingService();
+        this.statisticsDAO = new UserStatisticsDAO();
     }
 
     public User getUserProfile(int userId) {
@@ -86,50 +96,66 @@ public class ProfileService {
         user.setPassword(newPass);
         return userDAO.updateUser(user);
     }
-public String getUserStatistics(int userId) {
-    User user = userDAO.getUserById(userId);
-    if (user == null) {
-        return "User not found";
+    public UserStatistics getStatistics(int userId) {
+        return statisticsDAO.getStatistics(userId);
     }
 
-    StringBuilder stats = new StringBuilder();
-    stats.append("=== User Statistics ===\n");
-    stats.append("ID: ").append(user.getId()).append("\n");
-    stats.append("Name: ").append(user.getName()).append("\n");
-    stats.append("Email: ").append(user.getEmail()).append("\n");
-
-    BookingService bookingService = new BookingService();
-
-    if (user.getRole().equalsIgnoreCase("PASSENGER") ||
-        user.getRole().equalsIgnoreCase("BOTH")) {
-    }
-
-    if (user.getRole().equalsIgnoreCase("DRIVER") ||
-        user.getRole().equalsIgnoreCase("BOTH")) {
+    public String getUserStatistics(int userId) {
+        User user = userDAO.getUserById(userId);
+        if (user == null) {
+            return "User not found";
+        }
 
-        Driver d = driverDAO.getDriverByUserId(userId);
-        if (d != null) {
-            stats.append("\n=== Driver Stats ===\n");
-            stats.append("Vehicle Model: ").append(d.getVehicleModel()).append("\n");
-            stats.append("Vehicle Number: ").append(d.getVehicleNumber()).append("\n");
-            stats.append("Seats Available: ").append(d.getSeatsAvailable()).append("\n");
+        StringBuilder stats = new StringBuilder();
+        stats.append("=== User Statistics ===\n");
+        stats.append("ID: ").append(user.getId()).append("\n");
+        stats.append("Name: ").append(user.getName()).append("\n");
+        stats.append("Email: ").append(user.getEmail()).append("\n");
 
-            int ridesGiven = bookingService.getRideBookingCount(d.getId());
-            stats.append("Total Rides Given: ").append(ridesGiven).append("\n");
+        // One primary-key read; the totals are kept current as rides finish
+        UserStatistics totals = statisticsDAO.getStatistics(userId);
+        if (totals == null) {
+            totals = new UserStatistics(userId);
+        }
 
+        if (user.getRole().equalsIgnoreCase("PASSENGER") ||
+            user.getRole().equalsIgnoreCase("BOTH")) {
+            stats.append("\n=== Passenger Stats ===\n");
+            stats.append("Rides Taken: ").append(totals.getRidesTaken()).append("\n");
+            stats.append("Bookings Cancelled: ").append(totals.getBookingsCancelled()).append("\n");
         }
-    }
 
-    return stats.toString();
-}
+        if (user.getRole().equalsIgnoreCase("DRIVER") ||
+            user.getRole().equalsIgnoreCase("BOTH")) {
+
+            Driver d = driverDAO.getDriverByUserId(userId);
+            if (d != null) {
+                stats.append("\n=== Driver Stats ===\n");
+                stats.append("Vehicle Model: ").append(d.getVehicleModel()).append("\n");
+                stats.append("Vehicle Number: ").append(d.getVehicleNumber()).append("\n");
+                stats.append("Seats Available: ").append(d.getSeatsAvailable()).append("\n");
+            }
+            stats.append("Total Rides Given: ").append(totals.getRidesGiven()).append("\n");
+            stats.append("Seats Filled: ").append(totals.getSeatsFilled()).append("\n");
+            stats.append("Passengers Carried: ").append(totals.getPassengersCarried()).append("\n");
+            stats.append("Revenue: AED ").append(String.format("%.2f", totals.getRevenue())).append("\n");
+            stats.append("Rides Cancelled: ").append(totals.getRidesCancelled()).append("\n");
+        }
 
+        return stats.toString();
+    }
 
     public List<Rating> getUserRatings(int userId) {
-        return java.util.Collections.emptyList();
+        return ratingService.getRecentRatings(userId);
+    }
+
+    public RatingSummary getRatingSummary(int userId) {
+        return ratingService.getRatingSummary(userId);
     }
 
-    public List<Ride> getRideHistory(User user) {
-        return java.util.Collections.emptyList();
+    // Pass the last entry of the previous page, or null for the first page
+    public List<RideHistoryEntry> getRideHistoryPage(int userId, RideHistoryEntry after, int limit) {
+        return rideDAO.getRideHistoryPage(userId, after, limit);
     }
 
     public boolean updateProfile(User updatedUser) {
@@ -0,0 +1,99 @@
+package services;
+
+import models.Rating;
+import models.RatingSummary;
+import models.Ride;
+import dao.BookingDAO;
+import dao.RatingDAO;
+import dao.RideDAO;
+import utils.Log;
+import utils.Logger;
+
+import java.util.List;
+
+public class RatingService {
+
+    private static final Logger LOG = Log.getLogger(RatingService.class);
+
+    public static final int RECENT_RATINGS_LIMIT = 20;
+
+    private RatingDAO ratingDAO;
+    private RideDAO rideDAO;
+    private BookingDAO bookingDAO;
+
+    public RatingService() {
+        this.ratingDAO = new RatingDAO();
+        this.rideDAO = new RideDAO();
+        this.bookingDAO = new BookingDAO();
+    }
+
+    public boolean rateUser(int fromUserId, int toUserId, int rideId, int score, String comment) {
+        if (fromUserId == toUserId) {
+            LOG.warn("Cannot rate yourself");
+            return false;
+        }
+
+        if (score < 1 || score > 5) {
+            LOG.warn("Rating must be between 1 and 5");
+            return false;
+        }
+
+        Ride ride = rideDAO.getRideById(rideId);
+        if (ride == null) {
+            LOG.warn("Ride not found");
+            return false;
+        }
+
+        if (!tookPart(fromUserId, ride) || !tookPart(toUserId, ride)) {
+            LOG.warn("Both users must have been on this ride");
+            return false;
+        }
+
+        if (ratingDAO.hasRated(fromUserId, toUserId, rideId)) {
+            LOG.warn("You have already rated this user for this ride");
+            return false;
+        }
+
+        return ratingDAO.createRating(fromUserId, toUserId, rideId, score, comment);
+    }
+
+    private boolean tookPart(int userId, Ride ride) {
+        return ride.getDriverId() == userId || bookingDAO.hasPassengerBooked(userId, ride.getId());
+    }
+
+    public RatingSummary getRatingSummary(int userId) {
+        return ratingDAO.getRatingSummary(userId);
+    }
+
+    public double getAverageRating(int userId) {
+        return ratingDAO.getRatingSummary(userId).getAverage();
+    }
+
+    public List<Rating> getRecentRatings(int userId) {
+        return ratingDAO.getRecentRatings(userId, RECENT_RATINGS_LIMIT);
+    }
+
+    public List<Rating> getRecentRatings(int userId, int limit) {
+        return ratingDAO.getRecentRatings(userId, limit);
+    }
+
+    public int rebuildRatingAggregates() {
+        int drift = ratingDAO.rebuildRatingStats();
+        if (drift > 0) {
+            LOG.info("Rating aggregates rebuilt", "corrected", drift);
+        }
+        return drift;
+    }
+
+    // Batch job: java -cp "bin:lib/*" services.RatingService
+    public static void main(String[] args) {
+        utils.DBConnection.initializeDatabase();
+        int drift = new RatingService().rebuildRatingAggregates();
+        if (drift < 0) {
+            System.err.println("Rating aggregate rebuild failed");
+        } else {
+            System.out.println("Rating aggregate rebuild complete; " + drift + " user(s) had drifted");
+        }
+        utils.DBConnection.closeConnection();
+    }
+}
@@ -1,54 +1,94 @@
 package services;
 
 import models.Report;
+import models.ReportCounters;
 import models.User;
 import dao.ReportDAO;
 import dao.UserDAO;
+import utils.Constants;
+import utils.Metrics;
+import utils.Log;
+import utils.Logger;
 
+import java.time.LocalDateTime;
+
+import java.util.Collections;
 import java.util.List;
 
 public class ReportService {
-    
+
+    private static final Logger LOG = Log.getLogger(ReportService.class);
+
+    private static final Metrics.Counter SUBMITTED = Metrics.counter("carpool_reports_total", "result", "success");
+    private static final Metrics.Counter SELF_REPORT = Metrics.counter("carpool_reports_total", "result", "self_report");
+    private static final Metrics.Counter NO_REASON = Metrics.counter("carpool_reports_total", "result", "no_reason");
+    private static final Metrics.Counter UNKNOWN_USER = Metrics.counter("carpool_reports_total", "result", "unknown_user");
+    private static final Metrics.Counter REJECTED = Metrics.counter("carpool_reports_total", "result", "rejected");
+    private static final Metrics.Counter WARNINGS = Metrics.counter("carpool_user_warnings_total");
+    private static final Metrics.Counter APPROVED_REVIEWS = Metrics.counter("carpool_report_reviews_total", "decision", "approved");
+    private static final Metrics.Counter REJECTED_REVIEWS = Metrics.counter("carpool_report_reviews_total", "decision", "rejected");
+    private static final Metrics.Counter BLACKLISTED = Metrics.counter("carpool_blacklistings_total");
+    private static final Metrics.Timer SUBMIT_TIME = Metrics.timer("carpool_report_submit_duration_seconds");
+
     private ReportDAO reportDAO;
     private UserDAO userDAO;
+    private ModerationService moderationService;
     
     public ReportService() {
         this.reportDAO = new ReportDAO();
         this.userDAO = new UserDAO();
+        this.moderationService = new ModerationService();
     }
 
     public boolean submitReport(int reporterId, int reportedUserId, 
                                Integer rideId, String reason) {
+        long start = SUBMIT_TIME.start();
+        try {
+            return submitReportTimed(reporterId, reportedUserId, rideId, reason);
+        } finally {
+            SUBMIT_TIME.stop(start);
+        }
+    }
+
+    private boolean submitReportTimed(int reporterId, int reportedUserId,
+                                      Integer rideId, String reason) {
         if (reporterId == reportedUserId) {
-            System.err.println("Cannot report yourself");
+            SELF_REPORT.increment();
+            LOG.warn("Cannot report yourself");
             return false;
         }
 
         if (reason == null || reason.trim().isEmpty()) {
-            System.err.println("Reason is required");
+            NO_REASON.increment();
+            LOG.warn("Reason is required");
             return false;
         }
 
         if (userDAO.getUserById(reporterId) == null) {
-            System.err.println("Reporter not found");
+            UNKNOWN_USER.increment();
+            LOG.warn("Reporter not found");
             return false;
         }
         if (userDAO.getUserById(reportedUserId) == null) {
-            System.err.println("Reported user not found");
+            UNKNOWN_USER.increment();
+            LOG.warn("Reported user not found");
             return false;
         }
 
-        boolean success = reportDAO.createReport(reporterId, reportedUserId, rideId, reason);
-        
-        if (success) {
-            System.out.println("Report submitted successfully. Our team will review it.");
-            int reportCount = reportDAO.getReportCountForUser(reportedUserId);
-            if (reportCount >= 3) {
-                addWarningToUser(reportedUserId);
-            }
+        ReportCounters counters = reportDAO.recordReport(reporterId, reportedUserId, rideId, reason);
+        if (counters == null) {
+            REJECTED.increment();
+            return false;
         }
-        
-        return success;
+
+        SUBMITTED.increment();
+        LOG.info("Report submitted successfully. Our team will review it.");
+        if (counters.getActiveCount() >= Constants.REPORTS_BEFORE_WARNING) {
+            WARNINGS.increment();
+            addWarningToUser(reportedUserId);
+        }
+
+        return true;
     }
 
     public List<Report> getPendingReports() {
@@ -66,38 +106,33 @@ public class ReportService {
     public boolean reviewReport(int reportId, boolean approved, String adminNotes) {
         Report report = reportDAO.getReportById(reportId);
         if (report == null) {
-            System.err.println("Report not found");
+            LOG.warn("Report not found");
             return false;
         }
 
-        if (approved) {
-            addWarningToUser(report.getReportedUserId());
-            reportDAO.updateReportStatus(reportId, "RESOLVED");
-        } else {
-            reportDAO.updateReportStatus(reportId, "REVIEWED");
-        }
+        List<Integer> ids = Collections.singletonList(reportId);
+        int reviewed = approved
+                ? moderationService.approve(ids)
+                : moderationService.reject(ids);
 
-        System.out.println("Report reviewed. Status: " + (approved ? "Approved" : "Rejected"));
+        if (reviewed <= 0) {
+            LOG.warn("Report was not reviewed", "reportId", reportId);
+            return false;
+        }
+        (approved ? APPROVED_REVIEWS : REJECTED_REVIEWS).increment();
+        LOG.info("Report reviewed", "reportId", reportId, "status", approved ? "Approved" : "Rejected");
         return true;
     }
 
     private void addWarningToUser(int userId) {
-        User user = userDAO.getUserById(userId);
-        if (user != null) {
-            user.addWarning();
-            userDAO.updateUser(user);
-            
-            if (user.isBlacklisted()) {
-                System.out.println("User " + userId + " has been blacklisted until: " + 
-                                 user.getBlacklistUntil());
-            }
-        }
+        LocalDateTime blacklistUntil = LocalDateTime.now().plusDays(Constants.BLACKLIST_DAYS).withNano(0);
+        userDAO.addWarning(userId, Constants.WARNINGS_BEFORE_BLACKLIST, blacklistUntil);
     }
 
     public boolean blacklistUser(int userId, int days) {
         User user = userDAO.getUserById(userId);
         if (user == null) {
-            System.err.println("User not found");
+            LOG.warn("User not found");
             return false;
         }
 
@@ -105,7 +140,8 @@ public class ReportService {
         boolean success = userDAO.updateUser(user);
         
         if (success) {
-            System.out.println("User blacklisted for " + days + " days");
+            BLACKLISTED.increment();
+            LOG.info("User blacklisted", "userId", userId, "days", days);
         }
         
         return success;
@@ -114,7 +150,7 @@ public class ReportService {
     public boolean removeBlacklist(int userId) {
         User user = userDAO.getUserById(userId);
         if (user == null) {
-            System.err.println("User not found");
+            LOG.warn("User not found");
             return false;
         }
 
@@ -122,7 +158,7 @@ public class ReportService {
         boolean success = userDAO.updateUser(user);
         
         if (success) {
-            System.out.println("User blacklist removed and warnings cleared");
+            LOG.info("User blacklist removed and warnings cleared");
         }
         
         return success;
@@ -131,4 +167,28 @@ public class ReportService {
     public int getReportCount(int userId) {
         return reportDAO.getReportCountForUser(userId);
     }
+
+    public ReportCounters getReportCounters(int userId) {
+        return reportDAO.getReportCounters(userId);
+    }
+
+    public int rebuildReportCounters() {
+        int drift = reportDAO.rebuildReportCounters();
+        if (drift > 0) {
+            LOG.info("Report counters rebuilt", "corrected", drift);
+        }
+        return drift;
+    }
+
+    // Batch job: java -cp "bin:lib/*" services.ReportService
+    public static void main(String[] args) {
+        utils.DBConnection.initializeDatabase();
+        int drift = new ReportService().rebuildReportCounters();
+        if (drift < 0) {
+            System.err.println("Report counter rebuild failed");
+        } else {
+            System.out.println("Report counter rebuild complete; " + drift + " user(s) had drifted");
+        }
+        utils.DBConnection.closeConnection();
+    }
 }
@@ -0,0 +1,312 @@
+package services;
+
+import models.Ride;
+import utils.TemporalCache;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable struct-of-arrays snapshot of rides for in-memory search. Each
+ * ride is one row index across parallel primitive arrays, sorted by
+ * departure; places, driver names and vehicles are dictionary-encoded to
+ * int ids, so a row costs a few dozen bytes instead of a Ride with its
+ * strings, java.time objects and passenger list. Scans compare ints and
+ * longs only, and Ride objects are built just for the rows returned.
+ */
+public class RideColumnStore {
+
+    public static final byte STATUS_ACTIVE = 0;
+    public static final byte STATUS_COMPLETED = 1;
+    public static final byte STATUS_CANCELLED = 2;
+    private static final String[] STATUS_NAMES = {"ACTIVE", "COMPLETED", "CANCELLED"};
+
+    private final int size;
+    private final int[] ids;
+    private final int[] driverIds;
+    private final int[] driverNameIds;
+    private final int[] originIds;
+    private final int[] destinationIds;
+    private final int[] vehicleIds;
+    private final long[] departures;
+    private final short[] seatsAvailable;
+    private final short[] seatsTotal;
+    private final double[] prices;
+    private final byte[] statuses;
+
+    private final Dictionary places;
+    private final Dictionary driverNames;
+    private final Dictionary vehicles;
+
+    // Row indexes ordered by ride id, for lookups by id
+    private final int[] rowsById;
+
+    private RideColumnStore(Builder b) {
+        this.size = b.size;
+        this.places = b.places;
+        this.driverNames = b.driverNames;
+        this.vehicles = b.vehicles;
+
+        // Rows usually arrive in departure order already; sort a permutation otherwise
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (x, y) -> Long.compare(b.departures[x], b.departures[y]));
+
+        this.ids = new int[size];
+        this.driverIds = new int[size];
+        this.driverNameIds = new int[size];
+        this.originIds = new int[size];
+        this.destinationIds = new int[size];
+        this.vehicleIds = new int[size];
+        this.departures = new long[size];
+        this.seatsAvailable = new short[size];
+        this.seatsTotal = new short[size];
+        this.prices = new double[size];
+        this.statuses = new byte[size];
+
+        for (int row = 0; row < size; row++) {
+            int src = order[row];
+            ids[row] = b.ids[src];
+            driverIds[row] = b.driverIds[src];
+            driverNameIds[row] = b.driverNameIds[src];
+            originIds[row] = b.originIds[src];
+            destinationIds[row] = b.destinationIds[src];
+            vehicleIds[row] = b.vehicleIds[src];
+            departures[row] = b.departures[src];
+            seatsAvailable[row] = b.seatsAvailable[src];
+            seatsTotal[row] = b.seatsTotal[src];
+            prices[row] = b.prices[src];
+            statuses[row] = b.statuses[src];
+        }
+
+        Integer[] byId = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            byId[i] = i;
+        }
+        Arrays.sort(byId, (x, y) -> Integer.compare(ids[x], ids[y]));
+        this.rowsById = new int[size];
+        for (int i = 0; i < size; i++) {
+            rowsById[i] = byId[i];
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Row indexes, in departure order, of rides with the given status on the
+     * route departing in [from, to) with at least minSeats free. A null
+     * origin, destination or driver name matches anything; an unknown one
+     * matches nothing.
+     */
+    public int[] match(String origin, String destination, String driverName,
+                       long fromEpoch, long toEpoch, int minSeats, byte status) {
+        int originId = origin != null ? places.find(origin) : -1;
+        int destinationId = destination != null ? places.find(destination) : -1;
+        int driverNameId = driverName != null ? driverNames.find(driverName) : -1;
+        if ((origin != null && originId < 0) || (destination != null && destinationId < 0)
+                || (driverName != null && driverNameId < 0)) {
+            return new int[0];
+        }
+
+        int start = lowerBound(fromEpoch);
+        int end = lowerBound(toEpoch);
+        int[] hits = new int[Math.max(end - start, 0)];
+        int count = 0;
+        for (int row = start; row < end; row++) {
+            if (statuses[row] == status
+                    && seatsAvailable[row] >= minSeats
+                    && (originId < 0 || originIds[row] == originId)
+                    && (destinationId < 0 || destinationIds[row] == destinationId)
+                    && (driverNameId < 0 || driverNameIds[row] == driverNameId)) {
+                hits[count++] = row;
+            }
+        }
+        return Arrays.copyOf(hits, count);
+    }
+
+    public int[] match(String origin, String destination, String driverName,
+                       LocalDateTime from, LocalDateTime to, int minSeats) {
+        long fromEpoch = from != null ? from.toEpochSecond(ZoneOffset.UTC) : Long.MIN_VALUE;
+        long toEpoch = to != null ? to.toEpochSecond(ZoneOffset.UTC) : Long.MAX_VALUE;
+        return match(origin, destination, driverName, fromEpoch, toEpoch, minSeats, STATUS_ACTIVE);
+    }
+
+    // Row of the ride, or -1 if it isn't in the snapshot
+    public int rowOf(int rideId) {
+        int lo = 0;
+        int hi = size - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int id = ids[rowsById[mid]];
+            if (id < rideId) {
+                lo = mid + 1;
+            } else if (id > rideId) {
+                hi = mid - 1;
+            } else {
+                return rowsById[mid];
+            }
+        }
+        return -1;
+    }
+
+    public int getRideId(int row) {
+        return ids[row];
+    }
+
+    public int getSeatsAvailable(int row) {
+        return seatsAvailable[row];
+    }
+
+    public Ride toRide(int row) {
+        return toRide(row, seatsAvailable[row]);
+    }
+
+    // Builds the Ride for one row, with a seat count fresher than the snapshot's
+    public Ride toRide(int row, int seats) {
+        long departure = departures[row];
+        return new Ride(
+            ids[row],
+            driverIds[row],
+            driverNames.get(driverNameIds[row]),
+            places.get(originIds[row]),
+            places.get(destinationIds[row]),
+            TemporalCache.dateOfEpochSecond(departure),
+            TemporalCache.timeOfEpochSecond(departure),
+            seats,
+            seatsTotal[row],
+            prices[row],
+            STATUS_NAMES[statuses[row]],
+            vehicles.get(vehicleIds[row])
+        );
+    }
+
+    public List<Ride> toRides(int[] rows) {
+        List<Ride> rides = new ArrayList<>(rows.length);
+        for (int row : rows) {
+            rides.add(toRide(row));
+        }
+        return rides;
+    }
+
+    // First row departing at or after the given time
+    private int lowerBound(long epoch) {
+        int lo = 0;
+        int hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (departures[mid] < epoch) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private static byte statusCode(String status) {
+        for (byte i = 0; i < STATUS_NAMES.length; i++) {
+            if (STATUS_NAMES[i].equals(status)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Unknown ride status: " + status);
+    }
+
+    // Distinct strings to dense int ids; index 0 is reserved for null
+    private static class Dictionary {
+        private final Map<String, Integer> idsByValue = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        Dictionary() {
+            values.add(null);
+        }
+
+        int intern(String value) {
+            if (value == null) {
+                return 0;
+            }
+            Integer id = idsByValue.get(value);
+            if (id == null) {
+                id = values.size();
+                values.add(value);
+                idsByValue.put(value, id);
+            }
+            return id;
+        }
+
+        int find(String value) {
+            Integer id = idsByValue.get(value);
+            return id != null ? id : -1;
+        }
+
+        String get(int id) {
+            return values.get(id);
+        }
+    }
+
+    public static class Builder {
+        private int size;
+        private int[] ids = new int[64];
+        private int[] driverIds = new int[64];
+        private int[] driverNameIds = new int[64];
+        private int[] originIds = new int[64];
+        private int[] destinationIds = new int[64];
+        private int[] vehicleIds = new int[64];
+        private long[] departures = new long[64];
+        private short[] seatsAvailable = new short[64];
+        private short[] seatsTotal = new short[64];
+        private double[] prices = new double[64];
+        private byte[] statuses = new byte[64];
+
+        private final Dictionary places = new Dictionary();
+        private final Dictionary driverNames = new Dictionary();
+        private final Dictionary vehicles = new Dictionary();
+
+        public Builder add(Ride ride) {
+            if (size == ids.length) {
+                grow();
+            }
+            ids[size] = ride.getId();
+            driverIds[size] = ride.getDriverId();
+            driverNameIds[size] = driverNames.intern(ride.getDriverName());
+            originIds[size] = places.intern(ride.getOrigin());
+            destinationIds[size] = places.intern(ride.getDestination());
+            vehicleIds[size] = vehicles.intern(ride.getVehicleInfo());
+            departures[size] = ride.getDepartureEpochSecond();
+            seatsAvailable[size] = (short) ride.getSeatsAvailable();
+            seatsTotal[size] = (short) ride.getSeatsTotal();
+            prices[size] = ride.getPricePerSeat();
+            statuses[size] = statusCode(ride.getStatus());
+            size++;
+            return this;
+        }
+
+        public RideColumnStore build() {
+            return new RideColumnStore(this);
+        }
+
+        private void grow() {
+            int capacity = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            driverIds = Arrays.copyOf(driverIds, capacity);
+            driverNameIds = Arrays.copyOf(driverNameIds, capacity);
+            originIds = Arrays.copyOf(originIds, capacity);
+            destinationIds = Arrays.copyOf(destinationIds, capacity);
+            vehicleIds = Arrays.copyOf(vehicleIds, capacity);
+            departures = Arrays.copyOf(departures, capacity);
+            seatsAvailable = Arrays.copyOf(seatsAvailable, capacity);
+            seatsTotal = Arrays.copyOf(seatsTotal, capacity);
+            prices = Arrays.copyOf(prices, capacity);
+            statuses = Arrays.copyOf(statuses, capacity);
+        }
+    }
+}
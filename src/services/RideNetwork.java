@@ -0,0 +1,188 @@
+package services;
+
+import models.Destination;
+import models.Itinerary;
+import models.Ride;
+import utils.Constants;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable snapshot of the active rides as a timetable: every ride is one
+ * connection (origin, departure) -> (destination, estimated arrival), stored
+ * in flat arrays sorted by departure. Journeys are found with RAPTOR-style
+ * rounds: round k holds the earliest arrival at every place using exactly k
+ * rides, computed by one pass over the connections from round k-1. A few
+ * thousand rides take well under a millisecond per round.
+ */
+public class RideNetwork {
+
+    private static final long UNREACHED = Long.MAX_VALUE;
+
+    private final Map<String, Integer> stopIndex = new HashMap<>();
+    private final int[] from;
+    private final int[] to;
+    private final long[] departure;
+    private final long[] arrival;
+    private final int[] seats;
+    private final Ride[] rides;
+
+    public RideNetwork(List<Ride> activeRides, Map<String, Destination> places) {
+        List<Ride> sorted = new ArrayList<>();
+        for (Ride ride : activeRides) {
+            if (!ride.getOrigin().equals(ride.getDestination())) {
+                sorted.add(ride);
+            }
+        }
+        sorted.sort((a, b) -> Long.compare(a.getDepartureEpochSecond(), b.getDepartureEpochSecond()));
+
+        int n = sorted.size();
+        this.from = new int[n];
+        this.to = new int[n];
+        this.departure = new long[n];
+        this.arrival = new long[n];
+        this.seats = new int[n];
+        this.rides = new Ride[n];
+
+        for (int i = 0; i < n; i++) {
+            Ride ride = sorted.get(i);
+            from[i] = stop(ride.getOrigin());
+            to[i] = stop(ride.getDestination());
+            departure[i] = ride.getDepartureEpochSecond();
+            arrival[i] = departure[i] + estimateDurationSeconds(places.get(ride.getOrigin()),
+                                                                 places.get(ride.getDestination()));
+            seats[i] = ride.getSeatsAvailable();
+            rides[i] = ride;
+        }
+    }
+
+    public int getRideCount() {
+        return rides.length;
+    }
+
+    /**
+     * Pareto-optimal itineraries by (arrival, number of rides): the first has
+     * the fewest transfers, the last arrives earliest. Empty if the
+     * destination can't be reached within maxLegs rides.
+     */
+    public List<Itinerary> plan(String origin, String destination, LocalDateTime earliest,
+                                int seatsNeeded, int maxLegs) {
+        Integer source = stopIndex.get(origin);
+        Integer target = stopIndex.get(destination);
+        if (source == null || target == null || source.equals(target) || maxLegs < 1) {
+            return Collections.emptyList();
+        }
+
+        int stops = stopIndex.size();
+        long start = earliest.toEpochSecond(ZoneOffset.UTC);
+        long transfer = Constants.MIN_CONNECTION_MINUTES * 60L;
+        int first = firstDepartingAtOrAfter(start);
+
+        long[][] label = new long[maxLegs + 1][stops];
+        int[][] parent = new int[maxLegs + 1][stops];
+        for (long[] row : label) {
+            Arrays.fill(row, UNREACHED);
+        }
+        label[0][source] = start;
+
+        List<Itinerary> itineraries = new ArrayList<>();
+        long bestAtTarget = UNREACHED;
+
+        for (int k = 1; k <= maxLegs; k++) {
+            long[] previous = label[k - 1];
+            long[] current = label[k];
+            boolean improved = false;
+
+            for (int c = first; c < rides.length; c++) {
+                // Arriving after the best known arrival can't lead anywhere better
+                if (arrival[c] >= bestAtTarget || seats[c] < seatsNeeded) {
+                    continue;
+                }
+                long reached = previous[from[c]];
+                if (reached == UNREACHED) {
+                    continue;
+                }
+                long ready = k == 1 ? reached : reached + transfer;
+                if (ready <= departure[c] && arrival[c] < current[to[c]] && to[c] != source) {
+                    current[to[c]] = arrival[c];
+                    parent[k][to[c]] = c;
+                    improved = true;
+                }
+            }
+
+            if (current[target] < bestAtTarget) {
+                bestAtTarget = current[target];
+                itineraries.add(reconstruct(parent, k, target));
+            }
+            if (!improved) {
+                break;
+            }
+        }
+
+        return itineraries;
+    }
+
+    private Itinerary reconstruct(int[][] parent, int rounds, int target) {
+        Ride[] legs = new Ride[rounds];
+        LocalDateTime[] arrivals = new LocalDateTime[rounds];
+        int stop = target;
+        for (int k = rounds; k >= 1; k--) {
+            int c = parent[k][stop];
+            legs[k - 1] = rides[c];
+            arrivals[k - 1] = LocalDateTime.ofEpochSecond(arrival[c], 0, ZoneOffset.UTC);
+            stop = from[c];
+        }
+        return new Itinerary(Arrays.asList(legs), Arrays.asList(arrivals));
+    }
+
+    private int firstDepartingAtOrAfter(long time) {
+        int lo = 0;
+        int hi = departure.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (departure[mid] < time) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private int stop(String name) {
+        return stopIndex.computeIfAbsent(name, key -> stopIndex.size());
+    }
+
+    /**
+     * Straight-line distance stretched by a road factor at an average city
+     * speed; falls back to a fixed duration when either place has no coordinates.
+     */
+    static long estimateDurationSeconds(Destination a, Destination b) {
+        if (a == null || b == null || !hasCoordinates(a) || !hasCoordinates(b)) {
+            return Constants.DEFAULT_RIDE_DURATION_MINUTES * 60L;
+        }
+        double km = haversineKm(a.getLatitude(), a.getLongitude(), b.getLatitude(), b.getLongitude())
+                    * Constants.ROAD_DISTANCE_FACTOR;
+        return Math.max(Math.round(km / Constants.AVERAGE_SPEED_KMH * 3600), 5 * 60);
+    }
+
+    static boolean hasCoordinates(Destination d) {
+        return d.getLatitude() != 0 || d.getLongitude() != 0;
+    }
+
+    static double haversineKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double h = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                 + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                 * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * 6371.0 * Math.asin(Math.sqrt(h));
+    }
+}
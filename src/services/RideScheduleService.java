@@ -0,0 +1,199 @@
+package services;
+
+import dao.RideScheduleDAO;
+import models.Driver;
+import models.Ride;
+import models.RideSchedule;
+import utils.Constants;
+import utils.Log;
+import utils.Logger;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Recurring rides are stored once as a rule and turned into concrete rides
+ * only for a rolling window ahead of today. A background job pushes the
+ * window forward in batches. A search past the window gets the
+ * occurrences there as transient rides that are never stored, up to
+ * Constants.SCHEDULE_HORIZON_DAYS ahead; they become bookable once the
+ * window reaches them.
+ */
+public class RideScheduleService {
+
+    private static final Logger LOG = Log.getLogger(RideScheduleService.class);
+
+    private RideScheduleDAO scheduleDAO;
+
+    public RideScheduleService() {
+        this.scheduleDAO = new RideScheduleDAO();
+    }
+
+    public RideSchedule createSchedule(Driver driver, String origin, String destination,
+                                       Set<DayOfWeek> days, LocalTime departureTime,
+                                       int seatsTotal, double pricePerSeat,
+                                       LocalDate startDate, LocalDate endDate) {
+        if (days.isEmpty()) {
+            LOG.warn("A recurring ride needs at least one day of the week");
+            return null;
+        }
+        if (endDate != null && endDate.isBefore(startDate)) {
+            LOG.warn("End date must not be before the start date");
+            return null;
+        }
+
+        String vehicleInfo = driver.getVehicleModel() + " (" + driver.getVehicleNumber() + ")";
+        RideSchedule schedule = new RideSchedule(0, driver.getId(), driver.getName(), origin, destination,
+                RideSchedule.toMask(days), departureTime, seatsTotal, pricePerSeat, vehicleInfo,
+                startDate, endDate, true, null);
+
+        if (!scheduleDAO.createSchedule(schedule)) {
+            return null;
+        }
+
+        // The driver should see the first occurrences straight away
+        if (materialize(schedule, windowEnd()) > 0) {
+            TripPlannerService.invalidate();
+            RideSearchService.invalidate();
+            FuzzySearchService.invalidate();
+        }
+        return schedule;
+    }
+
+    public List<RideSchedule> getSchedulesByDriver(int driverId) {
+        return scheduleDAO.getSchedulesByDriver(driverId);
+    }
+
+    public boolean stopSchedule(int scheduleId, int driverId) {
+        List<Integer> cancelled = scheduleDAO.deactivateSchedule(scheduleId, driverId, LocalDate.now());
+        if (cancelled == null) {
+            return false;
+        }
+        // Otherwise the ledger keeps treating the cancelled rides as bookable
+        for (int rideId : cancelled) {
+            SeatLedger.getInstance().invalidate(rideId);
+        }
+        TripPlannerService.invalidate();
+        RideSearchService.invalidate();
+        return true;
+    }
+
+    public int materializeWindow() {
+        int created = materializeThrough(windowEnd());
+        if (created > 0) {
+            LOG.info("Recurring rides generated", "rides", created);
+        }
+        return created;
+    }
+
+    /**
+     * Occurrences departing in [from, to) that fall past the rolling window,
+     * as unsaved rides (id 0, status SCHEDULED). Origin and destination may
+     * be null to leave that filter out.
+     */
+    public List<Ride> projectRides(String origin, String destination, LocalDateTime from, LocalDateTime to) {
+        List<Ride> rides = new ArrayList<>();
+        LocalDate first = windowEnd().plusDays(1);
+        if (from.toLocalDate().isAfter(first)) {
+            first = from.toLocalDate();
+        }
+        LocalDate last = to.toLocalDate();
+        LocalDate horizon = LocalDate.now().plusDays(Constants.SCHEDULE_HORIZON_DAYS);
+        if (last.isAfter(horizon)) {
+            last = horizon;
+        }
+        if (first.isAfter(last)) {
+            return rides;
+        }
+
+        for (RideSchedule schedule : scheduleDAO.getSchedulesOverlapping(first, last)) {
+            if ((origin != null && !origin.equals(schedule.getOrigin()))
+                    || (destination != null && !destination.equals(schedule.getDestination()))) {
+                continue;
+            }
+            for (LocalDate date = first; !date.isAfter(last); date = date.plusDays(1)) {
+                LocalDateTime departure = date.atTime(schedule.getDepartureTime());
+                // Dates already materialized (before the window was shortened) are real rides
+                if (!schedule.runsOn(date) || departure.isBefore(from) || !departure.isBefore(to)
+                        || (schedule.getMaterializedThrough() != null
+                            && !date.isAfter(schedule.getMaterializedThrough()))) {
+                    continue;
+                }
+                rides.add(new Ride(0, schedule.getDriverId(), schedule.getDriverName(),
+                        schedule.getOrigin(), schedule.getDestination(), date, schedule.getDepartureTime(),
+                        schedule.getSeatsTotal(), schedule.getSeatsTotal(), schedule.getPricePerSeat(),
+                        "SCHEDULED", schedule.getVehicleInfo()));
+            }
+        }
+        return rides;
+    }
+
+    private int materializeThrough(LocalDate through) {
+        int total = 0;
+        List<RideSchedule> due;
+        do {
+            due = scheduleDAO.getDueSchedules(through, Constants.SCHEDULE_BATCH_SIZE);
+            int progressed = 0;
+            for (RideSchedule schedule : due) {
+                int created = materialize(schedule, through);
+                if (created >= 0) {
+                    total += created;
+                    progressed++;
+                }
+            }
+            // A batch that failed outright would come back again; stop instead of spinning
+            if (progressed == 0) {
+                break;
+            }
+        } while (due.size() == Constants.SCHEDULE_BATCH_SIZE);
+
+        if (total > 0) {
+            TripPlannerService.invalidate();
+            RideSearchService.invalidate();
+        }
+        return total;
+    }
+
+    private int materialize(RideSchedule schedule, LocalDate through) {
+        LocalDate from = schedule.getStartDate();
+        if (schedule.getMaterializedThrough() != null
+                && !schedule.getMaterializedThrough().isBefore(from)) {
+            from = schedule.getMaterializedThrough().plusDays(1);
+        }
+        LocalDate today = LocalDate.now();
+        if (from.isBefore(today)) {
+            from = today;
+        }
+
+        LocalDate last = through;
+        if (schedule.getEndDate() != null && schedule.getEndDate().isBefore(last)) {
+            last = schedule.getEndDate();
+        }
+
+        List<LocalDate> dates = new ArrayList<>();
+        for (LocalDate date = from; !date.isAfter(last); date = date.plusDays(1)) {
+            if (schedule.runsOn(date)) {
+                dates.add(date);
+            }
+        }
+
+        int created = scheduleDAO.materialize(schedule, dates, through);
+        if (created >= 0) {
+            schedule.setMaterializedThrough(through);
+        }
+        return created;
+    }
+
+    private LocalDate windowEnd() {
+        return LocalDate.now().plusDays(Constants.SCHEDULE_WINDOW_DAYS);
+    }
+
+    public void scheduleOn(MaintenanceScheduler scheduler) {
+        scheduler.schedule("ride-schedules", this::materializeWindow, 5, Constants.SCHEDULE_INTERVAL_SECONDS);
+    }
+}
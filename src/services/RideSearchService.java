@@ -0,0 +1,88 @@
+package services;
+
+import dao.RideDAO;
+import models.Ride;
+import utils.Constants;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Answers active-ride searches from a RideColumnStore snapshot instead of
+ * the database. The snapshot is rebuilt at most every
+ * SEARCH_SNAPSHOT_REFRESH_SECONDS, or sooner after invalidate(); seat
+ * counts of returned rides are taken from the SeatLedger when it has a
+ * current figure, so bookings show up without a rebuild.
+ */
+public class RideSearchService {
+
+    private static volatile RideColumnStore store;
+    private static volatile long builtAtMillis;
+    private static volatile long invalidatedAtMillis;
+
+    private RideDAO rideDAO;
+    private SeatLedger seatLedger;
+
+    public RideSearchService() {
+        this.rideDAO = new RideDAO();
+        this.seatLedger = SeatLedger.getInstance();
+    }
+
+    public List<Ride> search(String origin, String destination, LocalDateTime from, LocalDateTime to,
+                             int minSeats) {
+        return search(origin, destination, null, from, to, minSeats);
+    }
+
+    /**
+     * Active rides in departure order. Any of origin, destination, driver
+     * name, from and to may be null to leave that filter out.
+     */
+    public List<Ride> search(String origin, String destination, String driverName,
+                             LocalDateTime from, LocalDateTime to, int minSeats) {
+        RideColumnStore snapshot = getStore();
+        int[] rows = snapshot.match(origin, destination, driverName, from, to, minSeats);
+
+        List<Ride> rides = new ArrayList<>(rows.length);
+        for (int row : rows) {
+            int live = seatLedger.peekAvailable(snapshot.getRideId(row));
+            int seats = live >= 0 ? live : snapshot.getSeatsAvailable(row);
+            if (seats >= minSeats) {
+                rides.add(snapshot.toRide(row, seats));
+            }
+        }
+        return rides;
+    }
+
+    // Forces the next search to see newly posted, cancelled or completed rides
+    public static void invalidate() {
+        invalidatedAtMillis = System.currentTimeMillis();
+    }
+
+    private RideColumnStore getStore() {
+        RideColumnStore current = store;
+        if (current != null && isFresh()) {
+            return current;
+        }
+
+        synchronized (RideSearchService.class) {
+            if (store != null && isFresh()) {
+                return store;
+            }
+            // Stamped with the start of the scan so an invalidate() during the
+            // rebuild still forces the next one
+            long startedAt = System.currentTimeMillis();
+            RideColumnStore.Builder builder = new RideColumnStore.Builder();
+            rideDAO.forEachActiveRide(builder::add);
+            store = builder.build();
+            builtAtMillis = startedAt;
+            return store;
+        }
+    }
+
+    private static boolean isFresh() {
+        long builtAt = builtAtMillis;
+        return builtAt > invalidatedAtMillis
+            && System.currentTimeMillis() - builtAt < Constants.SEARCH_SNAPSHOT_REFRESH_SECONDS * 1000;
+    }
+}
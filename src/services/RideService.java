@@ -1,29 +1,77 @@
 package services;
 
+import models.Notification;
+import models.PriceSuggestion;
 import models.Ride;
 import models.RideRequest;
+import models.RideSchedule;
 import models.Driver;
 import models.Passenger;
+import models.RouteDemand;
 import dao.BookingDAO;
 import dao.RideDAO;
 import dao.RideRequestDAO;
 import dao.UserDAO;
+import utils.Constants;
+import utils.Metrics;
+import utils.Log;
+import utils.Logger;
 
+import java.time.DayOfWeek;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
 
 public class RideService {
+
+    private static final Logger LOG = Log.getLogger(RideService.class);
+
+    private static final Metrics.Counter POSTED = Metrics.counter("carpool_rides_posted_total", "kind", "single");
+    private static final Metrics.Counter POSTED_RECURRING = Metrics.counter("carpool_rides_posted_total", "kind", "recurring");
+    private static final Metrics.Counter POST_FAILED = Metrics.counter("carpool_ride_post_failures_total");
+    private static final Metrics.Counter CANCELLED = Metrics.counter("carpool_rides_cancelled_total");
+    private static final Metrics.Counter COMPLETED = Metrics.counter("carpool_rides_completed_total");
+
+    private static final Metrics.Counter SEARCH_ALL = Metrics.counter("carpool_ride_searches_total", "by", "all");
+    private static final Metrics.Counter SEARCH_DESTINATION = Metrics.counter("carpool_ride_searches_total", "by", "destination");
+    private static final Metrics.Counter SEARCH_ROUTE = Metrics.counter("carpool_ride_searches_total", "by", "route");
+    private static final Metrics.Counter SEARCH_DRIVER = Metrics.counter("carpool_ride_searches_total", "by", "driver");
+    private static final Metrics.Counter SEARCH_TIME_WINDOW = Metrics.counter("carpool_ride_searches_total", "by", "time_window");
+    private static final Metrics.Timer SEARCH_TIME = Metrics.timer("carpool_ride_search_duration_seconds");
+    private static final Metrics.Timer POST_TIME = Metrics.timer("carpool_ride_post_duration_seconds");
+
+    private static final Metrics.Counter REQUESTS_POSTED = Metrics.counter("carpool_ride_requests_posted_total");
+    private static final Metrics.Counter REQUESTS_CANCELLED = Metrics.counter("carpool_ride_requests_cancelled_total");
+    private static final Metrics.Counter REQUEST_MATCHES = Metrics.counter("carpool_ride_request_matches_total");
     
     private RideDAO rideDAO;
+    private RideRequestDAO rideRequestDAO;
+    private RideScheduleService scheduleService;
+    private RideSearchService searchService;
+    private FuzzySearchService fuzzySearch;
+    private DemandTracker demandTracker;
 
     public RideService() {
         this.rideDAO = new RideDAO();
+        this.rideRequestDAO = new RideRequestDAO();
+        this.scheduleService = new RideScheduleService();
+        this.searchService = new RideSearchService();
+        this.fuzzySearch = new FuzzySearchService();
+        this.demandTracker = DemandTracker.getInstance();
     }
 
     public RideService(RideDAO rideDAO, RideRequestDAO rideRequestDAO, UserDAO userDAO) {
         this.rideDAO = rideDAO;
+        this.rideRequestDAO = rideRequestDAO;
+        this.scheduleService = new RideScheduleService();
+        this.searchService = new RideSearchService();
+        this.fuzzySearch = new FuzzySearchService();
+        this.demandTracker = DemandTracker.getInstance();
     }
 
     public boolean createRide(Ride ride) {
@@ -34,24 +82,27 @@ public class RideService {
         Ride ride = rideDAO.getRideById(rideId);
         
         if (ride == null) {
-            System.err.println("Ride not found");
+            LOG.warn("Ride not found");
             return false;
         }
 
         if (ride.getDriverId() != driverId) {
-            System.err.println("Only the driver who posted can cancel the ride");
+            LOG.warn("Only the driver who posted can cancel the ride");
             return false;
         }
 
         if (!ride.isActive()) {
-            System.err.println("Ride is not active");
+            LOG.warn("Ride is not active");
             return false;
         }
 
         ride.cancelRide();
-        boolean success = rideDAO.updateRide(ride);
+        boolean success = rideDAO.cancelRide(rideId);
+        SeatLedger.getInstance().invalidate(rideId);
+        RideSearchService.invalidate();
 
         if (success) {
+            CANCELLED.increment();
             notifyPassengersOfCancellation(ride);
         }
 
@@ -59,7 +110,7 @@ public class RideService {
     }
 
     public List<Ride> getAllActiveRides() {
-        return rideDAO.getAllActiveRides();
+        return timed(SEARCH_ALL, () -> searchService.search(null, null, null, null, 0));
     }
 
     public List<Ride> getRidesByDriver(int driverId) {
@@ -83,21 +134,109 @@ public class RideService {
     }
 
     private void notifyPassengersOfCancellation(Ride ride) {
-        System.out.println("Passengers have been notified that the ride from "
-                            + ride.getPickupLocation() + " to "
-                                + ride.getDropoffLocation() + " has been cancelled.");
+        LOG.info("Passengers notified of cancelled ride", "rideId", ride.getId(),
+                 "from", ride.getPickupLocation(), "to", ride.getDropoffLocation());
     }
 
+    // Free-text place names are resolved to the closest known place first
     public List<Ride> searchRidesByDestination(String destination) {
-        return rideDAO.getRidesByDestination(destination);
+        return timed(SEARCH_DESTINATION, () -> searchService.search(null, resolvePlace(destination), null, null, 0));
     }
 
     public List<Ride> searchRidesByRoute(String origin, String destination) {
-        return rideDAO.getRidesByRoute(origin, destination);
+        return timed(SEARCH_ROUTE, () -> searchService.search(resolvePlace(origin), resolvePlace(destination),
+                                                              null, null, 0));
+    }
+
+    public List<Ride> searchRidesByDriver(String driverName) {
+        return timed(SEARCH_DRIVER, () -> {
+            String driver = fuzzySearch.resolveDriver(driverName);
+            return searchService.search(null, null, driver != null ? driver : driverName, null, null, 0);
+        });
+    }
+
+    private static List<Ride> timed(Metrics.Counter searches, Supplier<List<Ride>> search) {
+        searches.increment();
+        long start = SEARCH_TIME.start();
+        try {
+            return search.get();
+        } finally {
+            SEARCH_TIME.stop(start);
+        }
+    }
+
+    private String resolvePlace(String text) {
+        String place = fuzzySearch.resolvePlace(text);
+        return place != null ? place : text;
+    }
+
+    /**
+     * Counts a passenger's search towards route demand. Only searches for a
+     * known destination count; an origin that isn't a known place is read
+     * as "from anywhere". Without a time the search is taken to mean now.
+     */
+    public void recordSearchDemand(int userId, String origin, String destination, LocalDateTime when) {
+        String to = isBlank(destination) ? null : fuzzySearch.resolvePlace(destination);
+        if (to == null) {
+            return;
+        }
+        String from = isBlank(origin) ? null : fuzzySearch.resolvePlace(origin);
+        demandTracker.recordSearch(userId, from != null ? from : RouteDemand.ANY_ORIGIN, to,
+                                   when != null ? when : LocalDateTime.now());
+    }
+
+    public void recordRequestDemand(String origin, String destination, LocalDateTime when) {
+        String from = fuzzySearch.resolvePlace(origin);
+        String to = fuzzySearch.resolvePlace(destination);
+        demandTracker.recordRequest(from != null ? from : origin, to != null ? to : destination, when);
+    }
+
+    public List<RouteDemand> getPopularRoutes(int limit) {
+        return demandTracker.topRoutes(limit);
+    }
+
+    private static boolean isBlank(String text) {
+        return text == null || text.trim().isEmpty();
+    }
+
+    public List<String> suggestPlaces(String prefix) {
+        return fuzzySearch.suggestPlaces(prefix, Constants.SEARCH_SUGGESTION_LIMIT);
+    }
+
+    public List<String> suggestDrivers(String prefix) {
+        return fuzzySearch.suggestDrivers(prefix, Constants.SEARCH_SUGGESTION_LIMIT);
     }
 
     public List<Ride> searchRidesByDate(LocalDate date) {
-        return rideDAO.getRidesByDate(date);
+        return searchRidesDepartingBetween(date.atStartOfDay(), date.plusDays(1).atStartOfDay());
+    }
+
+    public List<Ride> searchRidesDepartingBetween(LocalDateTime from, LocalDateTime to) {
+        return timed(SEARCH_TIME_WINDOW, () -> withProjected(searchService.search(null, null, from, to, 0),
+                                                         null, null, from, to));
+    }
+
+    public List<Ride> searchRidesByRouteDepartingBetween(String origin, String destination,
+                                                         LocalDateTime from, LocalDateTime to) {
+        return timed(SEARCH_TIME_WINDOW, () -> {
+            String originPlace = resolvePlace(origin);
+            String destinationPlace = resolvePlace(destination);
+            return withProjected(searchService.search(originPlace, destinationPlace, from, to, 0),
+                                 originPlace, destinationPlace, from, to);
+        });
+    }
+
+    // Adds recurring rides past the materialized window, keeping departure order
+    private List<Ride> withProjected(List<Ride> rides, String origin, String destination,
+                                     LocalDateTime from, LocalDateTime to) {
+        List<Ride> projected = scheduleService.projectRides(origin, destination, from, to);
+        if (projected.isEmpty()) {
+            return rides;
+        }
+        List<Ride> merged = new ArrayList<>(rides);
+        merged.addAll(projected);
+        merged.sort(Comparator.comparing(Ride::getDepartureDate).thenComparing(Ride::getDepartureTime));
+        return merged;
     }
 
     public Ride postRide(Driver driver, String origin, String destination,
@@ -121,44 +260,147 @@ public class RideService {
                 vehicleInfo
         );
 
+        long start = POST_TIME.start();
         boolean success = rideDAO.createRide(ride);
+        POST_TIME.stop(start);
+        if (success) {
+            POSTED.increment();
+            TripPlannerService.invalidate();
+            RideSearchService.invalidate();
+            FuzzySearchService.invalidate();
+            notifyMatchingRequests(ride);
+        } else {
+            POST_FAILED.increment();
+        }
 
         return success ? ride : null;
     }
 
+    public RideSchedule postRecurringRide(Driver driver, String origin, String destination,
+                                          Set<DayOfWeek> days, LocalTime departureTime,
+                                          int seatsTotal, double pricePerSeat,
+                                          LocalDate startDate, LocalDate endDate) {
+        RideSchedule schedule = scheduleService.createSchedule(driver, origin, destination, days, departureTime,
+                                                               seatsTotal, pricePerSeat, startDate, endDate);
+        (schedule != null ? POSTED_RECURRING : POST_FAILED).increment();
+        return schedule;
+    }
+
+    public List<RideSchedule> getSchedulesByDriver(int driverId) {
+        return scheduleService.getSchedulesByDriver(driverId);
+    }
+
+    public boolean stopRecurringRide(int scheduleId, int driverId) {
+        return scheduleService.stopSchedule(scheduleId, driverId);
+    }
+
     public boolean completeRide(int rideId, int driverId) {
         Ride ride = rideDAO.getRideById(rideId);
         if (ride != null && ride.getDriverId() == driverId) {
             ride.markAsCompleted();
-            return rideDAO.updateRide(ride);
+            boolean success = rideDAO.completeRide(rideId);
+            SeatLedger.getInstance().invalidate(rideId);
+            RideSearchService.invalidate();
+            if (success) {
+                COMPLETED.increment();
+                PricingService.getInstance().refresh();
+            }
+            return success;
         }
         return false;
     }
 
+    public PriceSuggestion suggestPrice(String origin, String destination, LocalDate date, LocalTime time) {
+        return PricingService.getInstance().suggest(origin, destination, date.atTime(time));
+    }
+
     public RideRequest postRideRequest(Passenger passenger, String origin, String destination,
                                     LocalDate preferredDate, LocalTime preferredTime,
                                     int seatsRequested, String notes) {
-        return null;
+        if (seatsRequested <= 0) {
+            LOG.warn("Must request at least 1 seat");
+            return null;
+        }
+        if (origin.equalsIgnoreCase(destination)) {
+            LOG.warn("Origin and destination must be different");
+            return null;
+        }
+        if (preferredDate.isBefore(LocalDate.now())) {
+            LOG.warn("Cannot request a ride in the past");
+            return null;
+        }
+
+        RideRequest request = new RideRequest(passenger.getId(), passenger.getName(), origin, destination,
+                                              preferredDate, preferredTime, seatsRequested, notes);
+        if (!rideRequestDAO.createRideRequest(request)) {
+            return null;
+        }
+        REQUESTS_POSTED.increment();
+        return request;
     }
 
     public boolean cancelRideRequest(int requestId, int passengerId) {
-        return false;
+        boolean success = rideRequestDAO.cancelPendingRequest(requestId, passengerId);
+        if (success) {
+            REQUESTS_CANCELLED.increment();
+        }
+        return success;
     }
 
     public List<RideRequest> getAllPendingRequests() {
-        return new ArrayList<>();
+        return rideRequestDAO.getAllPendingRequests();
     }
 
     public List<RideRequest> getRequestsByPassenger(int passengerId) {
-        return new ArrayList<>();
+        return rideRequestDAO.getRequestsByPassenger(passengerId);
     }
 
     public List<Ride> findMatchingRidesForRequest(RideRequest request) {
-        return new ArrayList<>();
+        LocalDateTime preferred = request.getPreferredDate().atTime(request.getPreferredTime());
+        LocalDate day = request.getPreferredDate();
+        LocalDateTime from = max(preferred.minusMinutes(Constants.REQUEST_MATCH_WINDOW_MINUTES), day.atStartOfDay());
+        LocalDateTime to = min(preferred.plusMinutes(Constants.REQUEST_MATCH_WINDOW_MINUTES), day.atTime(LocalTime.MAX));
+        return searchService.search(request.getOrigin(), request.getDestination(), from, to,
+                                    request.getSeatsRequested());
     }
 
+    // Window kept within the ride's day, as requests only match rides on their preferred date
     public List<RideRequest> findMatchingRequestsForRide(Ride ride) {
-        return new ArrayList<>();
+        LocalDateTime departure = ride.getDepartureDate().atTime(ride.getDepartureTime());
+        LocalDate day = ride.getDepartureDate();
+        LocalDateTime from = max(departure.minusMinutes(Constants.REQUEST_MATCH_WINDOW_MINUTES), day.atStartOfDay());
+        LocalDateTime to = min(departure.plusMinutes(Constants.REQUEST_MATCH_WINDOW_MINUTES), day.atTime(LocalTime.MAX));
+        return rideRequestDAO.findPendingMatches(ride, from.toLocalTime(), to.toLocalTime());
+    }
+
+    /**
+     * Tells every passenger with a pending request this ride can serve. The
+     * requests stay pending until the passenger books, since other rides may
+     * suit them better.
+     */
+    private void notifyMatchingRequests(Ride ride) {
+        List<RideRequest> matches = findMatchingRequestsForRide(ride);
+        if (matches.isEmpty()) {
+            return;
+        }
+        String message = "A ride matching your request was posted: " + ride.getOrigin() + " -> " +
+                         ride.getDestination() + " on " + ride.getFormattedDepartureDateTime() +
+                         " (ride #" + ride.getId() + ")";
+        List<Notification> notifications = new ArrayList<>(matches.size());
+        for (RideRequest request : matches) {
+            notifications.add(new Notification(request.getPassengerId(), message));
+        }
+        NotificationDispatcher.getInstance().dispatchAll(notifications);
+        REQUEST_MATCHES.add(matches.size());
+        LOG.info("Notified passengers of a matching ride", "rideId", ride.getId(), "requests", matches.size());
+    }
+
+    private static LocalDateTime max(LocalDateTime a, LocalDateTime b) {
+        return a.isAfter(b) ? a : b;
+    }
+
+    private static LocalDateTime min(LocalDateTime a, LocalDateTime b) {
+        return a.isBefore(b) ? a : b;
     }
 
 }
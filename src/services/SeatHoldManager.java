@@ -0,0 +1,228 @@
+package services;
+
+import dao.SeatHoldDAO;
+import models.SeatHold;
+import utils.Constants;
+import utils.Metrics;
+import utils.TimerWheel;
+import utils.Log;
+import utils.Logger;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the seats a passenger picked in the booking dialog reserved for a
+ * short TTL. The seats leave rides.seats_available when the hold is placed,
+ * so nobody else can take them; confirming turns the hold into a booking and
+ * an expired hold gives them back. Holds on the same ride are serialised by
+ * a striped lock so expiry can never race a confirm or a second hold.
+ */
+public class SeatHoldManager {
+
+    private static final Logger LOG = Log.getLogger(SeatHoldManager.class);
+
+    private static SeatHoldManager instance;
+
+    private final SeatHoldDAO seatHoldDAO;
+    private final SeatLedger seatLedger;
+    private final Map<Integer, SeatHold> holds = new ConcurrentHashMap<>();
+    // Mutated only under the ride's stripe lock
+    private final Map<Integer, List<SeatHold>> holdsByRide = new ConcurrentHashMap<>();
+    private final Map<Integer, TimerWheel.Timeout<Integer>> timeouts = new ConcurrentHashMap<>();
+    private final Object[] stripes;
+    private final TimerWheel<Integer> wheel;
+
+    private SeatHoldManager() {
+        this.seatHoldDAO = new SeatHoldDAO();
+        this.seatLedger = SeatLedger.getInstance();
+        this.stripes = new Object[Constants.SEAT_HOLD_LOCK_STRIPES];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Object();
+        }
+        this.wheel = new TimerWheel<>("carpool-seat-holds", Constants.TIMER_WHEEL_TICK_MS,
+                                      Constants.TIMER_WHEEL_SLOTS, this::expire);
+        Metrics.gauge("carpool_seat_holds_active", holds::size);
+    }
+
+    public static synchronized SeatHoldManager getInstance() {
+        if (instance == null) {
+            instance = new SeatHoldManager();
+        }
+        return instance;
+    }
+
+    private Object lockFor(int rideId) {
+        return stripes[Math.floorMod(rideId, stripes.length)];
+    }
+
+    /**
+     * Reserves seats on a ride for Constants.SEAT_HOLD_TTL_SECONDS. A passenger
+     * holds at most one set of seats per ride, so an earlier hold is replaced.
+     * Returns null if the seats are no longer available.
+     */
+    public SeatHold placeHold(int passengerId, int rideId, int seats) {
+        synchronized (lockFor(rideId)) {
+            SeatHold existing = findHold(passengerId, rideId);
+            if (existing != null) {
+                release(existing);
+            }
+
+            // Turn a sold-out ride away before taking the write lock
+            if (!seatLedger.tryReserve(rideId, seats)) {
+                return null;
+            }
+
+            LocalDateTime expiresAt = LocalDateTime.now().withNano(0)
+                                                   .plusSeconds(Constants.SEAT_HOLD_TTL_SECONDS);
+            SeatHold hold = seatHoldDAO.createHold(rideId, passengerId, seats, expiresAt);
+            if (hold != null) {
+                seatLedger.persisted(rideId, seats);
+                track(hold);
+            } else {
+                seatLedger.failed(rideId, seats);
+            }
+            return hold;
+        }
+    }
+
+    public boolean confirmHold(int holdId, int passengerId) {
+        SeatHold hold = holds.get(holdId);
+        return hold != null && confirmHold(holdId, passengerId, hold.getSeats());
+    }
+
+    /**
+     * Books seatsToBook of the held seats; any remainder goes back to the ride.
+     * Fails if the hold has already expired or been released.
+     */
+    public boolean confirmHold(int holdId, int passengerId, int seatsToBook) {
+        SeatHold hold = holds.get(holdId);
+        if (hold == null || hold.getPassengerId() != passengerId
+                || seatsToBook <= 0 || seatsToBook > hold.getSeats()) {
+            return false;
+        }
+
+        synchronized (lockFor(hold.getRideId())) {
+            if (holds.get(holdId) != hold || hold.isExpired()) {
+                return false;
+            }
+            if (!seatHoldDAO.convertHold(holdId, passengerId, seatsToBook)) {
+                // Booked elsewhere in the meantime: the held seats go straight back
+                release(hold);
+                return false;
+            }
+            untrack(holdId);
+            if (seatsToBook < hold.getSeats()) {
+                seatLedger.invalidate(hold.getRideId());
+            }
+            return true;
+        }
+    }
+
+    public boolean releaseHold(int holdId) {
+        SeatHold hold = holds.get(holdId);
+        if (hold == null) {
+            return false;
+        }
+        synchronized (lockFor(hold.getRideId())) {
+            return holds.get(holdId) == hold && release(hold);
+        }
+    }
+
+    public SeatHold getHold(int holdId) {
+        return holds.get(holdId);
+    }
+
+    public int getHeldSeats(int rideId) {
+        synchronized (lockFor(rideId)) {
+            int held = 0;
+            for (SeatHold hold : holdsByRide.getOrDefault(rideId, Collections.emptyList())) {
+                held += hold.getSeats();
+            }
+            return held;
+        }
+    }
+
+    /**
+     * Called once at startup: holds that lapsed while the app was down give
+     * their seats back, the rest get timers for whatever TTL they have left.
+     */
+    public void recover() {
+        int released = seatHoldDAO.releaseExpiredHolds(LocalDateTime.now().withNano(0));
+        int restored = 0;
+        for (SeatHold hold : seatHoldDAO.getAllHolds()) {
+            synchronized (lockFor(hold.getRideId())) {
+                if (!holds.containsKey(hold.getId())) {
+                    track(hold);
+                    restored++;
+                }
+            }
+        }
+        if (released + restored > 0) {
+            LOG.info("Seat holds recovered", "active", restored, "released", released);
+        }
+    }
+
+    public void shutdown() {
+        wheel.stop();
+    }
+
+    // Runs on the timer wheel thread
+    private void expire(int holdId) {
+        SeatHold hold = holds.get(holdId);
+        if (hold == null) {
+            return;
+        }
+        synchronized (lockFor(hold.getRideId())) {
+            if (holds.get(holdId) == hold) {
+                release(hold);
+            }
+        }
+    }
+
+    // Callers of release/track/untrack hold the ride's stripe lock
+    private boolean release(SeatHold hold) {
+        untrack(hold.getId());
+        boolean released = seatHoldDAO.releaseHold(hold.getId());
+        seatLedger.invalidate(hold.getRideId());
+        return released;
+    }
+
+    private void track(SeatHold hold) {
+        holds.put(hold.getId(), hold);
+        holdsByRide.computeIfAbsent(hold.getRideId(), id -> new ArrayList<>()).add(hold);
+        long delayMillis = Duration.between(LocalDateTime.now(), hold.getExpiresAt()).toMillis();
+        timeouts.put(hold.getId(), wheel.schedule(hold.getId(), delayMillis));
+    }
+
+    private void untrack(int holdId) {
+        SeatHold hold = holds.remove(holdId);
+        if (hold != null) {
+            List<SeatHold> rideHolds = holdsByRide.get(hold.getRideId());
+            if (rideHolds != null) {
+                rideHolds.remove(hold);
+                if (rideHolds.isEmpty()) {
+                    holdsByRide.remove(hold.getRideId());
+                }
+            }
+        }
+        TimerWheel.Timeout<Integer> timeout = timeouts.remove(holdId);
+        if (timeout != null) {
+            timeout.cancel();
+        }
+    }
+
+    private SeatHold findHold(int passengerId, int rideId) {
+        for (SeatHold hold : holdsByRide.getOrDefault(rideId, Collections.emptyList())) {
+            if (hold.getPassengerId() == passengerId) {
+                return hold;
+            }
+        }
+        return null;
+    }
+}
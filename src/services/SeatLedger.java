@@ -0,0 +1,301 @@
+package services;
+
+import dao.BookingDAO;
+import dao.RideDAO;
+import utils.Constants;
+import utils.Metrics;
+import utils.Log;
+import utils.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-memory seat counts for active rides, consulted before any booking
+ * touches the database. A request for more seats than the ledger shows is
+ * rejected without taking the SQLite write lock; an admitted request is
+ * handed to a single writer thread that commits queued bookings together
+ * (group commit), so a burst on one popular ride costs a handful of
+ * transactions instead of one per click.
+ *
+ * The database stays the source of truth: every write re-checks
+ * seats_available in SQL, callers are only told "booked" after the commit,
+ * and the ledger is rebuilt from the rides table on restart. Any path that
+ * changes seats outside the ledger calls invalidate(rideId) afterwards.
+ */
+public class SeatLedger {
+
+    private static final Logger LOG = Log.getLogger(SeatLedger.class);
+
+    private static SeatLedger instance;
+
+    private final RideDAO rideDAO;
+    private final BookingDAO bookingDAO;
+    private final Object[] stripes;
+    // Guarded by the ride's stripe lock
+    private final Map<Integer, Entry> entries = new ConcurrentHashMap<>();
+    private final BlockingQueue<BookCommand> writeQueue = new LinkedBlockingQueue<>();
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    private SeatLedger() {
+        this.rideDAO = new RideDAO();
+        this.bookingDAO = new BookingDAO();
+        this.stripes = new Object[Constants.SEAT_LEDGER_LOCK_STRIPES];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Object();
+        }
+        this.writer = new Thread(this::runWriter, "carpool-seat-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+        Metrics.gauge("carpool_seat_write_queue_depth", writeQueue::size);
+    }
+
+    public static synchronized SeatLedger getInstance() {
+        if (instance == null) {
+            instance = new SeatLedger();
+        }
+        return instance;
+    }
+
+    private Object lockFor(int rideId) {
+        return stripes[Math.floorMod(rideId, stripes.length)];
+    }
+
+    // Loads every active ride's seat count; anything not loaded here is read on first use
+    public void recover() {
+        Map<Integer, Integer> seats = rideDAO.getActiveSeatCounts();
+        for (Map.Entry<Integer, Integer> e : seats.entrySet()) {
+            synchronized (lockFor(e.getKey())) {
+                entries.putIfAbsent(e.getKey(), new Entry(e.getValue()));
+            }
+        }
+    }
+
+    /**
+     * Takes seats out of the ledger if they are there. Every successful call
+     * must be followed by exactly one persisted() or failed() for the same seats.
+     */
+    public boolean tryReserve(int rideId, int seats) {
+        synchronized (lockFor(rideId)) {
+            Entry entry = load(rideId);
+            if (entry == null || entry.available < seats) {
+                return false;
+            }
+            entry.available -= seats;
+            entry.inFlight += seats;
+            return true;
+        }
+    }
+
+    // The reserved seats are now reflected in rides.seats_available
+    public void persisted(int rideId, int seats) {
+        synchronized (lockFor(rideId)) {
+            Entry entry = entries.get(rideId);
+            if (entry != null) {
+                entry.inFlight -= seats;
+            }
+        }
+    }
+
+    // The write was rejected by the database; re-read the ride on next use
+    public void failed(int rideId, int seats) {
+        synchronized (lockFor(rideId)) {
+            Entry entry = entries.get(rideId);
+            if (entry != null) {
+                entry.inFlight -= seats;
+                entry.stale = true;
+            }
+        }
+    }
+
+    // Seats changed outside the ledger (cancellation, hold, ride status change)
+    public void invalidate(int rideId) {
+        synchronized (lockFor(rideId)) {
+            Entry entry = entries.get(rideId);
+            if (entry != null) {
+                entry.stale = true;
+            }
+        }
+    }
+
+    public int getAvailable(int rideId) {
+        synchronized (lockFor(rideId)) {
+            Entry entry = load(rideId);
+            return entry != null ? entry.available : 0;
+        }
+    }
+
+    // Seats left if the ledger has a current count for the ride, or -1; never reads the database
+    public int peekAvailable(int rideId) {
+        synchronized (lockFor(rideId)) {
+            Entry entry = entries.get(rideId);
+            return entry != null && !entry.stale ? entry.available : -1;
+        }
+    }
+
+    /**
+     * Reserves in the ledger, queues the booking for the writer and waits for
+     * its commit. Returns false immediately if the ledger shows too few seats.
+     * A booking still queued when the wait times out is withdrawn, so false
+     * always means nothing was booked.
+     */
+    public boolean book(int passengerId, int rideId, int seats) {
+        if (!tryReserve(rideId, seats)) {
+            return false;
+        }
+
+        BookCommand command = new BookCommand(passengerId, rideId, seats);
+        writeQueue.add(command);
+        try {
+            try {
+                return command.result.get(Constants.SEAT_WRITE_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                if (command.abandon()) {
+                    failed(rideId, seats);
+                    LOG.warn("Booking write timed out before it started", "rideId", rideId, "passengerId", passengerId);
+                    return false;
+                }
+                // The writer already has it in a transaction; its outcome is the answer
+                return command.result.get();
+            }
+        } catch (Exception e) {
+            LOG.error("Booking write did not complete", e);
+            return false;
+        }
+    }
+
+    public void shutdown() {
+        running = false;
+        writer.interrupt();
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Caller holds the ride's stripe lock
+    private Entry load(int rideId) {
+        Entry entry = entries.get(rideId);
+        if (entry != null && !entry.stale) {
+            return entry;
+        }
+
+        int dbSeats = rideDAO.getActiveSeatsAvailable(rideId);
+        if (dbSeats < 0) {
+            if (entry == null || entry.inFlight == 0) {
+                entries.remove(rideId);
+                return null;
+            }
+            dbSeats = 0;
+        }
+
+        int inFlight = entry != null ? entry.inFlight : 0;
+        Entry fresh = new Entry(Math.max(dbSeats - inFlight, 0));
+        fresh.inFlight = inFlight;
+        // Some in-flight seats may already be committed and so counted twice
+        // above; stay stale until they settle rather than keep the undercount
+        fresh.stale = inFlight > 0;
+        entries.put(rideId, fresh);
+        return fresh;
+    }
+
+    private void runWriter() {
+        List<BookCommand> batch = new ArrayList<>(Constants.SEAT_WRITE_BATCH_SIZE);
+        while (running || !writeQueue.isEmpty()) {
+            try {
+                BookCommand first = running ? writeQueue.take() : writeQueue.poll();
+                if (first == null) {
+                    break;
+                }
+                batch.add(first);
+            } catch (InterruptedException e) {
+                continue;
+            }
+            writeQueue.drainTo(batch, Constants.SEAT_WRITE_BATCH_SIZE - 1);
+            commit(batch);
+            batch.clear();
+        }
+    }
+
+    private void commit(List<BookCommand> queued) {
+        List<BookCommand> batch = new ArrayList<>(queued.size());
+        for (BookCommand c : queued) {
+            if (c.claim()) {
+                batch.add(c);
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        int size = batch.size();
+        int[] rideIds = new int[size];
+        int[] passengerIds = new int[size];
+        int[] seats = new int[size];
+        for (int i = 0; i < size; i++) {
+            BookCommand c = batch.get(i);
+            rideIds[i] = c.rideId;
+            passengerIds[i] = c.passengerId;
+            seats[i] = c.seats;
+        }
+
+        boolean[] results = bookingDAO.createBookingsBatch(rideIds, passengerIds, seats);
+
+        for (int i = 0; i < size; i++) {
+            BookCommand c = batch.get(i);
+            boolean ok = results != null && results[i];
+            if (ok) {
+                persisted(c.rideId, c.seats);
+            } else {
+                failed(c.rideId, c.seats);
+            }
+            c.result.complete(ok);
+        }
+    }
+
+    private static class Entry {
+        int available;
+        int inFlight;
+        boolean stale;
+
+        Entry(int available) {
+            this.available = available;
+        }
+    }
+
+    private static class BookCommand {
+        final int passengerId;
+        final int rideId;
+        final int seats;
+        final CompletableFuture<Boolean> result = new CompletableFuture<>();
+        // QUEUED until either the writer claims it or the waiting caller gives up
+        private final AtomicInteger state = new AtomicInteger(QUEUED);
+
+        private static final int QUEUED = 0;
+        private static final int CLAIMED = 1;
+        private static final int ABANDONED = 2;
+
+        BookCommand(int passengerId, int rideId, int seats) {
+            this.passengerId = passengerId;
+            this.rideId = rideId;
+            this.seats = seats;
+        }
+
+        boolean claim() {
+            return state.compareAndSet(QUEUED, CLAIMED);
+        }
+
+        boolean abandon() {
+            return state.compareAndSet(QUEUED, ABANDONED);
+        }
+    }
+}
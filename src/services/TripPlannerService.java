@@ -0,0 +1,61 @@
+package services;
+
+import dao.DestinationDAO;
+import dao.RideDAO;
+import models.Destination;
+import models.Itinerary;
+import utils.Constants;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Multi-leg journeys over the active rides. The timetable is rebuilt from
+ * the database at most every TRIP_PLANNER_REFRESH_SECONDS and shared by all
+ * queries; planning itself never touches the database.
+ */
+public class TripPlannerService {
+
+    private static volatile RideNetwork network;
+    private static volatile long builtAtMillis;
+
+    private RideDAO rideDAO;
+    private DestinationDAO destinationDAO;
+
+    public TripPlannerService() {
+        this.rideDAO = new RideDAO();
+        this.destinationDAO = new DestinationDAO();
+    }
+
+    public List<Itinerary> planTrip(String origin, String destination, LocalDateTime earliest, int seats) {
+        return getNetwork().plan(origin, destination, earliest, seats, Constants.MAX_TRIP_LEGS);
+    }
+
+    // Forces the next query to see newly posted or booked rides
+    public static void invalidate() {
+        builtAtMillis = 0;
+    }
+
+    private RideNetwork getNetwork() {
+        long now = System.currentTimeMillis();
+        RideNetwork current = network;
+        if (current != null && now - builtAtMillis < Constants.TRIP_PLANNER_REFRESH_SECONDS * 1000) {
+            return current;
+        }
+
+        synchronized (TripPlannerService.class) {
+            if (network != null && now - builtAtMillis < Constants.TRIP_PLANNER_REFRESH_SECONDS * 1000) {
+                return network;
+            }
+            Map<String, Destination> places = new HashMap<>();
+            for (Destination d : destinationDAO.getAllDestinations()) {
+                places.put(d.getName(), d);
+            }
+            network = new RideNetwork(rideDAO.getAllActiveRides(), places);
+            builtAtMillis = System.currentTimeMillis();
+            return network;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package services;
+
+import dao.WaitlistDAO;
+import models.Ride;
+import models.WaitlistEntry;
+import utils.Log;
+import utils.Logger;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-ride FIFO waitlist. The queue itself lives in ride_waitlist (indexed
+ * by ride, status and id, so the head is one index seek); the number of
+ * passengers waiting on each ride is kept in memory so the UI can show it
+ * without a COUNT per row.
+ */
+public class WaitlistService {
+
+    private static final Logger LOG = Log.getLogger(WaitlistService.class);
+
+    private static WaitlistService instance;
+
+    private final WaitlistDAO waitlistDAO;
+    private final NotificationDispatcher dispatcher;
+    private final Map<Integer, Integer> waitingCounts = new ConcurrentHashMap<>();
+
+    private WaitlistService() {
+        this.waitlistDAO = new WaitlistDAO();
+        this.dispatcher = NotificationDispatcher.getInstance();
+        this.waitingCounts.putAll(waitlistDAO.getWaitingCounts());
+    }
+
+    public static synchronized WaitlistService getInstance() {
+        if (instance == null) {
+            instance = new WaitlistService();
+        }
+        return instance;
+    }
+
+    // Returns the passenger's 1-based position, or -1 on failure
+    public int joinWaitlist(int passengerId, Ride ride, int seatsRequested) {
+        if (seatsRequested <= 0 || seatsRequested > ride.getSeatsTotal()) {
+            LOG.warn("Invalid number of seats for waitlist");
+            return -1;
+        }
+
+        boolean alreadyWaiting = waitlistDAO.getPosition(ride.getId(), passengerId) > 0;
+        int position = waitlistDAO.joinWaitlist(ride.getId(), passengerId, seatsRequested);
+        if (position > 0 && !alreadyWaiting) {
+            waitingCounts.merge(ride.getId(), 1, Integer::sum);
+        }
+        return position;
+    }
+
+    public boolean leaveWaitlist(int passengerId, int rideId) {
+        if (!waitlistDAO.leaveWaitlist(rideId, passengerId)) {
+            return false;
+        }
+        decrement(rideId, 1);
+        return true;
+    }
+
+    public int getPosition(int passengerId, int rideId) {
+        return waitlistDAO.getPosition(rideId, passengerId);
+    }
+
+    public int getWaitingCount(int rideId) {
+        return waitingCounts.getOrDefault(rideId, 0);
+    }
+
+    // Called after a cancellation committed; promoted and dropped entries are already in the DB
+    public void onDequeued(List<WaitlistEntry> dequeued, Ride ride) {
+        for (WaitlistEntry entry : dequeued) {
+            decrement(entry.getRideId(), 1);
+            if (!"PROMOTED".equals(entry.getStatus())) {
+                continue;
+            }
+            String route = ride != null ? ride.getOrigin() + " → " + ride.getDestination() : "ride #" + entry.getRideId();
+            dispatcher.dispatch(entry.getPassengerId(),
+                "A seat opened up! You've been booked on " + route + " (" +
+                entry.getSeatsRequested() + " seat(s)).");
+        }
+    }
+
+    private void decrement(int rideId, int by) {
+        waitingCounts.computeIfPresent(rideId, (id, count) -> count > by ? count - by : null);
+    }
+}
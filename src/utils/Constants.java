@@ -8,6 +8,111 @@ public class Constants {
 
     public static final int MAX_WARNINGS = 2;
 
+    public static final int REPORTS_BEFORE_WARNING = 3;
+    public static final int WARNINGS_BEFORE_BLACKLIST = 3;
+    public static final int BLACKLIST_DAYS = 7;
+    public static final int REPORT_WINDOW_DAYS = 30;
+
+    public static final String REPORT_PENDING = "PENDING";
+    public static final String REPORT_REVIEWED = "REVIEWED";
+    public static final String REPORT_RESOLVED = "RESOLVED";
+
+    // Moderation queue priority = trust * w + reports against target * w + age in hours * w
+    public static final double MODERATION_TRUST_WEIGHT = 10.0;
+    public static final double MODERATION_TARGET_WEIGHT = 5.0;
+    public static final double MODERATION_AGE_WEIGHT = 0.5;
+    public static final int MODERATION_MAX_AGE_HOURS = 168;
+
+    // Background lifecycle sweep; override the cadence with -Dcarpool.sweep.interval.seconds=N
+    public static final long SWEEP_INTERVAL_SECONDS = 300;
+    public static final int SWEEP_BATCH_SIZE = 200;
+    public static final long SWEEP_BATCH_PAUSE_MS = 20;
+    public static final int RIDE_COMPLETE_GRACE_HOURS = 2;
+
+    // Archival of finished rides/bookings into the *_history tables
+    public static final int ARCHIVE_RETENTION_DAYS = 30;
+    public static final int ARCHIVE_CHUNK_SIZE = 500;
+    public static final long ARCHIVE_INTERVAL_SECONDS = 6 * 60 * 60;
+    public static final int VACUUM_PAGES_PER_RUN = 500;
+
+    // Seats reserved while the booking dialog is open
+    public static final int SEAT_HOLD_TTL_SECONDS = 120;
+    public static final int SEAT_HOLD_LOCK_STRIPES = 64;
+    public static final long TIMER_WHEEL_TICK_MS = 250;
+    public static final int TIMER_WHEEL_SLOTS = 512;
+
+    // In-memory seat ledger in front of the booking writes
+    public static final int SEAT_LEDGER_LOCK_STRIPES = 64;
+    public static final int SEAT_WRITE_BATCH_SIZE = 64;
+    public static final long SEAT_WRITE_TIMEOUT_MS = 5000;
+
+    // Trip planner
+    public static final int MIN_CONNECTION_MINUTES = 10;
+    public static final int DEFAULT_RIDE_DURATION_MINUTES = 30;
+    public static final double AVERAGE_SPEED_KMH = 45.0;
+    public static final double ROAD_DISTANCE_FACTOR = 1.3;
+    public static final int MAX_TRIP_LEGS = 3;
+    public static final long TRIP_PLANNER_REFRESH_SECONDS = 30;
+
+    // In-memory ride search
+    public static final long SEARCH_SNAPSHOT_REFRESH_SECONDS = 30;
+    public static final long FUZZY_INDEX_REFRESH_SECONDS = 5 * 60;
+    public static final int SEARCH_SUGGESTION_LIMIT = 8;
+    public static final int SEARCH_DEBOUNCE_MS = 250;
+
+    // Recurring ride schedules
+    public static final int SCHEDULE_WINDOW_DAYS = 14;
+    // Searches further out than this show no recurring rides at all
+    public static final int SCHEDULE_HORIZON_DAYS = 90;
+    public static final int SCHEDULE_BATCH_SIZE = 50;
+    public static final long SCHEDULE_INTERVAL_SECONDS = 60 * 60;
+
+    // Asynchronous logging; level via -Dcarpool.log.level, files under -Dcarpool.log.dir
+    public static final int LOG_RING_SIZE = 8192;
+    public static final long LOG_IDLE_WAIT_MS = 10;
+    public static final String LOG_DIR = "logs";
+    public static final long LOG_MAX_FILE_BYTES = 10L * 1024 * 1024;
+    public static final int LOG_MAX_FILES = 5;
+
+    // Metrics export; -Dcarpool.metrics.port=0 turns the HTTP endpoint off
+    public static final long METRICS_EXPORT_INTERVAL_SECONDS = 60;
+    public static final String METRICS_FILE = "metrics.prom";
+    public static final int METRICS_PORT = 9464;
+
+    // Analytics: scan chunks of days in parallel, refresh the latest day periodically
+    public static final int ANALYTICS_CHUNK_DAYS = 7;
+    public static final int ANALYTICS_PARALLELISM = 4;
+    public static final long ANALYTICS_REFRESH_INTERVAL_SECONDS = 15 * 60;
+
+    // Route demand: decayed counters for the busiest (route, hour-of-week) slots
+    public static final int DEMAND_CAPACITY = 1024;
+    public static final double DEMAND_HALF_LIFE_HOURS = 7 * 24;
+    public static final double DEMAND_REQUEST_WEIGHT = 5.0;
+    public static final long DEMAND_REPEAT_SECONDS = 10 * 60;
+    public static final long DEMAND_SNAPSHOT_INTERVAL_SECONDS = 5 * 60;
+    public static final int DEMAND_TOP_K = 10;
+
+    // Suggested prices: route history, blended with a distance fare while a route has few rides
+    public static final double DEFAULT_PRICE_PER_SEAT = 10.0;
+    public static final double PRICE_BASE_FARE = 4.0;
+    public static final double PRICE_PER_KM = 0.5;
+    public static final int PRICE_DISTANCE_WEIGHT_RIDES = 5;
+    public static final double PRICE_MAX_DEMAND_SURGE = 0.25;
+    public static final double PRICE_DEMAND_HALF_SURGE = 20.0;
+    public static final double PRICE_ROUNDING = 0.5;
+
+    // Profile ride history, fetched a page at a time as the list is scrolled
+    public static final int HISTORY_PAGE_SIZE = 25;
+
+    // A ride matches a request departing within this many minutes of its preferred time
+    public static final int REQUEST_MATCH_WINDOW_MINUTES = 120;
+
+    public static final String WAITLIST_WAITING = "WAITING";
+    public static final String WAITLIST_PROMOTED = "PROMOTED";
+    public static final String WAITLIST_CANCELLED = "CANCELLED";
+
+    public static final int NOTIFICATION_BATCH_SIZE = 100;
+
     public static final String STATUS_REQUESTED = "REQUESTED";
     public static final String STATUS_CONFIRMED = "CONFIRMED";
     public static final String STATUS_CANCELLED = "CANCELLED";
@@ -9,34 +9,47 @@ import java.io.File;
 
 public class DBConnection {
 
-    private static Connection conn = null;
-    private static final String DB_URL = "jdbc:sqlite:campuscarpool.db";
+    private static final Logger LOG = Log.getLogger(DBConnection.class);
+
+    // One connection per thread: DAOs close theirs after every call, and the
+    // background maintenance jobs must not close a connection the UI is using
+    private static final ThreadLocal<Connection> CONNECTIONS = new ThreadLocal<>();
+    // -Dcarpool.db=path points the app (or a load test) at another database file
+    private static final String DB_PATH = System.getProperty("carpool.db", "campuscarpool.db");
+    private static final String DB_URL = "jdbc:sqlite:" + DB_PATH;
+    private static final int BUSY_TIMEOUT_MS = 5000;
+
+    public static String getDatabasePath() {
+        return DB_PATH;
+    }
 
     public static Connection getConnection() {
+        Connection conn = CONNECTIONS.get();
         try {
             if (conn == null || conn.isClosed()) {
                 Class.forName("org.sqlite.JDBC");
                 conn = DriverManager.getConnection(DB_URL);
-                System.out.println("Database connected successfully!");
-                enableForeignKeys();
+                CONNECTIONS.set(conn);
+                LOG.debug("Database connected", "thread", Thread.currentThread().getName());
+                configureConnection(conn);
             }
         } catch (SQLException e) {
-            System.err.println("Database connection failed: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Database connection failed", e);
         } catch (ClassNotFoundException e) {
-            System.err.println("SQLite JDBC driver not found: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("SQLite JDBC driver not found", e);
         }
         return conn;
     }
 
-    private static void enableForeignKeys() {
+    private static void configureConnection(Connection conn) {
         try {
             Statement stmt = conn.createStatement();
             stmt.execute("PRAGMA foreign_keys = ON;");
+            // Wait for a concurrent writer (e.g. a maintenance batch) instead of failing with SQLITE_BUSY
+            stmt.execute("PRAGMA busy_timeout = " + BUSY_TIMEOUT_MS + ";");
             stmt.close();
         } catch (SQLException e) {
-            System.err.println("Failed to enable foreign keys: " + e.getMessage());
+            LOG.error("Failed to configure connection", e);
         }
     }
 
@@ -45,8 +58,7 @@ public class DBConnection {
             Statement stmt = getConnection().createStatement();
             return stmt.executeQuery(sql);
         } catch (SQLException e) {
-            System.err.println("Query failed: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Query failed", e);
             return null;
         }
     }
@@ -56,34 +68,36 @@ public class DBConnection {
             Statement stmt = getConnection().createStatement();
             return stmt.executeUpdate(sql);
         } catch (SQLException e) {
-            System.err.println("Update failed: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Update failed", e);
             return 0;
         }
     }
 
     public static void initializeDatabase() {
         try {
-            File dbFile = new File("campuscarpool.db");
+            File dbFile = new File(DB_PATH);
             boolean isFirstRun = !dbFile.exists();
             
             if (isFirstRun) {
-                System.out.println("First run detected. Initializing database...");
+                LOG.info("First run detected. Initializing database...");
                 runSchemaScript();
             } else {
-                System.out.println("Database already exists.");
+                LOG.info("Database already exists.");
             }
-            
+
+            runMigrations();
+
         } catch (Exception e) {
-            System.err.println("Database initialization failed: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Database initialization failed", e);
         }
     }
 
     private static void runSchemaScript() {
         try {
-            Statement stmt = conn.createStatement();
+            Statement stmt = getConnection().createStatement();
             stmt.execute("PRAGMA foreign_keys = ON;");
+            // Must precede the first CREATE TABLE; lets archival reclaim space page by page
+            stmt.execute("PRAGMA auto_vacuum = INCREMENTAL;");
 
             stmt.execute("CREATE TABLE IF NOT EXISTS users (" +
                 "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
@@ -201,28 +215,335 @@ public class DBConnection {
             stmt.execute("CREATE INDEX IF NOT EXISTS idx_ride_requests_status ON ride_requests(status)");
             
             stmt.close();
-            System.out.println("Database schema created successfully!");
+            LOG.info("Database schema created successfully!");
             
         } catch (SQLException e) {
-            System.err.println("Failed to create database schema: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Failed to create database schema", e);
+        }
+    }
+
+    // Tables added after the original schema. Every statement must be idempotent
+    // because this runs on each startup, including against existing databases.
+    private static void runMigrations() {
+        try {
+            Statement stmt = getConnection().createStatement();
+
+            stmt.execute("CREATE TABLE IF NOT EXISTS user_rating_stats (" +
+                "user_id INTEGER PRIMARY KEY, " +
+                "score_sum INTEGER NOT NULL DEFAULT 0, " +
+                "rating_count INTEGER NOT NULL DEFAULT 0, " +
+                "count_1 INTEGER NOT NULL DEFAULT 0, " +
+                "count_2 INTEGER NOT NULL DEFAULT 0, " +
+                "count_3 INTEGER NOT NULL DEFAULT 0, " +
+                "count_4 INTEGER NOT NULL DEFAULT 0, " +
+                "count_5 INTEGER NOT NULL DEFAULT 0, " +
+                "last_rated_at TEXT, " +
+                "FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE)");
+
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_ratings_to_user_time ON ratings(to_user_id, timestamp)");
+
+            boolean reportCountersExisted = tableExists(stmt, "user_report_counters");
+            stmt.execute("CREATE TABLE IF NOT EXISTS user_report_counters (" +
+                "user_id INTEGER PRIMARY KEY, " +
+                "pending_count INTEGER NOT NULL DEFAULT 0, " +
+                "reviewed_count INTEGER NOT NULL DEFAULT 0, " +
+                "resolved_count INTEGER NOT NULL DEFAULT 0, " +
+                "last_report_at TEXT, " +
+                "FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE)");
+
+            stmt.execute("CREATE TABLE IF NOT EXISTS user_report_daily (" +
+                "user_id INTEGER NOT NULL, " +
+                "day TEXT NOT NULL, " +
+                "report_count INTEGER NOT NULL DEFAULT 0, " +
+                "PRIMARY KEY (user_id, day), " +
+                "FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE) WITHOUT ROWID");
+            if (!reportCountersExisted) {
+                backfillReportCounters(stmt);
+            }
+
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_reports_status_time ON reports(status, timestamp)");
+
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_users_blacklist_until ON users(blacklist_until) " +
+                "WHERE blacklist_until IS NOT NULL");
+
+            stmt.execute("CREATE TABLE IF NOT EXISTS rides_history (" +
+                "id INTEGER PRIMARY KEY, " +
+                "driver_id INTEGER NOT NULL, " +
+                "driver_name TEXT NOT NULL, " +
+                "origin TEXT NOT NULL, " +
+                "destination TEXT NOT NULL, " +
+                "departure_date TEXT NOT NULL, " +
+                "departure_time TEXT NOT NULL, " +
+                "seats_available INTEGER NOT NULL, " +
+                "seats_total INTEGER NOT NULL, " +
+                "price_per_seat REAL DEFAULT 0.0, " +
+                "is_women_only INTEGER DEFAULT 0, " +
+                "status TEXT NOT NULL, " +
+                "vehicle_info TEXT, " +
+                "created_at TEXT, " +
+                "archived_at TEXT NOT NULL)");
+
+            stmt.execute("CREATE TABLE IF NOT EXISTS bookings_history (" +
+                "id INTEGER PRIMARY KEY, " +
+                "ride_id INTEGER NOT NULL, " +
+                "passenger_id INTEGER NOT NULL, " +
+                "status TEXT NOT NULL, " +
+                "seats_booked INTEGER NOT NULL, " +
+                "timestamp TEXT, " +
+                "archived_at TEXT NOT NULL)");
+
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_rides_history_driver ON rides_history(driver_id, departure_date)");
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_bookings_history_ride ON bookings_history(ride_id)");
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_bookings_history_passenger ON bookings_history(passenger_id)");
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_rides_status_date ON rides(status, departure_date)");
+
+            stmt.execute("CREATE TABLE IF NOT EXISTS seat_holds (" +
+                "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                "ride_id INTEGER NOT NULL, " +
+                "passenger_id INTEGER NOT NULL, " +
+                "seats INTEGER NOT NULL CHECK(seats > 0), " +
+                "expires_at TEXT NOT NULL, " +
+                "created_at TEXT DEFAULT CURRENT_TIMESTAMP, " +
+                "FOREIGN KEY (ride_id) REFERENCES rides(id) ON DELETE CASCADE, " +
+                "UNIQUE(ride_id, passenger_id))");
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_seat_holds_expires ON seat_holds(expires_at)");
+
+            stmt.execute("CREATE TABLE IF NOT EXISTS ride_waitlist (" +
+                "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                "ride_id INTEGER NOT NULL, " +
+                "passenger_id INTEGER NOT NULL, " +
+                "seats_requested INTEGER NOT NULL CHECK(seats_requested > 0), " +
+                "status TEXT NOT NULL DEFAULT 'WAITING' CHECK(status IN ('WAITING', 'PROMOTED', 'CANCELLED')), " +
+                "created_at TEXT DEFAULT CURRENT_TIMESTAMP, " +
+                "promoted_at TEXT, " +
+                "FOREIGN KEY (ride_id) REFERENCES rides(id) ON DELETE CASCADE, " +
+                "FOREIGN KEY (passenger_id) REFERENCES users(id) ON DELETE CASCADE, " +
+                "UNIQUE(ride_id, passenger_id))");
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_waitlist_ride_status ON ride_waitlist(ride_id, status, id)");
+
+            stmt.execute("CREATE TABLE IF NOT EXISTS notifications (" +
+                "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                "user_id INTEGER NOT NULL, " +
+                "message TEXT NOT NULL, " +
+                "created_at TEXT NOT NULL, " +
+                "read_at TEXT, " +
+                "FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE)");
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_notifications_unread ON notifications(user_id) " +
+                "WHERE read_at IS NULL");
+
+            stmt.execute("CREATE TABLE IF NOT EXISTS ride_schedules (" +
+                "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                "driver_id INTEGER NOT NULL, " +
+                "driver_name TEXT NOT NULL, " +
+                "origin TEXT NOT NULL, " +
+                "destination TEXT NOT NULL, " +
+                "days_mask INTEGER NOT NULL CHECK(days_mask > 0 AND days_mask < 128), " +
+                "departure_time TEXT NOT NULL, " +
+                "seats_total INTEGER NOT NULL CHECK(seats_total > 0), " +
+                "price_per_seat REAL DEFAULT 0.0, " +
+                "vehicle_info TEXT, " +
+                "start_date TEXT NOT NULL, " +
+                "end_date TEXT, " +
+                "active INTEGER NOT NULL DEFAULT 1, " +
+                "materialized_through TEXT, " +
+                "created_at TEXT DEFAULT CURRENT_TIMESTAMP, " +
+                "FOREIGN KEY (driver_id) REFERENCES users(id) ON DELETE CASCADE)");
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_ride_schedules_due ON ride_schedules(active, materialized_through)");
+
+            addColumnIfMissing(stmt, "rides", "schedule_id", "INTEGER REFERENCES ride_schedules(id) ON DELETE SET NULL");
+            // One ride per schedule per day, so materialization can be retried safely
+            stmt.execute("CREATE UNIQUE INDEX IF NOT EXISTS idx_rides_schedule_date ON rides(schedule_id, departure_date) " +
+                "WHERE schedule_id IS NOT NULL");
+
+            // Departure as epoch seconds (wall-clock time read as UTC) so time-window
+            // searches are a single index range instead of string comparisons
+            for (String table : new String[] {"rides", "rides_history"}) {
+                if (addColumnIfMissing(stmt, table, "departure_epoch", "INTEGER")) {
+                    stmt.executeUpdate("UPDATE " + table + " SET departure_epoch = " +
+                        "CAST(strftime('%s', departure_date || ' ' || departure_time) AS INTEGER)");
+                }
+            }
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_rides_status_departure ON rides(status, departure_epoch)");
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_rides_route_departure ON rides(origin, destination, departure_epoch) " +
+                "WHERE status = 'ACTIVE'");
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_rides_history_departure ON rides_history(departure_epoch)");
+
+            // Profile history pages walk a driver's rides newest first from a cursor
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_rides_driver_departure ON rides(driver_id, departure_epoch)");
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_rides_history_driver_departure ON rides_history(driver_id, departure_epoch)");
+
+            boolean statisticsExisted = tableExists(stmt, "user_statistics");
+            stmt.execute("CREATE TABLE IF NOT EXISTS user_statistics (" +
+                "user_id INTEGER PRIMARY KEY, " +
+                "rides_given INTEGER NOT NULL DEFAULT 0, " +
+                "rides_cancelled INTEGER NOT NULL DEFAULT 0, " +
+                "seats_filled INTEGER NOT NULL DEFAULT 0, " +
+                "passengers_carried INTEGER NOT NULL DEFAULT 0, " +
+                "revenue REAL NOT NULL DEFAULT 0.0, " +
+                "rides_taken INTEGER NOT NULL DEFAULT 0, " +
+                "bookings_cancelled INTEGER NOT NULL DEFAULT 0, " +
+                "FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE)");
+            if (!statisticsExisted) {
+                backfillUserStatistics(stmt);
+            }
+
+            // Materialized analytics; filled by the first AnalyticsService refresh
+            stmt.execute("CREATE TABLE IF NOT EXISTS analytics_route_daily (" +
+                "day TEXT NOT NULL, " +
+                "origin TEXT NOT NULL, " +
+                "destination TEXT NOT NULL, " +
+                "rides INTEGER NOT NULL DEFAULT 0, " +
+                "rides_cancelled INTEGER NOT NULL DEFAULT 0, " +
+                "seats_offered INTEGER NOT NULL DEFAULT 0, " +
+                "seats_filled INTEGER NOT NULL DEFAULT 0, " +
+                "bookings INTEGER NOT NULL DEFAULT 0, " +
+                "bookings_cancelled INTEGER NOT NULL DEFAULT 0, " +
+                "revenue REAL NOT NULL DEFAULT 0.0, " +
+                "PRIMARY KEY (day, origin, destination)) WITHOUT ROWID");
+            stmt.execute("CREATE TABLE IF NOT EXISTS analytics_driver_daily (" +
+                "day TEXT NOT NULL, " +
+                "driver_id INTEGER NOT NULL, " +
+                "driver_name TEXT, " +
+                "rides_given INTEGER NOT NULL DEFAULT 0, " +
+                "rides_cancelled INTEGER NOT NULL DEFAULT 0, " +
+                "seats_filled INTEGER NOT NULL DEFAULT 0, " +
+                "revenue REAL NOT NULL DEFAULT 0.0, " +
+                "PRIMARY KEY (day, driver_id)) WITHOUT ROWID");
+            stmt.execute("CREATE TABLE IF NOT EXISTS analytics_hour_daily (" +
+                "day TEXT NOT NULL, " +
+                "hour INTEGER NOT NULL CHECK(hour BETWEEN 0 AND 23), " +
+                "departures INTEGER NOT NULL DEFAULT 0, " +
+                "seats_filled INTEGER NOT NULL DEFAULT 0, " +
+                "PRIMARY KEY (day, hour)) WITHOUT ROWID");
+
+            stmt.execute("CREATE TABLE IF NOT EXISTS route_demand (" +
+                "origin TEXT NOT NULL, " +
+                "destination TEXT NOT NULL, " +
+                "hour_of_week INTEGER NOT NULL CHECK(hour_of_week BETWEEN 0 AND 167), " +
+                "score REAL NOT NULL, " +
+                "error REAL NOT NULL DEFAULT 0.0, " +
+                "snapshot_at TEXT NOT NULL, " +
+                "PRIMARY KEY (origin, destination, hour_of_week)) WITHOUT ROWID");
+
+            // Admins are flagged explicitly; grant with `java services.ModerationService <roll number>...`
+            addColumnIfMissing(stmt, "users", "is_admin", "INTEGER NOT NULL DEFAULT 0");
+
+            boolean baselinesExisted = tableExists(stmt, "route_price_baselines");
+            stmt.execute("CREATE TABLE IF NOT EXISTS route_price_baselines (" +
+                "origin TEXT NOT NULL, " +
+                "destination TEXT NOT NULL, " +
+                "rides INTEGER NOT NULL DEFAULT 0, " +
+                "price_sum REAL NOT NULL DEFAULT 0.0, " +
+                "seats_filled INTEGER NOT NULL DEFAULT 0, " +
+                "revenue REAL NOT NULL DEFAULT 0.0, " +
+                "version INTEGER NOT NULL DEFAULT 0, " +
+                "PRIMARY KEY (origin, destination)) WITHOUT ROWID");
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_route_price_baselines_version ON route_price_baselines(version)");
+            if (!baselinesExisted) {
+                backfillRoutePriceBaselines(stmt);
+            }
+
+            // Matching a newly posted ride against pending requests on its route and day
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_ride_requests_match ON ride_requests(" +
+                "origin COLLATE NOCASE, destination COLLATE NOCASE, preferred_date, preferred_time) " +
+                "WHERE status = 'PENDING'");
+
+            // Readers no longer block on the writer, so maintenance batches don't stall searches
+            stmt.execute("PRAGMA journal_mode = WAL");
+
+            stmt.close();
+
+        } catch (SQLException e) {
+            LOG.error("Failed to apply database migrations", e);
+        }
+    }
+
+    private static boolean tableExists(Statement stmt, String table) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery("SELECT 1 FROM sqlite_master WHERE type = 'table' AND name = '" + table + "'")) {
+            return rs.next();
+        }
+    }
+
+    // One-off: totals so far from both the live and the archived tiers
+    private static void backfillUserStatistics(Statement stmt) throws SQLException {
+        String allRides = "(SELECT id, driver_id, price_per_seat, status FROM rides " +
+            "UNION ALL SELECT id, driver_id, price_per_seat, status FROM rides_history)";
+        String allBookings = "(SELECT ride_id, passenger_id, seats_booked, status FROM bookings " +
+            "UNION ALL SELECT ride_id, passenger_id, seats_booked, status FROM bookings_history)";
+
+        stmt.executeUpdate("INSERT INTO user_statistics (user_id, rides_given, seats_filled, passengers_carried, revenue) " +
+            "SELECT r.driver_id, COUNT(DISTINCT r.id), COALESCE(SUM(b.seats_booked), 0), COUNT(b.ride_id), " +
+            "COALESCE(SUM(b.seats_booked * r.price_per_seat), 0) " +
+            "FROM " + allRides + " r LEFT JOIN " + allBookings + " b ON b.ride_id = r.id AND b.status <> 'CANCELLED' " +
+            "WHERE r.status = 'COMPLETED' GROUP BY r.driver_id");
+        stmt.executeUpdate("INSERT INTO user_statistics (user_id, rides_cancelled) " +
+            "SELECT driver_id, COUNT(*) FROM " + allRides + " WHERE status = 'CANCELLED' GROUP BY driver_id " +
+            "ON CONFLICT(user_id) DO UPDATE SET rides_cancelled = excluded.rides_cancelled");
+        stmt.executeUpdate("INSERT INTO user_statistics (user_id, rides_taken) " +
+            "SELECT b.passenger_id, COUNT(*) FROM " + allBookings + " b JOIN " + allRides + " r ON r.id = b.ride_id " +
+            "WHERE b.status <> 'CANCELLED' AND r.status = 'COMPLETED' GROUP BY b.passenger_id " +
+            "ON CONFLICT(user_id) DO UPDATE SET rides_taken = excluded.rides_taken");
+        stmt.executeUpdate("INSERT INTO user_statistics (user_id, bookings_cancelled) " +
+            "SELECT passenger_id, COUNT(*) FROM " + allBookings + " WHERE status = 'CANCELLED' GROUP BY passenger_id " +
+            "ON CONFLICT(user_id) DO UPDATE SET bookings_cancelled = excluded.bookings_cancelled");
+    }
+
+    // One-off: counters for the reports filed so far, and daily buckets for the recent window
+    private static void backfillReportCounters(Statement stmt) throws SQLException {
+        stmt.executeUpdate("INSERT INTO user_report_counters (user_id, pending_count, reviewed_count, " +
+            "resolved_count, last_report_at) " +
+            "SELECT reported_user, SUM(status = 'PENDING'), SUM(status = 'REVIEWED'), " +
+            "SUM(status = 'RESOLVED'), MAX(timestamp) FROM reports GROUP BY reported_user");
+        stmt.executeUpdate("INSERT INTO user_report_daily (user_id, day, report_count) " +
+            "SELECT reported_user, substr(timestamp, 1, 10), COUNT(*) FROM reports " +
+            "WHERE timestamp >= date('now', 'localtime', '-" + (Constants.REPORT_WINDOW_DAYS - 1) + " days') " +
+            "GROUP BY reported_user, substr(timestamp, 1, 10)");
+    }
+
+    // One-off: every completed ride so far, live and archived, as version 1
+    private static void backfillRoutePriceBaselines(Statement stmt) throws SQLException {
+        String allRides = "(SELECT id, origin, destination, price_per_seat, status FROM rides " +
+            "UNION ALL SELECT id, origin, destination, price_per_seat, status FROM rides_history)";
+        String allBookings = "(SELECT ride_id, seats_booked, status FROM bookings " +
+            "UNION ALL SELECT ride_id, seats_booked, status FROM bookings_history)";
+        String perRide = "SELECT r.origin, r.destination, r.price_per_seat, " +
+            "COALESCE(SUM(b.seats_booked), 0) AS seats FROM " + allRides + " r " +
+            "LEFT JOIN " + allBookings + " b ON b.ride_id = r.id AND b.status <> 'CANCELLED' " +
+            "WHERE r.status = 'COMPLETED' GROUP BY r.id";
+
+        stmt.executeUpdate("INSERT INTO route_price_baselines " +
+            "(origin, destination, rides, price_sum, seats_filled, revenue, version) " +
+            "SELECT origin, destination, COUNT(*), SUM(price_per_seat), SUM(seats), SUM(seats * price_per_seat), 1 " +
+            "FROM (" + perRide + ") GROUP BY origin, destination");
+    }
+
+    // Returns true if the column was added by this call
+    private static boolean addColumnIfMissing(Statement stmt, String table, String column, String definition)
+            throws SQLException {
+        try (ResultSet rs = stmt.executeQuery("SELECT 1 FROM pragma_table_info('" + table + "') WHERE name = '" + column + "'")) {
+            if (rs.next()) {
+                return false;
+            }
         }
+        stmt.execute("ALTER TABLE " + table + " ADD COLUMN " + column + " " + definition);
+        return true;
     }
 
     public static void closeConnection() {
         try {
+            Connection conn = CONNECTIONS.get();
             if (conn != null && !conn.isClosed()) {
                 conn.close();
-                System.out.println("Database connection closed.");
+                LOG.debug("Database connection closed");
             }
+            CONNECTIONS.remove();
         } catch (SQLException e) {
-            System.err.println("Close connection failed: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Close connection failed", e);
         }
     }
 
     public static void main(String[] args) {
-        System.out.println("Testing database connection...");
+        LOG.info("Testing database connection...");
         initializeDatabase();
         closeConnection();
     }
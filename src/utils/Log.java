@@ -0,0 +1,333 @@
+package utils;
+
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Asynchronous logging backend. Callers claim a slot in a fixed ring of
+ * preallocated events with a single CAS, fill it in and publish it; one
+ * background thread formats the events as key=value lines and appends them
+ * to a size-rotated file, so no caller ever waits on disk or the console.
+ *
+ * When the ring is full, DEBUG and INFO events are dropped (and counted);
+ * WARN and ERROR are written synchronously to stderr instead.
+ *
+ * Configured with -Dcarpool.log.level (DEBUG, INFO, WARN, ERROR),
+ * -Dcarpool.log.dir and -Dcarpool.log.console=false to stop mirroring
+ * to stdout.
+ */
+public class Log {
+
+    public enum Level { DEBUG, INFO, WARN, ERROR }
+
+    private static final Map<String, Logger> loggers = new ConcurrentHashMap<>();
+
+    private static final Level threshold = parseLevel(System.getProperty("carpool.log.level", "INFO"));
+    private static final boolean console = Boolean.parseBoolean(System.getProperty("carpool.log.console", "true"));
+
+    private static final Metrics.Counter DROPPED = Metrics.counter("carpool_log_dropped_total");
+
+    // Bounded multi-producer ring (Vyukov): a slot is free for position p
+    // when its sequence is p, and readable when its sequence is p + 1
+    private static final int CAPACITY = Integer.highestOneBit(Constants.LOG_RING_SIZE);
+    private static final int MASK = CAPACITY - 1;
+    private static final Event[] ring = new Event[CAPACITY];
+    private static final AtomicLongArray sequences = new AtomicLongArray(CAPACITY);
+    private static final AtomicLong tail = new AtomicLong();
+    private static long head;
+
+    private static volatile boolean running = true;
+    private static final Thread writer;
+
+    static {
+        for (int i = 0; i < CAPACITY; i++) {
+            ring[i] = new Event();
+            sequences.set(i, i);
+        }
+        writer = new Thread(Log::runWriter, "carpool-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(Log::shutdown, "carpool-log-shutdown"));
+    }
+
+    private Log() {}
+
+    public static Logger getLogger(Class<?> type) {
+        return loggers.computeIfAbsent(type.getName(), Logger::new);
+    }
+
+    public static boolean isEnabled(Level level) {
+        return level.compareTo(threshold) >= 0;
+    }
+
+    static void publish(Level level, String logger, String message, Throwable error,
+                        String k1, Object v1, String k2, Object v2, String k3, Object v3) {
+        long time = System.currentTimeMillis();
+        String thread = Thread.currentThread().getName();
+
+        if (!running) {
+            writeDirect(format(time, level, logger, thread, message, error, k1, v1, k2, v2, k3, v3));
+            return;
+        }
+
+        long position;
+        while (true) {
+            position = tail.get();
+            long sequence = sequences.get((int) position & MASK);
+            if (sequence == position) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    break;
+                }
+            } else if (sequence < position) {
+                // Full: the writer is a whole ring behind
+                if (level.compareTo(Level.WARN) >= 0) {
+                    writeDirect(format(time, level, logger, thread, message, error, k1, v1, k2, v2, k3, v3));
+                } else {
+                    DROPPED.increment();
+                }
+                return;
+            }
+        }
+
+        int index = (int) position & MASK;
+        Event event = ring[index];
+        event.time = time;
+        event.level = level;
+        event.logger = logger;
+        event.thread = thread;
+        event.message = message;
+        event.error = error;
+        event.k1 = k1;
+        event.v1 = v1;
+        event.k2 = k2;
+        event.v2 = v2;
+        event.k3 = k3;
+        event.v3 = v3;
+        sequences.set(index, position + 1);
+    }
+
+    private static void runWriter() {
+        RotatingFile file = new RotatingFile(Paths.get(System.getProperty("carpool.log.dir", Constants.LOG_DIR)));
+        while (running) {
+            if (drain(file) == 0) {
+                LockSupport.parkNanos(Constants.LOG_IDLE_WAIT_MS * 1_000_000L);
+            }
+        }
+        drain(file);
+        file.close();
+    }
+
+    // Only the writer thread consumes; returns how many events were written
+    private static int drain(RotatingFile file) {
+        int written = 0;
+        while (true) {
+            int index = (int) head & MASK;
+            if (sequences.get(index) != head + 1) {
+                break;
+            }
+            Event e = ring[index];
+            String line = format(e.time, e.level, e.logger, e.thread, e.message, e.error,
+                                 e.k1, e.v1, e.k2, e.v2, e.k3, e.v3);
+            e.clear();
+            sequences.set(index, head + CAPACITY);
+            head++;
+
+            file.write(line);
+            if (console) {
+                System.out.print(line);
+            }
+            written++;
+        }
+        if (written > 0) {
+            file.flush();
+        }
+        return written;
+    }
+
+    /** Stops the writer after everything published so far has been written. */
+    public static void shutdown() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(2000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void writeDirect(String line) {
+        System.err.print(line);
+    }
+
+    private static String format(long time, Level level, String logger, String thread, String message,
+                                 Throwable error, String k1, Object v1, String k2, Object v2,
+                                 String k3, Object v3) {
+        StringBuilder line = new StringBuilder(128);
+        line.append(LocalDateTime.ofInstant(Instant.ofEpochMilli(time), ZoneId.systemDefault()))
+            .append(' ').append(level);
+        if (level.name().length() == 4) {
+            line.append(' ');
+        }
+        line.append(' ').append(logger.substring(logger.lastIndexOf('.') + 1))
+            .append(" [").append(thread).append("] ").append(message);
+        appendField(line, k1, v1);
+        appendField(line, k2, v2);
+        appendField(line, k3, v3);
+        if (error != null) {
+            appendField(line, "error", String.valueOf(error.getMessage()));
+        }
+        line.append(System.lineSeparator());
+
+        if (error != null) {
+            StringWriter trace = new StringWriter();
+            error.printStackTrace(new PrintWriter(trace));
+            line.append(trace);
+        }
+        return line.toString();
+    }
+
+    private static void appendField(StringBuilder line, String key, Object value) {
+        if (key == null) {
+            return;
+        }
+        String text = String.valueOf(value);
+        line.append(' ').append(key).append('=');
+        if (text.isEmpty() || text.indexOf(' ') >= 0 || text.indexOf('"') >= 0 || text.indexOf('=') >= 0) {
+            line.append('"').append(text.replace("\"", "\\\"")).append('"');
+        } else {
+            line.append(text);
+        }
+    }
+
+    private static Level parseLevel(String name) {
+        try {
+            return Level.valueOf(name.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return Level.INFO;
+        }
+    }
+
+    private static final class Event {
+        long time;
+        Level level;
+        String logger;
+        String thread;
+        String message;
+        Throwable error;
+        String k1;
+        Object v1;
+        String k2;
+        Object v2;
+        String k3;
+        Object v3;
+
+        // Drop references so the ring doesn't keep old arguments alive
+        void clear() {
+            message = null;
+            error = null;
+            v1 = null;
+            v2 = null;
+            v3 = null;
+        }
+    }
+
+    /**
+     * carpool.log in the log directory, rolled to carpool.log.1 .. .N once it
+     * passes the size limit; the oldest file is deleted.
+     */
+    private static final class RotatingFile {
+        private final Path current;
+        private Writer out;
+        private long size;
+
+        RotatingFile(Path dir) {
+            this.current = dir.resolve("carpool.log");
+            try {
+                Files.createDirectories(dir);
+            } catch (IOException e) {
+                System.err.println("Cannot create log directory " + dir + ": " + e.getMessage());
+            }
+            open();
+        }
+
+        void write(String line) {
+            if (out == null) {
+                return;
+            }
+            try {
+                out.write(line);
+                size += line.length();
+                if (size >= Constants.LOG_MAX_FILE_BYTES) {
+                    rotate();
+                }
+            } catch (IOException e) {
+                System.err.println("Log write failed: " + e.getMessage());
+            }
+        }
+
+        void flush() {
+            try {
+                if (out != null) {
+                    out.flush();
+                }
+            } catch (IOException e) {
+                System.err.println("Log flush failed: " + e.getMessage());
+            }
+        }
+
+        void close() {
+            try {
+                if (out != null) {
+                    out.close();
+                }
+            } catch (IOException ignored) {
+            }
+        }
+
+        private void open() {
+            try {
+                size = Files.exists(current) ? Files.size(current) : 0;
+                out = new BufferedWriter(new OutputStreamWriter(
+                        new FileOutputStream(current.toFile(), true), StandardCharsets.UTF_8), 64 * 1024);
+            } catch (IOException e) {
+                System.err.println("Cannot open log file " + current + ": " + e.getMessage());
+                out = null;
+            }
+        }
+
+        private void rotate() throws IOException {
+            out.close();
+            Path dir = current.getParent();
+            Files.deleteIfExists(dir.resolve("carpool.log." + Constants.LOG_MAX_FILES));
+            for (int i = Constants.LOG_MAX_FILES - 1; i >= 1; i--) {
+                Path older = dir.resolve("carpool.log." + i);
+                if (Files.exists(older)) {
+                    Files.move(older, dir.resolve("carpool.log." + (i + 1)), StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+            Files.move(current, dir.resolve("carpool.log.1"), StandardCopyOption.REPLACE_EXISTING);
+            open();
+        }
+    }
+}
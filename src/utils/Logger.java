@@ -0,0 +1,95 @@
+package utils;
+
+/**
+ * Per-class handle onto {@link Log}. Messages take up to three key/value
+ * fields through fixed-arity overloads, so a call below the configured level
+ * returns after one comparison without building a string or an array:
+ *
+ * <pre>LOG.info("Ride posted", "rideId", ride.getId(), "seats", seats);</pre>
+ *
+ * Field values are turned into text on the writer thread; pass immutable
+ * values (strings, numbers, dates) rather than objects that may change.
+ */
+public final class Logger {
+
+    private final String name;
+
+    Logger(String name) {
+        this.name = name;
+    }
+
+    public boolean isDebugEnabled() {
+        return Log.isEnabled(Log.Level.DEBUG);
+    }
+
+    public boolean isInfoEnabled() {
+        return Log.isEnabled(Log.Level.INFO);
+    }
+
+    public void debug(String message) {
+        log(Log.Level.DEBUG, message, null, null, null, null, null, null, null);
+    }
+
+    public void debug(String message, String k1, Object v1) {
+        log(Log.Level.DEBUG, message, null, k1, v1, null, null, null, null);
+    }
+
+    public void debug(String message, String k1, Object v1, String k2, Object v2) {
+        log(Log.Level.DEBUG, message, null, k1, v1, k2, v2, null, null);
+    }
+
+    public void debug(String message, String k1, Object v1, String k2, Object v2, String k3, Object v3) {
+        log(Log.Level.DEBUG, message, null, k1, v1, k2, v2, k3, v3);
+    }
+
+    public void info(String message) {
+        log(Log.Level.INFO, message, null, null, null, null, null, null, null);
+    }
+
+    public void info(String message, String k1, Object v1) {
+        log(Log.Level.INFO, message, null, k1, v1, null, null, null, null);
+    }
+
+    public void info(String message, String k1, Object v1, String k2, Object v2) {
+        log(Log.Level.INFO, message, null, k1, v1, k2, v2, null, null);
+    }
+
+    public void info(String message, String k1, Object v1, String k2, Object v2, String k3, Object v3) {
+        log(Log.Level.INFO, message, null, k1, v1, k2, v2, k3, v3);
+    }
+
+    public void warn(String message) {
+        log(Log.Level.WARN, message, null, null, null, null, null, null, null);
+    }
+
+    public void warn(String message, String k1, Object v1) {
+        log(Log.Level.WARN, message, null, k1, v1, null, null, null, null);
+    }
+
+    public void warn(String message, String k1, Object v1, String k2, Object v2) {
+        log(Log.Level.WARN, message, null, k1, v1, k2, v2, null, null);
+    }
+
+    public void warn(String message, String k1, Object v1, String k2, Object v2, String k3, Object v3) {
+        log(Log.Level.WARN, message, null, k1, v1, k2, v2, k3, v3);
+    }
+
+    public void error(String message) {
+        log(Log.Level.ERROR, message, null, null, null, null, null, null, null);
+    }
+
+    public void error(String message, Throwable error) {
+        log(Log.Level.ERROR, message, error, null, null, null, null, null, null);
+    }
+
+    public void error(String message, Throwable error, String k1, Object v1) {
+        log(Log.Level.ERROR, message, error, k1, v1, null, null, null, null);
+    }
+
+    private void log(Log.Level level, String message, Throwable error,
+                     String k1, Object v1, String k2, Object v2, String k3, Object v3) {
+        if (Log.isEnabled(level)) {
+            Log.publish(level, name, message, error, k1, v1, k2, v2, k3, v3);
+        }
+    }
+}
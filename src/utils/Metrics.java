@@ -0,0 +1,187 @@
+package utils;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Process-wide registry of counters, timers and gauges. Services look their
+ * instruments up once into static fields; after that, counting or timing an
+ * operation is a LongAdder increment and a few array updates with no
+ * allocation or locking on the calling thread.
+ *
+ * Names follow Prometheus conventions and labels are fixed per instrument,
+ * e.g. counter("carpool_bookings_total", "result", "sold_out").
+ */
+public class Metrics {
+
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99};
+
+    private static final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    private static final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private static final Map<String, Gauge> gauges = new ConcurrentHashMap<>();
+
+    private Metrics() {}
+
+    public static Counter counter(String name, String... labels) {
+        return counters.computeIfAbsent(key(name, labels), k -> new Counter(name, labelText(labels)));
+    }
+
+    public static Timer timer(String name, String... labels) {
+        return timers.computeIfAbsent(key(name, labels), k -> new Timer(name, labelText(labels)));
+    }
+
+    // Registering the same name again replaces the supplier
+    public static void gauge(String name, LongSupplier supplier) {
+        gauges.put(name, new Gauge(name, supplier));
+    }
+
+    /** Current value of every counter, keyed by name{labels}. */
+    public static Map<String, Long> counterValues() {
+        Map<String, Long> values = new TreeMap<>();
+        for (Map.Entry<String, Counter> e : counters.entrySet()) {
+            values.put(e.getKey(), e.getValue().get());
+        }
+        return values;
+    }
+
+    /**
+     * Every instrument in the Prometheus text exposition format. Timers are
+     * exported as summaries in seconds with 0.5/0.9/0.99 quantiles.
+     */
+    public static String render() {
+        StringBuilder out = new StringBuilder(4096);
+
+        String family = null;
+        for (Counter c : new TreeMap<>(counters).values()) {
+            if (!c.name.equals(family)) {
+                family = c.name;
+                out.append("# TYPE ").append(family).append(" counter\n");
+            }
+            out.append(c.name).append(braces(c.labels)).append(' ').append(c.get()).append('\n');
+        }
+
+        family = null;
+        for (Timer t : new TreeMap<>(timers).values()) {
+            if (!t.name.equals(family)) {
+                family = t.name;
+                out.append("# TYPE ").append(family).append(" summary\n");
+            }
+            Histogram h = t.histogram;
+            for (double q : QUANTILES) {
+                String quantile = "quantile=\"" + q + "\"";
+                String labels = t.labels.isEmpty() ? quantile : t.labels + "," + quantile;
+                out.append(t.name).append('{').append(labels).append("} ")
+                   .append(seconds(h.percentile(q))).append('\n');
+            }
+            out.append(t.name).append("_count").append(braces(t.labels)).append(' ')
+               .append(h.getCount()).append('\n');
+            out.append(t.name).append("_sum").append(braces(t.labels)).append(' ')
+               .append(seconds(h.getSum())).append('\n');
+            out.append(t.name).append("_max").append(braces(t.labels)).append(' ')
+               .append(seconds(h.getMax())).append('\n');
+        }
+
+        for (Gauge g : new TreeMap<>(gauges).values()) {
+            long value;
+            try {
+                value = g.supplier.getAsLong();
+            } catch (RuntimeException e) {
+                continue;
+            }
+            out.append("# TYPE ").append(g.name).append(" gauge\n");
+            out.append(g.name).append(' ').append(value).append('\n');
+        }
+
+        return out.toString();
+    }
+
+    private static String key(String name, String[] labels) {
+        return name + braces(labelText(labels));
+    }
+
+    private static String labelText(String[] labels) {
+        if (labels.length % 2 != 0) {
+            throw new IllegalArgumentException("Labels must be key/value pairs");
+        }
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < labels.length; i += 2) {
+            if (i > 0) {
+                text.append(',');
+            }
+            text.append(labels[i]).append("=\"").append(labels[i + 1]).append('"');
+        }
+        return text.toString();
+    }
+
+    private static String braces(String labels) {
+        return labels.isEmpty() ? "" : "{" + labels + "}";
+    }
+
+    private static String seconds(long nanos) {
+        return Double.toString(nanos / 1e9);
+    }
+
+    public static final class Counter {
+        private final String name;
+        private final String labels;
+        private final LongAdder value = new LongAdder();
+
+        private Counter(String name, String labels) {
+            this.name = name;
+            this.labels = labels;
+        }
+
+        public void increment() {
+            value.increment();
+        }
+
+        public void add(long n) {
+            value.add(n);
+        }
+
+        public long get() {
+            return value.sum();
+        }
+    }
+
+    /** Latency histogram in nanoseconds: {@code long t = timer.start(); ... timer.stop(t);} */
+    public static final class Timer {
+        private final String name;
+        private final String labels;
+        private final Histogram histogram = new Histogram();
+
+        private Timer(String name, String labels) {
+            this.name = name;
+            this.labels = labels;
+        }
+
+        public long start() {
+            return System.nanoTime();
+        }
+
+        public void stop(long startNanos) {
+            histogram.record(System.nanoTime() - startNanos);
+        }
+
+        public void record(long nanos) {
+            histogram.record(nanos);
+        }
+
+        public Histogram getHistogram() {
+            return histogram;
+        }
+    }
+
+    private static final class Gauge {
+        private final String name;
+        private final LongSupplier supplier;
+
+        private Gauge(String name, LongSupplier supplier) {
+            this.name = name;
+            this.supplier = supplier;
+        }
+    }
+}
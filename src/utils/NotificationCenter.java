@@ -1,18 +1,36 @@
 package utils;
 
 import javax.swing.JOptionPane;
+import java.awt.GraphicsEnvironment;
 
 public class NotificationCenter {
 
+    private static final Logger LOG = Log.getLogger(NotificationCenter.class);
+
+    // Without a display (load tests, batch jobs) messages are logged at DEBUG instead of shown
+    private static final boolean HEADLESS = GraphicsEnvironment.isHeadless();
+
     public static void showInfo(String msg) {
+        if (HEADLESS) {
+            LOG.debug(msg);
+            return;
+        }
         JOptionPane.showMessageDialog(null, msg, "Info", JOptionPane.INFORMATION_MESSAGE);
     }
 
     public static void showWarning(String msg) {
+        if (HEADLESS) {
+            LOG.debug(msg);
+            return;
+        }
         JOptionPane.showMessageDialog(null, msg, "Warning", JOptionPane.WARNING_MESSAGE);
     }
 
     public static void showError(String msg) {
+        if (HEADLESS) {
+            LOG.debug(msg);
+            return;
+        }
         JOptionPane.showMessageDialog(null, msg, "Error", JOptionPane.ERROR_MESSAGE);
     }
 }
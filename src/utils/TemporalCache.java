@@ -0,0 +1,134 @@
+package utils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+/**
+ * Shares immutable date and time instances between rows. A table of rides
+ * covers a few hundred distinct days and, at minute precision, at most 1440
+ * distinct times, so a scan can hand out the same objects instead of
+ * parsing and allocating them for every row.
+ *
+ * Lookups are racy on purpose: java.time values are immutable with final
+ * fields, so the worst case is an extra allocation, never a wrong value.
+ */
+public class TemporalCache {
+
+    private static final int DATE_SLOTS = 4096; // power of two
+    private static final LocalDate[] DATES = new LocalDate[DATE_SLOTS];
+    private static final LocalTime[] MINUTES = new LocalTime[24 * 60];
+
+    private static final int SECONDS_PER_DAY = 24 * 60 * 60;
+
+    public static LocalDate dateOfEpochDay(long epochDay) {
+        int slot = (int) (epochDay & (DATE_SLOTS - 1));
+        LocalDate cached = DATES[slot];
+        if (cached != null && cached.toEpochDay() == epochDay) {
+            return cached;
+        }
+        LocalDate date = LocalDate.ofEpochDay(epochDay);
+        DATES[slot] = date;
+        return date;
+    }
+
+    public static LocalTime timeOfSecond(int secondOfDay) {
+        if (secondOfDay % 60 != 0) {
+            return LocalTime.ofSecondOfDay(secondOfDay);
+        }
+        int minute = secondOfDay / 60;
+        LocalTime cached = MINUTES[minute];
+        if (cached == null) {
+            cached = LocalTime.of(minute / 60, minute % 60);
+            MINUTES[minute] = cached;
+        }
+        return cached;
+    }
+
+    public static LocalDate dateOfEpochSecond(long epochSecond) {
+        return dateOfEpochDay(Math.floorDiv(epochSecond, SECONDS_PER_DAY));
+    }
+
+    public static LocalTime timeOfEpochSecond(long epochSecond) {
+        return timeOfSecond(Math.floorMod(epochSecond, SECONDS_PER_DAY));
+    }
+
+    // ISO yyyy-MM-dd, parsed without going through a formatter
+    public static LocalDate date(String iso) {
+        if (iso == null) {
+            return null;
+        }
+        if (iso.length() != 10 || iso.charAt(4) != '-' || iso.charAt(7) != '-') {
+            return LocalDate.parse(iso);
+        }
+        int year = digits(iso, 0, 4);
+        int month = digits(iso, 5, 2);
+        int day = digits(iso, 8, 2);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > 31) {
+            return LocalDate.parse(iso);
+        }
+        LocalDate cached = DATES[(int) (epochDay(year, month, day) & (DATE_SLOTS - 1))];
+        if (cached != null && cached.getYear() == year
+                && cached.getMonthValue() == month && cached.getDayOfMonth() == day) {
+            return cached;
+        }
+        // Goes through LocalDate.of so invalid days like 02-30 still fail
+        LocalDate date = LocalDate.of(year, month, day);
+        DATES[(int) (date.toEpochDay() & (DATE_SLOTS - 1))] = date;
+        return date;
+    }
+
+    // ISO HH:mm or HH:mm:ss
+    public static LocalTime time(String iso) {
+        if (iso == null) {
+            return null;
+        }
+        int length = iso.length();
+        if ((length != 5 && length != 8) || iso.charAt(2) != ':' || (length == 8 && iso.charAt(5) != ':')) {
+            return LocalTime.parse(iso);
+        }
+        int hour = digits(iso, 0, 2);
+        int minute = digits(iso, 3, 2);
+        int second = length == 8 ? digits(iso, 6, 2) : 0;
+        if (hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59) {
+            return LocalTime.parse(iso);
+        }
+        return timeOfSecond(hour * 3600 + minute * 60 + second);
+    }
+
+    // ISO date-time, or SQLite's CURRENT_TIMESTAMP with a space for the 'T'; null or empty gives null
+    public static LocalDateTime timestamp(String value) {
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        int length = value.length();
+        char separator = length > 10 ? value.charAt(10) : 0;
+        if ((length == 16 || length == 19) && (separator == 'T' || separator == ' ')) {
+            return LocalDateTime.of(date(value.substring(0, 10)), time(value.substring(11)));
+        }
+        // Fractional seconds and anything unusual
+        return LocalDateTime.parse(value.replace(' ', 'T'));
+    }
+
+    private static int digits(String s, int from, int count) {
+        int value = 0;
+        for (int i = from; i < from + count; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    // Days from 1970-01-01 in the proleptic Gregorian calendar, same as LocalDate.toEpochDay
+    private static long epochDay(int year, int month, int day) {
+        int y = month <= 2 ? year - 1 : year;
+        int era = Math.floorDiv(y, 400);
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return (long) era * 146097 + dayOfEra - 719468;
+    }
+}
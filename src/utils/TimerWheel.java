@@ -0,0 +1,155 @@
+package utils;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Hashed timer wheel for large numbers of short, mostly-cancelled timeouts.
+ * Scheduling and cancelling are O(1) and never take a lock; a single daemon
+ * thread advances one slot per tick and fires whatever is due. Timeouts fire
+ * up to one tick late, never early.
+ */
+public class TimerWheel<T> {
+
+    private static final Logger LOG = Log.getLogger(TimerWheel.class);
+
+    private final long tickNanos;
+    private final int mask;
+    private final List<Timeout<T>>[] slots;
+    private final ConcurrentLinkedQueue<Timeout<T>> pending = new ConcurrentLinkedQueue<>();
+    private final Consumer<T> onExpire;
+    private final Thread worker;
+    private final long startNanos;
+
+    private volatile boolean running = true;
+    // Only touched by the worker thread
+    private long tick;
+
+    @SuppressWarnings("unchecked")
+    public TimerWheel(String name, long tickMillis, int slotCount, Consumer<T> onExpire) {
+        if (Integer.bitCount(slotCount) != 1) {
+            throw new IllegalArgumentException("slotCount must be a power of two: " + slotCount);
+        }
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMillis);
+        this.mask = slotCount - 1;
+        this.slots = (List<Timeout<T>>[]) new List<?>[slotCount];
+        for (int i = 0; i < slotCount; i++) {
+            slots[i] = new ArrayList<>();
+        }
+        this.onExpire = onExpire;
+        this.startNanos = System.nanoTime();
+
+        this.worker = new Thread(this::run, name);
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    public Timeout<T> schedule(T value, long delayMillis) {
+        long deadline = System.nanoTime() - startNanos + TimeUnit.MILLISECONDS.toNanos(Math.max(delayMillis, 0));
+        Timeout<T> timeout = new Timeout<>(value, deadline);
+        pending.add(timeout);
+        return timeout;
+    }
+
+    public void stop() {
+        running = false;
+        worker.interrupt();
+    }
+
+    private void run() {
+        while (running) {
+            long sleepNanos = (tick + 1) * tickNanos - (System.nanoTime() - startNanos);
+            if (sleepNanos > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(sleepNanos);
+                } catch (InterruptedException e) {
+                    if (!running) {
+                        return;
+                    }
+                }
+                continue;
+            }
+            transferPending();
+            expire(slots[(int) (tick & mask)]);
+            tick++;
+        }
+    }
+
+    private void transferPending() {
+        Timeout<T> timeout;
+        while ((timeout = pending.poll()) != null) {
+            if (timeout.cancelled) {
+                continue;
+            }
+            // Slot n is processed at the end of tick n; round so nothing fires early
+            long dueTick = Math.max((timeout.deadlineNanos + tickNanos - 1) / tickNanos - 1, tick);
+            timeout.remainingRounds = (dueTick - tick) / slots.length;
+            slots[(int) (dueTick & mask)].add(timeout);
+        }
+    }
+
+    private void expire(List<Timeout<T>> slot) {
+        Iterator<Timeout<T>> it = slot.iterator();
+        while (it.hasNext()) {
+            Timeout<T> timeout = it.next();
+            if (timeout.cancelled) {
+                it.remove();
+            } else if (timeout.remainingRounds <= 0) {
+                it.remove();
+                if (timeout.markFired()) {
+                    fire(timeout.value);
+                }
+            } else {
+                timeout.remainingRounds--;
+            }
+        }
+    }
+
+    private void fire(T value) {
+        try {
+            onExpire.accept(value);
+        } catch (RuntimeException e) {
+            // Keep the wheel turning; one bad callback must not strand every later timeout
+            LOG.error("Timer callback failed", e);
+        }
+    }
+
+    public static class Timeout<T> {
+
+        private final T value;
+        private final long deadlineNanos;
+        private long remainingRounds;
+        private volatile boolean cancelled;
+        private volatile boolean fired;
+
+        private Timeout(T value, long deadlineNanos) {
+            this.value = value;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        public T getValue() {
+            return value;
+        }
+
+        // Returns false if the timeout already fired
+        public synchronized boolean cancel() {
+            if (fired) {
+                return false;
+            }
+            cancelled = true;
+            return true;
+        }
+
+        private synchronized boolean markFired() {
+            if (cancelled) {
+                return false;
+            }
+            fired = true;
+            return true;
+        }
+    }
+}
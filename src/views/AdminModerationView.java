@@ -0,0 +1,267 @@
+package views;
+
+import controllers.ModerationController;
+import models.ModerationItem;
+import services.ModerationService;
+
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import java.awt.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public class AdminModerationView extends JFrame {
+
+    private static final int PAGE_SIZE = ModerationService.DEFAULT_PAGE_SIZE;
+
+    private ModerationController controller;
+    private QueueTableModel tableModel;
+    private JTable queueTable;
+    private JLabel statusLabel;
+    private JButton btnApprove, btnReject, btnRefresh;
+
+    private int pendingTotal;
+    // The queue is paged as of the last refresh, after the last item loaded
+    private LocalDateTime asOf;
+    private ModerationItem lastLoaded;
+    private boolean loading;
+    private boolean exhausted;
+    // Bumped on refresh so pages from an older load are dropped
+    private int generation;
+
+    public AdminModerationView(ModerationController controller) {
+        this.controller = controller;
+        initUI();
+        reload();
+    }
+
+    private void initUI() {
+        setTitle("Moderation Queue");
+        setSize(1000, 600);
+        setLocationRelativeTo(null);
+        setLayout(new BorderLayout(10, 10));
+        setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
+
+        tableModel = new QueueTableModel();
+        queueTable = new JTable(tableModel);
+        queueTable.setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
+        queueTable.getColumnModel().getColumn(7).setPreferredWidth(300);
+
+        JScrollPane scrollPane = new JScrollPane(queueTable);
+        scrollPane.getVerticalScrollBar().addAdjustmentListener(e -> {
+            JScrollBar bar = (JScrollBar) e.getAdjustable();
+            boolean nearBottom = bar.getValue() + bar.getVisibleAmount() >= bar.getMaximum() - bar.getVisibleAmount();
+            if (!e.getValueIsAdjusting() && nearBottom) {
+                loadNextPage();
+            }
+        });
+
+        statusLabel = new JLabel("Loading...");
+
+        JPanel actionPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        btnRefresh = new JButton("Refresh");
+        btnReject = new JButton("Reject Selected");
+        btnApprove = new JButton("Approve Selected");
+        actionPanel.add(btnRefresh);
+        actionPanel.add(btnReject);
+        actionPanel.add(btnApprove);
+
+        JPanel bottomPanel = new JPanel(new BorderLayout());
+        bottomPanel.setBorder(BorderFactory.createEmptyBorder(0, 10, 10, 10));
+        bottomPanel.add(statusLabel, BorderLayout.WEST);
+        bottomPanel.add(actionPanel, BorderLayout.EAST);
+
+        add(scrollPane, BorderLayout.CENTER);
+        add(bottomPanel, BorderLayout.SOUTH);
+
+        btnRefresh.addActionListener(e -> reload());
+        btnApprove.addActionListener(e -> reviewSelected(true));
+        btnReject.addActionListener(e -> reviewSelected(false));
+    }
+
+    private void reload() {
+        generation++;
+        loading = false;
+        exhausted = false;
+        asOf = LocalDateTime.now();
+        lastLoaded = null;
+        tableModel.clear();
+        loadNextPage();
+    }
+
+    private void loadNextPage() {
+        if (loading || exhausted) {
+            return;
+        }
+        loading = true;
+        final int requestGeneration = generation;
+        final LocalDateTime pageAsOf = asOf;
+        final ModerationItem after = lastLoaded;
+
+        new SwingWorker<List<ModerationItem>, Void>() {
+            private int total;
+
+            @Override
+            protected List<ModerationItem> doInBackground() {
+                if (after == null) {
+                    total = controller.getPendingCount();
+                }
+                return controller.loadPage(pageAsOf, after, PAGE_SIZE);
+            }
+
+            @Override
+            protected void done() {
+                if (requestGeneration != generation) {
+                    return;
+                }
+                loading = false;
+                try {
+                    List<ModerationItem> page = get();
+                    if (after == null) {
+                        pendingTotal = total;
+                    }
+                    if (!page.isEmpty()) {
+                        lastLoaded = page.get(page.size() - 1);
+                    }
+                    tableModel.append(page);
+                    exhausted = page.size() < PAGE_SIZE;
+                    updateStatus();
+                } catch (Exception ex) {
+                    showError("Failed to load moderation queue: " + ex.getMessage());
+                }
+            }
+        }.execute();
+    }
+
+    private void reviewSelected(boolean approve) {
+        int[] rows = queueTable.getSelectedRows();
+        if (rows.length == 0) {
+            JOptionPane.showMessageDialog(this, "Please select one or more reports");
+            return;
+        }
+
+        List<Integer> reportIds = new ArrayList<>(rows.length);
+        for (int row : rows) {
+            reportIds.add(tableModel.getItem(row).getReportId());
+        }
+
+        String action = approve ? "approve" : "reject";
+        int confirm = JOptionPane.showConfirmDialog(this,
+            "Are you sure you want to " + action + " " + reportIds.size() + " report(s)?",
+            "Confirm Review",
+            JOptionPane.YES_NO_OPTION);
+        if (confirm != JOptionPane.YES_OPTION) {
+            return;
+        }
+
+        setActionsEnabled(false);
+        new SwingWorker<Integer, Void>() {
+            @Override
+            protected Integer doInBackground() {
+                return approve ? controller.approve(reportIds) : controller.reject(reportIds);
+            }
+
+            @Override
+            protected void done() {
+                setActionsEnabled(true);
+                try {
+                    int reviewed = get();
+                    if (reviewed < 0) {
+                        showError("Review failed. No changes were saved.");
+                        return;
+                    }
+                    tableModel.removeReports(reportIds);
+                    pendingTotal = Math.max(pendingTotal - reviewed, 0);
+                    updateStatus();
+                } catch (Exception ex) {
+                    showError("Review failed: " + ex.getMessage());
+                }
+            }
+        }.execute();
+    }
+
+    private void setActionsEnabled(boolean enabled) {
+        btnApprove.setEnabled(enabled);
+        btnReject.setEnabled(enabled);
+        btnRefresh.setEnabled(enabled);
+    }
+
+    private void updateStatus() {
+        statusLabel.setText("Showing " + tableModel.getRowCount() + " of " + pendingTotal + " pending report(s)");
+    }
+
+    public void showError(String err) {
+        JOptionPane.showMessageDialog(this, err, "Error", JOptionPane.ERROR_MESSAGE);
+    }
+
+    private static class QueueTableModel extends AbstractTableModel {
+
+        private static final String[] COLUMNS = {
+            "Report ID", "Priority", "Reporter", "Trust", "Reported User", "Reports vs User", "Age (h)", "Reason"
+        };
+
+        private final List<ModerationItem> items = new ArrayList<>();
+
+        ModerationItem getItem(int row) {
+            return items.get(row);
+        }
+
+        void clear() {
+            int size = items.size();
+            if (size > 0) {
+                items.clear();
+                fireTableRowsDeleted(0, size - 1);
+            }
+        }
+
+        void append(List<ModerationItem> page) {
+            if (page.isEmpty()) {
+                return;
+            }
+            int first = items.size();
+            items.addAll(page);
+            fireTableRowsInserted(first, items.size() - 1);
+        }
+
+        void removeReports(List<Integer> reportIds) {
+            Set<Integer> removed = new HashSet<>(reportIds);
+            if (items.removeIf(item -> removed.contains(item.getReportId()))) {
+                fireTableDataChanged();
+            }
+        }
+
+        @Override
+        public int getRowCount() {
+            return items.size();
+        }
+
+        @Override
+        public int getColumnCount() {
+            return COLUMNS.length;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return COLUMNS[column];
+        }
+
+        @Override
+        public Object getValueAt(int row, int column) {
+            ModerationItem item = items.get(row);
+            switch (column) {
+                case 0: return item.getReportId();
+                case 1: return String.format("%.1f", item.getPriority());
+                case 2: return item.getReporterName();
+                case 3: return String.format("%.1f", item.getReporterTrust());
+                case 4: return item.getReportedUserName();
+                case 5: return item.getTargetReportCount();
+                case 6: return item.getAgeHours();
+                case 7: return item.getReport().getReason();
+                default: return null;
+            }
+        }
+    }
+}
@@ -1,14 +1,30 @@
 package views;
 
+import controllers.ModerationController;
 import controllers.RideController;
 import models.*;
+import services.ModerationService;
+import utils.Constants;
 
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
+import java.awt.event.FocusAdapter;
+import java.awt.event.FocusEvent;
+import java.time.DayOfWeek;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.format.TextStyle;
+import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 
 public class DashboardView extends JFrame {
     
@@ -23,6 +39,7 @@ public class DashboardView extends JFrame {
     private JLabel statsLabel;
     private JButton logoutButton;
     private Image scaledImage;
+    private final Consumer<Notification> notificationListener = this::onNotification;
     
     public DashboardView(RideController controller) {
         this.controller = controller;
@@ -122,6 +139,12 @@ private void createHomePage() {
         postRequestBtn.addActionListener(e -> showPostRequestDialog());
         actionsPanel.add(postRequestBtn);
     }
+    if (currentUser.isAdmin()) {
+        JButton moderationBtn = new JButton("Moderation Queue");
+        moderationBtn.addActionListener(e -> new AdminModerationView(
+            new ModerationController(new ModerationService(), currentUser)).setVisible(true));
+        actionsPanel.add(moderationBtn);
+    }
 
     JPanel topPanel = new JPanel(new BorderLayout());
     topPanel.add(titleLabel, BorderLayout.NORTH);
@@ -146,10 +169,13 @@ private void createHomePage() {
         destCombo.setPreferredSize(new Dimension(200, 30));
         JButton searchBtn = new JButton("Search");
         JButton showAllBtn = new JButton("Show All Rides");
+        JButton planTripBtn = new JButton("Plan Trip");
         searchControls.add(destLabel);
         searchControls.add(destCombo);
         searchControls.add(searchBtn);
         searchControls.add(showAllBtn);
+        searchControls.add(planTripBtn);
+        planTripBtn.addActionListener(e -> showPlanTripDialog());
         String[] columns = {"ID", "Driver", "Route", "Date & Time", "Seats", "Price", "Status"};
         DefaultTableModel tableModel = new DefaultTableModel(columns, 0) {
             @Override
@@ -161,11 +187,14 @@ private void createHomePage() {
         JScrollPane scrollPane = new JScrollPane(resultsTable);
         JPanel actionPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
         JButton bookBtn = new JButton("Book Selected Ride");
+        JButton groupBookBtn = new JButton("Book for Group");
         JButton viewDetailsBtn = new JButton("View Details");
         actionPanel.add(viewDetailsBtn);
+        actionPanel.add(groupBookBtn);
         actionPanel.add(bookBtn);
         searchBtn.addActionListener(e -> {
             String destination = (String) destCombo.getSelectedItem();
+            controller.recordSearchDemand(null, destination, null);
             List<Ride> rides = controller.searchRidesByDestination(destination);
             updateRidesTable(tableModel, rides);
         });
@@ -177,7 +206,20 @@ private void createHomePage() {
             int selectedRow = resultsTable.getSelectedRow();
             if (selectedRow >= 0) {
                 int rideId = (int) tableModel.getValueAt(selectedRow, 0);
-                showBookRideDialog(rideId);
+                if (isBookable(rideId)) {
+                    showBookRideDialog(rideId);
+                }
+            } else {
+                JOptionPane.showMessageDialog(this, "Please select a ride to book");
+            }
+        });
+        groupBookBtn.addActionListener(e -> {
+            int selectedRow = resultsTable.getSelectedRow();
+            if (selectedRow >= 0) {
+                int rideId = (int) tableModel.getValueAt(selectedRow, 0);
+                if (isBookable(rideId)) {
+                    showGroupBookingDialog(rideId);
+                }
             } else {
                 JOptionPane.showMessageDialog(this, "Please select a ride to book");
             }
@@ -235,7 +277,33 @@ private void createHomePage() {
         gbc.gridx = 1;
         JSpinner priceSpinner = new JSpinner(new SpinnerNumberModel(10.0, 0.0, 100.0, 1.0));
         formPanel.add(priceSpinner, gbc);
-        gbc.gridx = 0; gbc.gridy = 6; gbc.gridwidth = 2;
+        gbc.gridx = 0; gbc.gridy = 6;
+        formPanel.add(new JLabel("Suggested price:"), gbc);
+        gbc.gridx = 1;
+        JPanel suggestionPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 5, 0));
+        JLabel suggestionLabel = new JLabel("-");
+        JButton useSuggestionBtn = new JButton("Use");
+        useSuggestionBtn.setEnabled(false);
+        suggestionPanel.add(suggestionLabel);
+        suggestionPanel.add(useSuggestionBtn);
+        formPanel.add(suggestionPanel, gbc);
+        gbc.gridx = 0; gbc.gridy = 7;
+        formPanel.add(new JLabel("Repeat on:"), gbc);
+        gbc.gridx = 1;
+        JPanel repeatPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 2, 0));
+        Map<DayOfWeek, JCheckBox> repeatBoxes = new EnumMap<>(DayOfWeek.class);
+        for (DayOfWeek day : DayOfWeek.values()) {
+            JCheckBox box = new JCheckBox(day.getDisplayName(TextStyle.SHORT, Locale.ENGLISH));
+            repeatBoxes.put(day, box);
+            repeatPanel.add(box);
+        }
+        formPanel.add(repeatPanel, gbc);
+        gbc.gridx = 0; gbc.gridy = 8;
+        formPanel.add(new JLabel("Repeat until (optional):"), gbc);
+        gbc.gridx = 1;
+        JTextField untilField = new JTextField(15);
+        formPanel.add(untilField, gbc);
+        gbc.gridx = 0; gbc.gridy = 9; gbc.gridwidth = 2;
         JButton postBtn = new JButton("Post Ride");
         postBtn.setPreferredSize(new Dimension(200, 35));
         formPanel.add(postBtn, gbc);
@@ -244,6 +312,31 @@ private void createHomePage() {
         JTable myRidesTable = new JTable(tableModel);
         JScrollPane scrollPane = new JScrollPane(myRidesTable);
         scrollPane.setBorder(BorderFactory.createTitledBorder("My Posted Rides"));
+        // Cached baselines make this cheap enough to redo on every change
+        PriceSuggestion[] suggestion = new PriceSuggestion[1];
+        Runnable updateSuggestion = () -> {
+            try {
+                suggestion[0] = controller.suggestPrice((String) originCombo.getSelectedItem(),
+                        (String) destCombo.getSelectedItem(), LocalDate.parse(dateField.getText().trim()),
+                        LocalTime.parse(timeField.getText().trim()));
+            } catch (DateTimeParseException ex) {
+                suggestion[0] = null;
+            }
+            suggestionLabel.setText(suggestion[0] == null ? "-" : suggestion[0].toString());
+            useSuggestionBtn.setEnabled(suggestion[0] != null);
+        };
+        FocusAdapter suggestOnFocusLost = new FocusAdapter() {
+            @Override
+            public void focusLost(FocusEvent e) {
+                updateSuggestion.run();
+            }
+        };
+        originCombo.addActionListener(e -> updateSuggestion.run());
+        destCombo.addActionListener(e -> updateSuggestion.run());
+        dateField.addFocusListener(suggestOnFocusLost);
+        timeField.addFocusListener(suggestOnFocusLost);
+        useSuggestionBtn.addActionListener(e -> priceSpinner.setValue(Math.min(suggestion[0].getPrice(), 100.0)));
+        updateSuggestion.run();
         postBtn.addActionListener(e -> {
             try {
                 String origin = (String) originCombo.getSelectedItem();
@@ -252,7 +345,23 @@ private void createHomePage() {
                 LocalTime time = LocalTime.parse(timeField.getText());
                 int seats = (int) seatsSpinner.getValue();
                 double price = (double) priceSpinner.getValue();
-                if (controller.postRide(origin, destination, date, time, seats, price)) {
+                Set<DayOfWeek> repeatDays = EnumSet.noneOf(DayOfWeek.class);
+                repeatBoxes.forEach((day, box) -> {
+                    if (box.isSelected()) {
+                        repeatDays.add(day);
+                    }
+                });
+                if (!repeatDays.isEmpty()) {
+                    // The date field is the first day the schedule applies from
+                    String until = untilField.getText().trim();
+                    LocalDate endDate = until.isEmpty() ? null : LocalDate.parse(until);
+                    if (controller.postRecurringRide(origin, destination, repeatDays, time, seats, price, date, endDate)) {
+                        JOptionPane.showMessageDialog(this, "Recurring ride posted successfully!");
+                        refreshMyRides(tableModel);
+                    } else {
+                        JOptionPane.showMessageDialog(this, "Failed to post recurring ride", "Error", JOptionPane.ERROR_MESSAGE);
+                    }
+                } else if (controller.postRide(origin, destination, date, time, seats, price)) {
                     JOptionPane.showMessageDialog(this, "Ride posted successfully!");
                     refreshMyRides(tableModel);
                 } else {
@@ -264,6 +373,7 @@ private void createHomePage() {
         });
         driverPanel.add(formPanel, BorderLayout.NORTH);
         driverPanel.add(scrollPane, BorderLayout.CENTER);
+        driverPanel.add(createPopularRoutesPanel(), BorderLayout.EAST);
         tabbedPane.addTab("Post Ride", driverPanel);
         refreshMyRides(tableModel);
     }
@@ -335,6 +445,29 @@ private void createHomePage() {
         return String.format("Role: %s",currentUser.getRole());
     }
     
+    // What passengers have been searching and asking for, by route and hour of the week
+    private JPanel createPopularRoutesPanel() {
+        JPanel panel = new JPanel(new BorderLayout(5, 5));
+        panel.setBorder(BorderFactory.createTitledBorder("Popular Routes"));
+        DefaultListModel<RouteDemand> demandModel = new DefaultListModel<>();
+        JList<RouteDemand> demandList = new JList<>(demandModel);
+        demandList.setToolTipText("Routes and times passengers want most; post then to fill seats");
+        JButton refreshBtn = new JButton("Refresh");
+        refreshBtn.addActionListener(e -> refreshPopularRoutes(demandModel));
+        panel.add(new JScrollPane(demandList), BorderLayout.CENTER);
+        panel.add(refreshBtn, BorderLayout.SOUTH);
+        panel.setPreferredSize(new Dimension(330, 0));
+        refreshPopularRoutes(demandModel);
+        return panel;
+    }
+
+    private void refreshPopularRoutes(DefaultListModel<RouteDemand> model) {
+        model.clear();
+        for (RouteDemand demand : controller.getPopularRoutes()) {
+            model.addElement(demand);
+        }
+    }
+
     private void updateRidesTable(DefaultTableModel model, List<Ride> rides) {
         model.setRowCount(0);
         for (Ride ride : rides) {
@@ -374,32 +507,156 @@ private void createHomePage() {
         }
     }
     
+    // Recurring rides past the materialized window are listed with id 0; there is no row to book yet
+    private boolean isBookable(int rideId) {
+        if (rideId > 0) {
+            return true;
+        }
+        JOptionPane.showMessageDialog(this, "This recurring ride opens for booking " +
+            Constants.SCHEDULE_WINDOW_DAYS + " days before it departs.");
+        return false;
+    }
+
     private void showBookRideDialog(int rideId) {
         Ride ride = controller.getRideById(rideId);
         if (ride == null) {
             JOptionPane.showMessageDialog(this, "Ride not found");
             return;
         }
+        if (ride.getSeatsAvailable() == 0) {
+            offerWaitlist(ride, "This ride is full.");
+            return;
+        }
         String[] options = new String[ride.getSeatsAvailable()];
         for (int i = 0; i < options.length; i++) options[i] = String.valueOf(i + 1);
         String selected = (String) JOptionPane.showInputDialog(this, "Select number of seats to book:", "Book Ride", JOptionPane.QUESTION_MESSAGE, null, options, options[0]);
         if (selected != null) {
             int seats = Integer.parseInt(selected);
-            if (controller.bookRide(rideId, seats)) {
+            SeatHold hold = controller.holdSeats(rideId, seats);
+            if (hold == null) {
+                Ride latest = controller.getRideById(rideId);
+                int left = latest != null ? latest.getSeatsAvailable() : 0;
+                offerWaitlist(ride, "Those seats are no longer available. " + left + " seat(s) left.");
+                return;
+            }
+            int confirm = JOptionPane.showConfirmDialog(this,
+                seats + " seat(s) are held for you until " +
+                hold.getExpiresAt().toLocalTime().format(DateTimeFormatter.ofPattern("HH:mm:ss")) +
+                ".\nConfirm booking?", "Confirm Booking", JOptionPane.YES_NO_OPTION);
+            if (confirm != JOptionPane.YES_OPTION) {
+                controller.releaseSeatHold(hold.getId());
+                return;
+            }
+            if (controller.confirmSeatHold(hold.getId())) {
                 JOptionPane.showMessageDialog(this, "Booking successful!");
-                int bookingsTabIndex = tabbedPane.indexOfTab("My Bookings");
-                if (bookingsTabIndex != -1) {
-                    JPanel bookingsPanel = (JPanel) tabbedPane.getComponentAt(bookingsTabIndex);
-                    JScrollPane scrollPane = (JScrollPane) bookingsPanel.getComponent(0);
-                    JTable bookingsTable = (JTable) scrollPane.getViewport().getView();
-                    refreshMyBookings((DefaultTableModel) bookingsTable.getModel());
-                }
+                refreshBookingsTab();
             } else {
-                JOptionPane.showMessageDialog(this, "Booking failed", "Error", JOptionPane.ERROR_MESSAGE);
+                JOptionPane.showMessageDialog(this, "Your seat hold expired. Please try again.", "Error", JOptionPane.ERROR_MESSAGE);
+            }
+        }
+    }
+
+    private void showPlanTripDialog() {
+        JPanel panel = new JPanel(new GridLayout(0, 2, 5, 5));
+        JComboBox<String> originCombo = new JComboBox<>(getDubaiDestinations());
+        JComboBox<String> destCombo = new JComboBox<>(getDubaiDestinations());
+        JTextField dateField = new JTextField(LocalDate.now().toString());
+        JTextField timeField = new JTextField(LocalTime.now().withSecond(0).withNano(0).toString());
+        JSpinner seatsSpinner = new JSpinner(new SpinnerNumberModel(1, 1, 8, 1));
+        panel.add(new JLabel("From:")); panel.add(originCombo);
+        panel.add(new JLabel("To:")); panel.add(destCombo);
+        panel.add(new JLabel("Leave after (date):")); panel.add(dateField);
+        panel.add(new JLabel("Leave after (time):")); panel.add(timeField);
+        panel.add(new JLabel("Seats:")); panel.add(seatsSpinner);
+        int result = JOptionPane.showConfirmDialog(this, panel, "Plan Trip", JOptionPane.OK_CANCEL_OPTION);
+        if (result != JOptionPane.OK_OPTION) {
+            return;
+        }
+        try {
+            LocalDateTime earliest = LocalDateTime.of(LocalDate.parse(dateField.getText()), LocalTime.parse(timeField.getText()));
+            List<Itinerary> itineraries = controller.planTrip((String) originCombo.getSelectedItem(),
+                (String) destCombo.getSelectedItem(), earliest, (int) seatsSpinner.getValue());
+            if (itineraries.isEmpty()) {
+                JOptionPane.showMessageDialog(this, "No trip found with up to 3 rides.");
+                return;
+            }
+            StringBuilder sb = new StringBuilder();
+            Itinerary fewest = itineraries.get(0);
+            Itinerary fastest = itineraries.get(itineraries.size() - 1);
+            sb.append("Fewest transfers (").append(fewest.getTransfers()).append("):\n").append(fewest.getSummary());
+            if (fastest != fewest) {
+                sb.append("\nEarliest arrival (").append(fastest.getTransfers()).append(" transfer(s)):\n")
+                  .append(fastest.getSummary());
             }
+            JOptionPane.showMessageDialog(this, sb.toString(), "Trip Options", JOptionPane.INFORMATION_MESSAGE);
+        } catch (Exception ex) {
+            JOptionPane.showMessageDialog(this, "Invalid date or time format", "Error", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    private void showGroupBookingDialog(int rideId) {
+        String input = JOptionPane.showInputDialog(this,
+            "Enter your friends' roll numbers, separated by commas.\nYou and each friend get one seat.",
+            "Book for Group", JOptionPane.QUESTION_MESSAGE);
+        if (input == null || input.trim().isEmpty()) {
+            return;
+        }
+        List<String> rollNumbers = new java.util.ArrayList<>();
+        for (String part : input.split(",")) {
+            if (!part.trim().isEmpty()) rollNumbers.add(part.trim());
+        }
+        if (controller.bookGroup(rideId, rollNumbers)) {
+            refreshBookingsTab();
+        } else {
+            JOptionPane.showMessageDialog(this, "Group booking failed. Nobody was booked.", "Error", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    private void refreshBookingsTab() {
+        int bookingsTabIndex = tabbedPane.indexOfTab("My Bookings");
+        if (bookingsTabIndex != -1) {
+            JPanel bookingsPanel = (JPanel) tabbedPane.getComponentAt(bookingsTabIndex);
+            JScrollPane scrollPane = (JScrollPane) bookingsPanel.getComponent(0);
+            JTable bookingsTable = (JTable) scrollPane.getViewport().getView();
+            refreshMyBookings((DefaultTableModel) bookingsTable.getModel());
+        }
+    }
+
+    private void offerWaitlist(Ride ride, String reason) {
+        int waiting = controller.getWaitingCount(ride.getId());
+        String[] options = new String[ride.getSeatsTotal()];
+        for (int i = 0; i < options.length; i++) options[i] = String.valueOf(i + 1);
+        String selected = (String) JOptionPane.showInputDialog(this,
+            reason + "\n" + waiting + " passenger(s) waiting. Join the waitlist for how many seats?",
+            "Join Waitlist", JOptionPane.QUESTION_MESSAGE, null, options, options[0]);
+        if (selected == null) {
+            return;
+        }
+        int position = controller.joinWaitlist(ride.getId(), Integer.parseInt(selected));
+        if (position > 0) {
+            JOptionPane.showMessageDialog(this, "You're #" + position + " on the waitlist. " +
+                "You'll be booked automatically if seats open up.");
+        } else {
+            JOptionPane.showMessageDialog(this, "Could not join the waitlist", "Error", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    // Runs on the notification thread
+    private void onNotification(Notification notification) {
+        List<Notification> unread = controller.takeUnreadNotifications();
+        if (!unread.isEmpty()) {
+            SwingUtilities.invokeLater(() -> showNotifications(unread));
         }
     }
 
+    private void showNotifications(List<Notification> notifications) {
+        StringBuilder sb = new StringBuilder();
+        for (Notification n : notifications) {
+            sb.append(n.getMessage()).append("\n");
+        }
+        JOptionPane.showMessageDialog(this, sb.toString().trim(), "Notifications", JOptionPane.INFORMATION_MESSAGE);
+    }
+
     private void showRideDetails(int rideId) {
         Ride ride = controller.getRideById(rideId);
         if (ride != null) {
@@ -467,11 +724,17 @@ private void createHomePage() {
     
     private void loadDashboardData() {
         statsLabel.setText(getUserQuickStats());
+        controller.subscribeToNotifications(notificationListener);
+        List<Notification> unread = controller.takeUnreadNotifications();
+        if (!unread.isEmpty()) {
+            SwingUtilities.invokeLater(() -> showNotifications(unread));
+        }
     }
     
     private void handleLogout() {
         int confirm = JOptionPane.showConfirmDialog(this, "Are you sure you want to logout?", "Confirm Logout", JOptionPane.YES_NO_OPTION);
         if (confirm == JOptionPane.YES_OPTION) {
+            controller.unsubscribeFromNotifications(notificationListener);
             controller.logout();
             dispose();
             new LoginView().setVisible(true);
@@ -1,13 +1,17 @@
 package views;
 
+import models.PriceSuggestion;
 import models.Ride;
 import services.RideService;
 import utils.NotificationCenter;
 
 import javax.swing.*;
 import java.awt.*;
+import java.awt.event.FocusAdapter;
+import java.awt.event.FocusEvent;
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
 
 public class PostRideView extends JFrame {
 
@@ -22,6 +26,7 @@ public class PostRideView extends JFrame {
     private JTextField priceField;
     private JTextField dateField;
     private JTextField timeField;
+    private JLabel suggestionLabel;
 
     public PostRideView(int driverId, String driverName) {
         this.driverId = driverId;
@@ -61,8 +66,22 @@ public class PostRideView extends JFrame {
 
         add(new JLabel("Price per Seat (AED):"));
         priceField = new JTextField();
+        // Fill in the suggestion when the driver reaches the price with it still empty
+        priceField.addFocusListener(new FocusAdapter() {
+            @Override
+            public void focusGained(FocusEvent e) {
+                PriceSuggestion suggestion = updateSuggestion();
+                if (suggestion != null && priceField.getText().trim().isEmpty()) {
+                    priceField.setText(String.valueOf(suggestion.getPrice()));
+                }
+            }
+        });
         add(priceField);
 
+        add(new JLabel("Suggested Price:"));
+        suggestionLabel = new JLabel("-");
+        add(suggestionLabel);
+
         add(new JLabel("Vehicle Info (e.g., Tesla Model 3):"));
         vehicleField = new JTextField();
         add(vehicleField);
@@ -111,6 +130,23 @@ public class PostRideView extends JFrame {
         }
     }
 
+    // Null until the route, date and time are filled in
+    private PriceSuggestion updateSuggestion() {
+        String origin = originField.getText().trim();
+        String destination = destinationField.getText().trim();
+        PriceSuggestion suggestion = null;
+        if (!origin.isEmpty() && !destination.isEmpty() && !origin.equals(destination)) {
+            try {
+                suggestion = rideService.suggestPrice(origin, destination,
+                        LocalDate.parse(dateField.getText().trim()), LocalTime.parse(timeField.getText().trim()));
+            } catch (DateTimeParseException e) {
+                suggestion = null;
+            }
+        }
+        suggestionLabel.setText(suggestion == null ? "-" : suggestion.toString());
+        return suggestion;
+    }
+
     private void clearFields() {
         originField.setText("");
         destinationField.setText("");
@@ -119,6 +155,7 @@ public class PostRideView extends JFrame {
         seatsField.setText("");
         priceField.setText("");
         vehicleField.setText("");
+        suggestionLabel.setText("-");
     }
 
     public void display() {
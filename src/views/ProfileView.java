@@ -7,7 +7,8 @@ import java.util.List;
 import controllers.ProfileController;
 import models.User;
 import models.Rating;
-import models.Ride;
+import models.RideHistoryEntry;
+import utils.Constants;
 
 
 
@@ -17,6 +18,14 @@ public class ProfileView extends JFrame {
     private JButton btnChangePass, btnEditProfile, btnBack;
     private ProfileController controller;
 
+    // Ride history is fetched a page at a time as the list is scrolled
+    private DefaultListModel<RideHistoryEntry> historyModel;
+    private JList<RideHistoryEntry> historyList;
+    private JScrollPane historyScroll;
+    private SwingWorker<List<RideHistoryEntry>, Void> runningPage;
+    private int historyGeneration;
+    private boolean historyExhausted;
+
     public ProfileView(ProfileController controller) {
         this.controller = controller;
         controller.setView(this);     
@@ -26,8 +35,8 @@ public class ProfileView extends JFrame {
 
     private void initUI() {
         setTitle("My Profile");
-        setSize(450, 400);
-        setLayout(new GridLayout(10, 1));
+        setSize(600, 550);
+        setLayout(new BorderLayout());
         setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
 
         lblName = new JLabel();
@@ -42,16 +51,35 @@ public class ProfileView extends JFrame {
         btnEditProfile = new JButton("Edit Profile");
         btnBack = new JButton("Back to Dashboard");
 
-        add(lblName);
-        add(lblRoll);
-        add(lblEmail);
-        add(lblWarnings);
-        add(lblBlacklist);
-        add(lblRatings);
-        add(lblRideHistory);
-        add(btnChangePass);
-        add(btnEditProfile);
-        add(btnBack);
+        JPanel details = new JPanel(new GridLayout(6, 1));
+        details.add(lblName);
+        details.add(lblRoll);
+        details.add(lblEmail);
+        details.add(lblWarnings);
+        details.add(lblBlacklist);
+        details.add(lblRatings);
+        add(details, BorderLayout.NORTH);
+
+        historyModel = new DefaultListModel<>();
+        historyList = new JList<>(historyModel);
+        historyScroll = new JScrollPane(historyList);
+        historyScroll.setBorder(BorderFactory.createTitledBorder("Ride History"));
+        historyScroll.getVerticalScrollBar().addAdjustmentListener(e -> {
+            if (!e.getValueIsAdjusting()) {
+                loadMoreIfNeeded();
+            }
+        });
+        add(historyScroll, BorderLayout.CENTER);
+
+        JPanel buttons = new JPanel();
+        buttons.add(btnChangePass);
+        buttons.add(btnEditProfile);
+        buttons.add(btnBack);
+
+        JPanel bottom = new JPanel(new BorderLayout());
+        bottom.add(lblRideHistory, BorderLayout.NORTH);
+        bottom.add(buttons, BorderLayout.SOUTH);
+        add(bottom, BorderLayout.SOUTH);
 
         btnChangePass.addActionListener(e -> new ChangePasswordView(controller));
         btnEditProfile.addActionListener(e -> new EditProfileView(controller));
@@ -60,14 +88,74 @@ public class ProfileView extends JFrame {
         setVisible(true);
     }
 
-    public void showProfileDetails(User u, List<Rating> ratings, List<Ride> rides) {
+    public void showProfileDetails(User u, List<Rating> ratings) {
         lblName.setText("Name: " + u.getName());
         lblRoll.setText("Roll No: " + u.getRollNumber());
         lblEmail.setText("Email: " + u.getEmail());
         lblWarnings.setText("Warnings: " + u.getWarnings());
         lblBlacklist.setText("Blacklist Until: " + u.getBlacklistUntil());
-        lblRatings.setText("Total Ratings: " + ratings.size());
-        lblRideHistory.setText("Ride History Count: " + rides.size());
+        lblRatings.setText(String.format("Rating: %.2f (%d ratings)", u.getRating(), u.getTotalRatings()));
+    }
+
+    // Drops what has been shown so far and starts again from the newest ride
+    public void resetRideHistory() {
+        if (runningPage != null) {
+            runningPage.cancel(true);
+            runningPage = null;
+        }
+        historyGeneration++;
+        historyExhausted = false;
+        historyModel.clear();
+        loadNextPage();
+    }
+
+    // Fetches the next page once the list is scrolled near the end, or doesn't fill the view yet
+    private void loadMoreIfNeeded() {
+        if (runningPage != null || historyExhausted) {
+            return;
+        }
+        JScrollBar bar = historyScroll.getVerticalScrollBar();
+        int rowHeight = Math.max(historyList.getFixedCellHeight(), 16);
+        if (bar.getValue() + bar.getVisibleAmount() >= bar.getMaximum() - 5 * rowHeight) {
+            loadNextPage();
+        }
+    }
+
+    private void loadNextPage() {
+        final int generation = historyGeneration;
+        final RideHistoryEntry after = historyModel.isEmpty() ? null : historyModel.lastElement();
+        lblRideHistory.setText("Loading ride history...");
+
+        runningPage = new SwingWorker<List<RideHistoryEntry>, Void>() {
+            @Override
+            protected List<RideHistoryEntry> doInBackground() {
+                return controller.loadRideHistoryPage(after);
+            }
+
+            @Override
+            protected void done() {
+                if (isCancelled() || generation != historyGeneration) {
+                    return;
+                }
+                runningPage = null;
+                try {
+                    List<RideHistoryEntry> page = get();
+                    historyExhausted = page.size() < Constants.HISTORY_PAGE_SIZE;
+                    for (RideHistoryEntry entry : page) {
+                        historyModel.addElement(entry);
+                    }
+                } catch (Exception e) {
+                    historyExhausted = true;
+                    lblRideHistory.setText("Could not load ride history: " + e.getMessage());
+                    return;
+                }
+                lblRideHistory.setText(historyModel.isEmpty() ? "No rides yet"
+                        : historyModel.size() + (historyExhausted ? " ride(s)" : "+ ride(s), scroll for more"));
+                // A short first page may not fill the list; keep going until it scrolls
+                SwingUtilities.invokeLater(ProfileView.this::loadMoreIfNeeded);
+            }
+        };
+        runningPage.execute();
     }
 
     public void showMessage(String msg) {
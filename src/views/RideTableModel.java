@@ -0,0 +1,66 @@
+package views;
+
+import models.Ride;
+
+import javax.swing.table.AbstractTableModel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Table model backed directly by a list of rides. Replacing the list fires
+ * one table-changed event, instead of a delete per row and an insert per
+ * row as with DefaultTableModel.setRowCount(0) followed by addRow.
+ */
+public class RideTableModel extends AbstractTableModel {
+
+    private static final String[] COLUMNS =
+        {"ID", "Driver", "From", "To", "Date", "Time", "Seats", "Price (AED)", "Vehicle"};
+
+    private List<Ride> rides = new ArrayList<>();
+
+    public void setRides(List<Ride> rides) {
+        this.rides = new ArrayList<>(rides);
+        fireTableDataChanged();
+    }
+
+    public List<Ride> getRides() {
+        return rides;
+    }
+
+    public Ride getRideAt(int row) {
+        return rides.get(row);
+    }
+
+    @Override
+    public int getRowCount() {
+        return rides.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMNS[column];
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        Ride r = rides.get(row);
+        switch (column) {
+            // Recurring rides past the materialized window have no row yet
+            case 0: return r.getId() > 0 ? r.getId() : "Recurring";
+            case 1: return r.getDriverName();
+            case 2: return r.getOrigin();
+            case 3: return r.getDestination();
+            case 4: return r.getDepartureDate();
+            case 5: return r.getDepartureTime();
+            case 6: return r.getSeatsAvailable();
+            case 7: return r.getPricePerSeat();
+            case 8: return r.getVehicleInfo();
+            default: return null;
+        }
+    }
+}
@@ -2,25 +2,45 @@ package views;
 
 import controllers.RideController;
 import models.Ride;
+import utils.Constants;
+import utils.Log;
+import utils.Logger;
 
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import java.awt.*;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 
   public class SearchRideView extends JFrame {
 
+  private static final Logger LOG = Log.getLogger(SearchRideView.class);
+
   private RideController rideController;
   private JTable rideTable;
-  private DefaultTableModel tableModel;
-  private JTextField txtOrigin, txtDestination;
+  private RideTableModel tableModel;
+  private JTextField txtOrigin, txtDestination, txtDriver;
   private JTextField txtDate;
+  private JTextField txtFromTime, txtToTime;
+  private JLabel lblStatus;
+
+  // Live search state; only touched on the EDT
+  private Timer debounceTimer;
+  private SwingWorker<List<Ride>, Void> runningSearch;
+  private int searchGeneration;
+  private SearchQuery lastQuery;
+  private List<Ride> lastResults;
 
   public SearchRideView(RideController rideController) {
   this.rideController = rideController;
   setTitle("Search Rides - Campus Carpool");
-  setSize(900, 450);
+  setSize(1250, 450);
   setLocationRelativeTo(null);
   setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
 
@@ -44,63 +64,242 @@ import java.util.List;
    txtDestination = new JTextField(10);
    topPanel.add(txtDestination);
 
+   topPanel.add(new JLabel("Driver:"));
+   txtDriver = new JTextField(8);
+   topPanel.add(txtDriver);
+
    topPanel.add(new JLabel("Date (YYYY-MM-DD):"));
    txtDate = new JTextField(8);
    topPanel.add(txtDate);
 
+   topPanel.add(new JLabel("Between (HH:MM):"));
+   txtFromTime = new JTextField(4);
+   topPanel.add(txtFromTime);
+   topPanel.add(new JLabel("and"));
+   txtToTime = new JTextField(4);
+   topPanel.add(txtToTime);
+
    JButton btnSearch = new JButton("Search");
    btnSearch.addActionListener(e -> searchRides());
    topPanel.add(btnSearch);
 
    add(topPanel, BorderLayout.NORTH);
 
-   tableModel = new DefaultTableModel(
-           new String[]{"ID", "Driver", "From", "To", "Date", "Time", "Seats", "Price (AED)", "Vehicle"},
-           0
-   );
+   tableModel = new RideTableModel();
    rideTable = new JTable(tableModel);
    JScrollPane scrollPane = new JScrollPane(rideTable);
    add(scrollPane, BorderLayout.CENTER);
 
+   lblStatus = new JLabel(" ");
+   add(lblStatus, BorderLayout.SOUTH);
 
+   // Search as the user types, once they pause
+   debounceTimer = new Timer(Constants.SEARCH_DEBOUNCE_MS, e -> liveSearch());
+   debounceTimer.setRepeats(false);
+   DocumentListener typing = new DocumentListener() {
+       public void insertUpdate(DocumentEvent e) { debounceTimer.restart(); }
+       public void removeUpdate(DocumentEvent e) { debounceTimer.restart(); }
+       public void changedUpdate(DocumentEvent e) { debounceTimer.restart(); }
+   };
+   for (JTextField field : new JTextField[]{txtOrigin, txtDestination, txtDriver, txtDate, txtFromTime, txtToTime}) {
+       field.getDocument().addDocumentListener(typing);
+   }
+
+   liveSearch();
   }
 
+  // Search button: always re-queries, runs now and reports bad input
   private void searchRides() {
-  tableModel.setRowCount(0);
+   debounceTimer.stop();
+   lastResults = null;
+   try {
+       SearchQuery query = readQuery();
+       rideController.recordSearchDemand(query.origin, query.destination, query.from);
+       runSearch(query);
+   } catch (DateTimeParseException e) {
+       JOptionPane.showMessageDialog(this, "Error searching rides: " + e.getMessage(),
+               "Error", JOptionPane.ERROR_MESSAGE);
+   }
+  }
 
-   String origin = txtOrigin.getText().trim();
-   String destination = txtDestination.getText().trim();
-   String dateStr = txtDate.getText().trim();
+  // While typing, half-entered dates and times are simply not searched yet
+  private void liveSearch() {
+   try {
+       runSearch(readQuery());
+   } catch (DateTimeParseException e) {
+       lblStatus.setText("Waiting for a complete date/time...");
+   }
+  }
 
-   List<Ride> rides;
+  private void runSearch(SearchQuery query) {
+   if (runningSearch != null) {
+       // Not interrupted mid-query; its result is dropped by the generation check
+       runningSearch.cancel(false);
+       runningSearch = null;
+   }
+   int generation = ++searchGeneration;
 
-   try {
-       if (!origin.isEmpty() && !destination.isEmpty()) {
-           rides = rideController.searchRidesByRoute(origin, destination);
-       } else if (!destination.isEmpty()) {
-           rides = rideController.searchRidesByDestination(destination);
-       } else if (!dateStr.isEmpty()) {
-           LocalDate date = LocalDate.parse(dateStr);
-           rides = rideController.searchRidesByDate(date);
-       } else {
-           rides = rideController.searchAllRides();
+   // Typing more of the same query only narrows it: filter what we already have
+   if (lastResults != null && query.refines(lastQuery)) {
+       showResults(query, filter(lastResults, query), true);
+       return;
+   }
+
+   lblStatus.setText("Searching...");
+   runningSearch = new SwingWorker<List<Ride>, Void>() {
+       private boolean refinable = true;
+
+       @Override
+       protected List<Ride> doInBackground() {
+           List<Ride> candidates = query.hasWindow()
+                   ? rideController.searchRidesDepartingBetween(null, null, query.from, query.to)
+                   : rideController.searchAllRides();
+           if (isCancelled()) {
+               return null;
+           }
+           List<Ride> rides = filter(candidates, query);
+           if (rides.isEmpty() && query.hasText() && !isCancelled()) {
+               // Nothing contains the typed text; let the fuzzy matcher guess what was meant
+               refinable = false;
+               rides = fuzzySearch(query);
+           }
+           return rides;
        }
 
-       for (Ride r : rides) {
-           tableModel.addRow(new Object[]{
-                   r.getId(), r.getDriverName(), r.getOrigin(), r.getDestination(),
-                   r.getDepartureDate(), r.getDepartureTime(),
-                   r.getSeatsAvailable(), r.getPricePerSeat(), r.getVehicleInfo()
-           });
+       @Override
+       protected void done() {
+           if (isCancelled() || generation != searchGeneration) {
+               return;
+           }
+           try {
+               showResults(query, get(), refinable);
+           } catch (Exception e) {
+               lblStatus.setText("Search failed: " + e.getMessage());
+               LOG.error("Ride search failed", e);
+           }
        }
+   };
+   runningSearch.execute();
+  }
 
-   } catch (Exception e) {
-       JOptionPane.showMessageDialog(this, "Error searching rides: " + e.getMessage(),
-               "Error", JOptionPane.ERROR_MESSAGE);
-       e.printStackTrace();
+  // The fuzzy paths guess places and drivers; any window is applied to their guesses
+  private List<Ride> fuzzySearch(SearchQuery query) {
+   boolean byRoute = !query.origin.isEmpty() && !query.destination.isEmpty();
+   if (query.hasWindow() && byRoute) {
+       return rideController.searchRidesDepartingBetween(query.origin, query.destination, query.from, query.to);
    }
 
+   List<Ride> guesses;
+   if (!query.driver.isEmpty()) {
+       guesses = rideController.searchRidesByDriver(query.driver);
+   } else if (byRoute) {
+       guesses = rideController.searchRidesByRoute(query.origin, query.destination);
+   } else if (!query.destination.isEmpty()) {
+       guesses = rideController.searchRidesByDestination(query.destination);
+   } else {
+       // An origin on its own has no fuzzy path
+       return new ArrayList<>();
+   }
 
+   List<Ride> rides = new ArrayList<>();
+   for (Ride r : guesses) {
+       if (query.inWindow(r)) {
+           rides.add(r);
+       }
+   }
+   return rides;
+  }
+
+  private void showResults(SearchQuery query, List<Ride> rides, boolean refinable) {
+   runningSearch = null;
+   lastQuery = query;
+   lastResults = refinable ? rides : null;
+   tableModel.setRides(rides);
+   lblStatus.setText(rides.size() + " ride(s) found");
+  }
+
+  private static List<Ride> filter(List<Ride> rides, SearchQuery query) {
+   List<Ride> matches = new ArrayList<>();
+   for (Ride r : rides) {
+       if (query.matches(r)) {
+           matches.add(r);
+       }
+   }
+   return matches;
+  }
+
+  private SearchQuery readQuery() {
+   String dateStr = txtDate.getText().trim();
+   LocalDateTime from = null;
+   LocalDateTime to = null;
+   if (!dateStr.isEmpty()) {
+       // A date narrows to a departure window
+       LocalDate date = LocalDate.parse(dateStr);
+       String fromStr = txtFromTime.getText().trim();
+       String toStr = txtToTime.getText().trim();
+       from = fromStr.isEmpty() ? date.atStartOfDay() : date.atTime(LocalTime.parse(fromStr));
+       to = toStr.isEmpty() ? date.plusDays(1).atStartOfDay() : date.atTime(LocalTime.parse(toStr));
+   }
+   return new SearchQuery(txtOrigin.getText(), txtDestination.getText(), txtDriver.getText(), from, to);
+  }
+
+  /**
+   * What the fields currently ask for. Text matches case-insensitively
+   * anywhere in the place or driver name, so a query refines another when
+   * each of its texts contains the other's and its window lies inside.
+   */
+  private static class SearchQuery {
+   final String origin;
+   final String destination;
+   final String driver;
+   final LocalDateTime from;
+   final LocalDateTime to;
+
+   SearchQuery(String origin, String destination, String driver, LocalDateTime from, LocalDateTime to) {
+       this.origin = origin.trim().toLowerCase(Locale.ROOT);
+       this.destination = destination.trim().toLowerCase(Locale.ROOT);
+       this.driver = driver.trim().toLowerCase(Locale.ROOT);
+       this.from = from;
+       this.to = to;
+   }
+
+   boolean hasWindow() {
+       return from != null;
+   }
+
+   boolean hasText() {
+       return !origin.isEmpty() || !destination.isEmpty() || !driver.isEmpty();
+   }
+
+   boolean matches(Ride r) {
+       return contains(r.getOrigin(), origin)
+               && contains(r.getDestination(), destination)
+               && contains(r.getDriverName(), driver)
+               && inWindow(r);
+   }
+
+   boolean inWindow(Ride r) {
+       LocalDateTime departure = LocalDateTime.of(r.getDepartureDate(), r.getDepartureTime());
+       return (from == null || !departure.isBefore(from)) && (to == null || departure.isBefore(to));
+   }
+
+   boolean refines(SearchQuery previous) {
+       if (previous == null) {
+           return false;
+       }
+       boolean textNarrower = origin.contains(previous.origin)
+               && destination.contains(previous.destination)
+               && driver.contains(previous.driver);
+       // Adding a window re-queries: dates past the loaded range may need fetching
+       boolean windowInside = (previous.from == null && from == null)
+               || (from != null && previous.from != null
+                   && !from.isBefore(previous.from) && !to.isAfter(previous.to));
+       return textNarrower && windowInside;
+   }
+
+   private static boolean contains(String value, String typed) {
+       return typed.isEmpty() || (value != null && value.toLowerCase(Locale.ROOT).contains(typed));
+   }
   }
 
   public void display() {